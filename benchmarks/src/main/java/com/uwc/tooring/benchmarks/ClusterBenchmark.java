@@ -0,0 +1,403 @@
+package com.uwc.tooring.benchmarks;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.hazelcast.core.DistributedObject;
+import com.hazelcast.core.EntryAdapter;
+import com.hazelcast.core.EntryEvent;
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.core.IMap;
+import com.hazelcast.core.ReplicatedMap;
+import com.uwc.tooring.TooringApplication;
+import com.uwc.tooring.TuringService;
+import com.uwc.tooring.model.ExecutionRecord;
+import com.uwc.tooring.monitoring.EngineMetrics;
+import com.uwc.tooring.scheduling.ExecutionTracker;
+import com.uwc.tooring.turing.impl.DefaultTuringMachine;
+import org.apache.commons.cli.CommandLine;
+import org.apache.commons.cli.DefaultParser;
+import org.apache.commons.cli.Option;
+import org.apache.commons.cli.Options;
+import org.apache.commons.io.FileUtils;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * End-to-end load harness: starts N in-process cluster members as workers plus a submitter member,
+ * drives a mix of Turing machines through submit, schedule, execute and get, and reports throughput, latencies and memory.
+ * Members join each other over TCP-IP on the loopback interface, so no external services are required.
+ */
+public class ClusterBenchmark {
+
+    private static final String MEMBERS = "members";
+    private static final String JOBS = "jobs";
+    private static final String MIX = "mix";
+    private static final String RATE = "rate";
+    private static final String TIMEOUT = "timeout";
+    private static final String OUTPUT = "output";
+
+    /**
+     * Default mix of machines: program:tapeLength:weight, comma-separated.
+     */
+    public static final String DEFAULT_MIX = "bubbleSort:64:4,bubbleSort:512:1,binaryEquality:256:3,sweep:65536:2";
+
+    /**
+     * First port of cluster members.
+     */
+    public static final int FIRST_PORT = 5701;
+
+    /**
+     * Interval of polling for finished jobs in milliseconds.
+     */
+    public static final long POLL_INTERVAL = 50L;
+
+    private static final String SUBMITTER_ID = "benchmark-submitter";
+
+    private final int membersCount;
+    private final int jobsCount;
+    private final List<String[]> mix;
+    private final double rate;
+    private final long timeout;
+
+    private final List<ConfigurableApplicationContext> workers = new ArrayList<>();
+    private ConfigurableApplicationContext submitter;
+    private ExecutorService workerThreads;
+
+    private final Map<String, Long> scheduledAt = new ConcurrentHashMap<>();
+    private final Map<String, Long> dispatchedAt = new ConcurrentHashMap<>();
+    private final Map<String, Long> doneAt = new ConcurrentHashMap<>();
+    private final List<Long> getLatencies = new ArrayList<>();
+
+    /**
+     * Constructor accepting all required parameters for building the harness.
+     *
+     * @param membersCount Number of worker members
+     * @param jobsCount    Number of jobs to submit
+     * @param mix          Mix of machines: program:tapeLength:weight, comma-separated
+     * @param rate         Submission rate in jobs per second (0 for submitting all jobs at once)
+     * @param timeout      Maximal time of waiting for results in seconds
+     */
+    public ClusterBenchmark(int membersCount, int jobsCount, String mix, double rate, long timeout) {
+        this.membersCount = membersCount;
+        this.jobsCount = jobsCount;
+        this.mix = new ArrayList<>();
+        for (String entry : mix.split(",")) {
+            String[] parts = entry.trim().split(":");
+            if (parts.length != 3) {
+                throw new IllegalArgumentException("Mix entry should look like program:tapeLength:weight, got " + entry);
+            }
+            this.mix.add(parts);
+        }
+        this.rate = rate;
+        this.timeout = timeout;
+    }
+
+    /**
+     * Runs the harness.
+     *
+     * @param args Command line arguments
+     * @throws Exception
+     */
+    public static void main(String[] args) throws Exception {
+        Options options = new Options();
+        options.addOption(new Option(MEMBERS, MEMBERS, true, "number of worker members (default 3)"));
+        options.addOption(new Option(JOBS, JOBS, true, "number of jobs to submit (default 200)"));
+        options.addOption(new Option(MIX, MIX, true, "mix of machines as program:tapeLength:weight, comma-separated (default " + DEFAULT_MIX + ")"));
+        options.addOption(new Option(RATE, RATE, true, "submission rate in jobs per second, 0 for submitting all jobs at once (default 0)"));
+        options.addOption(new Option(TIMEOUT, TIMEOUT, true, "maximal time of waiting for results in seconds (default 600)"));
+        options.addOption(new Option(OUTPUT, OUTPUT, true, "filename to save the report (JSON document) to"));
+        CommandLine cmd = new DefaultParser().parse(options, args);
+
+        ClusterBenchmark benchmark = new ClusterBenchmark(
+                Integer.parseInt(cmd.getOptionValue(MEMBERS, "3")),
+                Integer.parseInt(cmd.getOptionValue(JOBS, "200")),
+                cmd.getOptionValue(MIX, DEFAULT_MIX),
+                Double.parseDouble(cmd.getOptionValue(RATE, "0")),
+                Long.parseLong(cmd.getOptionValue(TIMEOUT, "600")));
+        Map<String, Object> report;
+        try {
+            benchmark.start();
+            report = benchmark.run();
+        } finally {
+            benchmark.stop();
+        }
+
+        String json = new GsonBuilder().setPrettyPrinting().create().toJson(report);
+        System.out.println(json);
+        if (cmd.hasOption(OUTPUT)) {
+            FileUtils.writeStringToFile(new File(cmd.getOptionValue(OUTPUT)), json);
+        }
+        System.exit(0);
+    }
+
+    /**
+     * Starts worker members and the submitter member.
+     */
+    public void start() {
+        StringBuilder addresses = new StringBuilder();
+        for (int i = 0; i <= membersCount; i++) {
+            addresses.append(i == 0 ? "" : ",").append("127.0.0.1:").append(FIRST_PORT + i);
+        }
+        workerThreads = Executors.newFixedThreadPool(membersCount);
+        for (int i = 0; i < membersCount; i++) {
+            ConfigurableApplicationContext worker = startMember(addresses.toString());
+            workers.add(worker);
+            String id = "benchmark-worker-" + i;
+            workerThreads.submit(() -> worker.getBean(TuringService.class).startAsWorker(id));
+        }
+        submitter = startMember(addresses.toString());
+
+        HazelcastInstance hazelcastInstance = submitter.getBean(HazelcastInstance.class);
+        ReplicatedMap<String, DefaultTuringMachine> tasksMap = hazelcastInstance.getReplicatedMap(TuringService.TASKS_MAP);
+        tasksMap.addEntryListener(new EntryAdapter<String, DefaultTuringMachine>() {
+            @Override
+            public void entryUpdated(EntryEvent<String, DefaultTuringMachine> event) {
+                if (event.getValue().isDone()) {
+                    doneAt.putIfAbsent(event.getKey(), System.nanoTime());
+                }
+            }
+        });
+        IMap<String, ExecutionRecord> executionsMap = hazelcastInstance.getMap(ExecutionTracker.EXECUTIONS_MAP);
+        executionsMap.addEntryListener(new EntryAdapter<String, ExecutionRecord>() {
+            @Override
+            public void entryAdded(EntryEvent<String, ExecutionRecord> event) {
+                dispatchedAt.putIfAbsent(event.getKey(), System.nanoTime());
+            }
+        }, false);
+    }
+
+    /**
+     * Submits and schedules all jobs, waits for results and fetches them.
+     *
+     * @return Report
+     * @throws InterruptedException
+     */
+    public Map<String, Object> run() throws InterruptedException {
+        TuringService turingService = submitter.getBean(TuringService.class);
+        Gson gson = new Gson();
+        Random random = new Random(Programs.SEED);
+        List<String> jobs = createJobs(random, gson);
+
+        long startedAt = System.nanoTime();
+        long interval = rate <= 0 ? 0 : (long) (TimeUnit.SECONDS.toNanos(1) / rate);
+        List<String> keys = new ArrayList<>();
+        for (int i = 0; i < jobs.size(); i++) {
+            if (interval > 0) {
+                long delay = startedAt + i * interval - System.nanoTime();
+                if (delay > 0) {
+                    TimeUnit.NANOSECONDS.sleep(delay);
+                }
+            }
+            String key = turingService.processInputJSON(jobs.get(i));
+            scheduledAt.put(key, System.nanoTime());
+            turingService.scheduleExecution(SUBMITTER_ID, key);
+            keys.add(key);
+        }
+        long submittedAt = System.nanoTime();
+
+        ReplicatedMap<String, DefaultTuringMachine> tasksMap = submitter.getBean(HazelcastInstance.class).getReplicatedMap(TuringService.TASKS_MAP);
+        long deadline = submittedAt + TimeUnit.SECONDS.toNanos(timeout);
+        List<String> pending = new ArrayList<>(keys);
+        while (!pending.isEmpty() && System.nanoTime() < deadline) {
+            pending.removeIf(key -> {
+                if (doneAt.containsKey(key)) {
+                    return true;
+                }
+                DefaultTuringMachine turingMachine = tasksMap.get(key);
+                if (turingMachine != null && turingMachine.isDone()) {
+                    doneAt.putIfAbsent(key, System.nanoTime());
+                    return true;
+                }
+                return false;
+            });
+            TimeUnit.MILLISECONDS.sleep(POLL_INTERVAL);
+        }
+        long finishedAt = System.nanoTime();
+
+        for (String key : keys) {
+            if (!doneAt.containsKey(key)) {
+                continue;
+            }
+            long getStartedAt = System.nanoTime();
+            Optional<String> output = turingService.processOutput(key);
+            if (output.isPresent()) {
+                getLatencies.add(System.nanoTime() - getStartedAt);
+            }
+        }
+
+        return report(keys, startedAt, submittedAt, finishedAt);
+    }
+
+    /**
+     * Stops all members.
+     */
+    public void stop() {
+        for (ConfigurableApplicationContext worker : workers) {
+            worker.getBean(TuringService.class).setWorker(false);
+        }
+        if (workerThreads != null) {
+            workerThreads.shutdown();
+        }
+        for (ConfigurableApplicationContext worker : workers) {
+            worker.close();
+        }
+        if (submitter != null) {
+            submitter.close();
+        }
+    }
+
+    /**
+     * Starts in-process cluster member.
+     *
+     * @param addresses Addresses of all members for TCP-IP join
+     * @return Application context of the member
+     */
+    private ConfigurableApplicationContext startMember(String addresses) {
+        return new SpringApplicationBuilder(TooringApplication.class)
+                .web(false)
+                .properties("tooring.hazelcast.members=" + addresses, "spring.jmx.enabled=false")
+                .run();
+    }
+
+    /**
+     * Generates JSON descriptions of machines according to the mix.
+     *
+     * @param random Source of randomness
+     * @param gson   JSON serializer
+     * @return JSON descriptions of machines
+     */
+    private List<String> createJobs(Random random, Gson gson) {
+        int totalWeight = 0;
+        for (String[] entry : mix) {
+            totalWeight += Integer.parseInt(entry[2]);
+        }
+        List<String> jobs = new ArrayList<>();
+        for (int i = 0; i < jobsCount; i++) {
+            int choice = random.nextInt(totalWeight);
+            for (String[] entry : mix) {
+                choice -= Integer.parseInt(entry[2]);
+                if (choice < 0) {
+                    DefaultTuringMachine turingMachine = Programs.create(entry[0], Programs.SWEEP_STATES);
+                    turingMachine.setTape(Programs.tape(entry[0], Integer.parseInt(entry[1]), random));
+                    jobs.add(gson.toJson(turingMachine));
+                    break;
+                }
+            }
+        }
+        return jobs;
+    }
+
+    /**
+     * Builds report of the run.
+     *
+     * @param keys        Keys of submitted machines
+     * @param startedAt   Time of the first submission
+     * @param submittedAt Time of the last submission
+     * @param finishedAt  Time of the last result (or of the timeout)
+     * @return Report
+     */
+    private Map<String, Object> report(List<String> keys, long startedAt, long submittedAt, long finishedAt) {
+        List<Long> dispatchLatencies = new ArrayList<>();
+        List<Long> endToEndLatencies = new ArrayList<>();
+        long lastDoneAt = startedAt;
+        for (String key : keys) {
+            Long scheduled = scheduledAt.get(key);
+            Long dispatched = dispatchedAt.get(key);
+            Long done = doneAt.get(key);
+            if (dispatched != null) {
+                dispatchLatencies.add(dispatched - scheduled);
+            }
+            if (done != null) {
+                endToEndLatencies.add(done - scheduled);
+                lastDoneAt = Math.max(lastDoneAt, done);
+            }
+        }
+        double seconds = (lastDoneAt - startedAt) / 1e9;
+
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("members", membersCount);
+        report.put("mix", mix.stream().map(e -> String.join(":", e)).toArray());
+        report.put("jobsSubmitted", keys.size());
+        report.put("jobsCompleted", endToEndLatencies.size());
+        report.put("submissionSeconds", (submittedAt - startedAt) / 1e9);
+        report.put("totalSeconds", (finishedAt - startedAt) / 1e9);
+        report.put("jobsPerSecond", seconds == 0 ? 0 : endToEndLatencies.size() / seconds);
+        report.put("dispatchLatencyMillis", percentiles(dispatchLatencies));
+        report.put("endToEndLatencyMillis", percentiles(endToEndLatencies));
+        report.put("getLatencyMillis", percentiles(getLatencies));
+
+        List<Map<String, Object>> members = new ArrayList<>();
+        for (ConfigurableApplicationContext worker : workers) {
+            members.add(memberReport(worker));
+        }
+        report.put("workers", members);
+        report.put("submitter", memberReport(submitter));
+        Runtime runtime = Runtime.getRuntime();
+        report.put("jvmUsedHeapBytes", runtime.totalMemory() - runtime.freeMemory());
+        return report;
+    }
+
+    /**
+     * Builds report of the member: memory owned by it's partitions of cluster maps and engine metrics.
+     *
+     * @param member Application context of the member
+     * @return Report of the member
+     */
+    private static Map<String, Object> memberReport(ConfigurableApplicationContext member) {
+        HazelcastInstance hazelcastInstance = member.getBean(HazelcastInstance.class);
+        long ownedEntries = 0;
+        long ownedEntryMemory = 0;
+        for (DistributedObject distributedObject : hazelcastInstance.getDistributedObjects()) {
+            if (distributedObject instanceof IMap) {
+                IMap<?, ?> map = (IMap<?, ?>) distributedObject;
+                ownedEntries += map.getLocalMapStats().getOwnedEntryCount();
+                ownedEntryMemory += map.getLocalMapStats().getOwnedEntryMemoryCost();
+            }
+        }
+        ReplicatedMap<String, DefaultTuringMachine> tasksMap = hazelcastInstance.getReplicatedMap(TuringService.TASKS_MAP);
+        EngineMetrics engineMetrics = member.getBean(EngineMetrics.class);
+
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("name", hazelcastInstance.getName());
+        report.put("ownedEntries", ownedEntries);
+        report.put("ownedEntryMemoryBytes", ownedEntryMemory);
+        report.put("replicatedTasks", tasksMap.size());
+        report.put("steps", engineMetrics.getSteps());
+        report.put("stepsPerSecond", engineMetrics.getStepsPerSecond());
+        return report;
+    }
+
+    /**
+     * Calculates percentiles of latencies.
+     *
+     * @param latencies Latencies in nanoseconds
+     * @return Count, p50, p99 and max in milliseconds
+     */
+    private static Map<String, Object> percentiles(List<Long> latencies) {
+        long[] sorted = latencies.stream().mapToLong(Long::longValue).toArray();
+        Arrays.sort(sorted);
+        Map<String, Object> percentiles = new LinkedHashMap<>();
+        percentiles.put("count", sorted.length);
+        if (sorted.length == 0) {
+            return percentiles;
+        }
+        percentiles.put("p50", sorted[(int) Math.ceil(sorted.length * 0.50) - 1] / 1e6);
+        percentiles.put("p99", sorted[(int) Math.ceil(sorted.length * 0.99) - 1] / 1e6);
+        percentiles.put("max", sorted[sorted.length - 1] / 1e6);
+        return percentiles;
+    }
+
+}
@@ -0,0 +1,53 @@
+package com.uwc.tooring.benchmarks;
+
+import com.uwc.tooring.turing.impl.DefaultTuringMachine;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks of bulk construction of Turing machine with {@link DefaultTuringMachine#addTransition}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+public class ConstructionBenchmark {
+
+    @Param({"16", "1024", "16384"})
+    private int statesCount;
+
+    /**
+     * Builds sweep machine with three transitions per state.
+     *
+     * @return Constructed machine (to prevent dead code elimination)
+     */
+    @Benchmark
+    public DefaultTuringMachine addTransitions() {
+        return Programs.sweep(statesCount);
+    }
+
+    /**
+     * Builds sweep machine and compiles it's program.
+     *
+     * @return Constructed machine (to prevent dead code elimination)
+     */
+    @Benchmark
+    public DefaultTuringMachine addTransitionsAndCompile() {
+        DefaultTuringMachine turingMachine = Programs.sweep(statesCount);
+        turingMachine.compile();
+        return turingMachine;
+    }
+
+}
@@ -0,0 +1,73 @@
+package com.uwc.tooring.benchmarks;
+
+import com.uwc.tooring.turing.impl.DefaultTuringMachine;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks of computations over the tape ({@link DefaultTuringMachine#run(boolean)}) across tape and program sizes.
+ * Every invocation computes a fresh copy of the machine, program compilation is included.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+public class EngineBenchmark {
+
+    @Param({"bubbleSort", "binaryEquality", "sweep"})
+    private String program;
+
+    @Param({"16", "256", "2048"})
+    private int tapeLength;
+
+    @Param({"16"})
+    private int statesCount;
+
+    private String tape;
+
+    private DefaultTuringMachine turingMachine;
+
+    /**
+     * Generates input tape once per trial.
+     */
+    @Setup(Level.Trial)
+    public void setUpTape() {
+        tape = Programs.tape(program, tapeLength, new Random(Programs.SEED));
+    }
+
+    /**
+     * Creates fresh machine before each computation.
+     */
+    @Setup(Level.Invocation)
+    public void setUpMachine() {
+        turingMachine = Programs.create(program, statesCount);
+        turingMachine.setTape(tape);
+    }
+
+    /**
+     * Computes the machine quietly.
+     *
+     * @return Computed machine (to prevent dead code elimination)
+     */
+    @Benchmark
+    public DefaultTuringMachine run() {
+        turingMachine.run(true);
+        return turingMachine;
+    }
+
+}
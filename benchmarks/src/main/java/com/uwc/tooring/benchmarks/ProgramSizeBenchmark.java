@@ -0,0 +1,86 @@
+package com.uwc.tooring.benchmarks;
+
+import com.uwc.tooring.turing.impl.DefaultTuringMachine;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks of computations over the tape across program sizes: sweep machine touches every state of the program,
+ * so these numbers show the cost of the lookup table and of the compilation.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+public class ProgramSizeBenchmark {
+
+    @Param({"8", "256", "4096"})
+    private int statesCount;
+
+    @Param({"65536"})
+    private int tapeLength;
+
+    private String tape;
+
+    private DefaultTuringMachine turingMachine;
+
+    private DefaultTuringMachine compiled;
+
+    /**
+     * Generates input tape once per trial.
+     */
+    @Setup(Level.Trial)
+    public void setUpTape() {
+        tape = Programs.tape("sweep", tapeLength, new Random(Programs.SEED));
+    }
+
+    /**
+     * Creates fresh machines before each computation, one of them with already compiled program.
+     */
+    @Setup(Level.Invocation)
+    public void setUpMachines() {
+        turingMachine = Programs.sweep(statesCount);
+        turingMachine.setTape(tape);
+        compiled = Programs.sweep(statesCount);
+        compiled.setTape(tape);
+        compiled.compile();
+    }
+
+    /**
+     * Compiles and computes fresh machine.
+     *
+     * @return Computed machine (to prevent dead code elimination)
+     */
+    @Benchmark
+    public DefaultTuringMachine compileAndRun() {
+        turingMachine.run(true);
+        return turingMachine;
+    }
+
+    /**
+     * Computes the machine with already compiled program.
+     *
+     * @return Computed machine (to prevent dead code elimination)
+     */
+    @Benchmark
+    public DefaultTuringMachine run() {
+        compiled.run(true);
+        return compiled;
+    }
+
+}
@@ -0,0 +1,216 @@
+package com.uwc.tooring.benchmarks;
+
+import com.uwc.tooring.turing.impl.DefaultTuringMachine;
+
+import java.util.Random;
+
+/**
+ * Turing machines and input tapes used by benchmarks.
+ */
+public final class Programs {
+
+    /**
+     * Fixed seed, so every run of benchmarks computes the same tapes.
+     */
+    public static final long SEED = 42L;
+
+    /**
+     * Default number of states of sweep machine.
+     */
+    public static final int SWEEP_STATES = 16;
+
+    private Programs() {
+    }
+
+    /**
+     * Creates Turing machine with Bubble Sort algorithm description (tape is not set).
+     *
+     * @return Bubble Sort Turing machine
+     */
+    public static DefaultTuringMachine bubbleSort() {
+        DefaultTuringMachine bubbleSort = new DefaultTuringMachine();
+
+        // R: "Run" (normal)
+        bubbleSort.addTransition("R", 'a', "R", null, true);
+        bubbleSort.addTransition("R", 'b', "B", null, true);
+        bubbleSort.addTransition("R", 'c', "C", null, true);
+
+        // B: "the last character read was b"
+        bubbleSort.addTransition("B", 'c', "C", null, true);
+        bubbleSort.addTransition("B", 'b', "B", null, true);
+
+        bubbleSort.addTransition("B", 'a', "Ba", 'b', null);
+        bubbleSort.addTransition("Ba", 'b', "Wa", null, false);
+
+        // C: "the last character read was c"
+        bubbleSort.addTransition("C", 'c', "C", null, true);
+
+        bubbleSort.addTransition("C", 'b', "Cb", 'c', null);
+        bubbleSort.addTransition("Cb", 'c', "Wb", null, false);
+
+        bubbleSort.addTransition("C", 'a', "Ca", 'c', null);
+        bubbleSort.addTransition("Ca", 'c', "Wa", null, false);
+
+        // Wx: "Write x"
+        bubbleSort.addTransition("Wa", 'b', "R", 'a', null);
+        bubbleSort.addTransition("Wa", 'c', "R", 'a', null);
+        bubbleSort.addTransition("Wb", 'c', "R", 'b', null);
+
+        // ML: "Mark last"
+        bubbleSort.addTransition("R", DefaultTuringMachine.EMPTY, "ML", null, false);
+        bubbleSort.addTransition("R", 'A', "ML", null, false);
+        bubbleSort.addTransition("R", 'B', "ML", null, false);
+        bubbleSort.addTransition("R", 'C', "ML", null, false);
+        bubbleSort.addTransition("B", DefaultTuringMachine.EMPTY, "ML", null, false);
+        bubbleSort.addTransition("B", 'B', "ML", null, false);
+        bubbleSort.addTransition("B", 'C', "ML", null, false);
+        bubbleSort.addTransition("C", DefaultTuringMachine.EMPTY, "ML", null, false);
+        bubbleSort.addTransition("C", 'C', "ML", null, false);
+
+        // RTS: "Return to start"
+        bubbleSort.addTransition("ML", 'a', "RTS", 'A', null);
+        bubbleSort.addTransition("ML", 'b', "RTS", 'B', null);
+        bubbleSort.addTransition("ML", 'c', "RTS", 'C', null);
+
+        bubbleSort.addTransition("RTS", 'a', "RTS", null, false);
+        bubbleSort.addTransition("RTS", 'A', "RTS", null, false);
+        bubbleSort.addTransition("RTS", 'b', "RTS", null, false);
+        bubbleSort.addTransition("RTS", 'B', "RTS", null, false);
+        bubbleSort.addTransition("RTS", 'c', "RTS", null, false);
+        bubbleSort.addTransition("RTS", 'C', "RTS", null, false);
+
+        bubbleSort.addTransition("RTS", DefaultTuringMachine.EMPTY, "R", null, true);
+
+        // CL: "Clean up"
+        bubbleSort.addTransition("ML", DefaultTuringMachine.EMPTY, "CL", null, true);
+        bubbleSort.addTransition("CL", 'A', "CL", 'a', null);
+        bubbleSort.addTransition("CL", 'a', "CL", null, true);
+        bubbleSort.addTransition("CL", 'B', "CL", 'b', null);
+        bubbleSort.addTransition("CL", 'b', "CL", null, true);
+        bubbleSort.addTransition("CL", 'C', "CL", 'c', null);
+        bubbleSort.addTransition("CL", 'c', "CL", null, true);
+
+        bubbleSort.addTransition("CL", DefaultTuringMachine.EMPTY, "F", null, true);
+
+        // F: "Finished"
+        bubbleSort.addTransition("R", 'A', "F", 'a', null);
+        bubbleSort.addTransition("R", 'B', "F", 'b', null);
+        bubbleSort.addTransition("R", 'C', "F", 'c', null);
+
+        bubbleSort.setStartState("R");
+        bubbleSort.setAcceptState("F");
+
+        return bubbleSort;
+    }
+
+    /**
+     * Creates Turing machine testing equality of binary words separated by '#' (tape is not set).
+     *
+     * @return Binary equality Turing machine
+     */
+    public static DefaultTuringMachine binaryEquality() {
+        DefaultTuringMachine binaryEquality = new DefaultTuringMachine();
+
+        binaryEquality.addTransition("q1", '1', "q3", 'x', true);
+        binaryEquality.addTransition("q1", '0', "q2", 'x', true);
+        binaryEquality.addTransition("q1", '#', "q8", '#', true);
+        binaryEquality.addTransition("q2", '0', "q2", '0', true);
+        binaryEquality.addTransition("q2", '1', "q2", '1', true);
+        binaryEquality.addTransition("q2", '#', "q4", '#', true);
+        binaryEquality.addTransition("q3", '0', "q3", '0', true);
+        binaryEquality.addTransition("q3", '1', "q3", '1', true);
+        binaryEquality.addTransition("q3", '#', "q5", '#', true);
+        binaryEquality.addTransition("q4", 'x', "q4", 'x', true);
+        binaryEquality.addTransition("q4", '0', "q6", 'x', false);
+        binaryEquality.addTransition("q5", 'x', "q5", 'x', true);
+        binaryEquality.addTransition("q5", '1', "q6", 'x', false);
+        binaryEquality.addTransition("q6", '0', "q6", '0', false);
+        binaryEquality.addTransition("q6", '1', "q6", '1', false);
+        binaryEquality.addTransition("q6", 'x', "q6", 'x', false);
+        binaryEquality.addTransition("q6", '#', "q7", '#', false);
+        binaryEquality.addTransition("q7", '0', "q7", '0', false);
+        binaryEquality.addTransition("q7", '1', "q7", '1', false);
+        binaryEquality.addTransition("q7", 'x', "q1", 'x', true);
+        binaryEquality.addTransition("q8", 'x', "q8", 'x', true);
+        binaryEquality.addTransition("q8", '_', "qa", '_', true);
+
+        binaryEquality.setStartState("q1");
+        binaryEquality.setAcceptState("qa");
+
+        return binaryEquality;
+    }
+
+    /**
+     * Creates Turing machine with the given number of states sweeping the tape from left to right
+     * and inverting 'a' and 'b' symbols: each step leads to the next state, so the whole lookup table is used.
+     *
+     * @param statesCount Number of states
+     * @return Sweep Turing machine
+     */
+    public static DefaultTuringMachine sweep(int statesCount) {
+        DefaultTuringMachine sweep = new DefaultTuringMachine();
+        for (int i = 0; i < statesCount; i++) {
+            String state = "s" + i;
+            String nextState = "s" + (i + 1) % statesCount;
+            sweep.addTransition(state, 'a', nextState, 'b', true);
+            sweep.addTransition(state, 'b', nextState, 'a', true);
+            sweep.addTransition(state, DefaultTuringMachine.EMPTY, "F", null, null);
+        }
+        sweep.setStartState("s0");
+        sweep.setAcceptState("F");
+        return sweep;
+    }
+
+    /**
+     * Creates Turing machine by name.
+     *
+     * @param name        "bubbleSort", "binaryEquality" or "sweep"
+     * @param statesCount Number of states of sweep machine
+     * @return Turing machine
+     */
+    public static DefaultTuringMachine create(String name, int statesCount) {
+        switch (name) {
+            case "bubbleSort":
+                return bubbleSort();
+            case "binaryEquality":
+                return binaryEquality();
+            case "sweep":
+                return sweep(statesCount);
+            default:
+                throw new IllegalArgumentException("Unknown program: " + name);
+        }
+    }
+
+    /**
+     * Generates input tape of the given length for the program.
+     *
+     * @param name   "bubbleSort", "binaryEquality" or "sweep"
+     * @param length Length of the tape
+     * @param random Source of randomness
+     * @return Input tape
+     */
+    public static String tape(String name, int length, Random random) {
+        StringBuilder tape = new StringBuilder(length);
+        switch (name) {
+            case "bubbleSort":
+                for (int i = 0; i < length; i++) {
+                    tape.append(random.nextBoolean() ? 'a' : random.nextBoolean() ? 'b' : 'c');
+                }
+                return tape.toString();
+            case "binaryEquality":
+                StringBuilder word = new StringBuilder(length / 2);
+                for (int i = 0; i < Math.max(1, length / 2); i++) {
+                    word.append(random.nextBoolean() ? '0' : '1');
+                }
+                return tape.append(word).append('#').append(word).toString();
+            case "sweep":
+                for (int i = 0; i < length; i++) {
+                    tape.append(random.nextBoolean() ? 'a' : 'b');
+                }
+                return tape.toString();
+            default:
+                throw new IllegalArgumentException("Unknown program: " + name);
+        }
+    }
+
+}
@@ -0,0 +1,103 @@
+package com.uwc.tooring.benchmarks;
+
+import com.google.gson.Gson;
+import com.hazelcast.internal.serialization.SerializationService;
+import com.hazelcast.internal.serialization.impl.DefaultSerializationServiceBuilder;
+import com.hazelcast.nio.serialization.Data;
+import com.uwc.tooring.turing.impl.DefaultTuringMachine;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks of Turing machine serialization: JSON (submitted and fetched by users) and Hazelcast (stored in the cluster maps).
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+public class SerializationBenchmark {
+
+    @Param({"bubbleSort", "binaryEquality"})
+    private String program;
+
+    @Param({"256", "65536", "1048576"})
+    private int tapeLength;
+
+    private final Gson gson = new Gson();
+
+    private SerializationService serializationService;
+
+    private DefaultTuringMachine turingMachine;
+
+    private String json;
+
+    private Data data;
+
+    /**
+     * Prepares machine and it's serialized forms.
+     */
+    @Setup(Level.Trial)
+    public void setUp() {
+        serializationService = new DefaultSerializationServiceBuilder().build();
+        turingMachine = Programs.create(program, 0);
+        turingMachine.setTape(Programs.tape(program, tapeLength, new Random(Programs.SEED)));
+        json = gson.toJson(turingMachine);
+        data = serializationService.toData(turingMachine);
+    }
+
+    /**
+     * Parses machine from JSON.
+     *
+     * @return Parsed machine
+     */
+    @Benchmark
+    public DefaultTuringMachine gsonIngest() {
+        return gson.fromJson(json, DefaultTuringMachine.class);
+    }
+
+    /**
+     * Formats machine as JSON.
+     *
+     * @return JSON description
+     */
+    @Benchmark
+    public String gsonEmit() {
+        return gson.toJson(turingMachine);
+    }
+
+    /**
+     * Serializes machine the way it's stored in Hazelcast maps.
+     *
+     * @return Serialized machine
+     */
+    @Benchmark
+    public Data hazelcastSerialize() {
+        return serializationService.toData(turingMachine);
+    }
+
+    /**
+     * Deserializes machine the way it's read from Hazelcast maps.
+     *
+     * @return Deserialized machine
+     */
+    @Benchmark
+    public DefaultTuringMachine hazelcastDeserialize() {
+        return serializationService.toObject(data);
+    }
+
+}
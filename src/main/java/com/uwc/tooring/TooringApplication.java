@@ -1,18 +1,30 @@
 package com.uwc.tooring;
 
 import com.hazelcast.config.Config;
+import com.hazelcast.config.JoinConfig;
 import com.hazelcast.config.NetworkConfig;
 import com.hazelcast.core.Hazelcast;
 import com.hazelcast.core.HazelcastInstance;
+import com.uwc.tooring.caching.ResultCache;
+import com.uwc.tooring.local.LocalRunner;
+import com.uwc.tooring.monitoring.TaskProgress;
+import com.uwc.tooring.scheduling.TaskScheduler;
+import com.uwc.tooring.streaming.TapeStreams;
 import org.apache.commons.cli.*;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.CommandLineRunner;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.context.annotation.Bean;
 import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.util.StringUtils;
 
+import java.io.File;
 import java.math.BigInteger;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
 
 /**
  * Main application class.
@@ -27,6 +39,9 @@ public class TooringApplication implements CommandLineRunner {
     private static final String OUTPUT = "output";
     private static final String SCHEDULE = "schedule";
     private static final String WORKER = "worker";
+    private static final String FOLLOW = "follow";
+    private static final String STATUS = "status";
+    private static final String LOCAL = "local";
     private static final String ID = "id";
 
     private static final String HAZELCAST_LOGGING_TYPE = "hazelcast.logging.type";
@@ -35,10 +50,36 @@ public class TooringApplication implements CommandLineRunner {
     @Autowired
     private TuringService turingService;
 
-    public static void main(String[] args) throws ParseException {
+    /**
+     * Comma-separated addresses of cluster members for TCP-IP join; multicast join is used if it's empty.
+     */
+    @Value("${tooring.hazelcast.members:}")
+    private String members;
+
+    public static void main(String[] args) throws Exception {
+        CommandLine cmd = new DefaultParser().parse(createCommandLineOptions(), args);
+        if (cmd.hasOption(LOCAL)) {
+            runLocally(cmd);
+            return;
+        }
         SpringApplication.run(TooringApplication.class, args);
     }
 
+    /**
+     * Computes Turing machines from local files without Spring context and the cluster (see {@link LocalRunner}).
+     *
+     * @param cmd Parsed command line: output directory and input files
+     * @throws Exception If output directory can't be created
+     */
+    private static void runLocally(CommandLine cmd) throws Exception {
+        List<File> inputFiles = Arrays.stream(cmd.getArgs()).map(File::new).collect(Collectors.toList());
+        if (!cmd.hasOption(OUTPUT) || inputFiles.isEmpty()) {
+            System.out.println("Usage: --local --output DIRECTORY FILENAME...");
+            return;
+        }
+        new LocalRunner(new File(cmd.getOptionValue(OUTPUT)), Runtime.getRuntime().availableProcessors()).run(inputFiles);
+    }
+
     @Override
     public void run(String... args) throws Exception {
         Options options = createCommandLineOptions();
@@ -59,6 +100,14 @@ public class TooringApplication implements CommandLineRunner {
             String key = cmd.getOptionValue(SCHEDULE);
             turingService.scheduleExecution(id, key);
             System.exit(BigInteger.ZERO.intValue());
+        } else if (cmd.hasOption(FOLLOW)) {
+            String key = cmd.getOptionValue(FOLLOW);
+            turingService.followOutput(key);
+            System.exit(BigInteger.ZERO.intValue());
+        } else if (cmd.hasOption(STATUS)) {
+            String key = cmd.getOptionValue(STATUS);
+            turingService.processStatus(key);
+            System.exit(BigInteger.ZERO.intValue());
         } else if (cmd.hasOption(WORKER)) {
             String id = cmd.getOptionValue(WORKER);
             turingService.startAsWorker(id);
@@ -70,15 +119,18 @@ public class TooringApplication implements CommandLineRunner {
      *
      * @return Command line options
      */
-    private Options createCommandLineOptions() {
+    private static Options createCommandLineOptions() {
         Options options = new Options();
 
         Option set = new Option(SET, SET, false, "key for uploading Turing machine input");
         Option input = new Option(INPUT, INPUT, true, "filename of Turing machine description (JSON document) to upload");
         Option get = new Option(GET, GET, true, "key for downloading Turing machine output");
-        Option output = new Option(OUTPUT, OUTPUT, true, "filename of Turing machine description (JSON document) to download to");
+        Option output = new Option(OUTPUT, OUTPUT, true, "filename of Turing machine description (JSON document) to download to, or directory to save outputs of local computations to");
         Option schedule = new Option(SCHEDULE, SCHEDULE, true, "schedule Turing machine execution by specified key");
         Option worker = new Option(WORKER, WORKER, true, "start application as a worker (performer of computations) with specified ID");
+        Option follow = new Option(FOLLOW, FOLLOW, true, "print the evolving tape of Turing machine computation by specified key");
+        Option status = new Option(STATUS, STATUS, true, "print status of Turing machine computation by specified key");
+        Option local = new Option(LOCAL, LOCAL, false, "compute Turing machines from specified files locally, without the cluster");
 
         Option id = new Option(ID, ID, true, "identificator of user (arbitrary string) for defining it's score");
 
@@ -87,6 +139,9 @@ public class TooringApplication implements CommandLineRunner {
         mainOptionGroup.addOption(get);
         mainOptionGroup.addOption(schedule);
         mainOptionGroup.addOption(worker);
+        mainOptionGroup.addOption(follow);
+        mainOptionGroup.addOption(status);
+        mainOptionGroup.addOption(local);
 
         OptionGroup additionalOptionGroup = new OptionGroup();
         additionalOptionGroup.addOption(input);
@@ -105,10 +160,24 @@ public class TooringApplication implements CommandLineRunner {
         Config config = new Config();
         config.setProperty(HAZELCAST_LOGGING_TYPE, NONE);
 
+        ResultCache.configure(config);
+        TapeStreams.configure(config);
+        TaskProgress.configure(config);
+        TaskScheduler.configure(config);
+
         NetworkConfig networkConfig = config.getNetworkConfig();
         networkConfig.setPort(5701);
         networkConfig.setPortAutoIncrement(true);
 
+        if (!StringUtils.isEmpty(members)) {
+            JoinConfig joinConfig = networkConfig.getJoin();
+            joinConfig.getMulticastConfig().setEnabled(false);
+            joinConfig.getTcpIpConfig().setEnabled(true);
+            for (String member : StringUtils.commaDelimitedListToStringArray(members)) {
+                joinConfig.getTcpIpConfig().addMember(member.trim());
+            }
+        }
+
         return Hazelcast.newHazelcastInstance(config);
     }
 
@@ -1,23 +1,61 @@
 package com.uwc.tooring;
 
 import com.google.gson.Gson;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
 import com.hazelcast.core.HazelcastInstance;
 import com.hazelcast.core.ILock;
 import com.hazelcast.core.ReplicatedMap;
 import com.hazelcast.util.UuidUtil;
+import com.uwc.tooring.caching.ResultCache;
+import com.uwc.tooring.model.ComputationResult;
+import com.uwc.tooring.model.TapeDiff;
+import com.uwc.tooring.model.TaskStatus;
+import com.uwc.tooring.monitoring.ClusterMetrics;
+import com.uwc.tooring.monitoring.EngineMetrics;
+import com.uwc.tooring.monitoring.TaskProgress;
+import com.uwc.tooring.scheduling.ExecutionTracker;
+import com.uwc.tooring.scheduling.RuntimeStatistics;
+import com.uwc.tooring.scheduling.TaskScheduler;
+import com.uwc.tooring.scheduling.WorkerCapacity;
+import com.uwc.tooring.storage.ColdTier;
+import com.uwc.tooring.storage.PagedTapes;
+import com.uwc.tooring.storage.TaskStore;
+import com.uwc.tooring.streaming.TapePublisher;
+import com.uwc.tooring.streaming.TapeStreams;
+import com.uwc.tooring.streaming.TapeView;
+import com.uwc.tooring.turing.CompositeListener;
+import com.uwc.tooring.turing.impl.BatchTuringMachine;
 import com.uwc.tooring.turing.impl.DefaultTuringMachine;
+import com.uwc.tooring.turing.impl.TuringMachines;
+import com.uwc.tooring.turing.trace.TraceRecorder;
 import org.apache.commons.io.FileUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
+import java.io.BufferedOutputStream;
 import java.io.File;
+import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
 
 @Service
 public class TuringService {
@@ -30,9 +68,69 @@ public class TuringService {
 
     public static final long WORKER_RATE = 1000L;
 
+    public static final int BATCH_SIZE = 32;
+
+    /**
+     * Longer tapes are never computed in a batch.
+     */
+    public static final int BATCH_TAPE_LIMIT = 4096;
+
+    public static final String TRACES_DIRECTORY = "traces";
+
+    /**
+     * Field of JSON description listing stages of the pipeline.
+     */
+    public static final String STAGES_FIELD = "stages";
+
+    /**
+     * Field of the stage description referring to the stage (by index) which output is the input of this stage.
+     */
+    public static final String INPUT_FIELD = "input";
+
+    /**
+     * Field of the pipeline description containing the input tape of the first stage.
+     */
+    public static final String TAPE_FIELD = "tape";
+
     @Autowired
     private HazelcastInstance hazelcastInstance;
 
+    @Autowired
+    private ResultCache resultCache;
+
+    @Autowired
+    private ExecutionTracker executionTracker;
+
+    @Autowired
+    private WorkerCapacity workerCapacity;
+
+    @Autowired
+    private RuntimeStatistics runtimeStatistics;
+
+    @Autowired
+    private EngineMetrics engineMetrics;
+
+    @Autowired
+    private ClusterMetrics clusterMetrics;
+
+    @Autowired
+    private TaskScheduler taskScheduler;
+
+    @Autowired
+    private PagedTapes pagedTapes;
+
+    @Autowired
+    private TaskStore taskStore;
+
+    @Autowired
+    private ColdTier coldTier;
+
+    @Autowired
+    private TapeStreams tapeStreams;
+
+    @Autowired
+    private TaskProgress taskProgress;
+
     private volatile boolean worker;
 
     /**
@@ -46,6 +144,10 @@ public class TuringService {
         json = FileUtils.readFileToString(new File(fileName));
         String key = processInputJSON(json);
         System.out.println("Key for submitted Turing machine is: " + key);
+        List<String> stageKeys = getPipelineKeys(key);
+        if (stageKeys.size() > 1) {
+            System.out.println("Keys of pipeline stages are: " + String.join(", ", stageKeys));
+        }
         System.out.println("Submitted task will expire in a number of hours: " + TASK_TTL_IN_HOURS);
     }
 
@@ -57,13 +159,131 @@ public class TuringService {
      */
     public String processInputJSON(String json) {
         Gson gson = new Gson();
-        DefaultTuringMachine inputTuringMachine = gson.fromJson(json, DefaultTuringMachine.class);
+        JsonObject description = gson.fromJson(json, JsonObject.class);
+        if (description.has(STAGES_FIELD)) {
+            return processPipelineJSON(gson, description);
+        }
+        DefaultTuringMachine inputTuringMachine = TuringMachines.fromJson(gson, description);
         String key = UuidUtil.newSecureUuidString();
+        pagedTapes.pageIfLarge(key, inputTuringMachine);
         ReplicatedMap<String, DefaultTuringMachine> tasksMap = hazelcastInstance.getReplicatedMap(TASKS_MAP);
         tasksMap.put(key, inputTuringMachine, TASK_TTL_IN_HOURS, TimeUnit.HOURS);
+        taskProgress.changed(key, inputTuringMachine);
+        return key;
+    }
+
+    /**
+     * Processes JSON description of the pipeline: the input tape and the stages (Turing machines).
+     * Every stage takes the output tape of the stage referred by it's {@link #INPUT_FIELD} (the previous one by default),
+     * the first stage takes the input tape. Stages get keys "KEY.1", "KEY.2" and so on, the first one gets the key of the pipeline.
+     * Only the first stage is scheduled by the user, the following ones are scheduled by workers when their input is ready.
+     *
+     * @param gson        Gson instance
+     * @param description JSON description of the pipeline
+     * @return key of the first stage
+     */
+    private String processPipelineJSON(Gson gson, JsonObject description) {
+        JsonArray stages = description.getAsJsonArray(STAGES_FIELD);
+        if (stages.size() == 0) {
+            throw new IllegalArgumentException("Pipeline should contain at least one stage");
+        }
+        String key = UuidUtil.newSecureUuidString();
+        List<String> keys = new ArrayList<>();
+        List<DefaultTuringMachine> turingMachines = new ArrayList<>();
+        for (int i = 0; i < stages.size(); i++) {
+            JsonObject stage = stages.get(i).getAsJsonObject();
+            DefaultTuringMachine turingMachine = TuringMachines.fromJson(gson, stage);
+            keys.add(i == 0 ? key : key + "." + i);
+            turingMachines.add(turingMachine);
+            if (i == 0) {
+                JsonElement tape = description.get(TAPE_FIELD);
+                if (tape != null && !tape.isJsonNull()) {
+                    turingMachine.setTape(tape.getAsString());
+                }
+                continue;
+            }
+            int input = stage.has(INPUT_FIELD) ? stage.get(INPUT_FIELD).getAsInt() : i - 1;
+            if (input < 0 || input >= i) {
+                throw new IllegalArgumentException("Stage " + i + " of the pipeline should take the output of one of the previous stages");
+            }
+            DefaultTuringMachine producer = turingMachines.get(input);
+            if (producer.getNextKeys() == null) {
+                producer.setNextKeys(new ArrayList<>());
+            }
+            producer.getNextKeys().add(keys.get(i));
+            turingMachine.setTape(null);
+            turingMachine.setAwaitingInput(true);
+        }
+        pagedTapes.pageIfLarge(key, turingMachines.get(0));
+        ReplicatedMap<String, DefaultTuringMachine> tasksMap = hazelcastInstance.getReplicatedMap(TASKS_MAP);
+        for (int i = turingMachines.size() - 1; i >= 0; i--) {
+            tasksMap.put(keys.get(i), turingMachines.get(i), TASK_TTL_IN_HOURS, TimeUnit.HOURS);
+            taskProgress.changed(keys.get(i), turingMachines.get(i));
+        }
         return key;
     }
 
+    /**
+     * Gets keys of all stages of the pipeline starting with the specified one.
+     *
+     * @param key Key of the first stage
+     * @return Keys of stages (just the specified key for machines which are not pipelines)
+     */
+    public List<String> getPipelineKeys(String key) {
+        ReplicatedMap<String, DefaultTuringMachine> tasksMap = hazelcastInstance.getReplicatedMap(TASKS_MAP);
+        List<String> keys = new ArrayList<>();
+        keys.add(key);
+        for (int i = 0; i < keys.size(); i++) {
+            DefaultTuringMachine turingMachine = tasksMap.get(keys.get(i));
+            if (turingMachine != null && turingMachine.getNextKeys() != null) {
+                keys.addAll(turingMachine.getNextKeys());
+            }
+        }
+        return keys;
+    }
+
+    /**
+     * Passes the raw output tape (with empty symbols) of the computed machine to the following stages of the pipeline
+     * and schedules them on behalf of the submitter. Output of the machine which hasn't reached accept state is not passed,
+     * so the following stages keep waiting for input.
+     *
+     * @param producer Computed Turing machine
+     * @return Key of the first of the following stages or empty if there are no such stages or they aren't fed
+     */
+    private Optional<String> feedNextStages(DefaultTuringMachine producer) {
+        if (!producer.hasNextStages()) {
+            return Optional.empty();
+        }
+        if (!producer.isAccepted()) {
+            LOGGER.info("Output of pipeline stage is not passed to the next stages: computation hasn't reached accept state, next key = " + producer.getNextKeys().get(0));
+            return Optional.empty();
+        }
+        String output = producer.getTapeReference() == null ? producer.getRawOutput() : pagedTapes.readRaw(producer.getTapeReference());
+        ReplicatedMap<String, DefaultTuringMachine> tasksMap = hazelcastInstance.getReplicatedMap(TASKS_MAP);
+        for (String nextKey : producer.getNextKeys()) {
+            ILock lock = hazelcastInstance.getLock(nextKey);
+            lock.lock();
+            try {
+                DefaultTuringMachine turingMachine = tasksMap.get(nextKey);
+                if (turingMachine == null || !turingMachine.isAwaitingInput()) {
+                    continue;
+                }
+                turingMachine.setTape(output);
+                turingMachine.setAwaitingInput(false);
+                turingMachine.setRestored(false);
+                pagedTapes.pageIfLarge(nextKey, turingMachine);
+                turingMachine.schedule(producer.getId());
+                tasksMap.put(nextKey, turingMachine, TASK_TTL_IN_HOURS, TimeUnit.HOURS);
+                taskProgress.changed(nextKey, turingMachine);
+                decrementScore(producer.getId());
+                LOGGER.info("Output of pipeline stage is passed to the next stage, key = " + nextKey);
+            } finally {
+                lock.unlock();
+            }
+        }
+        return Optional.of(producer.getNextKeys().get(0));
+    }
+
     /**
      * Saves output to file.
      *
@@ -95,11 +315,86 @@ public class TuringService {
         if (!turingMachine.isDone()) {
             return Optional.empty();
         }
+        if (turingMachine.isRestored()) {
+            Optional<DefaultTuringMachine> loaded = taskStore.load(key);
+            if (!loaded.isPresent()) {
+                return Optional.empty();
+            }
+            turingMachine = loaded.get();
+        }
+        if (turingMachine.getTapeReference() != null) {
+            pagedTapes.materialize(turingMachine);
+        }
         tasksMap.remove(key);
         Gson gson = new Gson();
         return Optional.of(gson.toJson(turingMachine));
     }
 
+    /**
+     * Prints status of the task without fetching the machine itself.
+     *
+     * @param key Key of Turing machine
+     */
+    public void processStatus(String key) {
+        Optional<TaskStatus> status = taskProgress.getStatus(key);
+        if (!status.isPresent()) {
+            System.out.println("There's no Turing machine with specified key.");
+            return;
+        }
+        TaskStatus taskStatus = status.get();
+        System.out.println("Scheduled: " + taskStatus.isScheduled());
+        System.out.println("Locked: " + taskStatus.isLocked());
+        System.out.println("Done: " + taskStatus.isDone());
+        System.out.println("Current state: " + taskStatus.getCurrentState());
+        System.out.println("Steps: " + taskStatus.getSteps());
+        System.out.println("Tape length: " + taskStatus.getTapeLength());
+        System.out.println("Worker: " + taskStatus.getWorker());
+        System.out.println("Elapsed time (ms): " + taskStatus.getElapsedMillis(System.currentTimeMillis()));
+    }
+
+    /**
+     * Prints the evolving tape of running computation until it's finished.
+     *
+     * @param key Key of Turing machine
+     * @throws InterruptedException If waiting is interrupted
+     */
+    public void followOutput(String key) throws InterruptedException {
+        ReplicatedMap<String, DefaultTuringMachine> tasksMap = hazelcastInstance.getReplicatedMap(TASKS_MAP);
+        DefaultTuringMachine turingMachine = tasksMap.get(key);
+        if (turingMachine == null) {
+            System.out.println("There's no Turing machine with specified key.");
+            return;
+        }
+        if (turingMachine.isDone()) {
+            System.out.println("Computation is already done for the Turing machine with specified key.");
+            return;
+        }
+        TapeView tapeView = new TapeView();
+        CountDownLatch finished = new CountDownLatch(1);
+        String registration = tapeStreams.subscribe(key, message -> {
+            TapeDiff diff = message.getMessageObject();
+            if (tapeView.apply(diff)) {
+                System.out.println(tapeView.render());
+            }
+            if (diff.isDone()) {
+                finished.countDown();
+            }
+        });
+        try {
+            System.out.println("Following computation of the Turing machine with specified key.");
+            while (!finished.await(WORKER_RATE, TimeUnit.MILLISECONDS)) {
+                turingMachine = tasksMap.get(key);
+                if (turingMachine == null || turingMachine.isDone()) {
+                    break;
+                }
+            }
+            System.out.println("Computation is done for the Turing machine with specified key.");
+        } finally {
+            turingMachine = tasksMap.get(key);
+            tapeStreams.unsubscribe(key, registration, finished.getCount() == 0 || turingMachine == null || turingMachine.isDone());
+        }
+    }
+
     /**
      * Schedules processing of Turing machine.
      *
@@ -108,7 +403,9 @@ public class TuringService {
      */
     public void scheduleExecution(String id, String key) {
         ILock lock = hazelcastInstance.getLock(key);
-        if (lock.tryLock()) {
+        boolean locked = lock.tryLock();
+        clusterMetrics.lockAttempted(ClusterMetrics.SCHEDULE_LOCK, locked);
+        if (locked) {
             try {
                 ReplicatedMap<String, DefaultTuringMachine> tasksMap = hazelcastInstance.getReplicatedMap(TASKS_MAP);
                 DefaultTuringMachine turingMachine = tasksMap.get(key);
@@ -124,8 +421,23 @@ public class TuringService {
                     System.out.println("Computation is already done for the Turing machine with specified key.");
                     return;
                 }
+                if (turingMachine.isAwaitingInput()) {
+                    System.out.println("Computation will be scheduled automatically when the previous stage of the pipeline is done.");
+                    return;
+                }
                 turingMachine.schedule(id);
+                String inputHash = turingMachine.getInputHash();
+                Optional<ComputationResult> cachedResult = inputHash == null ? Optional.empty() : resultCache.peek(inputHash);
+                if (cachedResult.isPresent()) {
+                    turingMachine.complete(cachedResult.get());
+                    tasksMap.put(key, turingMachine);
+                    taskProgress.changed(key, turingMachine);
+                    feedNextStages(turingMachine);
+                    System.out.println("Computation is done for the Turing machine with specified key: the same machine was computed before.");
+                    return;
+                }
                 tasksMap.put(key, turingMachine);
+                taskProgress.changed(key, turingMachine);
                 decrementScore(id);
                 System.out.println("Computation is scheduled for the Turing machine with specified key.");
             } finally {
@@ -143,61 +455,537 @@ public class TuringService {
      */
     public void startAsWorker(String id) {
         setWorker(true);
-        while (isWorker()) {
-            Optional<Map.Entry<String, DefaultTuringMachine>> turingMachineToProcess = getTuringMachineToProcess();
-            turingMachineToProcess.ifPresent(turingMachine -> processTuringMachine(id, turingMachine));
-            try {
-                Thread.sleep(WORKER_RATE); // sleep a bit between attempts
-            } catch (InterruptedException e) {
-                LOGGER.error(e.getMessage(), e);
+        workerCapacity.advertise();
+        ExecutorService prefetcher = Executors.newSingleThreadExecutor();
+        Future<Optional<PrefetchedTask>> prefetch = null;
+        try {
+            while (isWorker()) {
+                Optional<ClaimedTask> claimedTask = Optional.empty();
+                if (prefetch != null) {
+                    claimedTask = getPrefetched(prefetch).flatMap(this::claim);
+                    prefetch = null;
+                }
+                if (!claimedTask.isPresent()) {
+                    Optional<TaskScheduler.Selection> turingMachineToProcess = getTuringMachineToProcess(null);
+                    if (turingMachineToProcess.isPresent()) {
+                        List<Map.Entry<String, DefaultTuringMachine>> batch = getBatchToProcess(turingMachineToProcess.get().getEntry());
+                        if (batch.size() > 1) {
+                            taskScheduler.dispatched(turingMachineToProcess.get());
+                            processBatch(id, batch);
+                        } else {
+                            claimedTask = claim(turingMachineToProcess.get().getEntry().getKey());
+                            claimedTask.ifPresent(task -> taskScheduler.dispatched(turingMachineToProcess.get()));
+                        }
+                    } else {
+                        executionTracker.claimStraggler(id).ifPresent(key -> processSpeculatively(id, key));
+                    }
+                }
+                if (claimedTask.isPresent()) {
+                    String key = claimedTask.get().getKey();
+                    prefetch = prefetcher.submit(() -> prefetch(key));
+                    processTuringMachine(id, claimedTask.get());
+                    continue; // the next machine is being prefetched meanwhile
+                }
+                try {
+                    Thread.sleep(WORKER_RATE); // sleep a bit between attempts
+                } catch (InterruptedException e) {
+                    LOGGER.error(e.getMessage(), e);
+                }
             }
+        } finally {
+            prefetcher.shutdown(); // prefetched machine isn't locked, so there's nothing to release
+        }
+    }
+
+    /**
+     * Prepares the next Turing machine while the current one is computed: the machine is fetched (loaded from
+     * the task store or warmed from the cold tier if needed) and it's program is compiled. The machine is not locked,
+     * so other workers may take it meanwhile; it's claimed only when the current computation finishes
+     * (see {@link #claim(PrefetchedTask)}). Machines which would be batched are left for the worker loop.
+     *
+     * @param currentKey Key of Turing machine being computed
+     * @return Prefetched Turing machine or empty if there's nothing to prefetch
+     */
+    Optional<PrefetchedTask> prefetch(String currentKey) {
+        Optional<TaskScheduler.Selection> turingMachineToProcess = getTuringMachineToProcess(currentKey);
+        if (!turingMachineToProcess.isPresent() || getBatchToProcess(turingMachineToProcess.get().getEntry()).size() > 1) {
+            return Optional.empty();
+        }
+        try {
+            Optional<ClaimedTask> fetchedTask = fetch(turingMachineToProcess.get().getEntry().getKey(), null);
+            fetchedTask.ifPresent(task -> LOGGER.info("Turing machine is prefetched, key = " + task.getKey()));
+            return fetchedTask.map(task -> new PrefetchedTask(turingMachineToProcess.get(), task));
+        } catch (RuntimeException e) {
+            LOGGER.error(e.getMessage(), e);
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Claims the prefetched Turing machine and charges it's choice to the scheduler.
+     * The prefetched machine is reused unless it was computed (even partially) since prefetching.
+     *
+     * @param prefetchedTask Prefetched Turing machine
+     * @return Claimed Turing machine or empty if it's taken by other worker or it can't be computed by current worker now
+     */
+    Optional<ClaimedTask> claim(PrefetchedTask prefetchedTask) {
+        Optional<ClaimedTask> claimedTask = claim(prefetchedTask.getTask().getKey(), prefetchedTask.getTask());
+        claimedTask.ifPresent(task -> taskScheduler.dispatched(prefetchedTask.getSelection()));
+        return claimedTask;
+    }
+
+    /**
+     * Waits for the prefetched Turing machine.
+     *
+     * @param prefetch Prefetching of Turing machine
+     * @return Prefetched Turing machine or empty if nothing was prefetched
+     */
+    private Optional<PrefetchedTask> getPrefetched(Future<Optional<PrefetchedTask>> prefetch) {
+        try {
+            return prefetch.get();
+        } catch (InterruptedException | ExecutionException e) {
+            LOGGER.error(e.getMessage(), e);
+            return Optional.empty();
         }
     }
 
     /**
      * Finds next Turing machine waiting for being processed.
      *
-     * @return Next Turing machine to process (with it's key)
+     * @param excludedKey Key of Turing machine which shouldn't be taken (nullable)
+     * @return Next Turing machine to process (with it's key), to be charged by the scheduler once it's dispatched
      */
-    private Optional<Map.Entry<String, DefaultTuringMachine>> getTuringMachineToProcess() {
+    private Optional<TaskScheduler.Selection> getTuringMachineToProcess(String excludedKey) {
         ReplicatedMap<String, DefaultTuringMachine> tasksMap = hazelcastInstance.getReplicatedMap(TASKS_MAP);
         Set<Map.Entry<String, DefaultTuringMachine>> entries = tasksMap.entrySet();
 
-        return entries.stream().filter(e -> {
+        List<Map.Entry<String, DefaultTuringMachine>> candidates = entries.stream().filter(e -> {
             DefaultTuringMachine machine = e.getValue();
-            return machine.isScheduled() && !machine.isLocked() && !machine.isDone();
-        }).max((left, right) -> {
-            DefaultTuringMachine leftValue = left.getValue();
-            DefaultTuringMachine rightValue = right.getValue();
-            long x = getScore(leftValue.getId());
-            long y = getScore(rightValue.getId());
-            return Long.compare(x, y);
-        });
+            return !e.getKey().equals(excludedKey) && machine.isScheduled() && !machine.isLocked() && !machine.isDone() && (!machine.isRestored() || taskStore.isEnabled())
+                    && workerCapacity.canTake(machine);
+        }).collect(Collectors.toList());
+        return taskScheduler.select(candidates);
     }
 
     /**
-     * Performs computations on the Turing machine.
+     * Collects small Turing machines waiting for being processed which have the same program as the specified one.
      *
-     * @param id                 User ID (for counting score)
-     * @param turingMachineEntry Turing machine to compute
+     * @param turingMachineEntry First Turing machine of the batch (with it's key)
+     * @return Turing machines to process in one batch (first one included)
      */
-    private void processTuringMachine(String id, Map.Entry<String, DefaultTuringMachine> turingMachineEntry) {
-        String key = turingMachineEntry.getKey();
+    private List<Map.Entry<String, DefaultTuringMachine>> getBatchToProcess(Map.Entry<String, DefaultTuringMachine> turingMachineEntry) {
+        DefaultTuringMachine first = turingMachineEntry.getValue();
+        if (!isBatchable(first)) {
+            return Collections.singletonList(turingMachineEntry);
+        }
+        ReplicatedMap<String, DefaultTuringMachine> tasksMap = hazelcastInstance.getReplicatedMap(TASKS_MAP);
+        List<Map.Entry<String, DefaultTuringMachine>> batch = new ArrayList<>();
+        batch.add(turingMachineEntry);
+        tasksMap.entrySet().stream().filter(e -> {
+            DefaultTuringMachine machine = e.getValue();
+            return !e.getKey().equals(turingMachineEntry.getKey()) && machine.isScheduled() && !machine.isLocked() && !machine.isDone()
+                    && isBatchable(machine) && first.hasSameProgram(machine);
+        }).limit(BATCH_SIZE - 1).forEach(batch::add);
+        return batch;
+    }
+
+    /**
+     * Checks if Turing machine is small enough for batch processing. Machines which were partially computed
+     * (e.g. left by the batch after exceeding it's step limit) are computed on their own.
+     *
+     * @param turingMachine Turing machine
+     * @return true if machine can be processed in a batch, false otherwise
+     */
+    private boolean isBatchable(DefaultTuringMachine turingMachine) {
+        return turingMachine.isStandard() && !turingMachine.isTraced() && turingMachine.getNextKeys() == null && turingMachine.getSteps() == 0
+                && turingMachine.getTape() != null && turingMachine.getTape().length() <= BATCH_TAPE_LIMIT;
+    }
+
+    /**
+     * Performs computations on the batch of Turing machines with the same program.
+     * Only machines which were successfully locked and are still waiting for being processed get computed.
+     * Machines are checked again after locking: the batch is collected from the replicated map, so the tape of
+     * a machine may have been moved to the cold tier (or the machine replaced) since then.
+     * Every machine is stored and unlocked as soon as it leaves the batch: when it halts, or when it exceeds
+     * the step limit of the batch (then it stays scheduled and is computed on it's own later).
+     *
+     * @param id                   User ID (for counting score)
+     * @param turingMachineEntries Turing machines to compute
+     */
+    private void processBatch(String id, List<Map.Entry<String, DefaultTuringMachine>> turingMachineEntries) {
+        ReplicatedMap<String, DefaultTuringMachine> tasksMap = hazelcastInstance.getReplicatedMap(TASKS_MAP);
+        List<ILock> locks = new ArrayList<>();
+        List<String> keys = new ArrayList<>();
+        List<String> inputHashes = new ArrayList<>();
+        List<DefaultTuringMachine> turingMachines = new ArrayList<>();
+        try {
+            for (Map.Entry<String, DefaultTuringMachine> turingMachineEntry : turingMachineEntries) {
+                String key = turingMachineEntry.getKey();
+                ILock lock = hazelcastInstance.getLock(key);
+                boolean locked = lock.tryLock();
+                clusterMetrics.lockAttempted(ClusterMetrics.PROCESS_LOCK, locked);
+                if (!locked) {
+                    continue;
+                }
+                try {
+                    DefaultTuringMachine turingMachine = tasksMap.get(key);
+                    if (turingMachine == null || !turingMachine.isScheduled() || turingMachine.isDone()) {
+                        continue;
+                    }
+                    if (!isBatchable(turingMachine) || (!turingMachines.isEmpty() && !turingMachines.get(0).hasSameProgram(turingMachine))) {
+                        continue; // demoted to the cold tier or changed since the batch was collected
+                    }
+                    String inputHash = turingMachine.getCurrentState() == null ? turingMachine.getInputHash() : null;
+                    Optional<ComputationResult> cachedResult = inputHash == null ? Optional.empty() : resultCache.get(inputHash);
+                    if (cachedResult.isPresent()) {
+                        turingMachine.complete(cachedResult.get());
+                        tasksMap.put(key, turingMachine);
+                        LOGGER.info("Turing machine was taken from cache, key = " + key);
+                        continue;
+                    }
+                    clusterMetrics.dispatched(turingMachine);
+                    keys.add(key);
+                    inputHashes.add(inputHash);
+                    turingMachines.add(turingMachine);
+                    locks.add(lock);
+                    lock = null;
+                } finally {
+                    if (lock != null) {
+                        lock.forceUnlock();
+                    }
+                }
+            }
+            if (turingMachines.isEmpty()) {
+                return;
+            }
+            List<Integer> inputLengths = turingMachines.stream().map(m -> m.getTape().length()).collect(Collectors.toList());
+            keys.forEach(key -> taskProgress.started(key, id));
+            long startTime = System.nanoTime();
+            BatchTuringMachine batch = new BatchTuringMachine(turingMachines);
+            workerCapacity.acquireSlot();
+            try {
+                batch.run(i -> {
+                    try {
+                        storeBatchResult(id, keys.get(i), turingMachines.get(i), inputHashes.get(i), inputLengths.get(i),
+                                System.nanoTime() - startTime, batch.getBatchSteps());
+                    } finally {
+                        taskProgress.finished(keys.get(i));
+                        locks.get(i).forceUnlock();
+                        locks.set(i, null);
+                    }
+                });
+            } finally {
+                workerCapacity.releaseSlot();
+            }
+        } finally {
+            for (int i = 0; i < locks.size(); i++) {
+                if (locks.get(i) != null) {
+                    taskProgress.finished(keys.get(i));
+                    locks.get(i).forceUnlock();
+                }
+            }
+        }
+    }
+
+    /**
+     * Stores Turing machine which left the batch. Computation time of the machine is estimated as it's share
+     * of steps performed by the batch so far.
+     *
+     * @param id            User ID (for counting score)
+     * @param key           Key of Turing machine
+     * @param turingMachine Turing machine which left the batch
+     * @param inputHash     Canonical hash of the input (nullable)
+     * @param inputLength   Length of the input tape
+     * @param batchNanos    Time since the batch was started in nanoseconds
+     * @param batchSteps    Number of steps performed by the batch so far
+     */
+    private void storeBatchResult(String id, String key, DefaultTuringMachine turingMachine, String inputHash, int inputLength, long batchNanos, long batchSteps) {
+        ReplicatedMap<String, DefaultTuringMachine> tasksMap = hazelcastInstance.getReplicatedMap(TASKS_MAP);
+        tasksMap.put(key, turingMachine);
+        if (!turingMachine.isDone()) {
+            LOGGER.info("Turing machine exceeded the step limit of the batch and is left to be computed on it's own, key = " + key);
+            return;
+        }
+        if (inputHash != null) {
+            resultCache.put(inputHash, turingMachine);
+        }
+        if (turingMachine.isAccepted()) {
+            long steps = turingMachine.getSteps();
+            long nanos = batchSteps == 0 ? 0 : batchNanos * steps / batchSteps;
+            runtimeStatistics.record(turingMachine.getProgramHash(), inputLength, steps, nanos, turingMachine.getTape().length());
+        }
+        incrementScore(id);
+        clusterMetrics.computed();
+        LOGGER.info("Turing machine was successfully computed in a batch, key = " + key);
+    }
+
+    /**
+     * Performs computations on the Turing machine. If the machine is a stage of the pipeline, the following stage is
+     * computed by the same worker right away (if it can take it), so that the output tape doesn't travel to other member.
+     *
+     * @param id          User ID (for counting score)
+     * @param claimedTask Claimed Turing machine to compute
+     */
+    private void processTuringMachine(String id, ClaimedTask claimedTask) {
+        Optional<String> nextKey = computeTuringMachine(id, claimedTask);
+        ReplicatedMap<String, DefaultTuringMachine> tasksMap = hazelcastInstance.getReplicatedMap(TASKS_MAP);
+        while (nextKey.isPresent() && isWorker()) {
+            DefaultTuringMachine next = tasksMap.get(nextKey.get());
+            if (next == null || !workerCapacity.canTake(next)) {
+                return;
+            }
+            Optional<ClaimedTask> nextTask = claim(nextKey.get());
+            if (!nextTask.isPresent()) {
+                return;
+            }
+            nextKey = computeTuringMachine(id, nextTask.get());
+        }
+    }
+
+    /**
+     * Claims Turing machine for computations: locks it and fetches it (see {@link #fetch(String, ClaimedTask)}).
+     * The lock is held until the claimed machine is computed.
+     *
+     * @param key Key of Turing machine
+     * @return Claimed Turing machine or empty if it can't be computed by current worker now
+     */
+    private Optional<ClaimedTask> claim(String key) {
+        return claim(key, null);
+    }
+
+    /**
+     * Claims Turing machine for computations, reusing the previously fetched machine if it's still current.
+     *
+     * @param key         Key of Turing machine
+     * @param fetchedTask Turing machine fetched without the lock (nullable)
+     * @return Claimed Turing machine or empty if it can't be computed by current worker now
+     */
+    private Optional<ClaimedTask> claim(String key, ClaimedTask fetchedTask) {
         ILock lock = hazelcastInstance.getLock(key);
-        if (lock.tryLock()) {
+        boolean locked = lock.tryLock();
+        clusterMetrics.lockAttempted(ClusterMetrics.PROCESS_LOCK, locked);
+        if (!locked) {
+            return Optional.empty();
+        }
+        boolean claimed = false;
+        try {
+            Optional<ClaimedTask> claimedTask = fetch(key, fetchedTask).map(task -> task.withLock(lock));
+            claimed = claimedTask.isPresent();
+            return claimedTask;
+        } catch (RuntimeException e) {
+            LOGGER.error(e.getMessage(), e);
+            return Optional.empty();
+        } finally {
+            if (!claimed) {
+                lock.forceUnlock();
+            }
+        }
+    }
+
+    /**
+     * Fetches Turing machine waiting for being processed: loads it from the task store or warms it from the cold tier
+     * if needed, picks up it's checkpoint and compiles it's program. The previously fetched machine is returned as is
+     * if it wasn't computed (even partially), scheduled again or replaced since then.
+     *
+     * @param key         Key of Turing machine
+     * @param fetchedTask Previously fetched Turing machine (nullable)
+     * @return Fetched Turing machine without the lock or empty if it can't be computed by current worker now
+     */
+    private Optional<ClaimedTask> fetch(String key, ClaimedTask fetchedTask) {
+        ReplicatedMap<String, DefaultTuringMachine> tasksMap = hazelcastInstance.getReplicatedMap(TASKS_MAP);
+        DefaultTuringMachine turingMachine = tasksMap.get(key);
+        if (turingMachine == null || !turingMachine.isScheduled() || turingMachine.isDone()) {
+            return Optional.empty();
+        }
+        Optional<DefaultTuringMachine> checkpoint = executionTracker.getCheckpoint(key);
+        if (fetchedTask != null && fetchedTask.isCurrent(turingMachine, checkpoint)) {
+            return Optional.of(fetchedTask);
+        }
+        long steps = turingMachine.getSteps();
+        int version = ClaimedTask.getVersion(turingMachine);
+        if (turingMachine.isRestored()) {
+            Optional<DefaultTuringMachine> loaded = taskStore.load(key);
+            if (!loaded.isPresent()) {
+                LOGGER.info("Restored Turing machine is not found in the task store of current member, key = " + key);
+                return Optional.empty();
+            }
+            turingMachine = loaded.get();
+        }
+        if (turingMachine.isCold() && !coldTier.warm(key, turingMachine)) {
+            LOGGER.error("Tape of Turing machine is lost in the cold tier, key = " + key);
+            return Optional.empty();
+        }
+        DefaultTuringMachine compiled = checkpoint.orElse(turingMachine);
+        if (compiled.isStandard()) {
+            compiled.compile();
+        }
+        return Optional.of(new ClaimedTask(key, null, turingMachine, checkpoint, steps, version));
+    }
+
+    /**
+     * Performs computations on the claimed Turing machine and releases it.
+     *
+     * @param id          User ID (for counting score)
+     * @param claimedTask Claimed Turing machine to compute
+     * @return Key of the following stage of the pipeline which got the output of this machine, or empty if there's no such stage
+     */
+    private Optional<String> computeTuringMachine(String id, ClaimedTask claimedTask) {
+        String key = claimedTask.getKey();
+        ILock lock = claimedTask.getLock();
+        try {
+            ReplicatedMap<String, DefaultTuringMachine> tasksMap = hazelcastInstance.getReplicatedMap(TASKS_MAP);
+            DefaultTuringMachine turingMachine = claimedTask.getTuringMachine();
+            String inputHash = turingMachine.getCurrentState() == null ? turingMachine.getInputHash() : null;
+            Optional<ComputationResult> cachedResult = inputHash == null ? Optional.empty() : resultCache.get(inputHash);
+            if (cachedResult.isPresent()) {
+                turingMachine.complete(cachedResult.get());
+                tasksMap.put(key, turingMachine);
+                LOGGER.info("Turing machine was taken from cache, key = " + key);
+                return feedNextStages(turingMachine);
+            }
+            clusterMetrics.dispatched(turingMachine);
+            long inputLength = turingMachine.getTapeLength();
+            long expectedDuration = runtimeStatistics.predictMillis(turingMachine).orElse(0L);
+            Optional<DefaultTuringMachine> checkpoint = claimedTask.getCheckpoint();
+            if (checkpoint.isPresent()) {
+                turingMachine = checkpoint.get();
+                LOGGER.info("Turing machine computation is resumed from checkpoint, key = " + key);
+            }
+            executionTracker.started(key, id, expectedDuration);
+            taskProgress.started(key, id);
+            workerCapacity.acquireSlot();
             try {
-                ReplicatedMap<String, DefaultTuringMachine> tasksMap = hazelcastInstance.getReplicatedMap(TASKS_MAP);
-                DefaultTuringMachine turingMachine = tasksMap.get(key);
-                turingMachine.run(true);
+                long startTime = System.nanoTime();
+                if (turingMachine.getTapeReference() != null) {
+                    pagedTapes.run(turingMachine, new CompositeListener<>(Arrays.asList(executionTracker.createListener(key, true), taskProgress.createListener(key))));
+                } else {
+                    TapePublisher publisher = tapeStreams.createPublisher(key);
+                    engineMetrics.attach(turingMachine);
+                    turingMachine.run(!turingMachine.isTraced(), new CompositeListener<>(Arrays.asList(executionTracker.createListener(key, true), taskProgress.createListener(key), publisher)));
+                    engineMetrics.record(turingMachine);
+                    if (publisher != null) {
+                        publisher.finished(turingMachine);
+                    }
+                }
+                long nanos = System.nanoTime() - startTime;
+                exportTrace(key, turingMachine);
+                if (!turingMachine.isDone()) {
+                    LOGGER.info("Turing machine computation is cancelled: it was computed by speculative execution, key = " + key);
+                    return Optional.empty();
+                }
+                if (!executionTracker.commit(key, id)) {
+                    LOGGER.info("Turing machine result is discarded: speculative execution has finished first, key = " + key);
+                    return Optional.empty();
+                }
                 tasksMap.put(key, turingMachine);
+                if (inputHash != null) {
+                    resultCache.put(inputHash, turingMachine);
+                }
+                if (!checkpoint.isPresent() && turingMachine.isAccepted()) {
+                    runtimeStatistics.record(turingMachine.getProgramHash(), inputLength, turingMachine.getSteps(), nanos, turingMachine.getTapeLength());
+                }
                 incrementScore(id);
+                clusterMetrics.computed();
                 LOGGER.info("Turing machine was successfully computed, key = " + key);
+                return feedNextStages(turingMachine);
             } finally {
-                lock.forceUnlock();
+                workerCapacity.releaseSlot();
+                executionTracker.finished(key);
+                taskProgress.finished(key);
+            }
+        } finally {
+            lock.forceUnlock();
+        }
+    }
+
+    /**
+     * Saves execution trace of Turing machine (if it was recorded) to the binary file in {@link #TRACES_DIRECTORY}.
+     *
+     * @param key           Key of Turing machine
+     * @param turingMachine Computed Turing machine
+     */
+    private void exportTrace(String key, DefaultTuringMachine turingMachine) {
+        TraceRecorder trace = turingMachine.getTrace();
+        if (trace == null) {
+            if (turingMachine.isTraced() && !turingMachine.isStandard()) {
+                LOGGER.info("Execution trace is not recorded for machines of this type, key = " + key);
+            }
+            return;
+        }
+        File traceFile = new File(TRACES_DIRECTORY, key + ".trace");
+        try {
+            FileUtils.forceMkdir(traceFile.getParentFile());
+            try (OutputStream outputStream = new BufferedOutputStream(new FileOutputStream(traceFile))) {
+                trace.writeTo(outputStream);
             }
+            LOGGER.info("Execution trace of Turing machine is saved to " + traceFile.getAbsolutePath() + ", key = " + key);
+        } catch (IOException e) {
+            LOGGER.error(e.getMessage(), e);
         }
     }
 
+    /**
+     * Performs speculative (backup) computations on the Turing machine which is computed by other worker for too long.
+     * Computation starts from the latest checkpoint, the first copy to finish commits the result, the other one is cancelled.
+     * Machines with paged tapes are never speculated.
+     *
+     * @param id  User ID (for counting score)
+     * @param key Key of Turing machine
+     */
+    private void processSpeculatively(String id, String key) {
+        ReplicatedMap<String, DefaultTuringMachine> tasksMap = hazelcastInstance.getReplicatedMap(TASKS_MAP);
+        Optional<DefaultTuringMachine> checkpoint = executionTracker.getCheckpoint(key);
+        DefaultTuringMachine turingMachine = checkpoint.isPresent() ? checkpoint.get() : tasksMap.get(key);
+        if (turingMachine == null || turingMachine.isDone()) {
+            return;
+        }
+        if (turingMachine.getTapeReference() != null) {
+            // both copies would write segments of the same tape
+            executionTracker.releaseStraggler(key);
+            return;
+        }
+        if (turingMachine.isRestored()) {
+            Optional<DefaultTuringMachine> loaded = taskStore.load(key);
+            if (!loaded.isPresent()) {
+                executionTracker.releaseStraggler(key);
+                return;
+            }
+            turingMachine = loaded.get();
+        }
+        if (turingMachine.isCold() && !coldTier.warm(key, turingMachine)) {
+            executionTracker.releaseStraggler(key);
+            return;
+        }
+        if (!workerCapacity.canTake(turingMachine)) {
+            executionTracker.releaseStraggler(key);
+            return;
+        }
+        LOGGER.info("Speculative execution of Turing machine is started, key = " + key);
+        taskProgress.started(key, id);
+        workerCapacity.acquireSlot();
+        try {
+            engineMetrics.attach(turingMachine);
+            turingMachine.run(true, new CompositeListener<>(Arrays.asList(executionTracker.createListener(key, false), taskProgress.createListener(key))));
+            engineMetrics.record(turingMachine);
+        } finally {
+            workerCapacity.releaseSlot();
+            taskProgress.finished(key);
+        }
+        if (!turingMachine.isDone()) {
+            LOGGER.info("Speculative execution of Turing machine is cancelled: primary execution has finished first, key = " + key);
+            return;
+        }
+        if (!executionTracker.commit(key, id)) {
+            LOGGER.info("Speculative execution result is discarded: primary execution has finished first, key = " + key);
+            return;
+        }
+        tasksMap.put(key, turingMachine);
+        incrementScore(id);
+        clusterMetrics.computed();
+        LOGGER.info("Turing machine was successfully computed by speculative execution, key = " + key);
+        feedNextStages(turingMachine);
+    }
+
     /**
      * Increments user's score
      *
@@ -220,8 +1008,9 @@ public class TuringService {
      * Gets user's score
      *
      * @param id User ID
+     * @return User's score
      */
-    private long getScore(String id) {
+    public long getScore(String id) {
         return hazelcastInstance.getAtomicLong(id).get();
     }
 
@@ -243,4 +1032,147 @@ public class TuringService {
         this.worker = worker;
     }
 
+    /**
+     * Turing machine prepared for computations by current worker and locked by it once it's claimed.
+     */
+    static class ClaimedTask {
+
+        private final String key;
+        private final ILock lock;
+        private final DefaultTuringMachine turingMachine;
+        private final Optional<DefaultTuringMachine> checkpoint;
+        private final long steps;
+        private final int version;
+
+        /**
+         * Constructor accepting all required parameters for building the claimed task.
+         *
+         * @param key           Key of Turing machine
+         * @param lock          Held lock of Turing machine (null if it's only fetched)
+         * @param turingMachine Fetched Turing machine
+         * @param checkpoint    Latest checkpoint of Turing machine
+         * @param steps         Number of steps of the machine in the tasks map when it was fetched
+         * @param version       Version of the machine in the tasks map when it was fetched
+         */
+        ClaimedTask(String key, ILock lock, DefaultTuringMachine turingMachine, Optional<DefaultTuringMachine> checkpoint, long steps, int version) {
+            this.key = key;
+            this.lock = lock;
+            this.turingMachine = turingMachine;
+            this.checkpoint = checkpoint;
+            this.steps = steps;
+            this.version = version;
+        }
+
+        /**
+         * Gets version of Turing machine in the tasks map: it changes when the machine is scheduled again or replaced
+         * (e.g. submitted again with other tape), even if it's number of steps stays the same.
+         *
+         * @param turingMachine Turing machine in the tasks map
+         * @return Version of Turing machine
+         */
+        static int getVersion(DefaultTuringMachine turingMachine) {
+            return Objects.hash(turingMachine.getScheduledAt(), turingMachine.getTape(), turingMachine.getTapeLength(),
+                    turingMachine.getCurrentState(), turingMachine.getCurrentIndex());
+        }
+
+        /**
+         * Makes the claimed task of the fetched one.
+         *
+         * @param lock Held lock of Turing machine
+         * @return Claimed task
+         */
+        ClaimedTask withLock(ILock lock) {
+            return new ClaimedTask(key, lock, turingMachine, checkpoint, steps, version);
+        }
+
+        /**
+         * Checks if the fetched machine is still current: it wasn't computed (even partially), scheduled again
+         * or replaced since it was fetched.
+         *
+         * @param turingMachine Turing machine in the tasks map
+         * @param checkpoint    Latest checkpoint of Turing machine
+         * @return true if the fetched machine can be computed as is, false otherwise
+         */
+        boolean isCurrent(DefaultTuringMachine turingMachine, Optional<DefaultTuringMachine> checkpoint) {
+            return turingMachine.getSteps() == steps && getVersion(turingMachine) == version
+                    && checkpoint.map(DefaultTuringMachine::getSteps).equals(this.checkpoint.map(DefaultTuringMachine::getSteps));
+        }
+
+        /**
+         * Gets key of Turing machine.
+         *
+         * @return Key of Turing machine
+         */
+        String getKey() {
+            return key;
+        }
+
+        /**
+         * Gets held lock of Turing machine.
+         *
+         * @return Lock of Turing machine (null if it's only fetched)
+         */
+        ILock getLock() {
+            return lock;
+        }
+
+        /**
+         * Gets fetched Turing machine.
+         *
+         * @return Turing machine
+         */
+        DefaultTuringMachine getTuringMachine() {
+            return turingMachine;
+        }
+
+        /**
+         * Gets latest checkpoint of Turing machine.
+         *
+         * @return Checkpoint or empty if computation was never checkpointed
+         */
+        Optional<DefaultTuringMachine> getCheckpoint() {
+            return checkpoint;
+        }
+
+    }
+
+    /**
+     * Turing machine fetched without the lock while the current one is computed, with it's choice by the scheduler.
+     */
+    static class PrefetchedTask {
+
+        private final TaskScheduler.Selection selection;
+        private final ClaimedTask task;
+
+        /**
+         * Constructor accepting all required parameters for building the prefetched task.
+         *
+         * @param selection Choice of the scheduler, charged once the machine is claimed
+         * @param task      Fetched Turing machine
+         */
+        PrefetchedTask(TaskScheduler.Selection selection, ClaimedTask task) {
+            this.selection = selection;
+            this.task = task;
+        }
+
+        /**
+         * Gets choice of the scheduler.
+         *
+         * @return Choice of the scheduler
+         */
+        TaskScheduler.Selection getSelection() {
+            return selection;
+        }
+
+        /**
+         * Gets fetched Turing machine.
+         *
+         * @return Fetched Turing machine without the lock
+         */
+        ClaimedTask getTask() {
+            return task;
+        }
+
+    }
+
 }
@@ -0,0 +1,128 @@
+package com.uwc.tooring.caching;
+
+import com.hazelcast.config.Config;
+import com.hazelcast.config.EvictionPolicy;
+import com.hazelcast.config.MapConfig;
+import com.hazelcast.config.MaxSizeConfig;
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.core.IMap;
+import com.uwc.tooring.model.ComputationResult;
+import com.uwc.tooring.turing.impl.DefaultTuringMachine;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jmx.export.annotation.ManagedAttribute;
+import org.springframework.jmx.export.annotation.ManagedResource;
+import org.springframework.stereotype.Service;
+
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cluster-wide cache of computation results keyed by canonical hash of the program and the input tape.
+ */
+@Service
+@ManagedResource(objectName = "com.uwc.tooring:type=ResultCache")
+public class ResultCache {
+
+    public static final String RESULTS_MAP = "RESULTS_MAP";
+
+    public static final String HITS_COUNTER = "RESULTS_MAP_HITS";
+
+    public static final String MISSES_COUNTER = "RESULTS_MAP_MISSES";
+
+    public static final int RESULT_TTL_IN_HOURS = 24;
+
+    public static final int RESULTS_MAX_SIZE_IN_MB = 256;
+
+    @Autowired
+    private HazelcastInstance hazelcastInstance;
+
+    /**
+     * Configures results map: entries expire after TTL and least recently used entries get evicted on reaching max size.
+     *
+     * @param config Hazelcast configuration
+     */
+    public static void configure(Config config) {
+        MapConfig mapConfig = config.getMapConfig(RESULTS_MAP);
+        mapConfig.setTimeToLiveSeconds((int) TimeUnit.HOURS.toSeconds(RESULT_TTL_IN_HOURS));
+        mapConfig.setEvictionPolicy(EvictionPolicy.LRU);
+        mapConfig.setMaxSizeConfig(new MaxSizeConfig(RESULTS_MAX_SIZE_IN_MB, MaxSizeConfig.MaxSizePolicy.USED_HEAP_SIZE));
+    }
+
+    /**
+     * Looks up result of computation for the same program and input tape.
+     *
+     * @param inputHash Canonical hash of the program and the input tape
+     * @return Cached result
+     */
+    public Optional<ComputationResult> get(String inputHash) {
+        Optional<ComputationResult> result = peek(inputHash);
+        if (!result.isPresent()) {
+            hazelcastInstance.getAtomicLong(MISSES_COUNTER).incrementAndGet();
+        }
+        return result;
+    }
+
+    /**
+     * Looks up result of computation for the same program and input tape on scheduling.
+     * Only hits are counted: on miss the same input is looked up (and counted) by the worker later.
+     *
+     * @param inputHash Canonical hash of the program and the input tape
+     * @return Cached result
+     */
+    public Optional<ComputationResult> peek(String inputHash) {
+        IMap<String, ComputationResult> resultsMap = hazelcastInstance.getMap(RESULTS_MAP);
+        ComputationResult result = resultsMap.get(inputHash);
+        if (result == null) {
+            return Optional.empty();
+        }
+        hazelcastInstance.getAtomicLong(HITS_COUNTER).incrementAndGet();
+        return Optional.of(result);
+    }
+
+    /**
+     * Stores result of finished computation. Only computations which reached accept state are cached,
+     * so failed computations are retried on the next submission.
+     *
+     * @param inputHash     Canonical hash of the program and the input tape
+     * @param turingMachine Computed Turing machine
+     */
+    public void put(String inputHash, DefaultTuringMachine turingMachine) {
+        if (!turingMachine.isAccepted()) {
+            return;
+        }
+        IMap<String, ComputationResult> resultsMap = hazelcastInstance.getMap(RESULTS_MAP);
+        resultsMap.set(inputHash, turingMachine.getResult());
+    }
+
+    /**
+     * Gets number of cache hits.
+     *
+     * @return Number of hits
+     */
+    @ManagedAttribute(description = "Number of cache hits")
+    public long getHits() {
+        return hazelcastInstance.getAtomicLong(HITS_COUNTER).get();
+    }
+
+    /**
+     * Gets number of cache misses.
+     *
+     * @return Number of misses
+     */
+    @ManagedAttribute(description = "Number of cache misses")
+    public long getMisses() {
+        return hazelcastInstance.getAtomicLong(MISSES_COUNTER).get();
+    }
+
+    /**
+     * Gets number of cached results owned by current node.
+     *
+     * @return Number of cached results
+     */
+    @ManagedAttribute(description = "Number of cached results owned by current node")
+    public long getLocalSize() {
+        IMap<String, ComputationResult> resultsMap = hazelcastInstance.getMap(RESULTS_MAP);
+        return resultsMap.getLocalMapStats().getOwnedEntryCount();
+    }
+
+}
@@ -0,0 +1,213 @@
+package com.uwc.tooring.local;
+
+import com.google.gson.Gson;
+import com.uwc.tooring.turing.impl.DefaultTuringMachine;
+import com.uwc.tooring.turing.impl.TuringMachines;
+import org.apache.commons.io.FileUtils;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Offline runner computing Turing machines from local files on all cores of the current machine, without the cluster.
+ * Machines are read and computed in parallel on the fork-join pool by the same engine as workers use; every output is
+ * written to the output directory (under the name of the input file) as soon as it's computed. Input files with the same
+ * name from different directories get numbered output names ("2-NAME", "3-NAME" and so on) in the order of input files.
+ * Usage: {@code java -jar tooring-0.0.1-SNAPSHOT.jar --local --output DIRECTORY FILENAME...}
+ */
+public class LocalRunner {
+
+    private final File outputDirectory;
+    private final int parallelism;
+
+    private final Gson gson = new Gson();
+
+    /**
+     * Constructor accepting all required parameters for building the runner.
+     *
+     * @param outputDirectory Directory to write outputs to
+     * @param parallelism     Number of machines computed in parallel
+     */
+    public LocalRunner(File outputDirectory, int parallelism) {
+        this.outputDirectory = outputDirectory;
+        this.parallelism = parallelism;
+    }
+
+    /**
+     * Computes machines from input files, printing report of every job as soon as it's finished and the summary at the end.
+     *
+     * @param inputFiles Files with JSON descriptions of Turing machines
+     * @return Reports of jobs in the order of input files
+     * @throws IOException          If output directory can't be created
+     * @throws InterruptedException If waiting for jobs is interrupted
+     */
+    public List<JobReport> run(List<File> inputFiles) throws IOException, InterruptedException {
+        FileUtils.forceMkdir(outputDirectory);
+        long startTime = System.nanoTime();
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        List<JobReport> reports = new ArrayList<>();
+        try {
+            List<String> outputNames = getOutputNames(inputFiles);
+            List<Future<JobReport>> jobs = new ArrayList<>();
+            for (int i = 0; i < inputFiles.size(); i++) {
+                File inputFile = inputFiles.get(i);
+                File outputFile = new File(outputDirectory, outputNames.get(i));
+                jobs.add(pool.submit(() -> compute(inputFile, outputFile)));
+            }
+            for (Future<JobReport> job : jobs) {
+                try {
+                    reports.add(job.get());
+                } catch (ExecutionException e) {
+                    throw new IllegalStateException(e.getCause());
+                }
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+        long failed = reports.stream().filter(report -> !report.isAccepted()).count();
+        long steps = reports.stream().mapToLong(JobReport::getSteps).sum();
+        System.out.println("Jobs computed: " + reports.size() + ", failed: " + failed + ", steps: " + steps
+                + ", wall time (ms): " + TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTime));
+        return reports;
+    }
+
+    /**
+     * Chooses distinct names of output files: the name of the input file, numbered if it's already taken.
+     *
+     * @param inputFiles Files with JSON descriptions of Turing machines
+     * @return Names of output files in the order of input files
+     */
+    static List<String> getOutputNames(List<File> inputFiles) {
+        Set<String> taken = new HashSet<>();
+        List<String> outputNames = new ArrayList<>();
+        for (File inputFile : inputFiles) {
+            String outputName = inputFile.getName();
+            for (int copy = 2; !taken.add(outputName); copy++) {
+                outputName = copy + "-" + inputFile.getName();
+            }
+            outputNames.add(outputName);
+        }
+        return outputNames;
+    }
+
+    /**
+     * Computes single machine and writes it's output.
+     *
+     * @param inputFile  File with JSON description of Turing machine
+     * @param outputFile File to write the computed machine to
+     * @return Report of the job
+     */
+    private JobReport compute(File inputFile, File outputFile) {
+        JobReport report;
+        try {
+            DefaultTuringMachine turingMachine = TuringMachines.fromJson(gson, FileUtils.readFileToString(inputFile));
+            long startTime = System.nanoTime();
+            turingMachine.run(true);
+            long nanos = System.nanoTime() - startTime;
+            FileUtils.writeStringToFile(outputFile, gson.toJson(turingMachine));
+            report = new JobReport(inputFile.getPath(), turingMachine.isAccepted(), turingMachine.getSteps(), nanos, null);
+        } catch (Exception e) {
+            report = new JobReport(inputFile.getPath(), false, 0, 0, e.getMessage());
+        }
+        System.out.println(report);
+        return report;
+    }
+
+    /**
+     * Report of the computed job.
+     */
+    public static class JobReport {
+
+        private final String name;
+        private final boolean accepted;
+        private final long steps;
+        private final long nanos;
+        private final String error;
+
+        /**
+         * Constructor accepting all required parameters for building the report.
+         *
+         * @param name     Path of the input file
+         * @param accepted true if machine has reached accept state
+         * @param steps    Number of performed steps
+         * @param nanos    Wall time of computation in nanoseconds
+         * @param error    Error of reading or writing the machine (nullable)
+         */
+        JobReport(String name, boolean accepted, long steps, long nanos, String error) {
+            this.name = name;
+            this.accepted = accepted;
+            this.steps = steps;
+            this.nanos = nanos;
+            this.error = error;
+        }
+
+        /**
+         * Gets path of the input file.
+         *
+         * @return Path of the input file
+         */
+        public String getName() {
+            return name;
+        }
+
+        /**
+         * Checks if machine has reached accept state.
+         *
+         * @return true if machine has reached accept state, false if computation has failed
+         */
+        public boolean isAccepted() {
+            return accepted;
+        }
+
+        /**
+         * Gets number of performed steps.
+         *
+         * @return Number of steps
+         */
+        public long getSteps() {
+            return steps;
+        }
+
+        /**
+         * Gets wall time of computation.
+         *
+         * @return Time in nanoseconds
+         */
+        public long getNanos() {
+            return nanos;
+        }
+
+        /**
+         * Gets error of reading or writing the machine.
+         *
+         * @return Error message or null if there was no such error
+         */
+        public String getError() {
+            return error;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public String toString() {
+            if (error != null) {
+                return name + ": failed (" + error + ")";
+            }
+            double seconds = nanos / 1e9;
+            return name + ": " + (accepted ? "accepted" : "failed") + ", steps = " + steps
+                    + ", time (ms) = " + TimeUnit.NANOSECONDS.toMillis(nanos)
+                    + ", steps per second = " + (seconds == 0 ? 0 : (long) (steps / seconds));
+        }
+
+    }
+
+}
@@ -0,0 +1,79 @@
+package com.uwc.tooring.model;
+
+import java.io.Serializable;
+
+/**
+ * Class represents result of Turing machine computation: final tape and position of the head.
+ * Results of pipeline stages also keep the raw output tape for the following stages.
+ */
+public class ComputationResult implements Serializable {
+
+    private final String tape;
+    private final Integer currentIndex;
+    private final String currentState;
+    private final String rawOutput;
+
+    /**
+     * Constructor accepting all required parameters for building the result.
+     *
+     * @param tape         Final tape
+     * @param currentIndex Final position of the head
+     * @param currentState Final state
+     * @param rawOutput    Final tape with empty symbols (null if there are no following pipeline stages)
+     */
+    public ComputationResult(String tape, Integer currentIndex, String currentState, String rawOutput) {
+        this.tape = tape;
+        this.currentIndex = currentIndex;
+        this.currentState = currentState;
+        this.rawOutput = rawOutput;
+    }
+
+    /**
+     * Returns final tape.
+     *
+     * @return Final tape
+     */
+    public String getTape() {
+        return tape;
+    }
+
+    /**
+     * Returns final position of the head.
+     *
+     * @return Final position
+     */
+    public Integer getCurrentIndex() {
+        return currentIndex;
+    }
+
+    /**
+     * Returns final state.
+     *
+     * @return Final state
+     */
+    public String getCurrentState() {
+        return currentState;
+    }
+
+    /**
+     * Returns final tape with empty symbols.
+     *
+     * @return Raw output tape (null if there are no following pipeline stages)
+     */
+    public String getRawOutput() {
+        return rawOutput;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String toString() {
+        return "ComputationResult{" +
+                "tape='" + tape + '\'' +
+                ", currentIndex=" + currentIndex +
+                ", currentState='" + currentState + '\'' +
+                '}';
+    }
+
+}
@@ -0,0 +1,66 @@
+package com.uwc.tooring.model;
+
+import java.io.Serializable;
+
+/**
+ * Class represents running computation of Turing machine.
+ */
+public class ExecutionRecord implements Serializable {
+
+    private final String workerId;
+    private final long startedAt;
+    private final long expectedDuration;
+
+    /**
+     * Constructor accepting all required parameters for building the record.
+     *
+     * @param workerId         User ID of the worker
+     * @param startedAt        Start time in milliseconds
+     * @param expectedDuration Expected duration in milliseconds (0 if unknown)
+     */
+    public ExecutionRecord(String workerId, long startedAt, long expectedDuration) {
+        this.workerId = workerId;
+        this.startedAt = startedAt;
+        this.expectedDuration = expectedDuration;
+    }
+
+    /**
+     * Returns user ID of the worker.
+     *
+     * @return User ID
+     */
+    public String getWorkerId() {
+        return workerId;
+    }
+
+    /**
+     * Returns start time.
+     *
+     * @return Start time in milliseconds
+     */
+    public long getStartedAt() {
+        return startedAt;
+    }
+
+    /**
+     * Returns expected duration.
+     *
+     * @return Expected duration in milliseconds (0 if unknown)
+     */
+    public long getExpectedDuration() {
+        return expectedDuration;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String toString() {
+        return "ExecutionRecord{" +
+                "workerId='" + workerId + '\'' +
+                ", startedAt=" + startedAt +
+                ", expectedDuration=" + expectedDuration +
+                '}';
+    }
+
+}
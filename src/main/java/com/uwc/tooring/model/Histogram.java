@@ -0,0 +1,124 @@
+package com.uwc.tooring.model;
+
+import java.io.Serializable;
+import java.util.Arrays;
+
+/**
+ * Class represents histogram of observed values with fixed bucket bounds (Prometheus-style: each bucket counts values
+ * less than or equal to it's upper bound, the last bucket counts all values).
+ */
+public class Histogram implements Serializable {
+
+    /**
+     * Bucket bounds for waiting times in seconds.
+     */
+    public static final double[] WAIT_BUCKETS = {0.1, 0.5, 1, 2.5, 5, 10, 30, 60, 300, 900, 3600, 14400};
+
+    /**
+     * Bucket bounds for short operations in seconds.
+     */
+    public static final double[] OPERATION_BUCKETS = {0.001, 0.005, 0.01, 0.05, 0.1, 0.5, 1, 5, 10};
+
+    private final double[] bounds;
+    private final long[] counts;
+    private double sum;
+    private long count;
+
+    /**
+     * Constructor accepting all required parameters for building the histogram.
+     *
+     * @param bounds Upper bounds of buckets in ascending order
+     */
+    public Histogram(double[] bounds) {
+        this.bounds = bounds.clone();
+        this.counts = new long[bounds.length];
+    }
+
+    /**
+     * Adds observed value.
+     *
+     * @param value Observed value
+     */
+    public synchronized void observe(double value) {
+        int bucket = Arrays.binarySearch(bounds, value);
+        if (bucket < 0) {
+            bucket = -bucket - 1;
+        }
+        if (bucket < counts.length) {
+            counts[bucket]++;
+        }
+        sum += value;
+        count++;
+    }
+
+    /**
+     * Adds all values observed by other histogram with the same bounds.
+     *
+     * @param other Other histogram
+     */
+    public synchronized void merge(Histogram other) {
+        if (!Arrays.equals(bounds, other.bounds)) {
+            throw new IllegalArgumentException("Histograms should have the same bounds");
+        }
+        synchronized (other) {
+            for (int i = 0; i < counts.length; i++) {
+                counts[i] += other.counts[i];
+            }
+            sum += other.sum;
+            count += other.count;
+        }
+    }
+
+    /**
+     * Creates copy of the histogram.
+     *
+     * @return Copy of the histogram
+     */
+    public synchronized Histogram copy() {
+        Histogram copy = new Histogram(bounds);
+        copy.merge(this);
+        return copy;
+    }
+
+    /**
+     * Returns upper bounds of buckets.
+     *
+     * @return Upper bounds
+     */
+    public double[] getBounds() {
+        return bounds.clone();
+    }
+
+    /**
+     * Returns cumulative count of values less than or equal to the bound of the bucket.
+     *
+     * @param bucket Bucket index
+     * @return Cumulative count
+     */
+    public synchronized long getCumulativeCount(int bucket) {
+        long cumulative = 0;
+        for (int i = 0; i <= bucket; i++) {
+            cumulative += counts[i];
+        }
+        return cumulative;
+    }
+
+    /**
+     * Returns sum of observed values.
+     *
+     * @return Sum of values
+     */
+    public synchronized double getSum() {
+        return sum;
+    }
+
+    /**
+     * Returns number of observed values.
+     *
+     * @return Number of values
+     */
+    public synchronized long getCount() {
+        return count;
+    }
+
+}
@@ -0,0 +1,153 @@
+package com.uwc.tooring.model;
+
+import java.io.Serializable;
+import java.util.Map;
+
+/**
+ * Class represents snapshot of operational metrics published by cluster member.
+ */
+public class MemberMetrics implements Serializable {
+
+    private final String member;
+    private final boolean worker;
+    private final long computed;
+    private final int activeSlots;
+    private final long freeHeap;
+    private final long engineSteps;
+    private final long engineStepsPerSecond;
+    private final Map<String, Long> lockAttempts;
+    private final Map<String, Long> lockFailures;
+    private final Histogram sweepDurations;
+    private final Map<String, Histogram> waitTimes;
+
+    /**
+     * Constructor accepting all required parameters for building the snapshot.
+     *
+     * @param member               Address of the member
+     * @param worker               true if member is worker, false otherwise
+     * @param computed             Number of machines computed by the member
+     * @param activeSlots          Number of running computations
+     * @param freeHeap             Free heap in bytes
+     * @param engineSteps          Number of steps performed by the engine
+     * @param engineStepsPerSecond Average speed of the engine
+     * @param lockAttempts         Number of attempts to lock a machine by operation
+     * @param lockFailures         Number of failed attempts to lock a machine by operation
+     * @param sweepDurations       Durations of unlocking sweeps in seconds
+     * @param waitTimes            Waiting times of computed machines in seconds by submitter
+     */
+    public MemberMetrics(String member, boolean worker, long computed, int activeSlots, long freeHeap,
+                         long engineSteps, long engineStepsPerSecond, Map<String, Long> lockAttempts, Map<String, Long> lockFailures,
+                         Histogram sweepDurations, Map<String, Histogram> waitTimes) {
+        this.member = member;
+        this.worker = worker;
+        this.computed = computed;
+        this.activeSlots = activeSlots;
+        this.freeHeap = freeHeap;
+        this.engineSteps = engineSteps;
+        this.engineStepsPerSecond = engineStepsPerSecond;
+        this.lockAttempts = lockAttempts;
+        this.lockFailures = lockFailures;
+        this.sweepDurations = sweepDurations;
+        this.waitTimes = waitTimes;
+    }
+
+    /**
+     * Returns address of the member.
+     *
+     * @return Address of the member
+     */
+    public String getMember() {
+        return member;
+    }
+
+    /**
+     * Returns worker flag.
+     *
+     * @return true if member is worker, false otherwise
+     */
+    public boolean isWorker() {
+        return worker;
+    }
+
+    /**
+     * Returns number of machines computed by the member.
+     *
+     * @return Number of machines
+     */
+    public long getComputed() {
+        return computed;
+    }
+
+    /**
+     * Returns number of running computations.
+     *
+     * @return Number of computations
+     */
+    public int getActiveSlots() {
+        return activeSlots;
+    }
+
+    /**
+     * Returns free heap.
+     *
+     * @return Free heap in bytes
+     */
+    public long getFreeHeap() {
+        return freeHeap;
+    }
+
+    /**
+     * Returns number of steps performed by the engine.
+     *
+     * @return Number of steps
+     */
+    public long getEngineSteps() {
+        return engineSteps;
+    }
+
+    /**
+     * Returns average speed of the engine.
+     *
+     * @return Steps per second
+     */
+    public long getEngineStepsPerSecond() {
+        return engineStepsPerSecond;
+    }
+
+    /**
+     * Returns number of attempts to lock a machine.
+     *
+     * @return Number of attempts by operation
+     */
+    public Map<String, Long> getLockAttempts() {
+        return lockAttempts;
+    }
+
+    /**
+     * Returns number of failed attempts to lock a machine.
+     *
+     * @return Number of failures by operation
+     */
+    public Map<String, Long> getLockFailures() {
+        return lockFailures;
+    }
+
+    /**
+     * Returns durations of unlocking sweeps.
+     *
+     * @return Histogram of durations in seconds
+     */
+    public Histogram getSweepDurations() {
+        return sweepDurations;
+    }
+
+    /**
+     * Returns waiting times of computed machines.
+     *
+     * @return Histograms of waiting times in seconds by submitter
+     */
+    public Map<String, Histogram> getWaitTimes() {
+        return waitTimes;
+    }
+
+}
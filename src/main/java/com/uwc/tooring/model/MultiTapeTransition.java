@@ -0,0 +1,133 @@
+package com.uwc.tooring.model;
+
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * Class represents transition of multi-tape Turing machine: symbols are read, written and heads are moved
+ * on all tapes at once. Element i of every tuple refers to tape i.
+ */
+public class MultiTapeTransition implements Serializable {
+
+    private final String readState;
+    private final Character[] readSymbols;
+    private final String writeState;
+    private final Character[] writeSymbols;
+    private final Boolean[] moveDirections;
+
+    /**
+     * Constructor accepting all required parameters for building the transition.
+     *
+     * @param readState      Triggering state
+     * @param readSymbols    Triggering symbols
+     * @param writeState     New state
+     * @param writeSymbols   New symbols (null elements keep symbols under the heads)
+     * @param moveDirections Directions to move pivots (null elements keep the heads in place)
+     */
+    public MultiTapeTransition(String readState, Character[] readSymbols, String writeState, Character[] writeSymbols, Boolean[] moveDirections) {
+        this.readState = readState;
+        this.readSymbols = readSymbols;
+        this.writeState = writeState;
+        this.writeSymbols = writeSymbols;
+        this.moveDirections = moveDirections;
+    }
+
+    /**
+     * Checks for conflict condition: state equals read state and symbols equal read symbols.
+     *
+     * @param state   Input state
+     * @param symbols Input symbols
+     * @return true if it's conflicting condition, false otherwise
+     */
+    public boolean isConflicting(String state, Character[] symbols) {
+        return state.equals(readState) && Arrays.equals(symbols, readSymbols);
+    }
+
+    /**
+     * Returns read state.
+     *
+     * @return Read state
+     */
+    public String getReadState() {
+        return readState;
+    }
+
+    /**
+     * Returns read symbols.
+     *
+     * @return Read symbols
+     */
+    public Character[] getReadSymbols() {
+        return readSymbols;
+    }
+
+    /**
+     * Returns write state.
+     *
+     * @return Write state
+     */
+    public String getWriteState() {
+        return writeState;
+    }
+
+    /**
+     * Returns write symbols.
+     *
+     * @return Write symbols (nullable)
+     */
+    public Character[] getWriteSymbols() {
+        return writeSymbols;
+    }
+
+    /**
+     * Returns move directions: true stands for "right", false stands for "left".
+     *
+     * @return Movement directions (nullable)
+     */
+    public Boolean[] getMoveDirections() {
+        return moveDirections;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        MultiTapeTransition that = (MultiTapeTransition) o;
+        return Objects.equals(readState, that.readState) &&
+                Arrays.equals(readSymbols, that.readSymbols) &&
+                Objects.equals(writeState, that.writeState) &&
+                Arrays.equals(writeSymbols, that.writeSymbols) &&
+                Arrays.equals(moveDirections, that.moveDirections);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int hashCode() {
+        return Objects.hash(readState, Arrays.hashCode(readSymbols), writeState, Arrays.hashCode(writeSymbols), Arrays.hashCode(moveDirections));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String toString() {
+        return "MultiTapeTransition{" +
+                "readState='" + readState + '\'' +
+                ", readSymbols=" + Arrays.toString(readSymbols) +
+                ", writeState='" + writeState + '\'' +
+                ", writeSymbols=" + Arrays.toString(writeSymbols) +
+                ", moveDirections=" + Arrays.toString(moveDirections) +
+                '}';
+    }
+
+}
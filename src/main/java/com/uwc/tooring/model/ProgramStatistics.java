@@ -0,0 +1,133 @@
+package com.uwc.tooring.model;
+
+import java.io.Serializable;
+
+/**
+ * Class represents execution statistics of a program (transition space) accumulated over finished computations.
+ * Number of steps is modeled as power function of input length: steps = a * length^b (fitted in log-log space).
+ */
+public class ProgramStatistics implements Serializable {
+
+    private long count;
+
+    private double sumLogLength;
+    private double sumLogSteps;
+    private double sumLogLengthSquared;
+    private double sumLogLengthLogSteps;
+
+    private long totalSteps;
+    private long totalNanos;
+
+    private double sumGrowth;
+
+    /**
+     * Adds finished computation to the statistics.
+     *
+     * @param inputLength  Length of input tape
+     * @param steps        Number of performed steps
+     * @param nanos        Wall time of computation in nanoseconds
+     * @param outputLength Length of output tape
+     */
+    public void add(long inputLength, long steps, long nanos, long outputLength) {
+        double logLength = Math.log(inputLength + 1);
+        double logSteps = Math.log(steps + 1);
+        count++;
+        sumLogLength += logLength;
+        sumLogSteps += logSteps;
+        sumLogLengthSquared += logLength * logLength;
+        sumLogLengthLogSteps += logLength * logSteps;
+        totalSteps += steps;
+        totalNanos += nanos;
+        sumGrowth += (double) (outputLength + 1) / (inputLength + 1);
+    }
+
+    /**
+     * Predicts number of steps for the input of specified length.
+     *
+     * @param inputLength Length of input tape
+     * @return Expected number of steps
+     */
+    public double predictSteps(long inputLength) {
+        if (count == 0) {
+            return 0;
+        }
+        double logLength = Math.log(inputLength + 1);
+        double denominator = count * sumLogLengthSquared - sumLogLength * sumLogLength;
+        if (count < 2 || Math.abs(denominator) < 1e-9) {
+            return Math.exp(sumLogSteps / count) - 1;
+        }
+        double exponent = (count * sumLogLengthLogSteps - sumLogLength * sumLogSteps) / denominator;
+        double coefficient = (sumLogSteps - exponent * sumLogLength) / count;
+        return Math.exp(coefficient + exponent * logLength) - 1;
+    }
+
+    /**
+     * Predicts wall time of computation for the input of specified length.
+     *
+     * @param inputLength Length of input tape
+     * @return Expected wall time in nanoseconds
+     */
+    public double predictNanos(long inputLength) {
+        return predictSteps(inputLength) * getNanosPerStep();
+    }
+
+    /**
+     * Predicts length of output tape for the input of specified length.
+     *
+     * @param inputLength Length of input tape
+     * @return Expected length of output tape
+     */
+    public double predictOutputLength(long inputLength) {
+        return count == 0 ? inputLength : (inputLength + 1) * sumGrowth / count - 1;
+    }
+
+    /**
+     * Returns average wall time of a single step.
+     *
+     * @return Nanoseconds per step
+     */
+    public double getNanosPerStep() {
+        return totalSteps == 0 ? 0 : (double) totalNanos / totalSteps;
+    }
+
+    /**
+     * Returns number of finished computations.
+     *
+     * @return Number of computations
+     */
+    public long getCount() {
+        return count;
+    }
+
+    /**
+     * Returns total number of steps of finished computations.
+     *
+     * @return Number of steps
+     */
+    public long getTotalSteps() {
+        return totalSteps;
+    }
+
+    /**
+     * Returns total wall time of finished computations.
+     *
+     * @return Wall time in nanoseconds
+     */
+    public long getTotalNanos() {
+        return totalNanos;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String toString() {
+        return "ProgramStatistics{" +
+                "count=" + count +
+                ", totalSteps=" + totalSteps +
+                ", totalNanos=" + totalNanos +
+                ", nanosPerStep=" + getNanosPerStep() +
+                '}';
+    }
+
+}
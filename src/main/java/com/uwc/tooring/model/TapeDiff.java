@@ -0,0 +1,130 @@
+package com.uwc.tooring.model;
+
+import java.io.Serializable;
+import java.util.Map;
+
+/**
+ * Incremental update of the tape published during computation: changed chunks of the tape, head and state.
+ * Positions are counted from the first cell of the tape the computation has started with.
+ * Keyframes don't depend on previous diffs (they contain the part of the tape around the head), so late subscribers
+ * can start from them.
+ */
+public class TapeDiff implements Serializable {
+
+    private final long sequence;
+    private final boolean keyframe;
+    private final boolean done;
+    private final long steps;
+    private final String state;
+    private final long head;
+    private final long start;
+    private final long end;
+    private final Map<Long, String> chunks;
+
+    /**
+     * Constructor accepting all required parameters for building the diff.
+     *
+     * @param sequence Number of the diff in the stream of computation
+     * @param keyframe true if diff doesn't depend on previous diffs
+     * @param done     true if computation is finished
+     * @param steps    Number of performed steps
+     * @param state    Current state
+     * @param head     Position of the head
+     * @param start    Position of the first visited cell
+     * @param end      Position after the last visited cell
+     * @param chunks   Changed chunks of the tape by their positions
+     */
+    public TapeDiff(long sequence, boolean keyframe, boolean done, long steps, String state, long head, long start, long end, Map<Long, String> chunks) {
+        this.sequence = sequence;
+        this.keyframe = keyframe;
+        this.done = done;
+        this.steps = steps;
+        this.state = state;
+        this.head = head;
+        this.start = start;
+        this.end = end;
+        this.chunks = chunks;
+    }
+
+    /**
+     * Gets number of the diff in the stream of computation.
+     *
+     * @return Sequence number
+     */
+    public long getSequence() {
+        return sequence;
+    }
+
+    /**
+     * Checks if diff doesn't depend on previous diffs.
+     *
+     * @return true for keyframe, false otherwise
+     */
+    public boolean isKeyframe() {
+        return keyframe;
+    }
+
+    /**
+     * Checks if computation is finished.
+     *
+     * @return true if computation is finished, false otherwise
+     */
+    public boolean isDone() {
+        return done;
+    }
+
+    /**
+     * Gets number of performed steps.
+     *
+     * @return Number of steps
+     */
+    public long getSteps() {
+        return steps;
+    }
+
+    /**
+     * Gets current state.
+     *
+     * @return Current state
+     */
+    public String getState() {
+        return state;
+    }
+
+    /**
+     * Gets position of the head.
+     *
+     * @return Position of the head
+     */
+    public long getHead() {
+        return head;
+    }
+
+    /**
+     * Gets position of the first visited cell.
+     *
+     * @return Position of the first visited cell
+     */
+    public long getStart() {
+        return start;
+    }
+
+    /**
+     * Gets position after the last visited cell.
+     *
+     * @return Position after the last visited cell
+     */
+    public long getEnd() {
+        return end;
+    }
+
+    /**
+     * Gets changed chunks of the tape.
+     *
+     * @return Chunks by their positions
+     */
+    public Map<Long, String> getChunks() {
+        return chunks;
+    }
+
+}
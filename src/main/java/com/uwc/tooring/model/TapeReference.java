@@ -0,0 +1,131 @@
+package com.uwc.tooring.model;
+
+import java.io.Serializable;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Class represents tape stored as segments in the cluster instead of the machine itself.
+ * Cells are addressed by absolute positions (negative positions are to the left of the input),
+ * each segment is stored under the generation which has written it, so checkpoints keep pointing to consistent data.
+ */
+public class TapeReference implements Serializable {
+
+    private final String key;
+    private final int segmentSize;
+    private final long start;
+    private final long end;
+    private final long head;
+    private final HashMap<Long, Long> generations;
+
+    /**
+     * Constructor accepting all required parameters for building the reference.
+     *
+     * @param key         Key of the tape
+     * @param segmentSize Number of cells in a segment
+     * @param start       Position of the first visited cell
+     * @param end         Position after the last visited cell
+     * @param head        Position of the head
+     * @param generations Generations of stored segments by segment index
+     */
+    public TapeReference(String key, int segmentSize, long start, long end, long head, Map<Long, Long> generations) {
+        this.key = key;
+        this.segmentSize = segmentSize;
+        this.start = start;
+        this.end = end;
+        this.head = head;
+        this.generations = new HashMap<>(generations);
+    }
+
+    /**
+     * Creates copy of the reference with new position of computation.
+     *
+     * @param start       Position of the first visited cell
+     * @param end         Position after the last visited cell
+     * @param head        Position of the head
+     * @param generations Generations of stored segments by segment index
+     * @return Updated reference
+     */
+    public TapeReference moveTo(long start, long end, long head, Map<Long, Long> generations) {
+        return new TapeReference(key, segmentSize, start, end, head, generations);
+    }
+
+    /**
+     * Returns key of the tape.
+     *
+     * @return Key of the tape
+     */
+    public String getKey() {
+        return key;
+    }
+
+    /**
+     * Returns number of cells in a segment.
+     *
+     * @return Segment size
+     */
+    public int getSegmentSize() {
+        return segmentSize;
+    }
+
+    /**
+     * Returns position of the first visited cell.
+     *
+     * @return Absolute position
+     */
+    public long getStart() {
+        return start;
+    }
+
+    /**
+     * Returns position after the last visited cell.
+     *
+     * @return Absolute position
+     */
+    public long getEnd() {
+        return end;
+    }
+
+    /**
+     * Returns position of the head.
+     *
+     * @return Absolute position
+     */
+    public long getHead() {
+        return head;
+    }
+
+    /**
+     * Returns length of visited part of the tape.
+     *
+     * @return Number of cells
+     */
+    public long getLength() {
+        return end - start;
+    }
+
+    /**
+     * Returns generations of stored segments. Segments which are not stored are blank.
+     *
+     * @return Generations by segment index
+     */
+    public Map<Long, Long> getGenerations() {
+        return generations;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String toString() {
+        return "TapeReference{" +
+                "key='" + key + '\'' +
+                ", segmentSize=" + segmentSize +
+                ", start=" + start +
+                ", end=" + end +
+                ", head=" + head +
+                ", segments=" + generations.size() +
+                '}';
+    }
+
+}
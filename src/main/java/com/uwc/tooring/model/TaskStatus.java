@@ -0,0 +1,232 @@
+package com.uwc.tooring.model;
+
+import java.io.Serializable;
+
+/**
+ * Small status of the task kept apart from the machine, so monitoring never moves tapes over the network.
+ */
+public class TaskStatus implements Serializable {
+    private String id;
+    private boolean scheduled;
+    private boolean locked;
+    private boolean done;
+    private String worker;
+    private String currentState;
+    private long steps;
+    private long tapeLength;
+    private long scheduledAt;
+    private long startedAt;
+    private long updatedAt;
+
+    /**
+     * Calculates time the task spent in the current phase: computing (or computed) if it was started, waiting otherwise.
+     *
+     * @param now Current time in milliseconds
+     * @return Elapsed time in milliseconds
+     */
+    public long getElapsedMillis(long now) {
+        if (startedAt != 0) {
+            return (locked ? now : updatedAt) - startedAt;
+        }
+        return scheduledAt == 0 ? 0 : now - scheduledAt;
+    }
+
+    /**
+     * Gets ID of submitter.
+     *
+     * @return ID of submitter
+     */
+    public String getId() {
+        return id;
+    }
+
+    /**
+     * Sets ID of submitter.
+     *
+     * @param id ID of submitter
+     */
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    /**
+     * Checks if computation is scheduled.
+     *
+     * @return true if computation is scheduled, false otherwise
+     */
+    public boolean isScheduled() {
+        return scheduled;
+    }
+
+    /**
+     * Sets flag of scheduled computation.
+     *
+     * @param scheduled true if computation is scheduled
+     */
+    public void setScheduled(boolean scheduled) {
+        this.scheduled = scheduled;
+    }
+
+    /**
+     * Checks if computation is running.
+     *
+     * @return true if computation is running, false otherwise
+     */
+    public boolean isLocked() {
+        return locked;
+    }
+
+    /**
+     * Sets flag of running computation.
+     *
+     * @param locked true if computation is running
+     */
+    public void setLocked(boolean locked) {
+        this.locked = locked;
+    }
+
+    /**
+     * Checks if computation is finished.
+     *
+     * @return true if computation is finished, false otherwise
+     */
+    public boolean isDone() {
+        return done;
+    }
+
+    /**
+     * Sets flag of finished computation.
+     *
+     * @param done true if computation is finished
+     */
+    public void setDone(boolean done) {
+        this.done = done;
+    }
+
+    /**
+     * Gets ID of the worker performing (or performed) computation.
+     *
+     * @return Worker ID
+     */
+    public String getWorker() {
+        return worker;
+    }
+
+    /**
+     * Sets ID of the worker performing (or performed) computation.
+     *
+     * @param worker Worker ID
+     */
+    public void setWorker(String worker) {
+        this.worker = worker;
+    }
+
+    /**
+     * Gets current state of computation.
+     *
+     * @return Current state
+     */
+    public String getCurrentState() {
+        return currentState;
+    }
+
+    /**
+     * Sets current state of computation.
+     *
+     * @param currentState Current state
+     */
+    public void setCurrentState(String currentState) {
+        this.currentState = currentState;
+    }
+
+    /**
+     * Gets number of performed steps.
+     *
+     * @return Number of steps
+     */
+    public long getSteps() {
+        return steps;
+    }
+
+    /**
+     * Sets number of performed steps.
+     *
+     * @param steps Number of steps
+     */
+    public void setSteps(long steps) {
+        this.steps = steps;
+    }
+
+    /**
+     * Gets length of the tape.
+     *
+     * @return Length of the tape
+     */
+    public long getTapeLength() {
+        return tapeLength;
+    }
+
+    /**
+     * Sets length of the tape.
+     *
+     * @param tapeLength Length of the tape
+     */
+    public void setTapeLength(long tapeLength) {
+        this.tapeLength = tapeLength;
+    }
+
+    /**
+     * Gets time of scheduling.
+     *
+     * @return Time in milliseconds
+     */
+    public long getScheduledAt() {
+        return scheduledAt;
+    }
+
+    /**
+     * Sets time of scheduling.
+     *
+     * @param scheduledAt Time in milliseconds
+     */
+    public void setScheduledAt(long scheduledAt) {
+        this.scheduledAt = scheduledAt;
+    }
+
+    /**
+     * Gets time computation was started at.
+     *
+     * @return Time in milliseconds
+     */
+    public long getStartedAt() {
+        return startedAt;
+    }
+
+    /**
+     * Sets time computation was started at.
+     *
+     * @param startedAt Time in milliseconds
+     */
+    public void setStartedAt(long startedAt) {
+        this.startedAt = startedAt;
+    }
+
+    /**
+     * Gets time of the latest update.
+     *
+     * @return Time in milliseconds
+     */
+    public long getUpdatedAt() {
+        return updatedAt;
+    }
+
+    /**
+     * Sets time of the latest update.
+     *
+     * @param updatedAt Time in milliseconds
+     */
+    public void setUpdatedAt(long updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+
+}
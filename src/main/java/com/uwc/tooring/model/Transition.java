@@ -1,6 +1,7 @@
 package com.uwc.tooring.model;
 
 import java.io.Serializable;
+import java.util.Objects;
 
 /**
  * Class represents transition of Turing machine.
@@ -86,6 +87,33 @@ public class Transition implements Serializable {
         return moveDirection;
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        Transition that = (Transition) o;
+        return Objects.equals(readState, that.readState) &&
+                Objects.equals(readSymbol, that.readSymbol) &&
+                Objects.equals(writeState, that.writeState) &&
+                Objects.equals(writeSymbol, that.writeSymbol) &&
+                Objects.equals(moveDirection, that.moveDirection);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int hashCode() {
+        return Objects.hash(readState, readSymbol, writeState, writeSymbol, moveDirection);
+    }
+
     /**
      * {@inheritDoc}
      */
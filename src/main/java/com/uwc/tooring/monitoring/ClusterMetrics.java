@@ -0,0 +1,245 @@
+package com.uwc.tooring.monitoring;
+
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.core.IMap;
+import com.hazelcast.core.Member;
+import com.hazelcast.core.ReplicatedMap;
+import com.uwc.tooring.TuringService;
+import com.uwc.tooring.model.Histogram;
+import com.uwc.tooring.model.MemberMetrics;
+import com.uwc.tooring.scheduling.ExecutionTracker;
+import com.uwc.tooring.scheduling.WorkerCapacity;
+import com.uwc.tooring.turing.impl.DefaultTuringMachine;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jmx.export.annotation.ManagedOperation;
+import org.springframework.jmx.export.annotation.ManagedResource;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Service collecting operational metrics of the cluster: state of tasks, per-member throughput, lock contention,
+ * durations of unlocking sweeps, scores and waiting times of users.
+ * Each member publishes it's own counters to {@link #METRICS_MAP}, so any member can render metrics of the whole cluster
+ * in Prometheus text format.
+ */
+@Service
+@ManagedResource(objectName = "com.uwc.tooring:type=ClusterMetrics")
+public class ClusterMetrics {
+
+    public static final String METRICS_MAP = "METRICS_MAP";
+
+    /**
+     * Published snapshots of members which stopped publishing expire after this time.
+     */
+    public static final int METRICS_TTL_IN_SECONDS = 30;
+
+    /**
+     * Locking of the machine for scheduling its execution.
+     */
+    public static final String SCHEDULE_LOCK = "schedule";
+
+    /**
+     * Locking of the machine for computation.
+     */
+    public static final String PROCESS_LOCK = "process";
+
+    @Autowired
+    private HazelcastInstance hazelcastInstance;
+
+    @Autowired
+    private TuringService turingService;
+
+    @Autowired
+    private WorkerCapacity workerCapacity;
+
+    @Autowired
+    private EngineMetrics engineMetrics;
+
+    private final AtomicLong computed = new AtomicLong();
+    private final Map<String, AtomicLong> lockAttempts = new ConcurrentHashMap<>();
+    private final Map<String, AtomicLong> lockFailures = new ConcurrentHashMap<>();
+    private final Histogram sweepDurations = new Histogram(Histogram.OPERATION_BUCKETS);
+    private final Map<String, Histogram> waitTimes = new ConcurrentHashMap<>();
+
+    /**
+     * Counts attempt to lock the machine.
+     *
+     * @param operation Operation requiring the lock
+     * @param acquired  true if lock was acquired, false if it's held by someone else
+     */
+    public void lockAttempted(String operation, boolean acquired) {
+        lockAttempts.computeIfAbsent(operation, k -> new AtomicLong()).incrementAndGet();
+        if (!acquired) {
+            lockFailures.computeIfAbsent(operation, k -> new AtomicLong()).incrementAndGet();
+        }
+    }
+
+    /**
+     * Counts start of computation and records the time machine was waiting in the queue.
+     *
+     * @param turingMachine Scheduled Turing machine
+     */
+    public void dispatched(DefaultTuringMachine turingMachine) {
+        if (turingMachine.getScheduledAt() == 0 || turingMachine.getId() == null) {
+            return;
+        }
+        double waiting = Math.max(0, System.currentTimeMillis() - turingMachine.getScheduledAt()) / 1000.0;
+        waitTimes.computeIfAbsent(turingMachine.getId(), k -> new Histogram(Histogram.WAIT_BUCKETS)).observe(waiting);
+    }
+
+    /**
+     * Counts machine computed by current member.
+     */
+    public void computed() {
+        computed.incrementAndGet();
+    }
+
+    /**
+     * Records duration of unlocking sweep.
+     *
+     * @param nanos Duration in nanoseconds
+     */
+    public void swept(long nanos) {
+        sweepDurations.observe(nanos / 1e9);
+    }
+
+    /**
+     * Publishes snapshot of metrics of current member.
+     */
+    @Scheduled(fixedRate = 5000)
+    public void publish() {
+        IMap<String, MemberMetrics> metricsMap = hazelcastInstance.getMap(METRICS_MAP);
+        Member localMember = hazelcastInstance.getCluster().getLocalMember();
+        metricsMap.set(localMember.getUuid(), snapshot(), METRICS_TTL_IN_SECONDS, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Takes snapshot of metrics of current member.
+     *
+     * @return Snapshot of metrics
+     */
+    public MemberMetrics snapshot() {
+        Map<String, Long> attempts = new HashMap<>();
+        lockAttempts.forEach((operation, count) -> attempts.put(operation, count.get()));
+        Map<String, Long> failures = new HashMap<>();
+        lockFailures.forEach((operation, count) -> failures.put(operation, count.get()));
+        Map<String, Histogram> waits = new HashMap<>();
+        waitTimes.forEach((user, histogram) -> waits.put(user, histogram.copy()));
+        return new MemberMetrics(hazelcastInstance.getCluster().getLocalMember().getAddress().toString(),
+                turingService.isWorker(), computed.get(), workerCapacity.getActiveSlots(), WorkerCapacity.getFreeHeap(),
+                engineMetrics.getSteps(), engineMetrics.getStepsPerSecond(), attempts, failures, sweepDurations.copy(), waits);
+    }
+
+    /**
+     * Renders metrics of the whole cluster in Prometheus text format.
+     *
+     * @return Metrics in Prometheus text format (version 0.0.4)
+     */
+    @ManagedOperation(description = "Renders metrics of the whole cluster in Prometheus text format")
+    public String scrape() {
+        PrometheusWriter writer = new PrometheusWriter();
+        writeTasks(writer);
+        writeMembers(writer);
+        return writer.toString();
+    }
+
+    /**
+     * Renders state of tasks, queue and users' scores.
+     *
+     * @param writer Prometheus writer
+     */
+    private void writeTasks(PrometheusWriter writer) {
+        ReplicatedMap<String, DefaultTuringMachine> tasksMap = hazelcastInstance.getReplicatedMap(TuringService.TASKS_MAP);
+        IMap<String, ?> executionsMap = hazelcastInstance.getMap(ExecutionTracker.EXECUTIONS_MAP);
+        Set<String> running = executionsMap.keySet();
+        long now = System.currentTimeMillis();
+        long submitted = 0;
+        long queued = 0;
+        long done = 0;
+        long oldestWait = 0;
+        Set<String> users = new TreeSet<>();
+        for (Map.Entry<String, DefaultTuringMachine> entry : tasksMap.entrySet()) {
+            DefaultTuringMachine turingMachine = entry.getValue();
+            if (turingMachine.getId() != null) {
+                users.add(turingMachine.getId());
+            }
+            if (turingMachine.isDone()) {
+                done++;
+            } else if (!turingMachine.isScheduled()) {
+                submitted++;
+            } else if (!running.contains(entry.getKey())) {
+                queued++;
+                if (turingMachine.getScheduledAt() != 0) {
+                    oldestWait = Math.max(oldestWait, now - turingMachine.getScheduledAt());
+                }
+            }
+        }
+
+        writer.type("tooring_tasks", "gauge", "Number of tasks by state");
+        writer.sample("tooring_tasks", submitted, "state", "submitted");
+        writer.sample("tooring_tasks", queued, "state", "queued");
+        writer.sample("tooring_tasks", running.size(), "state", "running");
+        writer.sample("tooring_tasks", done, "state", "done");
+
+        writer.type("tooring_queue_oldest_wait_seconds", "gauge", "Waiting time of the oldest queued task");
+        writer.sample("tooring_queue_oldest_wait_seconds", oldestWait / 1000.0);
+
+        writer.type("tooring_user_score", "gauge", "Score of users having tasks");
+        for (String user : users) {
+            writer.sample("tooring_user_score", turingService.getScore(user), "user", user);
+        }
+    }
+
+    /**
+     * Renders metrics published by members.
+     *
+     * @param writer Prometheus writer
+     */
+    private void writeMembers(PrometheusWriter writer) {
+        IMap<String, MemberMetrics> metricsMap = hazelcastInstance.getMap(METRICS_MAP);
+        Map<String, MemberMetrics> members = new TreeMap<>();
+        metricsMap.values().forEach(m -> members.put(m.getMember(), m));
+
+        writer.type("tooring_members", "gauge", "Number of members publishing metrics");
+        writer.sample("tooring_members", members.size());
+
+        writer.type("tooring_member_worker", "gauge", "1 if member is worker, 0 otherwise");
+        members.forEach((member, m) -> writer.sample("tooring_member_worker", m.isWorker() ? 1 : 0, "member", member));
+        writer.type("tooring_member_computed_total", "counter", "Number of machines computed by member");
+        members.forEach((member, m) -> writer.sample("tooring_member_computed_total", m.getComputed(), "member", member));
+        writer.type("tooring_member_active_slots", "gauge", "Number of running computations");
+        members.forEach((member, m) -> writer.sample("tooring_member_active_slots", m.getActiveSlots(), "member", member));
+        writer.type("tooring_member_free_heap_bytes", "gauge", "Free heap of member");
+        members.forEach((member, m) -> writer.sample("tooring_member_free_heap_bytes", m.getFreeHeap(), "member", member));
+        writer.type("tooring_member_engine_steps_total", "counter", "Number of steps performed by the engine");
+        members.forEach((member, m) -> writer.sample("tooring_member_engine_steps_total", m.getEngineSteps(), "member", member));
+        writer.type("tooring_member_engine_steps_per_second", "gauge", "Average speed of the engine");
+        members.forEach((member, m) -> writer.sample("tooring_member_engine_steps_per_second", m.getEngineStepsPerSecond(), "member", member));
+
+        writer.type("tooring_lock_attempts_total", "counter", "Number of attempts to lock a machine");
+        members.forEach((member, m) -> m.getLockAttempts().forEach((operation, count) ->
+                writer.sample("tooring_lock_attempts_total", count, "member", member, "operation", operation)));
+        writer.type("tooring_lock_failures_total", "counter", "Number of attempts to lock a machine which is locked by someone else");
+        members.forEach((member, m) -> m.getLockFailures().forEach((operation, count) ->
+                writer.sample("tooring_lock_failures_total", count, "member", member, "operation", operation)));
+
+        writer.type("tooring_locks_sweep_seconds", "histogram", "Duration of unlocking sweeps");
+        members.forEach((member, m) -> writer.histogram("tooring_locks_sweep_seconds", m.getSweepDurations(), "member", member));
+
+        Map<String, Histogram> waitTimes = new TreeMap<>();
+        members.values().forEach(m -> m.getWaitTimes().forEach((user, histogram) ->
+                waitTimes.computeIfAbsent(user, k -> new Histogram(Histogram.WAIT_BUCKETS)).merge(histogram)));
+        writer.type("tooring_wait_seconds", "histogram", "Time tasks were waiting in the queue before computation");
+        waitTimes.forEach((user, histogram) -> writer.histogram("tooring_wait_seconds", histogram, "user", user));
+    }
+
+}
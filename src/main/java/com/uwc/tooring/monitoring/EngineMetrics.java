@@ -0,0 +1,301 @@
+package com.uwc.tooring.monitoring;
+
+import com.uwc.tooring.turing.impl.CompiledProgram;
+import com.uwc.tooring.turing.impl.DefaultTuringMachine;
+import com.uwc.tooring.turing.metrics.ExecutionMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jmx.export.annotation.ManagedAttribute;
+import org.springframework.jmx.export.annotation.ManagedOperation;
+import org.springframework.jmx.export.annotation.ManagedResource;
+import org.springframework.stereotype.Service;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+
+/**
+ * Service aggregating engine-level metrics of computations performed by current member:
+ * speed of computations, hits per transition and per state, time spent on growing the tape and tape extents.
+ * When metrics are disabled, computations run the plain loop without any instrumentation.
+ */
+@Service
+@ManagedResource(objectName = "com.uwc.tooring:type=EngineMetrics")
+public class EngineMetrics {
+
+    /**
+     * Number of entries reported by the heat maps.
+     */
+    public static final int HEAT_MAP_SIZE = 20;
+
+    /**
+     * Length of program hash prefix used in keys of the heat maps.
+     */
+    public static final int PROGRAM_PREFIX_LENGTH = 8;
+
+    /**
+     * Maximal number of transitions (and states) tracked by the heat maps: when it's exceeded,
+     * the coldest entries are evicted down to the half of this number.
+     */
+    public static final int MAX_TRACKED_ENTRIES = 4096;
+
+    @Value("${tooring.metrics.engine.enabled:true}")
+    private volatile boolean enabled = true;
+
+    private final LongAdder runs = new LongAdder();
+    private final LongAdder steps = new LongAdder();
+    private final LongAdder nanos = new LongAdder();
+    private final LongAdder growNanos = new LongAdder();
+    private final LongAdder growths = new LongAdder();
+    private final LongAccumulator maxLeftExtent = new LongAccumulator(Math::max, 0);
+    private final LongAccumulator maxRightExtent = new LongAccumulator(Math::max, 0);
+    private final AtomicLong lastStepsPerSecond = new AtomicLong();
+
+    private final Map<String, LongAdder> transitionHits = new ConcurrentHashMap<>();
+    private final Map<String, LongAdder> stateHits = new ConcurrentHashMap<>();
+
+    /**
+     * Creates metrics for computation of Turing machine and attaches them to the machine.
+     * Metrics are collected by the engine of standard machines only, others are left without them.
+     *
+     * @param turingMachine Turing machine
+     * @return Execution metrics or null if metrics are disabled or not collected for the machine
+     */
+    public ExecutionMetrics attach(DefaultTuringMachine turingMachine) {
+        if (!enabled || !turingMachine.isStandard()) {
+            turingMachine.setMetrics(null);
+            return null;
+        }
+        ExecutionMetrics metrics = new ExecutionMetrics(turingMachine.getTransitionSpace().size());
+        turingMachine.setMetrics(metrics);
+        return metrics;
+    }
+
+    /**
+     * Adds metrics of finished (or cancelled) computation to the totals and detaches them from the machine.
+     *
+     * @param turingMachine Computed Turing machine
+     */
+    public void record(DefaultTuringMachine turingMachine) {
+        ExecutionMetrics metrics = turingMachine.getMetrics();
+        if (metrics == null) {
+            return;
+        }
+        turingMachine.setMetrics(null);
+        if (metrics.getNanos() == 0) {
+            return;
+        }
+        runs.increment();
+        steps.add(metrics.getSteps());
+        nanos.add(metrics.getNanos());
+        growNanos.add(metrics.getGrowNanos());
+        growths.add(metrics.getGrowths());
+        maxLeftExtent.accumulate(metrics.getLeftExtent());
+        maxRightExtent.accumulate(metrics.getRightExtent());
+        lastStepsPerSecond.set((long) metrics.getStepsPerSecond());
+
+        CompiledProgram program = turingMachine.compile();
+        String prefix = turingMachine.getProgramHash().substring(0, PROGRAM_PREFIX_LENGTH);
+        for (int transition = 0; transition < metrics.getTransitionsCount(); transition++) {
+            long hits = metrics.getTransitionHits(transition);
+            if (hits == 0) {
+                continue;
+            }
+            String state = prefix + " " + program.getTransition(transition).getReadState();
+            String transitionKey = state + " '" + program.getTransition(transition).getReadSymbol() + "'";
+            transitionHits.computeIfAbsent(transitionKey, k -> new LongAdder()).add(hits);
+            stateHits.computeIfAbsent(state, k -> new LongAdder()).add(hits);
+        }
+        evictColdest(transitionHits);
+        evictColdest(stateHits);
+    }
+
+    /**
+     * Evicts the coldest entries of the heat map if it tracks too many entries, so the heat maps of a long-living
+     * worker don't grow with every program it has ever computed.
+     *
+     * @param hits Heat map
+     */
+    private static synchronized void evictColdest(Map<String, LongAdder> hits) {
+        if (hits.size() <= MAX_TRACKED_ENTRIES) {
+            return;
+        }
+        hits.entrySet().stream()
+                .sorted(Comparator.comparingLong(e -> e.getValue().sum()))
+                .limit(hits.size() - MAX_TRACKED_ENTRIES / 2)
+                .map(Map.Entry::getKey)
+                .collect(Collectors.toList())
+                .forEach(hits::remove);
+    }
+
+    /**
+     * Gets number of transitions tracked by the heat map.
+     *
+     * @return Number of tracked transitions
+     */
+    @ManagedAttribute(description = "Number of transitions tracked by the heat map")
+    public int getTrackedTransitions() {
+        return transitionHits.size();
+    }
+
+    /**
+     * Checks if metrics are collected.
+     *
+     * @return true if metrics are collected, false otherwise
+     */
+    @ManagedAttribute(description = "Whether engine metrics are collected")
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Turns collecting of metrics on or off.
+     *
+     * @param enabled true for collecting metrics, false otherwise
+     */
+    @ManagedAttribute
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    /**
+     * Gets number of recorded computations.
+     *
+     * @return Number of computations
+     */
+    @ManagedAttribute(description = "Number of recorded computations")
+    public long getRuns() {
+        return runs.sum();
+    }
+
+    /**
+     * Gets total number of performed steps.
+     *
+     * @return Number of steps
+     */
+    @ManagedAttribute(description = "Total number of performed steps")
+    public long getSteps() {
+        return steps.sum();
+    }
+
+    /**
+     * Gets total wall time of computations.
+     *
+     * @return Wall time in nanoseconds
+     */
+    @ManagedAttribute(description = "Total wall time of computations in nanoseconds")
+    public long getNanos() {
+        return nanos.sum();
+    }
+
+    /**
+     * Gets average speed of computations.
+     *
+     * @return Steps per second
+     */
+    @ManagedAttribute(description = "Average number of steps per second")
+    public long getStepsPerSecond() {
+        long totalNanos = nanos.sum();
+        return totalNanos == 0 ? 0 : (long) (steps.sum() * 1e9 / totalNanos);
+    }
+
+    /**
+     * Gets speed of the latest computation.
+     *
+     * @return Steps per second
+     */
+    @ManagedAttribute(description = "Number of steps per second of the latest computation")
+    public long getLastStepsPerSecond() {
+        return lastStepsPerSecond.get();
+    }
+
+    /**
+     * Gets total time spent on growing the tape.
+     *
+     * @return Time in nanoseconds
+     */
+    @ManagedAttribute(description = "Total time spent on growing the tape in nanoseconds")
+    public long getGrowNanos() {
+        return growNanos.sum();
+    }
+
+    /**
+     * Gets total number of growths of tape buffers.
+     *
+     * @return Number of growths
+     */
+    @ManagedAttribute(description = "Total number of growths of tape buffers")
+    public long getGrowths() {
+        return growths.sum();
+    }
+
+    /**
+     * Gets maximal number of cells visited to the left of the input tape.
+     *
+     * @return Number of cells
+     */
+    @ManagedAttribute(description = "Maximal number of cells visited to the left of the input tape")
+    public long getMaxLeftExtent() {
+        return maxLeftExtent.get();
+    }
+
+    /**
+     * Gets maximal number of cells visited to the right of the input tape.
+     *
+     * @return Number of cells
+     */
+    @ManagedAttribute(description = "Maximal number of cells visited to the right of the input tape")
+    public long getMaxRightExtent() {
+        return maxRightExtent.get();
+    }
+
+    /**
+     * Gets the most frequently taken transitions as "program state 'symbol' = hits".
+     *
+     * @return Transition heat map
+     */
+    @ManagedAttribute(description = "Most frequently taken transitions")
+    public List<String> getHottestTransitions() {
+        return top(transitionHits);
+    }
+
+    /**
+     * Gets the most frequently visited states as "program state = hits".
+     *
+     * @return State heat map
+     */
+    @ManagedAttribute(description = "Most frequently visited states")
+    public List<String> getHottestStates() {
+        return top(stateHits);
+    }
+
+    /**
+     * Resets all collected metrics.
+     */
+    @ManagedOperation(description = "Resets all collected metrics")
+    public void reset() {
+        runs.reset();
+        steps.reset();
+        nanos.reset();
+        growNanos.reset();
+        growths.reset();
+        maxLeftExtent.reset();
+        maxRightExtent.reset();
+        lastStepsPerSecond.set(0);
+        transitionHits.clear();
+        stateHits.clear();
+    }
+
+    private static List<String> top(Map<String, LongAdder> hits) {
+        return hits.entrySet().stream()
+                .sorted((e1, e2) -> Long.compare(e2.getValue().sum(), e1.getValue().sum()))
+                .limit(HEAT_MAP_SIZE)
+                .map(e -> e.getKey() + " = " + e.getValue().sum())
+                .collect(Collectors.toList());
+    }
+
+}
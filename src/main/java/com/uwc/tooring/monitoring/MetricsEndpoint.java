@@ -0,0 +1,89 @@
+package com.uwc.tooring.monitoring;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Local HTTP endpoint serving metrics of the cluster in Prometheus text format at {@link #METRICS_PATH}.
+ * Endpoint is started only if the {@code tooring.metrics.port} property is set. It's bound to the loopback interface
+ * unless other address is specified by the {@code tooring.metrics.address} property.
+ */
+@Service
+public class MetricsEndpoint {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(MetricsEndpoint.class);
+
+    public static final String METRICS_PATH = "/metrics";
+
+    @Value("${tooring.metrics.port:0}")
+    private int port;
+
+    @Value("${tooring.metrics.address:127.0.0.1}")
+    private String address;
+
+    @Autowired
+    private ClusterMetrics clusterMetrics;
+
+    private HttpServer server;
+
+    /**
+     * Starts HTTP server if the port is configured.
+     *
+     * @throws IOException If the port can't be bound
+     */
+    @PostConstruct
+    public void start() throws IOException {
+        if (port <= 0) {
+            return;
+        }
+        server = HttpServer.create(new InetSocketAddress(address, port), 0);
+        server.createContext(METRICS_PATH, this::handle);
+        server.start();
+        LOGGER.info("Metrics endpoint is started at http://" + address + ":" + port + METRICS_PATH);
+    }
+
+    /**
+     * Stops HTTP server.
+     */
+    @PreDestroy
+    public void stop() {
+        if (server != null) {
+            server.stop(0);
+        }
+    }
+
+    /**
+     * Serves scrape request.
+     *
+     * @param exchange HTTP exchange
+     * @throws IOException If response can't be written
+     */
+    private void handle(HttpExchange exchange) throws IOException {
+        try {
+            byte[] body = clusterMetrics.scrape().getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", PrometheusWriter.CONTENT_TYPE);
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream outputStream = exchange.getResponseBody()) {
+                outputStream.write(body);
+            }
+        } catch (RuntimeException e) {
+            LOGGER.error(e.getMessage(), e);
+            exchange.sendResponseHeaders(500, -1);
+        } finally {
+            exchange.close();
+        }
+    }
+
+}
@@ -0,0 +1,131 @@
+package com.uwc.tooring.monitoring;
+
+import com.uwc.tooring.model.Histogram;
+
+/**
+ * Writer of metrics in Prometheus text format (version 0.0.4).
+ */
+class PrometheusWriter {
+
+    /**
+     * Content type of Prometheus text format.
+     */
+    static final String CONTENT_TYPE = "text/plain; version=0.0.4; charset=utf-8";
+
+    private final StringBuilder text = new StringBuilder();
+
+    /**
+     * Writes help and type of the metric.
+     *
+     * @param name Name of the metric
+     * @param type "counter", "gauge" or "histogram"
+     * @param help Description of the metric
+     */
+    void type(String name, String type, String help) {
+        text.append("# HELP ").append(name).append(' ').append(escapeHelp(help)).append('\n');
+        text.append("# TYPE ").append(name).append(' ').append(type).append('\n');
+    }
+
+    /**
+     * Writes sample of the metric.
+     *
+     * @param name   Name of the metric
+     * @param value  Value of the sample
+     * @param labels Label names and values, one after another
+     */
+    void sample(String name, double value, String... labels) {
+        text.append(name);
+        writeLabels(labels, null);
+        text.append(' ').append(format(value)).append('\n');
+    }
+
+    /**
+     * Writes buckets, sum and count of the histogram.
+     *
+     * @param name      Name of the metric
+     * @param histogram Histogram
+     * @param labels    Label names and values, one after another
+     */
+    void histogram(String name, Histogram histogram, String... labels) {
+        double[] bounds = histogram.getBounds();
+        for (int i = 0; i < bounds.length; i++) {
+            text.append(name).append("_bucket");
+            writeLabels(labels, format(bounds[i]));
+            text.append(' ').append(histogram.getCumulativeCount(i)).append('\n');
+        }
+        text.append(name).append("_bucket");
+        writeLabels(labels, "+Inf");
+        text.append(' ').append(histogram.getCount()).append('\n');
+        text.append(name).append("_sum");
+        writeLabels(labels, null);
+        text.append(' ').append(format(histogram.getSum())).append('\n');
+        text.append(name).append("_count");
+        writeLabels(labels, null);
+        text.append(' ').append(histogram.getCount()).append('\n');
+    }
+
+    private void writeLabels(String[] labels, String le) {
+        if (labels.length == 0 && le == null) {
+            return;
+        }
+        text.append('{');
+        for (int i = 0; i + 1 < labels.length; i += 2) {
+            if (i > 0) {
+                text.append(',');
+            }
+            text.append(labels[i]).append("=\"").append(escape(labels[i + 1])).append('"');
+        }
+        if (le != null) {
+            text.append(labels.length == 0 ? "" : ",").append("le=\"").append(le).append('"');
+        }
+        text.append('}');
+    }
+
+    /**
+     * Escapes value of the label: backslash, double quote and line feed.
+     *
+     * @param value Value of the label
+     * @return Escaped value
+     */
+    static String escape(String value) {
+        return escapeHelp(value).replace("\"", "\\\"");
+    }
+
+    /**
+     * Escapes help text: backslash and line feed.
+     *
+     * @param help Help text
+     * @return Escaped text
+     */
+    static String escapeHelp(String help) {
+        return help.replace("\\", "\\\\").replace("\n", "\\n");
+    }
+
+    /**
+     * Formats value of the sample: integers without fraction, special values as "NaN", "+Inf" and "-Inf".
+     *
+     * @param value Value of the sample
+     * @return Formatted value
+     */
+    static String format(double value) {
+        if (Double.isNaN(value)) {
+            return "NaN";
+        }
+        if (Double.isInfinite(value)) {
+            return value > 0 ? "+Inf" : "-Inf";
+        }
+        if (value == Math.rint(value) && Math.abs(value) < 1e15) {
+            return Long.toString((long) value);
+        }
+        return Double.toString(value);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String toString() {
+        return text.toString();
+    }
+
+}
@@ -0,0 +1,371 @@
+package com.uwc.tooring.monitoring;
+
+import com.hazelcast.config.Config;
+import com.hazelcast.config.MapConfig;
+import com.hazelcast.core.EntryAdapter;
+import com.hazelcast.core.EntryEvent;
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.core.IMap;
+import com.hazelcast.core.ReplicatedMap;
+import com.hazelcast.map.AbstractEntryProcessor;
+import com.uwc.tooring.TuringService;
+import com.uwc.tooring.model.TaskStatus;
+import com.uwc.tooring.turing.ExecutionListener;
+import com.uwc.tooring.turing.impl.DefaultTuringMachine;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Service maintaining small statuses of tasks in the dedicated {@link #PROGRESS_MAP}, so status can be queried
+ * without fetching the machine (with it's tape) from the tasks map.
+ * Statuses are updated in place by entry processors: on changes of the tasks map, on start and end of computation
+ * and periodically by running computations. Changes made on behalf of the user are written synchronously,
+ * so they are visible right away; other changes are picked up by the listener of the tasks map.
+ */
+@Service
+public class TaskProgress {
+
+    public static final String PROGRESS_MAP = "PROGRESS_MAP";
+
+    /**
+     * Minimal time between progress updates of running computation in milliseconds.
+     */
+    public static final long PROGRESS_RATE = 10000L;
+
+    @Autowired
+    private HazelcastInstance hazelcastInstance;
+
+    /**
+     * Configures expiration of statuses along with tasks.
+     *
+     * @param config Hazelcast configuration
+     */
+    public static void configure(Config config) {
+        MapConfig mapConfig = config.getMapConfig(PROGRESS_MAP);
+        mapConfig.setTimeToLiveSeconds((int) TimeUnit.HOURS.toSeconds(TuringService.TASK_TTL_IN_HOURS));
+    }
+
+    /**
+     * Starts following changes of the tasks map.
+     */
+    @PostConstruct
+    public void start() {
+        ReplicatedMap<String, DefaultTuringMachine> tasksMap = hazelcastInstance.getReplicatedMap(TuringService.TASKS_MAP);
+        tasksMap.addEntryListener(new LifecycleListener());
+    }
+
+    /**
+     * Writes lifecycle of the task right away, without waiting for the event of the tasks map.
+     *
+     * @param key           Key of Turing machine
+     * @param turingMachine Turing machine which was put to the tasks map
+     */
+    public void changed(String key, DefaultTuringMachine turingMachine) {
+        IMap<String, TaskStatus> progressMap = hazelcastInstance.getMap(PROGRESS_MAP);
+        progressMap.executeOnKey(key, new LifecycleUpdate(turingMachine));
+    }
+
+    /**
+     * Registers start of computation.
+     *
+     * @param key    Key of Turing machine
+     * @param worker User ID of the worker
+     */
+    public void started(String key, String worker) {
+        IMap<String, TaskStatus> progressMap = hazelcastInstance.getMap(PROGRESS_MAP);
+        progressMap.executeOnKey(key, new RunningUpdate(true, worker));
+    }
+
+    /**
+     * Registers end of computation (successful or not).
+     *
+     * @param key Key of Turing machine
+     */
+    public void finished(String key) {
+        IMap<String, TaskStatus> progressMap = hazelcastInstance.getMap(PROGRESS_MAP);
+        progressMap.executeOnKey(key, new RunningUpdate(false, null));
+    }
+
+    /**
+     * Gets status of the task.
+     * Falls back to the machine in the tasks map if the status is not written yet.
+     *
+     * @param key Key of Turing machine
+     * @return Status of the task or empty if there's no such task
+     */
+    public Optional<TaskStatus> getStatus(String key) {
+        IMap<String, TaskStatus> progressMap = hazelcastInstance.getMap(PROGRESS_MAP);
+        TaskStatus status = progressMap.get(key);
+        if (status != null) {
+            return Optional.of(status);
+        }
+        ReplicatedMap<String, DefaultTuringMachine> tasksMap = hazelcastInstance.getReplicatedMap(TuringService.TASKS_MAP);
+        return Optional.ofNullable(tasksMap.get(key)).map(turingMachine -> new LifecycleUpdate(turingMachine).apply(new TaskStatus()));
+    }
+
+    /**
+     * Creates listener for computation, which publishes it's position every {@link #PROGRESS_RATE} milliseconds.
+     * Only the position is requested, so the tape is not copied for it.
+     *
+     * @param key Key of Turing machine
+     * @return Listener of computation
+     */
+    public ExecutionListener<DefaultTuringMachine> createListener(String key) {
+        return new ProgressListener(key);
+    }
+
+    /**
+     * Listener publishing position of running computation. Updates are sent asynchronously, so computation never waits.
+     */
+    private class ProgressListener implements ExecutionListener<DefaultTuringMachine> {
+
+        private final String key;
+        private long lastUpdate = System.currentTimeMillis();
+
+        /**
+         * Constructor accepting key of Turing machine.
+         *
+         * @param key Key of Turing machine
+         */
+        ProgressListener(String key) {
+            this.key = key;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public Action onProgress(long steps) {
+            long now = System.currentTimeMillis();
+            if (now - lastUpdate < PROGRESS_RATE) {
+                return Action.CONTINUE;
+            }
+            lastUpdate = now;
+            return Action.POSITION;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public void onSnapshot(DefaultTuringMachine turingMachine) {
+            onPosition(turingMachine.getCurrentState(), turingMachine.getSteps(), turingMachine.getTapeLength());
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public void onPosition(String currentState, long steps, long tapeLength) {
+            IMap<String, TaskStatus> progressMap = hazelcastInstance.getMap(PROGRESS_MAP);
+            progressMap.submitToKey(key, new ProgressUpdate(currentState, steps, tapeLength));
+        }
+
+    }
+
+    /**
+     * Listener updating statuses on changes of the tasks map. Every member receives events of the replicated map,
+     * so only changes originating from current member are handled.
+     */
+    private class LifecycleListener extends EntryAdapter<String, DefaultTuringMachine> {
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public void entryAdded(EntryEvent<String, DefaultTuringMachine> event) {
+            changed(event);
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public void entryUpdated(EntryEvent<String, DefaultTuringMachine> event) {
+            changed(event);
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public void entryRemoved(EntryEvent<String, DefaultTuringMachine> event) {
+            removed(event);
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public void entryEvicted(EntryEvent<String, DefaultTuringMachine> event) {
+            removed(event);
+        }
+
+        private void changed(EntryEvent<String, DefaultTuringMachine> event) {
+            DefaultTuringMachine turingMachine = event.getValue();
+            if (turingMachine == null || !isLocal(event)) {
+                return;
+            }
+            TaskProgress.this.changed(event.getKey(), turingMachine);
+        }
+
+        private void removed(EntryEvent<String, DefaultTuringMachine> event) {
+            if (!isLocal(event)) {
+                return;
+            }
+            IMap<String, TaskStatus> progressMap = hazelcastInstance.getMap(PROGRESS_MAP);
+            progressMap.delete(event.getKey());
+        }
+
+        private boolean isLocal(EntryEvent<String, DefaultTuringMachine> event) {
+            return event.getMember() == null || event.getMember().localMember();
+        }
+
+    }
+
+    /**
+     * Entry processor copying lifecycle of the task from the machine (running flags are managed separately).
+     */
+    private static class LifecycleUpdate extends AbstractEntryProcessor<String, TaskStatus> {
+
+        private final String id;
+        private final boolean scheduled;
+        private final boolean done;
+        private final long scheduledAt;
+        private final String currentState;
+        private final long steps;
+        private final Long tapeLength;
+
+        /**
+         * Constructor accepting the machine to copy lifecycle from.
+         *
+         * @param turingMachine Turing machine
+         */
+        LifecycleUpdate(DefaultTuringMachine turingMachine) {
+            this.id = turingMachine.getId();
+            this.scheduled = turingMachine.isScheduled();
+            this.done = turingMachine.isDone();
+            this.scheduledAt = turingMachine.getScheduledAt();
+            this.currentState = turingMachine.getCurrentState();
+            this.steps = turingMachine.getSteps();
+            this.tapeLength = turingMachine.isRestored() ? null : turingMachine.getTapeLength();
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public Object process(Map.Entry<String, TaskStatus> entry) {
+            entry.setValue(apply(entry.getValue() == null ? new TaskStatus() : entry.getValue()));
+            return null;
+        }
+
+        /**
+         * Copies lifecycle to the status.
+         *
+         * @param status Status of the task
+         * @return Updated status
+         */
+        TaskStatus apply(TaskStatus status) {
+            status.setId(id);
+            status.setScheduled(scheduled);
+            status.setDone(done);
+            status.setScheduledAt(scheduledAt);
+            if (currentState != null) {
+                status.setCurrentState(currentState);
+                status.setSteps(steps);
+            }
+            if (tapeLength != null) {
+                status.setTapeLength(tapeLength);
+            }
+            status.setUpdatedAt(System.currentTimeMillis());
+            return status;
+        }
+
+    }
+
+    /**
+     * Entry processor marking start or end of computation. The worker is kept after the end.
+     */
+    private static class RunningUpdate extends AbstractEntryProcessor<String, TaskStatus> {
+
+        private final boolean locked;
+        private final String worker;
+
+        /**
+         * Constructor accepting all required parameters for building the processor.
+         *
+         * @param locked true on start of computation, false on end
+         * @param worker User ID of the worker (ignored on end)
+         */
+        RunningUpdate(boolean locked, String worker) {
+            this.locked = locked;
+            this.worker = worker;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public Object process(Map.Entry<String, TaskStatus> entry) {
+            TaskStatus status = entry.getValue() == null ? new TaskStatus() : entry.getValue();
+            long now = System.currentTimeMillis();
+            status.setLocked(locked);
+            if (locked) {
+                status.setWorker(worker);
+                status.setStartedAt(now);
+            }
+            status.setUpdatedAt(now);
+            entry.setValue(status);
+            return null;
+        }
+
+    }
+
+    /**
+     * Entry processor publishing position of running computation.
+     */
+    private static class ProgressUpdate extends AbstractEntryProcessor<String, TaskStatus> {
+
+        private final String currentState;
+        private final long steps;
+        private final long tapeLength;
+
+        /**
+         * Constructor accepting all required parameters for building the processor.
+         *
+         * @param currentState Current state
+         * @param steps        Number of performed steps
+         * @param tapeLength   Length of the tape
+         */
+        ProgressUpdate(String currentState, long steps, long tapeLength) {
+            this.currentState = currentState;
+            this.steps = steps;
+            this.tapeLength = tapeLength;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public Object process(Map.Entry<String, TaskStatus> entry) {
+            if (entry.getValue() == null) {
+                return null;
+            }
+            TaskStatus status = entry.getValue();
+            status.setCurrentState(currentState);
+            status.setSteps(steps);
+            status.setTapeLength(tapeLength);
+            status.setUpdatedAt(System.currentTimeMillis());
+            entry.setValue(status);
+            return null;
+        }
+
+    }
+
+}
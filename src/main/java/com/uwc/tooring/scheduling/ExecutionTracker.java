@@ -0,0 +1,217 @@
+package com.uwc.tooring.scheduling;
+
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.core.IMap;
+import com.uwc.tooring.TuringService;
+import com.uwc.tooring.model.ExecutionRecord;
+import com.uwc.tooring.turing.ExecutionListener;
+import com.uwc.tooring.turing.impl.DefaultTuringMachine;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Service tracking running computations: checkpoints, commits of results and speculative (backup) executions of stragglers.
+ */
+@Service
+public class ExecutionTracker {
+
+    public static final String EXECUTIONS_MAP = "EXECUTIONS_MAP";
+
+    public static final String CHECKPOINTS_MAP = "CHECKPOINTS_MAP";
+
+    public static final String COMMITS_MAP = "COMMITS_MAP";
+
+    public static final String SPECULATIONS_MAP = "SPECULATIONS_MAP";
+
+    /**
+     * Minimal time between checkpoints (and checks for results committed by other copy) in milliseconds.
+     */
+    public static final long CHECKPOINT_RATE = 30000L;
+
+    /**
+     * Time after which running computation with unknown expected duration is considered as straggler in milliseconds.
+     */
+    public static final long SPECULATION_DELAY = 600000L;
+
+    /**
+     * Minimal time after which running computation can be considered as straggler in milliseconds.
+     */
+    public static final long MIN_SPECULATION_DELAY = 60000L;
+
+    /**
+     * Computation running longer than expected duration multiplied by this factor is considered as straggler.
+     */
+    public static final long STRAGGLER_FACTOR = 3;
+
+    @Autowired
+    private HazelcastInstance hazelcastInstance;
+
+    /**
+     * Registers start of computation.
+     *
+     * @param key              Key of Turing machine
+     * @param id               User ID of the worker
+     * @param expectedDuration Expected duration in milliseconds (0 if unknown)
+     */
+    public void started(String key, String id, long expectedDuration) {
+        IMap<String, ExecutionRecord> executionsMap = hazelcastInstance.getMap(EXECUTIONS_MAP);
+        executionsMap.set(key, new ExecutionRecord(id, System.currentTimeMillis(), expectedDuration), TuringService.TASK_TTL_IN_HOURS, TimeUnit.HOURS);
+    }
+
+    /**
+     * Gets running computation.
+     *
+     * @param key Key of Turing machine
+     * @return Record of running computation
+     */
+    public Optional<ExecutionRecord> getExecution(String key) {
+        IMap<String, ExecutionRecord> executionsMap = hazelcastInstance.getMap(EXECUTIONS_MAP);
+        return Optional.ofNullable(executionsMap.get(key));
+    }
+
+    /**
+     * Registers end of computation (successful or not) and drops it's checkpoint.
+     *
+     * @param key Key of Turing machine
+     */
+    public void finished(String key) {
+        IMap<String, ExecutionRecord> executionsMap = hazelcastInstance.getMap(EXECUTIONS_MAP);
+        IMap<String, DefaultTuringMachine> checkpointsMap = hazelcastInstance.getMap(CHECKPOINTS_MAP);
+        executionsMap.delete(key);
+        checkpointsMap.delete(key);
+    }
+
+    /**
+     * Gets latest checkpoint of computation.
+     *
+     * @param key Key of Turing machine
+     * @return Turing machine with the latest saved position of computation
+     */
+    public Optional<DefaultTuringMachine> getCheckpoint(String key) {
+        IMap<String, DefaultTuringMachine> checkpointsMap = hazelcastInstance.getMap(CHECKPOINTS_MAP);
+        return Optional.ofNullable(checkpointsMap.get(key));
+    }
+
+    /**
+     * Tries to commit result of computation. Only the first copy of computation can commit.
+     *
+     * @param key Key of Turing machine
+     * @param id  User ID of committing worker
+     * @return true if result can be stored, false if other copy has already committed
+     */
+    public boolean commit(String key, String id) {
+        IMap<String, String> commitsMap = hazelcastInstance.getMap(COMMITS_MAP);
+        return commitsMap.putIfAbsent(key, id, TuringService.TASK_TTL_IN_HOURS, TimeUnit.HOURS) == null;
+    }
+
+    /**
+     * Checks if result of computation is already committed.
+     *
+     * @param key Key of Turing machine
+     * @return true if result is committed, false otherwise
+     */
+    public boolean isCommitted(String key) {
+        IMap<String, String> commitsMap = hazelcastInstance.getMap(COMMITS_MAP);
+        return commitsMap.containsKey(key);
+    }
+
+    /**
+     * Finds computation running longer than expected and claims it for speculative execution.
+     * Each computation is speculated only once.
+     *
+     * @param id User ID of idle worker
+     * @return Key of Turing machine to execute speculatively
+     */
+    public Optional<String> claimStraggler(String id) {
+        IMap<String, ExecutionRecord> executionsMap = hazelcastInstance.getMap(EXECUTIONS_MAP);
+        IMap<String, String> speculationsMap = hazelcastInstance.getMap(SPECULATIONS_MAP);
+        long now = System.currentTimeMillis();
+        for (Map.Entry<String, ExecutionRecord> entry : executionsMap.entrySet()) {
+            String key = entry.getKey();
+            ExecutionRecord execution = entry.getValue();
+            long delay = execution.getExpectedDuration() == 0 ? SPECULATION_DELAY : Math.max(MIN_SPECULATION_DELAY, STRAGGLER_FACTOR * execution.getExpectedDuration());
+            if (now - execution.getStartedAt() < delay || isCommitted(key) || !hazelcastInstance.getLock(key).isLocked()) {
+                continue;
+            }
+            if (speculationsMap.putIfAbsent(key, id, TuringService.TASK_TTL_IN_HOURS, TimeUnit.HOURS) == null) {
+                return Optional.of(key);
+            }
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * Releases claim of speculative execution, so other idle worker can take it.
+     *
+     * @param key Key of Turing machine
+     */
+    public void releaseStraggler(String key) {
+        IMap<String, String> speculationsMap = hazelcastInstance.getMap(SPECULATIONS_MAP);
+        speculationsMap.delete(key);
+    }
+
+    /**
+     * Creates listener for computation.
+     * Every {@link #CHECKPOINT_RATE} milliseconds listener cancels computation if other copy has committed the result,
+     * primary copy also saves the checkpoint.
+     *
+     * @param key     Key of Turing machine
+     * @param primary true for primary copy, false for speculative one
+     * @return Listener of computation
+     */
+    public ExecutionListener<DefaultTuringMachine> createListener(String key, boolean primary) {
+        return new CheckpointingListener(key, primary);
+    }
+
+    /**
+     * Listener saving checkpoints and cancelling computation of already committed machines.
+     */
+    private class CheckpointingListener implements ExecutionListener<DefaultTuringMachine> {
+
+        private final String key;
+        private final boolean primary;
+        private long lastCheck = System.currentTimeMillis();
+
+        /**
+         * Constructor accepting all required parameters for building the listener.
+         *
+         * @param key     Key of Turing machine
+         * @param primary true for primary copy, false for speculative one
+         */
+        CheckpointingListener(String key, boolean primary) {
+            this.key = key;
+            this.primary = primary;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public Action onProgress(long steps) {
+            long now = System.currentTimeMillis();
+            if (now - lastCheck < CHECKPOINT_RATE) {
+                return Action.CONTINUE;
+            }
+            lastCheck = now;
+            if (isCommitted(key)) {
+                return Action.CANCEL;
+            }
+            return primary ? Action.SNAPSHOT : Action.CONTINUE;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public void onSnapshot(DefaultTuringMachine turingMachine) {
+            IMap<String, DefaultTuringMachine> checkpointsMap = hazelcastInstance.getMap(CHECKPOINTS_MAP);
+            checkpointsMap.set(key, turingMachine, TuringService.TASK_TTL_IN_HOURS, TimeUnit.HOURS);
+        }
+
+    }
+
+}
@@ -4,6 +4,7 @@ import com.hazelcast.core.HazelcastInstance;
 import com.hazelcast.core.ILock;
 import com.hazelcast.core.IMap;
 import com.uwc.tooring.TuringService;
+import com.uwc.tooring.monitoring.ClusterMetrics;
 import com.uwc.tooring.turing.impl.DefaultTuringMachine;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.scheduling.annotation.Scheduled;
@@ -23,6 +24,9 @@ public class LocksManager {
     @Autowired
     private TuringService turingService;
 
+    @Autowired
+    private ClusterMetrics clusterMetrics;
+
     /**
      * Iterates over all saved tasks (machines) and sets locking flag to false if the nod is unlocked.
      */
@@ -31,6 +35,7 @@ public class LocksManager {
         if (!turingService.isWorker()) {
             return;
         }
+        long startTime = System.nanoTime();
         IMap<String, DefaultTuringMachine> tasksMap = hazelcastInstance.getMap(TuringService.TASKS_MAP);
         for (Map.Entry<String, DefaultTuringMachine> entry : tasksMap.entrySet()) {
             ILock lock = hazelcastInstance.getLock(entry.getKey());
@@ -38,6 +43,7 @@ public class LocksManager {
                 entry.getValue().setLocked(false);
             }
         }
+        clusterMetrics.swept(System.nanoTime() - startTime);
     }
 
 }
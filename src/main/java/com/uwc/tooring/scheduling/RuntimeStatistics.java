@@ -0,0 +1,102 @@
+package com.uwc.tooring.scheduling;
+
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.core.IMap;
+import com.hazelcast.map.AbstractEntryProcessor;
+import com.uwc.tooring.model.ProgramStatistics;
+import com.uwc.tooring.turing.impl.DefaultTuringMachine;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Cluster-wide store of execution statistics per program, used for predicting cost of scheduled computations.
+ */
+@Service
+public class RuntimeStatistics {
+
+    public static final String STATISTICS_MAP = "STATISTICS_MAP";
+
+    @Autowired
+    private HazelcastInstance hazelcastInstance;
+
+    /**
+     * Records finished computation.
+     *
+     * @param programHash  Canonical hash of the program
+     * @param inputLength  Length of input tape
+     * @param steps        Number of performed steps
+     * @param nanos        Wall time of computation in nanoseconds
+     * @param outputLength Length of output tape
+     */
+    public void record(String programHash, long inputLength, long steps, long nanos, long outputLength) {
+        IMap<String, ProgramStatistics> statisticsMap = hazelcastInstance.getMap(STATISTICS_MAP);
+        statisticsMap.executeOnKey(programHash, new RecordProcessor(inputLength, steps, nanos, outputLength));
+    }
+
+    /**
+     * Gets statistics of the program.
+     *
+     * @param programHash Canonical hash of the program
+     * @return Statistics of the program
+     */
+    public Optional<ProgramStatistics> get(String programHash) {
+        IMap<String, ProgramStatistics> statisticsMap = hazelcastInstance.getMap(STATISTICS_MAP);
+        return Optional.ofNullable(statisticsMap.get(programHash));
+    }
+
+    /**
+     * Predicts wall time of computation of Turing machine.
+     *
+     * @param turingMachine Turing machine
+     * @return Expected wall time in milliseconds or empty if program was never computed before
+     */
+    public Optional<Long> predictMillis(DefaultTuringMachine turingMachine) {
+        Optional<ProgramStatistics> statistics = get(turingMachine.getProgramHash());
+        if (!statistics.isPresent()) {
+            return Optional.empty();
+        }
+        return Optional.of(TaskScheduler.getExpectedMillis(turingMachine, statistics));
+    }
+
+    /**
+     * Entry processor updating statistics of the program on the owning member.
+     */
+    private static class RecordProcessor extends AbstractEntryProcessor<String, ProgramStatistics> {
+
+        private final long inputLength;
+        private final long steps;
+        private final long nanos;
+        private final long outputLength;
+
+        /**
+         * Constructor accepting all required parameters for building the processor.
+         *
+         * @param inputLength  Length of input tape
+         * @param steps        Number of performed steps
+         * @param nanos        Wall time of computation in nanoseconds
+         * @param outputLength Length of output tape
+         */
+        RecordProcessor(long inputLength, long steps, long nanos, long outputLength) {
+            this.inputLength = inputLength;
+            this.steps = steps;
+            this.nanos = nanos;
+            this.outputLength = outputLength;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public Object process(Map.Entry<String, ProgramStatistics> entry) {
+            ProgramStatistics statistics = entry.getValue() == null ? new ProgramStatistics() : entry.getValue();
+            statistics.add(inputLength, steps, nanos, outputLength);
+            entry.setValue(statistics);
+            return null;
+        }
+
+    }
+
+}
@@ -0,0 +1,25 @@
+package com.uwc.tooring.scheduling;
+
+/**
+ * Policy of choosing the next Turing machine to process.
+ */
+public enum SchedulingPolicy {
+
+    /**
+     * Machine of the submitter with the highest score goes first.
+     */
+    SCORE,
+
+    /**
+     * Machine with the shortest expected computation time goes first.
+     * Expected time is divided by the weight of submitter's score and by the aging factor growing with waiting time.
+     */
+    SHORTEST_EXPECTED_FIRST,
+
+    /**
+     * Submitters share computation time in proportion to the weights of their scores.
+     * Queues of submitters are served by weighted deficit round robin, credit of the queue grows faster while it's head is waiting.
+     */
+    FAIR_SHARE
+
+}
@@ -0,0 +1,448 @@
+package com.uwc.tooring.scheduling;
+
+import com.hazelcast.config.Config;
+import com.hazelcast.config.MapConfig;
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.core.IMap;
+import com.hazelcast.map.AbstractEntryProcessor;
+import com.uwc.tooring.TuringService;
+import com.uwc.tooring.model.ProgramStatistics;
+import com.uwc.tooring.turing.impl.DefaultTuringMachine;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Service choosing the next Turing machine to process according to the scheduling policy.
+ */
+@Service
+public class TaskScheduler {
+
+    /**
+     * Expected computation time of programs which were never computed before in milliseconds.
+     */
+    public static final long UNKNOWN_COST = 60000L;
+
+    /**
+     * Waiting time which halves priority value (expected time) of the machine in milliseconds.
+     */
+    public static final long AGING_PERIOD = 300000L;
+
+    /**
+     * Credit (expected computation time in milliseconds) given to the queue of submitter with weight 1 per round.
+     */
+    public static final long QUANTUM = 1000L;
+
+    /**
+     * Deficits (unused credits) of submitters' queues for {@link SchedulingPolicy#FAIR_SHARE} policy.
+     */
+    public static final String DEFICITS_MAP = "DEFICITS_MAP";
+
+    /**
+     * Time after which deficit of the submitter who doesn't get tasks processed is forgotten in seconds.
+     */
+    public static final int DEFICIT_IDLE_SECONDS = 3600;
+
+    @Value("${tooring.scheduling.policy:FAIR_SHARE}")
+    private SchedulingPolicy schedulingPolicy;
+
+    @Autowired
+    private HazelcastInstance hazelcastInstance;
+
+    @Autowired
+    private TuringService turingService;
+
+    @Autowired
+    private RuntimeStatistics runtimeStatistics;
+
+    /**
+     * Configures forgetting of deficits of idle submitters.
+     *
+     * @param config Hazelcast configuration
+     */
+    public static void configure(Config config) {
+        MapConfig mapConfig = config.getMapConfig(DEFICITS_MAP);
+        mapConfig.setMaxIdleSeconds(DEFICIT_IDLE_SECONDS);
+    }
+
+    /**
+     * Chooses the next Turing machine to process. Deficits of submitters are not changed: the choice is charged
+     * only when the machine is actually dispatched (see {@link #dispatched(Selection)}).
+     *
+     * @param candidates Turing machines waiting for being processed (with their keys)
+     * @return Next Turing machine to process (with it's key) and it's charge
+     */
+    public Optional<Selection> select(Collection<Map.Entry<String, DefaultTuringMachine>> candidates) {
+        if (schedulingPolicy == SchedulingPolicy.FAIR_SHARE) {
+            if (candidates.isEmpty()) {
+                return Optional.empty();
+            }
+            FairShare fairShare = getFairShare(candidates);
+            Map.Entry<String, DefaultTuringMachine> next = fairShare.next();
+            return Optional.of(new Selection(next, new HashMap<>(fairShare.getCredits()), fairShare.isIdle(next.getValue().getId())));
+        }
+        return candidates.stream().min(getOrder(candidates)).map(next -> new Selection(next, new HashMap<>(), false));
+    }
+
+    /**
+     * Charges the choice to the deficits of submitters once the chosen machine is dispatched
+     * (for {@link SchedulingPolicy#FAIR_SHARE} policy only).
+     *
+     * @param selection Dispatched choice
+     */
+    public void dispatched(Selection selection) {
+        if (selection.getCredits().isEmpty() && !selection.isDrained()) {
+            return;
+        }
+        IMap<String, Double> deficitsMap = hazelcastInstance.getMap(DEFICITS_MAP);
+        selection.getCredits().forEach((id, credit) -> deficitsMap.executeOnKey(id, new DeficitProcessor(credit, false)));
+        if (selection.isDrained()) {
+            deficitsMap.executeOnKey(selection.getEntry().getValue().getId(), new DeficitProcessor(0, true));
+        }
+    }
+
+    /**
+     * Orders Turing machines in the sequence they would be processed.
+     *
+     * @param candidates Turing machines waiting for being processed (with their keys)
+     * @return Turing machines (with their keys), the next one to process goes first
+     */
+    public List<Map.Entry<String, DefaultTuringMachine>> rank(Collection<Map.Entry<String, DefaultTuringMachine>> candidates) {
+        if (schedulingPolicy == SchedulingPolicy.FAIR_SHARE) {
+            if (candidates.isEmpty()) {
+                return new ArrayList<>();
+            }
+            FairShare fairShare = getFairShare(candidates);
+            List<Map.Entry<String, DefaultTuringMachine>> ranked = new ArrayList<>();
+            while (ranked.size() < candidates.size()) {
+                ranked.add(fairShare.next());
+            }
+            return ranked;
+        }
+        return candidates.stream().sorted(getOrder(candidates)).collect(Collectors.toList());
+    }
+
+    /**
+     * Builds round robin over submitters' queues of candidates starting from the current deficits of submitters.
+     *
+     * @param candidates Turing machines waiting for being processed (with their keys)
+     * @return Fair share round robin
+     */
+    private FairShare getFairShare(Collection<Map.Entry<String, DefaultTuringMachine>> candidates) {
+        Map<String, List<Map.Entry<String, DefaultTuringMachine>>> queues = new TreeMap<>(candidates.stream()
+                .collect(Collectors.groupingBy(e -> e.getValue().getId())));
+        IMap<String, Double> deficitsMap = hazelcastInstance.getMap(DEFICITS_MAP);
+        Map<String, Double> deficits = deficitsMap.getAll(queues.keySet());
+        long now = System.currentTimeMillis();
+        Map<String, Optional<ProgramStatistics>> statistics = new HashMap<>();
+        FairShare fairShare = new FairShare();
+        queues.forEach((id, queue) -> {
+            queue.sort(Comparator.comparing((Map.Entry<String, DefaultTuringMachine> e) -> e.getValue().getScheduledAt()).thenComparing(Map.Entry::getKey));
+            double[] costs = new double[queue.size()];
+            for (int i = 0; i < costs.length; i++) {
+                DefaultTuringMachine turingMachine = queue.get(i).getValue();
+                costs[i] = getExpectedMillis(turingMachine, statistics.computeIfAbsent(turingMachine.getProgramHash(), runtimeStatistics::get)) + 1;
+            }
+            DefaultTuringMachine head = queue.get(0).getValue();
+            long waiting = head.getScheduledAt() == 0 ? 0 : Math.max(0, now - head.getScheduledAt());
+            Double deficit = deficits.get(id);
+            fairShare.add(id, queue, costs, getRate(turingService.getScore(id), waiting), deficit == null ? 0 : deficit);
+        });
+        return fairShare;
+    }
+
+    /**
+     * Builds order of processing according to the scheduling policy.
+     *
+     * @param candidates Turing machines waiting for being processed (with their keys)
+     * @return Comparator putting the machine which goes first to the beginning
+     */
+    private Comparator<Map.Entry<String, DefaultTuringMachine>> getOrder(Collection<Map.Entry<String, DefaultTuringMachine>> candidates) {
+        Map<String, Long> scores = new HashMap<>();
+        candidates.forEach(e -> scores.computeIfAbsent(e.getValue().getId(), turingService::getScore));
+
+        if (schedulingPolicy == SchedulingPolicy.SHORTEST_EXPECTED_FIRST) {
+            long now = System.currentTimeMillis();
+            Map<String, Optional<ProgramStatistics>> statistics = new HashMap<>();
+            Map<String, Double> priorities = new HashMap<>();
+            candidates.forEach(e -> priorities.put(e.getKey(), getPriority(e.getValue(), scores.get(e.getValue().getId()), now, statistics)));
+            return Comparator.comparing(e -> priorities.get(e.getKey()));
+        }
+        return Comparator.comparing((Map.Entry<String, DefaultTuringMachine> e) -> scores.get(e.getValue().getId())).reversed();
+    }
+
+    /**
+     * Calculates priority value of the machine for {@link SchedulingPolicy#SHORTEST_EXPECTED_FIRST} policy (lower goes first).
+     *
+     * @param turingMachine Turing machine
+     * @param score         Score of the submitter
+     * @param now           Current time in milliseconds
+     * @param statistics    Statistics of programs fetched so far (by program hash)
+     * @return Priority value
+     */
+    private double getPriority(DefaultTuringMachine turingMachine, long score, long now, Map<String, Optional<ProgramStatistics>> statistics) {
+        long expected = getExpectedMillis(turingMachine, statistics.computeIfAbsent(turingMachine.getProgramHash(), runtimeStatistics::get));
+        long waiting = turingMachine.getScheduledAt() == 0 ? 0 : Math.max(0, now - turingMachine.getScheduledAt());
+        return getPriority(expected, waiting, score);
+    }
+
+    /**
+     * Calculates priority value for {@link SchedulingPolicy#SHORTEST_EXPECTED_FIRST} policy (lower goes first):
+     * expected time divided by the weight of submitter's score and by the aging factor.
+     *
+     * @param expected Expected computation time in milliseconds
+     * @param waiting  Waiting time in milliseconds
+     * @param score    Score of the submitter
+     * @return Priority value
+     */
+    public static double getPriority(long expected, long waiting, long score) {
+        double aging = 1 + (double) waiting / AGING_PERIOD;
+        return (expected + 1) / (aging * getWeight(score));
+    }
+
+    /**
+     * Calculates credit given to the queue per round for {@link SchedulingPolicy#FAIR_SHARE} policy:
+     * quantum multiplied by the weight of submitter's score and by the aging factor of the queue's head.
+     *
+     * @param score   Score of the submitter
+     * @param waiting Waiting time of the queue's head in milliseconds
+     * @return Credit per round
+     */
+    static double getRate(long score, long waiting) {
+        return QUANTUM * getWeight(score) * (1 + (double) waiting / AGING_PERIOD);
+    }
+
+    /**
+     * Weighted deficit round robin over submitters' queues. Every round each queue gets credit equal to it's rate
+     * (quantum multiplied by the weight of submitter's score and by the aging factor of the queue's head);
+     * queue may dispatch it's head when accumulated credit covers expected computation time of the head.
+     * Rounds which pass without dispatching anything are skipped at once.
+     */
+    static class FairShare {
+
+        private final List<String> ids = new ArrayList<>();
+        private final Map<String, Deque<Map.Entry<String, DefaultTuringMachine>>> queues = new HashMap<>();
+        private final Map<String, Deque<Double>> costs = new HashMap<>();
+        private final Map<String, Double> rates = new HashMap<>();
+        private final Map<String, Double> deficits = new HashMap<>();
+        private final Map<String, Double> credits = new HashMap<>();
+
+        /**
+         * Adds queue of the submitter.
+         *
+         * @param id      User ID
+         * @param queue   Turing machines of the submitter in the order of scheduling (with their keys)
+         * @param costs   Expected computation times of the machines in milliseconds
+         * @param rate    Credit given to the queue per round
+         * @param deficit Current deficit of the queue
+         */
+        void add(String id, List<Map.Entry<String, DefaultTuringMachine>> queue, double[] costs, double rate, double deficit) {
+            ids.add(id);
+            queues.put(id, new ArrayDeque<>(queue));
+            Deque<Double> queueCosts = new ArrayDeque<>();
+            for (double cost : costs) {
+                queueCosts.add(cost);
+            }
+            this.costs.put(id, queueCosts);
+            rates.put(id, rate);
+            deficits.put(id, deficit);
+        }
+
+        /**
+         * Dispatches the next Turing machine: the head of the queue which needs the least rounds to cover it's cost
+         * (the oldest head wins the tie).
+         *
+         * @return Next Turing machine to process (with it's key)
+         */
+        Map.Entry<String, DefaultTuringMachine> next() {
+            String next = null;
+            long nextRounds = Long.MAX_VALUE;
+            for (String id : ids) {
+                Deque<Map.Entry<String, DefaultTuringMachine>> queue = queues.get(id);
+                if (queue.isEmpty()) {
+                    continue;
+                }
+                long rounds = (long) Math.max(0, Math.ceil((costs.get(id).peek() - deficits.get(id)) / rates.get(id)));
+                if (next == null || rounds < nextRounds || (rounds == nextRounds
+                        && queue.peek().getValue().getScheduledAt() < queues.get(next).peek().getValue().getScheduledAt())) {
+                    next = id;
+                    nextRounds = rounds;
+                }
+            }
+            for (String id : ids) {
+                if (!queues.get(id).isEmpty()) {
+                    credit(id, nextRounds * rates.get(id));
+                }
+            }
+            credit(next, -costs.get(next).poll());
+            if (queues.get(next).size() == 1) {
+                deficits.put(next, 0.0);
+            }
+            return queues.get(next).poll();
+        }
+
+        private void credit(String id, double credit) {
+            deficits.merge(id, credit, Double::sum);
+            credits.merge(id, credit, Double::sum);
+        }
+
+        /**
+         * Checks if queue of the submitter is drained.
+         *
+         * @param id User ID
+         * @return true if there are no more machines of the submitter, false otherwise
+         */
+        boolean isIdle(String id) {
+            return queues.get(id).isEmpty();
+        }
+
+        /**
+         * Gets changes of deficits made by dispatching so far.
+         *
+         * @return Changes of deficits by User ID
+         */
+        Map<String, Double> getCredits() {
+            return credits;
+        }
+
+    }
+
+    /**
+     * Choice of the next Turing machine to process with the changes of submitters' deficits it costs.
+     */
+    public static class Selection {
+
+        private final Map.Entry<String, DefaultTuringMachine> entry;
+        private final Map<String, Double> credits;
+        private final boolean drained;
+
+        /**
+         * Constructor accepting all required parameters for building the selection.
+         *
+         * @param entry   Chosen Turing machine (with it's key)
+         * @param credits Changes of deficits by User ID
+         * @param drained true if the choice drains the queue of the submitter
+         */
+        Selection(Map.Entry<String, DefaultTuringMachine> entry, Map<String, Double> credits, boolean drained) {
+            this.entry = entry;
+            this.credits = credits;
+            this.drained = drained;
+        }
+
+        /**
+         * Gets chosen Turing machine.
+         *
+         * @return Chosen Turing machine (with it's key)
+         */
+        public Map.Entry<String, DefaultTuringMachine> getEntry() {
+            return entry;
+        }
+
+        /**
+         * Gets changes of deficits charged on dispatching.
+         *
+         * @return Changes of deficits by User ID
+         */
+        Map<String, Double> getCredits() {
+            return credits;
+        }
+
+        /**
+         * Checks if the choice drains the queue of the submitter, so that it's deficit is forgotten.
+         *
+         * @return true if there are no more machines of the submitter, false otherwise
+         */
+        boolean isDrained() {
+            return drained;
+        }
+
+    }
+
+    /**
+     * Entry processor changing deficit of the submitter on the owning member.
+     */
+    private static class DeficitProcessor extends AbstractEntryProcessor<String, Double> {
+
+        private final double credit;
+        private final boolean reset;
+
+        /**
+         * Constructor accepting all required parameters for building the processor.
+         *
+         * @param credit Change of the deficit
+         * @param reset  true to forget the deficit of the submitter whose queue is drained
+         */
+        DeficitProcessor(double credit, boolean reset) {
+            this.credit = credit;
+            this.reset = reset;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public Object process(Map.Entry<String, Double> entry) {
+            if (reset) {
+                entry.setValue(null);
+            } else {
+                entry.setValue(entry.getValue() == null ? credit : entry.getValue() + credit);
+            }
+            return null;
+        }
+
+    }
+
+    /**
+     * Calculates expected computation time of the machine.
+     *
+     * @param turingMachine Turing machine
+     * @param statistics    Statistics of the machine's program
+     * @return Expected computation time in milliseconds ({@link #UNKNOWN_COST} if program was never computed before)
+     */
+    public static long getExpectedMillis(DefaultTuringMachine turingMachine, Optional<ProgramStatistics> statistics) {
+        long inputLength = turingMachine.getTapeLength();
+        return statistics.map(s -> TimeUnit.NANOSECONDS.toMillis((long) s.predictNanos(inputLength))).orElse(UNKNOWN_COST);
+    }
+
+    /**
+     * Converts score of the submitter to the weight: positive scores increase it, negative ones decrease.
+     *
+     * @param score Score of the submitter
+     * @return Weight of the submitter
+     */
+    public static double getWeight(long score) {
+        return score >= 0 ? 1 + score : 1.0 / (1 - score);
+    }
+
+    /**
+     * Gets current scheduling policy.
+     *
+     * @return Scheduling policy
+     */
+    public SchedulingPolicy getSchedulingPolicy() {
+        return schedulingPolicy;
+    }
+
+    /**
+     * Sets scheduling policy.
+     *
+     * @param schedulingPolicy Scheduling policy
+     */
+    public void setSchedulingPolicy(SchedulingPolicy schedulingPolicy) {
+        this.schedulingPolicy = schedulingPolicy;
+    }
+
+}
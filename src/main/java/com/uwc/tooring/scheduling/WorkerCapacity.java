@@ -0,0 +1,192 @@
+package com.uwc.tooring.scheduling;
+
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.core.Member;
+import com.uwc.tooring.TuringService;
+import com.uwc.tooring.storage.PagedTapes;
+import com.uwc.tooring.turing.impl.DefaultTuringMachine;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Service advertising capacity of the worker (as member attributes) and deciding which tasks the worker can take.
+ */
+@Service
+public class WorkerCapacity {
+
+    public static final String CORES_ATTRIBUTE = "tooring.cores";
+
+    public static final String FREE_HEAP_ATTRIBUTE = "tooring.freeHeap";
+
+    public static final String ACTIVE_SLOTS_ATTRIBUTE = "tooring.activeSlots";
+
+    public static final String ADVERTISED_AT_ATTRIBUTE = "tooring.advertisedAt";
+
+    /**
+     * Period of advertising capacity in milliseconds.
+     */
+    public static final long ADVERTISE_RATE = 5000;
+
+    /**
+     * Capacity advertised longer than this number of milliseconds ago is ignored: the member stopped advertising.
+     */
+    public static final long STALENESS_LIMIT = 3 * ADVERTISE_RATE;
+
+    /**
+     * Estimated number of bytes per tape cell: tape string, working buffer with spare cells and resulting string.
+     */
+    public static final int BYTES_PER_TAPE_CELL = 8;
+
+    /**
+     * Estimated number of bytes per transition of compiled program.
+     */
+    public static final int BYTES_PER_TRANSITION = 256;
+
+    /**
+     * Share of free heap which can be taken by a single task.
+     */
+    public static final double HEAP_USAGE_LIMIT = 0.8;
+
+    /**
+     * Tasks taking more than this share of free heap are left to idle workers having more free heap.
+     */
+    public static final double LARGE_TASK_SHARE = 0.25;
+
+    @Autowired
+    private HazelcastInstance hazelcastInstance;
+
+    @Autowired
+    private TuringService turingService;
+
+    private final AtomicInteger activeSlots = new AtomicInteger();
+
+    /**
+     * Publishes capacity of current worker as member attributes.
+     * Capacity of node which is not a worker (anymore) is withdrawn.
+     */
+    @Scheduled(fixedRate = ADVERTISE_RATE)
+    public void advertise() {
+        Member localMember = hazelcastInstance.getCluster().getLocalMember();
+        if (!turingService.isWorker()) {
+            if (localMember.getLongAttribute(ADVERTISED_AT_ATTRIBUTE) != null) {
+                localMember.removeAttribute(CORES_ATTRIBUTE);
+                localMember.removeAttribute(FREE_HEAP_ATTRIBUTE);
+                localMember.removeAttribute(ACTIVE_SLOTS_ATTRIBUTE);
+                localMember.removeAttribute(ADVERTISED_AT_ATTRIBUTE);
+            }
+            return;
+        }
+        localMember.setIntAttribute(CORES_ATTRIBUTE, Runtime.getRuntime().availableProcessors());
+        localMember.setLongAttribute(FREE_HEAP_ATTRIBUTE, getFreeHeap());
+        localMember.setIntAttribute(ACTIVE_SLOTS_ATTRIBUTE, activeSlots.get());
+        localMember.setLongAttribute(ADVERTISED_AT_ATTRIBUTE, System.currentTimeMillis());
+    }
+
+    /**
+     * Marks start of computation on current worker.
+     */
+    public void acquireSlot() {
+        activeSlots.incrementAndGet();
+    }
+
+    /**
+     * Marks end of computation on current worker.
+     */
+    public void releaseSlot() {
+        activeSlots.decrementAndGet();
+    }
+
+    /**
+     * Gets number of running computations on current worker.
+     *
+     * @return Number of computations
+     */
+    public int getActiveSlots() {
+        return activeSlots.get();
+    }
+
+    /**
+     * Estimates amount of memory required for computation of Turing machine.
+     * Paged tape takes only it's working set of segments.
+     *
+     * @param turingMachine Turing machine
+     * @return Estimated footprint in bytes
+     */
+    public static long estimateFootprint(DefaultTuringMachine turingMachine) {
+        long transitionsFootprint = (long) turingMachine.getTransitionSpace().size() * BYTES_PER_TRANSITION;
+        if (turingMachine.getTapeReference() != null) {
+            return PagedTapes.getWorkingSetBytes() + transitionsFootprint;
+        }
+        return turingMachine.getTapeLength() * BYTES_PER_TAPE_CELL + transitionsFootprint;
+    }
+
+    /**
+     * Checks if current worker should take Turing machine: it has to fit into free heap,
+     * and large machines are left to idle workers having more free heap.
+     *
+     * @param turingMachine Turing machine
+     * @return true if current worker can take the machine, false otherwise
+     */
+    public boolean canTake(DefaultTuringMachine turingMachine) {
+        List<Map<String, Object>> otherMembers = new ArrayList<>();
+        for (Member member : hazelcastInstance.getCluster().getMembers()) {
+            if (!member.localMember()) {
+                otherMembers.add(member.getAttributes());
+            }
+        }
+        return canTake(estimateFootprint(turingMachine), getFreeHeap(), otherMembers, System.currentTimeMillis());
+    }
+
+    /**
+     * Checks if worker should take task with the specified footprint.
+     * Task is deferred only to idle members which advertised larger free heap recently enough.
+     *
+     * @param footprint    Estimated footprint of task in bytes
+     * @param freeHeap     Free heap of current worker in bytes
+     * @param otherMembers Attributes of other members
+     * @param now          Current time in milliseconds
+     * @return true if current worker can take the task, false otherwise
+     */
+    static boolean canTake(long footprint, long freeHeap, Collection<Map<String, Object>> otherMembers, long now) {
+        if (footprint > freeHeap * HEAP_USAGE_LIMIT) {
+            return false;
+        }
+        if (footprint <= freeHeap * LARGE_TASK_SHARE) {
+            return true;
+        }
+        for (Map<String, Object> attributes : otherMembers) {
+            Object memberFreeHeap = attributes.get(FREE_HEAP_ATTRIBUTE);
+            Object memberActiveSlots = attributes.get(ACTIVE_SLOTS_ATTRIBUTE);
+            Object advertisedAt = attributes.get(ADVERTISED_AT_ATTRIBUTE);
+            if (!(memberFreeHeap instanceof Long) || !(memberActiveSlots instanceof Integer) || !(advertisedAt instanceof Long)) {
+                continue;
+            }
+            if (now - (Long) advertisedAt > STALENESS_LIMIT) {
+                continue;
+            }
+            if ((Integer) memberActiveSlots == 0 && (Long) memberFreeHeap > freeHeap
+                    && footprint <= (Long) memberFreeHeap * HEAP_USAGE_LIMIT) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Calculates free heap of current JVM (including not yet allocated part).
+     *
+     * @return Free heap in bytes
+     */
+    public static long getFreeHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        return runtime.maxMemory() - (runtime.totalMemory() - runtime.freeMemory());
+    }
+
+}
@@ -0,0 +1,191 @@
+package com.uwc.tooring.storage;
+
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.core.ILock;
+import com.hazelcast.core.IMap;
+import com.hazelcast.core.ReplicatedMap;
+import com.uwc.tooring.TuringService;
+import com.uwc.tooring.scheduling.TaskScheduler;
+import com.uwc.tooring.turing.impl.DefaultTuringMachine;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Service keeping only tasks near the head of the scheduling queue hot. Tapes of other queued tasks are compressed
+ * (see {@link TapeCodec}) and moved from the replicated tasks map (a copy on every member) to the partitioned
+ * {@link #COLD_TAPES_MAP}. Tapes are promoted back when their tasks approach the head of the queue.
+ */
+@Service
+public class ColdTier {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ColdTier.class);
+
+    public static final String COLD_TAPES_MAP = "COLD_TAPES_MAP";
+
+    public static final String TIERING_LOCK = "TIERING_LOCK";
+
+    /**
+     * Time between rebalancing of tiers in milliseconds.
+     */
+    public static final long TIERING_RATE = 5000L;
+
+    /**
+     * Shorter tapes are never moved to the cold tier. Tapes small enough for batch processing stay hot.
+     */
+    public static final int MIN_COLD_TAPE_LENGTH = TuringService.BATCH_TAPE_LIMIT + 1;
+
+    @Autowired
+    private HazelcastInstance hazelcastInstance;
+
+    @Autowired
+    private TuringService turingService;
+
+    @Autowired
+    private TaskScheduler taskScheduler;
+
+    /**
+     * Number of tasks at the head of the queue which are kept hot.
+     */
+    @Value("${tooring.tiering.hot-tasks:64}")
+    private int hotTasks;
+
+    /**
+     * Moves tapes between tiers according to the current order of the queue. Only one worker rebalances at a time.
+     */
+    @Scheduled(fixedDelay = TIERING_RATE)
+    public void rebalance() {
+        if (!turingService.isWorker()) {
+            return;
+        }
+        ILock lock = hazelcastInstance.getLock(TIERING_LOCK);
+        if (!lock.tryLock()) {
+            return;
+        }
+        try {
+            ReplicatedMap<String, DefaultTuringMachine> tasksMap = hazelcastInstance.getReplicatedMap(TuringService.TASKS_MAP);
+            List<Map.Entry<String, DefaultTuringMachine>> queued = tasksMap.entrySet().stream().filter(e -> {
+                DefaultTuringMachine machine = e.getValue();
+                return machine.isScheduled() && !machine.isLocked() && !machine.isDone() && !machine.isRestored() && machine.getTapeReference() == null;
+            }).collect(Collectors.toList());
+            List<Map.Entry<String, DefaultTuringMachine>> ranked = taskScheduler.rank(queued);
+            int promoted = 0;
+            int demoted = 0;
+            for (int i = 0; i < ranked.size(); i++) {
+                DefaultTuringMachine turingMachine = ranked.get(i).getValue();
+                if (i < hotTasks && turingMachine.isCold()) {
+                    promoted += promote(ranked.get(i).getKey()) ? 1 : 0;
+                } else if (i >= hotTasks && !turingMachine.isCold() && turingMachine.getTapeLength() >= MIN_COLD_TAPE_LENGTH) {
+                    demoted += demote(ranked.get(i).getKey()) ? 1 : 0;
+                }
+            }
+            dropOrphans(tasksMap);
+            if (promoted + demoted > 0) {
+                LOGGER.info("Tiers are rebalanced: promoted = " + promoted + ", demoted = " + demoted);
+            }
+        } finally {
+            lock.forceUnlock();
+        }
+    }
+
+    /**
+     * Loads the tape of the machine from the cold tier (the machine stays cold in the tasks map).
+     *
+     * @param key           Key of Turing machine
+     * @param turingMachine Turing machine with the tape in the cold tier
+     * @return true if the tape is loaded, false if it's lost
+     */
+    public boolean warm(String key, DefaultTuringMachine turingMachine) {
+        IMap<String, byte[]> coldTapesMap = hazelcastInstance.getMap(COLD_TAPES_MAP);
+        byte[] coldTape = coldTapesMap.get(key);
+        if (coldTape == null) {
+            return false;
+        }
+        turingMachine.setTape(TapeCodec.decode(coldTape));
+        turingMachine.setColdTapeLength(null);
+        return true;
+    }
+
+    /**
+     * Compresses the tape of queued machine and moves it to the cold tier.
+     *
+     * @param key Key of Turing machine
+     * @return true if the tape is moved, false if the machine is locked or was changed
+     */
+    boolean demote(String key) {
+        ILock lock = hazelcastInstance.getLock(key);
+        if (!lock.tryLock()) {
+            return false;
+        }
+        try {
+            ReplicatedMap<String, DefaultTuringMachine> tasksMap = hazelcastInstance.getReplicatedMap(TuringService.TASKS_MAP);
+            DefaultTuringMachine turingMachine = tasksMap.get(key);
+            if (turingMachine == null || !turingMachine.isScheduled() || turingMachine.isDone() || turingMachine.isCold() || turingMachine.getTape() == null) {
+                return false;
+            }
+            IMap<String, byte[]> coldTapesMap = hazelcastInstance.getMap(COLD_TAPES_MAP);
+            coldTapesMap.set(key, TapeCodec.encode(turingMachine.getTape()), TuringService.TASK_TTL_IN_HOURS, TimeUnit.HOURS);
+            turingMachine.setColdTapeLength(turingMachine.getTape().length());
+            turingMachine.setTape(null);
+            tasksMap.put(key, turingMachine, TuringService.TASK_TTL_IN_HOURS, TimeUnit.HOURS);
+            return true;
+        } finally {
+            lock.forceUnlock();
+        }
+    }
+
+    /**
+     * Moves the tape of queued machine back from the cold tier.
+     *
+     * @param key Key of Turing machine
+     * @return true if the tape is moved, false if the machine is locked or was changed
+     */
+    boolean promote(String key) {
+        ILock lock = hazelcastInstance.getLock(key);
+        if (!lock.tryLock()) {
+            return false;
+        }
+        try {
+            ReplicatedMap<String, DefaultTuringMachine> tasksMap = hazelcastInstance.getReplicatedMap(TuringService.TASKS_MAP);
+            DefaultTuringMachine turingMachine = tasksMap.get(key);
+            if (turingMachine == null || !turingMachine.isCold()) {
+                return false;
+            }
+            if (!warm(key, turingMachine)) {
+                LOGGER.error("Tape of Turing machine is lost in the cold tier, key = " + key);
+                return false;
+            }
+            tasksMap.put(key, turingMachine, TuringService.TASK_TTL_IN_HOURS, TimeUnit.HOURS);
+            IMap<String, byte[]> coldTapesMap = hazelcastInstance.getMap(COLD_TAPES_MAP);
+            coldTapesMap.delete(key);
+            return true;
+        } finally {
+            lock.forceUnlock();
+        }
+    }
+
+    /**
+     * Drops cold tapes of machines which were removed or computed straight from the cold tier.
+     * Hot queued machines are not checked: their copy in the tasks map may be not replicated yet.
+     *
+     * @param tasksMap Tasks map
+     */
+    void dropOrphans(ReplicatedMap<String, DefaultTuringMachine> tasksMap) {
+        IMap<String, byte[]> coldTapesMap = hazelcastInstance.getMap(COLD_TAPES_MAP);
+        for (String key : coldTapesMap.keySet()) {
+            DefaultTuringMachine turingMachine = tasksMap.get(key);
+            if (turingMachine == null || turingMachine.isDone()) {
+                coldTapesMap.delete(key);
+            }
+        }
+    }
+
+}
@@ -0,0 +1,57 @@
+package com.uwc.tooring.storage;
+
+import com.hazelcast.core.IMap;
+import com.uwc.tooring.TuringService;
+import com.uwc.tooring.turing.impl.SegmentStore;
+
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Storage of tape segments in the distributed map, so segments of a single tape are spread across the cluster.
+ */
+public class DistributedSegmentStore implements SegmentStore {
+
+    private final IMap<String, char[]> segmentsMap;
+    private final String key;
+
+    /**
+     * Constructor accepting all required parameters for building the store.
+     *
+     * @param segmentsMap Distributed map of segments
+     * @param key         Key of the tape
+     */
+    public DistributedSegmentStore(IMap<String, char[]> segmentsMap, String key) {
+        this.segmentsMap = segmentsMap;
+        this.key = key;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Future<char[]> loadAsync(long segment, long generation) {
+        return segmentsMap.getAsync(getSegmentKey(key, segment, generation));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Future<?> storeAsync(long segment, long generation, char[] cells) {
+        return segmentsMap.putAsync(getSegmentKey(key, segment, generation), cells, TuringService.TASK_TTL_IN_HOURS, TimeUnit.HOURS);
+    }
+
+    /**
+     * Builds key of the segment in the distributed map.
+     *
+     * @param key        Key of the tape
+     * @param segment    Segment index
+     * @param generation Generation which has written the segment
+     * @return Key of the segment
+     */
+    public static String getSegmentKey(String key, long segment, long generation) {
+        return key + ':' + segment + ':' + generation;
+    }
+
+}
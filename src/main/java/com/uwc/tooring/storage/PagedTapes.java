@@ -0,0 +1,225 @@
+package com.uwc.tooring.storage;
+
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.core.IMap;
+import com.uwc.tooring.TuringService;
+import com.uwc.tooring.model.TapeReference;
+import com.uwc.tooring.turing.ExecutionListener;
+import com.uwc.tooring.turing.impl.DefaultTuringMachine;
+import com.uwc.tooring.turing.impl.PagedExecutor;
+import com.uwc.tooring.turing.impl.SegmentStore;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Service storing large tapes as segments in the distributed map, so a single tape can use memory of the whole cluster.
+ * Worker computing such machine keeps only a small working set of segments locally.
+ */
+@Service
+public class PagedTapes {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(PagedTapes.class);
+
+    public static final String TAPE_SEGMENTS_MAP = "TAPE_SEGMENTS_MAP";
+
+    public static final String GENERATIONS_COUNTER = "TAPE_GENERATIONS";
+
+    /**
+     * Number of cells in a segment.
+     */
+    public static final int SEGMENT_SIZE = 1 << 16;
+
+    /**
+     * Maximal number of segments held locally by the worker.
+     */
+    public static final int WORKING_SET_SEGMENTS = 64;
+
+    /**
+     * Tapes longer than this number of cells are paged.
+     */
+    public static final int PAGING_THRESHOLD = 1 << 24;
+
+    /**
+     * Generation of segments written on submission.
+     */
+    public static final long INITIAL_GENERATION = 0L;
+
+    @Autowired
+    private HazelcastInstance hazelcastInstance;
+
+    /**
+     * Moves tape of the machine to segments if it's longer than {@link #PAGING_THRESHOLD}.
+     *
+     * @param key           Key of Turing machine
+     * @param turingMachine Submitted Turing machine
+     * @return true if tape was paged, false otherwise
+     */
+    public boolean pageIfLarge(String key, DefaultTuringMachine turingMachine) {
+        String tape = turingMachine.getTape();
+        if (!turingMachine.isStandard() || turingMachine.getTapeReference() != null || tape == null || tape.length() <= PAGING_THRESHOLD) {
+            return false;
+        }
+        IMap<String, char[]> segmentsMap = hazelcastInstance.getMap(TAPE_SEGMENTS_MAP);
+        Map<Long, Long> generations = new HashMap<>();
+        for (long segment = 0; segment * SEGMENT_SIZE < tape.length(); segment++) {
+            int from = (int) (segment * SEGMENT_SIZE);
+            int to = Math.min(tape.length(), from + SEGMENT_SIZE);
+            char[] cells = new char[SEGMENT_SIZE];
+            tape.getChars(from, to, cells, 0);
+            Arrays.fill(cells, to - from, SEGMENT_SIZE, DefaultTuringMachine.EMPTY);
+            segmentsMap.set(DistributedSegmentStore.getSegmentKey(key, segment, INITIAL_GENERATION), cells, TuringService.TASK_TTL_IN_HOURS, TimeUnit.HOURS);
+            generations.put(segment, INITIAL_GENERATION);
+        }
+        turingMachine.setTapeReference(new TapeReference(key, SEGMENT_SIZE, 0, tape.length(), 0, generations));
+        turingMachine.setTape(null);
+        LOGGER.info("Tape of Turing machine is paged into " + generations.size() + " segments, key = " + key);
+        return true;
+    }
+
+    /**
+     * Performs computations on the machine with paged tape.
+     * Each computation writes segments under it's own generation, so checkpoints keep pointing to consistent segments.
+     *
+     * @param turingMachine Turing machine with paged tape
+     * @param listener      Listener of computations (nullable)
+     */
+    public void run(DefaultTuringMachine turingMachine, ExecutionListener<DefaultTuringMachine> listener) {
+        String key = turingMachine.getTapeReference().getKey();
+        IMap<String, char[]> segmentsMap = hazelcastInstance.getMap(TAPE_SEGMENTS_MAP);
+        long generation = hazelcastInstance.getAtomicLong(GENERATIONS_COUNTER).incrementAndGet();
+        PagedExecutor executor = new PagedExecutor(turingMachine, new DistributedSegmentStore(segmentsMap, key), WORKING_SET_SEGMENTS, generation);
+        executor.run(listener);
+        LOGGER.info("Paged tape computation has finished: faults = " + executor.getTape().getFaults() + ", prefetch hits = " + executor.getTape().getPrefetchHits() + ", key = " + key);
+    }
+
+    /**
+     * Loads visited part of the paged tape back to the machine (cleaning it up the same way as in-memory tapes)
+     * and drops it's segments.
+     *
+     * @param turingMachine Turing machine with paged tape
+     */
+    public void materialize(DefaultTuringMachine turingMachine) {
+        TapeReference reference = turingMachine.getTapeReference();
+        turingMachine.setTape(read(reference));
+        turingMachine.setTapeReference(null);
+        release(reference);
+    }
+
+    /**
+     * Reads visited part of the paged tape, cleaning it up the same way as in-memory tapes. Segments are kept.
+     *
+     * @param reference Tape reference
+     * @return Tape
+     */
+    public String read(TapeReference reference) {
+        return readRaw(reference).replace('_', ' ').trim();
+    }
+
+    /**
+     * Reads visited part of the paged tape as it was left by computation, with empty symbols. Segments are kept.
+     *
+     * @param reference Tape reference
+     * @return Raw tape
+     */
+    public String readRaw(TapeReference reference) {
+        IMap<String, char[]> segmentsMap = hazelcastInstance.getMap(TAPE_SEGMENTS_MAP);
+        return readRaw(reference, new DistributedSegmentStore(segmentsMap, reference.getKey()));
+    }
+
+    /**
+     * Reads visited part of the paged tape from the store, cleaning it up the same way as in-memory tapes.
+     *
+     * @param reference Tape reference
+     * @param store     Store of segments
+     * @return Tape
+     * @throws IllegalStateException If the segment was written, but it's lost (e.g. expired)
+     */
+    public static String read(TapeReference reference, SegmentStore store) {
+        return readRaw(reference, store).replace('_', ' ').trim();
+    }
+
+    /**
+     * Reads visited part of the paged tape from the store as it was left by computation, with empty symbols.
+     * All segments are requested at once and assembled in order. Segments which were never written are blank.
+     *
+     * @param reference Tape reference
+     * @param store     Store of segments
+     * @return Raw tape
+     * @throws IllegalStateException If the segment was written, but it's lost (e.g. expired)
+     */
+    public static String readRaw(TapeReference reference, SegmentStore store) {
+        int segmentSize = reference.getSegmentSize();
+        long firstSegment = Math.floorDiv(reference.getStart(), segmentSize);
+        long lastSegment = Math.floorDiv(reference.getEnd() - 1, segmentSize);
+        Map<Long, Future<char[]>> loads = new HashMap<>();
+        for (long segment = firstSegment; segment <= lastSegment; segment++) {
+            Long generation = reference.getGenerations().get(segment);
+            if (generation != null) {
+                loads.put(segment, store.loadAsync(segment, generation));
+            }
+        }
+        StringBuilder tape = new StringBuilder((int) Math.min(Integer.MAX_VALUE, reference.getLength()));
+        for (long position = reference.getStart(); position < reference.getEnd(); ) {
+            long segment = Math.floorDiv(position, segmentSize);
+            long segmentStart = segment * segmentSize;
+            int from = (int) (position - segmentStart);
+            int to = (int) (Math.min(reference.getEnd(), segmentStart + segmentSize) - segmentStart);
+            Future<char[]> load = loads.get(segment);
+            if (load == null) {
+                for (int i = from; i < to; i++) {
+                    tape.append(DefaultTuringMachine.EMPTY);
+                }
+            } else {
+                char[] cells = await(load);
+                if (cells == null) {
+                    throw new IllegalStateException("Tape segment is lost (segment=" + segment + ", generation=" + reference.getGenerations().get(segment) + ")");
+                }
+                tape.append(cells, from, to - from);
+            }
+            position = segmentStart + to;
+        }
+        return tape.toString();
+    }
+
+    private static <T> T await(Future<T> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    /**
+     * Drops segments of the paged tape. Segments of older generations expire with the task.
+     *
+     * @param reference Tape reference
+     */
+    public void release(TapeReference reference) {
+        IMap<String, char[]> segmentsMap = hazelcastInstance.getMap(TAPE_SEGMENTS_MAP);
+        reference.getGenerations().forEach((segment, generation) ->
+                segmentsMap.delete(DistributedSegmentStore.getSegmentKey(reference.getKey(), segment, generation)));
+    }
+
+    /**
+     * Estimates amount of memory used locally by computation of the paged tape:
+     * working set, prefetched segments and segments being written back.
+     *
+     * @return Footprint in bytes
+     */
+    public static long getWorkingSetBytes() {
+        return 3L * WORKING_SET_SEGMENTS * SEGMENT_SIZE * Character.BYTES;
+    }
+
+}
@@ -0,0 +1,104 @@
+package com.uwc.tooring.storage;
+
+import com.uwc.tooring.turing.impl.DefaultTuringMachine;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * Compression of tapes: runs of blank cells are replaced with their lengths, the result is deflated.
+ * Format: length of the tape, then UTF-16 symbols where {@link #RUN_MARKER} is followed by the length of the blank run
+ * (0 stands for the marker symbol itself).
+ */
+public final class TapeCodec {
+
+    /**
+     * Marker of the blank run (Unicode noncharacter, so it's not expected on tapes).
+     */
+    public static final char RUN_MARKER = '\uFFFF';
+
+    /**
+     * Shorter runs of blank cells are kept as is.
+     */
+    public static final int MIN_RUN_LENGTH = 8;
+
+    private TapeCodec() {
+    }
+
+    /**
+     * Compresses the tape.
+     *
+     * @param tape Tape
+     * @return Compressed tape
+     */
+    public static byte[] encode(String tape) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(tape.length() / 4 + 16);
+        Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+        try (DataOutputStream output = new DataOutputStream(new DeflaterOutputStream(bytes, deflater))) {
+            output.writeInt(tape.length());
+            int i = 0;
+            while (i < tape.length()) {
+                char symbol = tape.charAt(i);
+                if (symbol == DefaultTuringMachine.EMPTY) {
+                    int run = i;
+                    while (run < tape.length() && tape.charAt(run) == DefaultTuringMachine.EMPTY) {
+                        run++;
+                    }
+                    if (run - i >= MIN_RUN_LENGTH) {
+                        output.writeChar(RUN_MARKER);
+                        output.writeInt(run - i);
+                        i = run;
+                        continue;
+                    }
+                }
+                output.writeChar(symbol);
+                if (symbol == RUN_MARKER) {
+                    output.writeInt(0);
+                }
+                i++;
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        } finally {
+            deflater.end();
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Decompresses the tape.
+     *
+     * @param bytes Compressed tape
+     * @return Tape
+     */
+    public static String decode(byte[] bytes) {
+        try (DataInputStream input = new DataInputStream(new InflaterInputStream(new ByteArrayInputStream(bytes)))) {
+            int length = input.readInt();
+            StringBuilder tape = new StringBuilder(length);
+            while (tape.length() < length) {
+                char symbol = input.readChar();
+                if (symbol != RUN_MARKER) {
+                    tape.append(symbol);
+                    continue;
+                }
+                int run = input.readInt();
+                if (run == 0) {
+                    tape.append(RUN_MARKER);
+                }
+                for (int i = 0; i < run; i++) {
+                    tape.append(DefaultTuringMachine.EMPTY.charValue());
+                }
+            }
+            return tape.toString();
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+}
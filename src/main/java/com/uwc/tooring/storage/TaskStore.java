@@ -0,0 +1,400 @@
+package com.uwc.tooring.storage;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.hazelcast.core.EntryEvent;
+import com.hazelcast.core.EntryListener;
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.core.IMap;
+import com.hazelcast.core.MapEvent;
+import com.hazelcast.core.ReplicatedMap;
+import com.hazelcast.map.listener.EntryAddedListener;
+import com.hazelcast.map.listener.EntryEvictedListener;
+import com.hazelcast.map.listener.EntryRemovedListener;
+import com.hazelcast.map.listener.EntryUpdatedListener;
+import com.uwc.tooring.TuringService;
+import com.uwc.tooring.scheduling.ExecutionTracker;
+import com.uwc.tooring.turing.impl.DefaultTuringMachine;
+import com.uwc.tooring.turing.impl.TuringMachines;
+import org.apache.commons.io.FileUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.util.StringUtils;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Service persisting tasks (with their results) and checkpoints of running computations to the local directory,
+ * so the backlog survives restart of the whole cluster.
+ * Changes are collected by map listeners and written behind in batches: repeated changes of the same task between
+ * flushes are coalesced, so computations never wait for the disk.
+ * Tape of the task is kept in a separate file which is rewritten only when the tape changes, so coalesced changes of
+ * control flags don't rewrite the whole tape.
+ * On startup tasks are restored without their tapes, tape (or the latest checkpoint) is loaded when the task is taken.
+ */
+@Service
+public class TaskStore {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(TaskStore.class);
+
+    /**
+     * Time between flushes of collected changes in milliseconds.
+     */
+    public static final long FLUSH_RATE = 1000L;
+
+    public static final String TASK_EXTENSION = ".task";
+
+    public static final String TAPE_EXTENSION = ".tape";
+
+    public static final String CHECKPOINT_EXTENSION = ".checkpoint";
+
+    static final String TEMPORARY_EXTENSION = ".tmp";
+
+    private static final String TAPE_FIELD = "tape";
+
+    @Autowired
+    private HazelcastInstance hazelcastInstance;
+
+    /**
+     * Directory of the store; tasks are not persisted if it's empty.
+     */
+    @Value("${tooring.store.directory:}")
+    private String directory;
+
+    private final Gson gson = new Gson();
+
+    final Map<String, Optional<DefaultTuringMachine>> pendingTasks = new ConcurrentHashMap<>();
+    final Map<String, Optional<DefaultTuringMachine>> pendingCheckpoints = new ConcurrentHashMap<>();
+
+    /**
+     * Fingerprints (length and hash) of tapes written by the current member, by key of the task.
+     */
+    private final Map<String, Long> writtenTapes = new ConcurrentHashMap<>();
+
+    /**
+     * Default constructor, directory of the store is injected.
+     */
+    public TaskStore() {
+    }
+
+    /**
+     * Constructor accepting directory of the store.
+     *
+     * @param directory Directory of the store
+     */
+    TaskStore(String directory) {
+        this.directory = directory;
+    }
+
+    /**
+     * Restores persisted tasks and starts collecting changes.
+     *
+     * @throws IOException If directory of the store can't be created
+     */
+    @PostConstruct
+    public void start() throws IOException {
+        if (!isEnabled()) {
+            return;
+        }
+        FileUtils.forceMkdir(new File(directory));
+        restore();
+        ReplicatedMap<String, DefaultTuringMachine> tasksMap = hazelcastInstance.getReplicatedMap(TuringService.TASKS_MAP);
+        tasksMap.addEntryListener(new ReplicatedPendingChangesListener(pendingTasks));
+        IMap<String, DefaultTuringMachine> checkpointsMap = hazelcastInstance.getMap(ExecutionTracker.CHECKPOINTS_MAP);
+        checkpointsMap.addEntryListener(new PendingChangesListener(pendingCheckpoints), true);
+    }
+
+    /**
+     * Writes changes collected before shutdown.
+     */
+    @PreDestroy
+    public void stop() {
+        flush();
+    }
+
+    /**
+     * Checks if tasks are persisted by current member.
+     *
+     * @return true if directory of the store is specified, false otherwise
+     */
+    public boolean isEnabled() {
+        return !StringUtils.isEmpty(directory);
+    }
+
+    /**
+     * Writes changes collected since the previous flush.
+     */
+    @Scheduled(fixedDelay = FLUSH_RATE)
+    public synchronized void flush() {
+        if (!isEnabled()) {
+            return;
+        }
+        for (String key : pendingTasks.keySet()) {
+            Optional<DefaultTuringMachine> task = pendingTasks.remove(key);
+            try {
+                if (task.isPresent()) {
+                    writeTask(key, task.get());
+                } else {
+                    FileUtils.deleteQuietly(getFile(key, TASK_EXTENSION));
+                    FileUtils.deleteQuietly(getFile(key, TAPE_EXTENSION));
+                    writtenTapes.remove(key);
+                }
+            } catch (IOException e) {
+                LOGGER.error(e.getMessage(), e);
+            }
+        }
+        for (String key : pendingCheckpoints.keySet()) {
+            Optional<DefaultTuringMachine> checkpoint = pendingCheckpoints.remove(key);
+            try {
+                if (checkpoint.isPresent()) {
+                    write(getFile(key, CHECKPOINT_EXTENSION), gson.toJson(checkpoint.get()));
+                } else {
+                    FileUtils.deleteQuietly(getFile(key, CHECKPOINT_EXTENSION));
+                }
+            } catch (IOException e) {
+                LOGGER.error(e.getMessage(), e);
+            }
+        }
+    }
+
+    /**
+     * Loads restored Turing machine with it's tape: from the latest checkpoint if there's one, from the task otherwise.
+     *
+     * @param key Key of Turing machine
+     * @return Turing machine with the tape or empty if it's not persisted by current member
+     */
+    public Optional<DefaultTuringMachine> load(String key) {
+        if (!isEnabled()) {
+            return Optional.empty();
+        }
+        try {
+            File checkpointFile = getFile(key, CHECKPOINT_EXTENSION);
+            if (checkpointFile.exists()) {
+                return Optional.of(TuringMachines.fromJson(gson, FileUtils.readFileToString(checkpointFile)));
+            }
+            File taskFile = getFile(key, TASK_EXTENSION);
+            if (!taskFile.exists()) {
+                return Optional.empty();
+            }
+            DefaultTuringMachine turingMachine = TuringMachines.fromJson(gson, FileUtils.readFileToString(taskFile));
+            File tapeFile = getFile(key, TAPE_EXTENSION);
+            if (tapeFile.exists()) {
+                turingMachine.setTape(FileUtils.readFileToString(tapeFile));
+            }
+            return Optional.of(turingMachine);
+        } catch (IOException e) {
+            LOGGER.error(e.getMessage(), e);
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Puts persisted tasks which are missing in the cluster back to the tasks map. Only descriptions of tasks are read,
+     * tapes stay on disk until the task is taken.
+     */
+    private void restore() {
+        ReplicatedMap<String, DefaultTuringMachine> tasksMap = hazelcastInstance.getReplicatedMap(TuringService.TASKS_MAP);
+        int restored = 0;
+        for (Map.Entry<String, DefaultTuringMachine> entry : readTasks().entrySet()) {
+            if (tasksMap.containsKey(entry.getKey())) {
+                continue;
+            }
+            tasksMap.put(entry.getKey(), entry.getValue(), TuringService.TASK_TTL_IN_HOURS, TimeUnit.HOURS);
+            restored++;
+        }
+        LOGGER.info("Tasks restored from the store: " + restored);
+    }
+
+    /**
+     * Reads descriptions of persisted tasks without their tapes.
+     *
+     * @return Restored Turing machines by key
+     */
+    Map<String, DefaultTuringMachine> readTasks() {
+        Map<String, DefaultTuringMachine> tasks = new HashMap<>();
+        File[] taskFiles = new File(directory).listFiles((dir, name) -> name.endsWith(TASK_EXTENSION));
+        if (taskFiles == null) {
+            return tasks;
+        }
+        for (File taskFile : taskFiles) {
+            String key = taskFile.getName().substring(0, taskFile.getName().length() - TASK_EXTENSION.length());
+            try {
+                DefaultTuringMachine turingMachine = TuringMachines.fromJson(gson, FileUtils.readFileToString(taskFile));
+                turingMachine.setRestored(true);
+                tasks.put(key, turingMachine);
+            } catch (IOException e) {
+                LOGGER.error(e.getMessage(), e);
+            }
+        }
+        return tasks;
+    }
+
+    /**
+     * Writes description of the task and it's tape to separate files, so description can be read without the tape.
+     * Tape is written only if it differs from the one written before (or was never written by the current member).
+     *
+     * @param key           Key of Turing machine
+     * @param turingMachine Turing machine
+     * @throws IOException If files can't be written
+     */
+    private void writeTask(String key, DefaultTuringMachine turingMachine) throws IOException {
+        JsonObject json = gson.toJsonTree(turingMachine).getAsJsonObject();
+        JsonElement tape = json.remove(TAPE_FIELD);
+        if (tape != null && !tape.isJsonNull()) {
+            String content = tape.getAsString();
+            long fingerprint = getFingerprint(content);
+            File tapeFile = getFile(key, TAPE_EXTENSION);
+            Long writtenFingerprint = writtenTapes.get(key);
+            if (writtenFingerprint == null || writtenFingerprint != fingerprint || !tapeFile.exists()) {
+                write(tapeFile, content);
+                writtenTapes.put(key, fingerprint);
+            }
+        }
+        write(getFile(key, TASK_EXTENSION), gson.toJson(json));
+    }
+
+    /**
+     * Calculates fingerprint of the tape: length in the high half, hash code in the low one.
+     *
+     * @param tape Tape
+     * @return Fingerprint of the tape
+     */
+    private static long getFingerprint(String tape) {
+        return ((long) tape.length() << 32) | (tape.hashCode() & 0xFFFFFFFFL);
+    }
+
+    /**
+     * Replaces the file atomically, so crash in the middle of the flush can't leave it half-written.
+     *
+     * @param file    Target file
+     * @param content Content of the file
+     * @throws IOException If file can't be written
+     */
+    private void write(File file, String content) throws IOException {
+        File temporaryFile = new File(file.getPath() + TEMPORARY_EXTENSION);
+        FileUtils.writeStringToFile(temporaryFile, content);
+        Files.move(temporaryFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private File getFile(String key, String extension) {
+        return new File(directory, key + extension);
+    }
+
+    /**
+     * Listener collecting changes of the map: the latest value by key, empty value for removed entries.
+     * Restored machines and machines with tapes in the cold tier are not collected: they are already persisted.
+     * Machines with paged tapes are not collected either: their segments don't survive restart.
+     */
+    static class PendingChangesListener implements EntryAddedListener<String, DefaultTuringMachine>,
+            EntryUpdatedListener<String, DefaultTuringMachine>, EntryRemovedListener<String, DefaultTuringMachine>,
+            EntryEvictedListener<String, DefaultTuringMachine> {
+
+        private final Map<String, Optional<DefaultTuringMachine>> pending;
+
+        /**
+         * Constructor accepting map of collected changes.
+         *
+         * @param pending Collected changes
+         */
+        PendingChangesListener(Map<String, Optional<DefaultTuringMachine>> pending) {
+            this.pending = pending;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public void entryAdded(EntryEvent<String, DefaultTuringMachine> event) {
+            changed(event);
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public void entryUpdated(EntryEvent<String, DefaultTuringMachine> event) {
+            changed(event);
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public void entryRemoved(EntryEvent<String, DefaultTuringMachine> event) {
+            pending.put(event.getKey(), Optional.empty());
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public void entryEvicted(EntryEvent<String, DefaultTuringMachine> event) {
+            pending.put(event.getKey(), Optional.empty());
+        }
+
+        private void changed(EntryEvent<String, DefaultTuringMachine> event) {
+            changed(event.getKey(), event.getValue());
+        }
+
+        /**
+         * Collects the latest value of the entry unless it's already persisted.
+         *
+         * @param key           Key of Turing machine
+         * @param turingMachine Turing machine
+         */
+        void changed(String key, DefaultTuringMachine turingMachine) {
+            if (turingMachine == null || turingMachine.isRestored() || turingMachine.isCold() || turingMachine.getTapeReference() != null) {
+                return;
+            }
+            pending.put(key, Optional.of(turingMachine));
+        }
+
+    }
+
+    /**
+     * Listener collecting changes of the replicated map, which accepts only complete entry listeners.
+     * Clearing and eviction of the whole map are not collected, as before.
+     */
+    static class ReplicatedPendingChangesListener extends PendingChangesListener implements EntryListener<String, DefaultTuringMachine> {
+
+        /**
+         * Constructor accepting map of collected changes.
+         *
+         * @param pending Collected changes
+         */
+        ReplicatedPendingChangesListener(Map<String, Optional<DefaultTuringMachine>> pending) {
+            super(pending);
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public void mapCleared(MapEvent event) {
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public void mapEvicted(MapEvent event) {
+        }
+
+    }
+
+}
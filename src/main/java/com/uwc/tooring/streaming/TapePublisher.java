@@ -0,0 +1,168 @@
+package com.uwc.tooring.streaming;
+
+import com.uwc.tooring.model.TapeDiff;
+import com.uwc.tooring.turing.ExecutionListener;
+import com.uwc.tooring.turing.impl.DefaultTuringMachine;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Listener of computation publishing changed chunks of the tape, head and state not more often than at the given rate.
+ * Every diff contains chunks within {@link #HEAD_WINDOW} cells around the head, so followers always see the tape
+ * around the head. Every {@link #KEYFRAME_INTERVAL}-th diff (and the final one) is a keyframe: it contains only that
+ * window, followers start over from it. Nothing is published (and the tape is not even snapshotted) while nobody
+ * follows the computation.
+ */
+public class TapePublisher implements ExecutionListener<DefaultTuringMachine> {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(TapePublisher.class);
+
+    /**
+     * Number of cells in a chunk of the tape.
+     */
+    public static final int CHUNK_SIZE = 256;
+
+    public static final int KEYFRAME_INTERVAL = 30;
+
+    /**
+     * Number of cells on each side of the head which are always published.
+     */
+    public static final int HEAD_WINDOW = 2 * CHUNK_SIZE;
+
+    private final TapeStreams tapeStreams;
+    private final String key;
+    private final long rate;
+
+    private long nextPublish;
+    private long sequence;
+    private String previousTape;
+    private int previousOffset;
+
+    /**
+     * Constructor accepting all required parameters for building the publisher.
+     *
+     * @param tapeStreams Streams of diffs
+     * @param key         Key of Turing machine
+     * @param rate        Minimal time between diffs in milliseconds
+     */
+    TapePublisher(TapeStreams tapeStreams, String key, long rate) {
+        this.tapeStreams = tapeStreams;
+        this.key = key;
+        this.rate = rate;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Action onProgress(long steps) {
+        long now = System.currentTimeMillis();
+        if (now < nextPublish) {
+            return Action.CONTINUE;
+        }
+        if (!isFollowed()) {
+            nextPublish = now + rate;
+            previousTape = null; // the next follower starts from a keyframe
+            return Action.CONTINUE;
+        }
+        return Action.SNAPSHOT;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void onSnapshot(DefaultTuringMachine turingMachine) {
+        nextPublish = System.currentTimeMillis() + rate;
+        publish(turingMachine.getTape(), turingMachine.getTapeOffset(), turingMachine, false);
+    }
+
+    /**
+     * Publishes the final diff if computation is finished and followed, destroys the topic if it's not followed.
+     * Followed topic is destroyed by the last follower after the final diff.
+     *
+     * @param turingMachine Computed Turing machine
+     */
+    public void finished(DefaultTuringMachine turingMachine) {
+        if (!turingMachine.isDone() || turingMachine.getTape() == null) {
+            return;
+        }
+        if (isFollowed()) {
+            publish(turingMachine.getTape(), 0, turingMachine, true);
+        } else {
+            try {
+                tapeStreams.destroy(key);
+            } catch (RuntimeException e) {
+                LOGGER.error(e.getMessage(), e);
+            }
+        }
+    }
+
+    /**
+     * Publishes chunks of the tape around the head and (unless it's a keyframe) chunks which were changed since
+     * the previous diff. Failures are logged only: streaming should never break computation.
+     *
+     * @param tape          Visited part of the tape
+     * @param offset        Offset of the tape (see {@link DefaultTuringMachine#getTapeOffset()})
+     * @param turingMachine Turing machine
+     * @param done          true if computation is finished
+     */
+    private void publish(String tape, int offset, DefaultTuringMachine turingMachine, boolean done) {
+        try {
+            boolean keyframe = done || previousTape == null || sequence % KEYFRAME_INTERVAL == 0;
+            long start = -offset;
+            long end = tape.length() - offset;
+            long head = turingMachine.getCurrentIndex() == null ? 0 : turingMachine.getCurrentIndex() - offset;
+            long windowStart = head - HEAD_WINDOW;
+            long windowEnd = head + HEAD_WINDOW + 1;
+            Map<Long, String> chunks = new TreeMap<>();
+            for (long chunk = Math.floorDiv(start, CHUNK_SIZE) * CHUNK_SIZE; chunk < end; chunk += CHUNK_SIZE) {
+                long from = Math.max(chunk, start);
+                int length = (int) (Math.min(chunk + CHUNK_SIZE, end) - from);
+                int index = (int) (from + offset);
+                boolean windowed = chunk + CHUNK_SIZE > windowStart && chunk < windowEnd;
+                if (windowed || (!keyframe && !isUnchanged(tape, index, from, length))) {
+                    chunks.put(from, tape.substring(index, index + length));
+                }
+            }
+            tapeStreams.publish(key, new TapeDiff(sequence++, keyframe, done, turingMachine.getSteps(), turingMachine.getCurrentState(), head, start, end, chunks));
+            previousTape = tape;
+            previousOffset = offset;
+        } catch (RuntimeException e) {
+            LOGGER.error(e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Checks if somebody follows the computation. Failures are logged only and treated as no followers.
+     *
+     * @return true if computation is followed, false otherwise
+     */
+    private boolean isFollowed() {
+        try {
+            return tapeStreams.isFollowed(key);
+        } catch (RuntimeException e) {
+            LOGGER.error(e.getMessage(), e);
+            return false;
+        }
+    }
+
+    /**
+     * Compares chunk of the tape with the same chunk of the previously published tape.
+     *
+     * @param tape     Visited part of the tape
+     * @param index    Index of the chunk in the tape
+     * @param position Position of the chunk
+     * @param length   Length of the chunk
+     * @return true if chunk was published before and is not changed since then
+     */
+    private boolean isUnchanged(String tape, int index, long position, int length) {
+        long previousIndex = position + previousOffset;
+        return previousIndex >= 0 && previousIndex + length <= previousTape.length()
+                && previousTape.regionMatches((int) previousIndex, tape, index, length);
+    }
+
+}
@@ -0,0 +1,172 @@
+package com.uwc.tooring.streaming;
+
+import com.hazelcast.config.Config;
+import com.hazelcast.config.MapConfig;
+import com.hazelcast.config.RingbufferConfig;
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.core.IMap;
+import com.hazelcast.core.ITopic;
+import com.hazelcast.core.MessageListener;
+import com.hazelcast.map.AbstractEntryProcessor;
+import com.hazelcast.topic.TopicOverloadPolicy;
+import com.uwc.tooring.model.TapeDiff;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.Map;
+
+/**
+ * Service streaming incremental tape updates of running computations through reliable topics (one topic per machine).
+ * Diffs are published only while somebody follows the computation: followers are counted in {@link #FOLLOWERS_MAP}.
+ * The topic is destroyed when the computation is finished and the last follower is gone.
+ */
+@Service
+public class TapeStreams {
+
+    public static final String TOPIC_PREFIX = "TAPE_DIFFS:";
+
+    /**
+     * Ringbuffers backing reliable topics are named with this prefix.
+     */
+    public static final String RINGBUFFER_PREFIX = "_hz_rb_";
+
+    /**
+     * Number of diffs kept for slow subscribers, older ones are discarded.
+     */
+    public static final int TOPIC_CAPACITY = 64;
+
+    public static final int TOPIC_TTL_IN_SECONDS = 600;
+
+    public static final String FOLLOWERS_MAP = "FOLLOWERS_MAP";
+
+    @Autowired
+    private HazelcastInstance hazelcastInstance;
+
+    /**
+     * Minimal time between published diffs in milliseconds; diffs are not published if it's not positive.
+     */
+    @Value("${tooring.streaming.rate:1000}")
+    private long rate;
+
+    /**
+     * Configures topics of diffs: publishers never wait for slow subscribers, diffs expire after TTL.
+     * Counters of followers which crashed without unsubscribing expire after the same TTL of inactivity.
+     *
+     * @param config Hazelcast configuration
+     */
+    public static void configure(Config config) {
+        config.getReliableTopicConfig(TOPIC_PREFIX + "*").setTopicOverloadPolicy(TopicOverloadPolicy.DISCARD_OLDEST);
+        config.addRingBufferConfig(new RingbufferConfig(RINGBUFFER_PREFIX + TOPIC_PREFIX + "*")
+                .setCapacity(TOPIC_CAPACITY)
+                .setTimeToLiveSeconds(TOPIC_TTL_IN_SECONDS));
+        MapConfig mapConfig = config.getMapConfig(FOLLOWERS_MAP);
+        mapConfig.setMaxIdleSeconds(TOPIC_TTL_IN_SECONDS);
+    }
+
+    /**
+     * Creates publisher of diffs for computation.
+     *
+     * @param key Key of Turing machine
+     * @return Publisher or null if streaming is disabled
+     */
+    public TapePublisher createPublisher(String key) {
+        if (rate <= 0) {
+            return null;
+        }
+        return new TapePublisher(this, key, rate);
+    }
+
+    /**
+     * Subscribes to diffs of the machine and registers the follower, so that diffs get published.
+     *
+     * @param key      Key of Turing machine
+     * @param listener Listener of diffs
+     * @return Registration ID
+     */
+    public String subscribe(String key, MessageListener<TapeDiff> listener) {
+        String registration = getTopic(key).addMessageListener(listener);
+        IMap<String, Integer> followersMap = hazelcastInstance.getMap(FOLLOWERS_MAP);
+        followersMap.executeOnKey(key, new FollowersUpdate(1));
+        return registration;
+    }
+
+    /**
+     * Unsubscribes from diffs of the machine. The last follower of finished computation destroys the topic.
+     *
+     * @param key          Key of Turing machine
+     * @param registration Registration ID
+     * @param done         true if computation is finished
+     */
+    public void unsubscribe(String key, String registration, boolean done) {
+        getTopic(key).removeMessageListener(registration);
+        IMap<String, Integer> followersMap = hazelcastInstance.getMap(FOLLOWERS_MAP);
+        int followers = (Integer) followersMap.executeOnKey(key, new FollowersUpdate(-1));
+        if (done && followers == 0) {
+            destroy(key);
+        }
+    }
+
+    /**
+     * Checks if somebody follows computation of the machine.
+     *
+     * @param key Key of Turing machine
+     * @return true if there's at least one follower, false otherwise
+     */
+    boolean isFollowed(String key) {
+        IMap<String, Integer> followersMap = hazelcastInstance.getMap(FOLLOWERS_MAP);
+        return followersMap.containsKey(key);
+    }
+
+    /**
+     * Publishes diff of the machine.
+     *
+     * @param key  Key of Turing machine
+     * @param diff Diff of the tape
+     */
+    void publish(String key, TapeDiff diff) {
+        getTopic(key).publish(diff);
+    }
+
+    /**
+     * Destroys the topic of the machine along with diffs which were not read.
+     *
+     * @param key Key of Turing machine
+     */
+    void destroy(String key) {
+        getTopic(key).destroy();
+    }
+
+    private ITopic<TapeDiff> getTopic(String key) {
+        return hazelcastInstance.getReliableTopic(TOPIC_PREFIX + key);
+    }
+
+    /**
+     * Entry processor counting followers of computation. Entry is removed when the last follower is gone.
+     */
+    private static class FollowersUpdate extends AbstractEntryProcessor<String, Integer> {
+
+        private final int delta;
+
+        /**
+         * Constructor accepting change of the number of followers.
+         *
+         * @param delta Change of the number of followers
+         */
+        FollowersUpdate(int delta) {
+            this.delta = delta;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public Object process(Map.Entry<String, Integer> entry) {
+            int followers = Math.max(0, (entry.getValue() == null ? 0 : entry.getValue()) + delta);
+            entry.setValue(followers == 0 ? null : followers);
+            return followers;
+        }
+
+    }
+
+}
@@ -0,0 +1,93 @@
+package com.uwc.tooring.streaming;
+
+import com.uwc.tooring.model.TapeDiff;
+import com.uwc.tooring.turing.impl.DefaultTuringMachine;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Tape of running computation assembled from the stream of diffs.
+ */
+public class TapeView {
+
+    /**
+     * Number of cells around the head which are rendered.
+     */
+    public static final int WINDOW = 120;
+
+    private final Map<Long, char[]> chunks = new HashMap<>();
+
+    private boolean initialized;
+    private long steps;
+    private String state;
+    private long head;
+    private long start;
+    private long end;
+
+    /**
+     * Applies the diff to the tape. Diffs are skipped until the first keyframe.
+     *
+     * @param diff Diff of the tape
+     * @return true if diff is applied, false if it's skipped
+     */
+    public boolean apply(TapeDiff diff) {
+        if (diff.isKeyframe()) {
+            chunks.clear();
+            initialized = true;
+        } else if (!initialized) {
+            return false;
+        }
+        for (Map.Entry<Long, String> chunk : diff.getChunks().entrySet()) {
+            String cells = chunk.getValue();
+            for (int i = 0; i < cells.length(); i++) {
+                set(chunk.getKey() + i, cells.charAt(i));
+            }
+        }
+        steps = diff.getSteps();
+        state = diff.getState();
+        head = diff.getHead();
+        start = diff.getStart();
+        end = diff.getEnd();
+        return true;
+    }
+
+    /**
+     * Gets symbol of the cell.
+     *
+     * @param position Position of the cell
+     * @return Symbol
+     */
+    public char get(long position) {
+        char[] chunk = chunks.get(Math.floorDiv(position, TapePublisher.CHUNK_SIZE));
+        return chunk == null ? DefaultTuringMachine.EMPTY : chunk[(int) Math.floorMod(position, TapePublisher.CHUNK_SIZE)];
+    }
+
+    /**
+     * Renders progress and the part of the tape around the head, head is marked on the next line.
+     *
+     * @return Rendered tape
+     */
+    public String render() {
+        long from = Math.max(start, Math.min(head - WINDOW / 2, end - WINDOW));
+        long to = Math.min(Math.max(end, head + 1), from + WINDOW);
+        StringBuilder cells = new StringBuilder();
+        for (long position = from; position < to; position++) {
+            cells.append(get(position));
+        }
+        char[] marker = new char[(int) Math.max(0, head - from)];
+        Arrays.fill(marker, ' ');
+        return "steps = " + steps + ", state = " + state + ", head = " + head + "\n" + cells + "\n" + new String(marker) + '^';
+    }
+
+    private void set(long position, char symbol) {
+        char[] chunk = chunks.computeIfAbsent(Math.floorDiv(position, TapePublisher.CHUNK_SIZE), k -> {
+            char[] cells = new char[TapePublisher.CHUNK_SIZE];
+            Arrays.fill(cells, DefaultTuringMachine.EMPTY);
+            return cells;
+        });
+        chunk[(int) Math.floorMod(position, TapePublisher.CHUNK_SIZE)] = symbol;
+    }
+
+}
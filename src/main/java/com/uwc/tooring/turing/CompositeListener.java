@@ -0,0 +1,76 @@
+package com.uwc.tooring.turing;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Listener combining several listeners of the same computation: it's cancelled if any listener cancels it,
+ * and snapshot is passed only to the listeners which requested it. Listeners which requested only the position
+ * get the snapshot instead if another listener requested one.
+ *
+ * @param <T> Type of Turing machine
+ */
+public class CompositeListener<T extends TuringMachine> implements ExecutionListener<T> {
+
+    private final List<ExecutionListener<T>> listeners;
+    private final List<ExecutionListener<T>> requested = new ArrayList<>();
+    private final List<ExecutionListener<T>> positionRequested = new ArrayList<>();
+
+    /**
+     * Constructor accepting combined listeners.
+     *
+     * @param listeners Listeners (null ones are skipped)
+     */
+    public CompositeListener(List<ExecutionListener<T>> listeners) {
+        this.listeners = new ArrayList<>(listeners);
+        this.listeners.removeIf(listener -> listener == null);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Action onProgress(long steps) {
+        requested.clear();
+        positionRequested.clear();
+        for (ExecutionListener<T> listener : listeners) {
+            Action action = listener.onProgress(steps);
+            if (action == Action.CANCEL) {
+                return Action.CANCEL;
+            }
+            if (action == Action.SNAPSHOT) {
+                requested.add(listener);
+            } else if (action == Action.POSITION) {
+                positionRequested.add(listener);
+            }
+        }
+        if (!requested.isEmpty()) {
+            return Action.SNAPSHOT;
+        }
+        return positionRequested.isEmpty() ? Action.CONTINUE : Action.POSITION;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void onSnapshot(T turingMachine) {
+        for (ExecutionListener<T> listener : requested) {
+            listener.onSnapshot(turingMachine);
+        }
+        for (ExecutionListener<T> listener : positionRequested) {
+            listener.onSnapshot(turingMachine);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void onPosition(String currentState, long steps, long tapeLength) {
+        for (ExecutionListener<T> listener : positionRequested) {
+            listener.onPosition(currentState, steps, tapeLength);
+        }
+    }
+
+}
@@ -0,0 +1,59 @@
+package com.uwc.tooring.turing;
+
+/**
+ * Listener of Turing machine computations.
+ *
+ * @param <T> Type of Turing machine
+ */
+public interface ExecutionListener<T extends TuringMachine> {
+
+    /**
+     * Action requested by the listener.
+     */
+    enum Action {
+        /**
+         * Continue computations.
+         */
+        CONTINUE,
+        /**
+         * Write current position of computations back to the machine and pass it to {@link #onSnapshot(TuringMachine)}.
+         */
+        SNAPSHOT,
+        /**
+         * Pass current state, number of steps and length of the tape to {@link #onPosition(String, long, long)}
+         * without writing the tape back to the machine. Listener should accept the snapshot instead,
+         * if it's taken anyway.
+         */
+        POSITION,
+        /**
+         * Stop computations, machine doesn't become finished.
+         */
+        CANCEL
+    }
+
+    /**
+     * Called periodically during computations. Should be cheap: it's invoked from the computation loop.
+     *
+     * @param steps Number of steps performed so far
+     * @return Action to perform
+     */
+    Action onProgress(long steps);
+
+    /**
+     * Called with the machine containing current position of computations (tape, state, head and steps).
+     *
+     * @param turingMachine Turing machine
+     */
+    void onSnapshot(T turingMachine);
+
+    /**
+     * Called with current position of computations, if it was requested with {@link Action#POSITION}.
+     *
+     * @param currentState Current state
+     * @param steps        Number of performed steps
+     * @param tapeLength   Length of the visited part of the tape
+     */
+    default void onPosition(String currentState, long steps, long tapeLength) {
+    }
+
+}
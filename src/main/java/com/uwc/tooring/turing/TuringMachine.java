@@ -8,7 +8,7 @@ public interface TuringMachine {
     /**
      * Performs computations over the tape.
      *
-     * @param quite true for printing logs
+     * @param quite false for recording execution trace
      */
     void run(boolean quite);
 
@@ -0,0 +1,258 @@
+package com.uwc.tooring.turing.impl;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.List;
+import java.util.function.IntConsumer;
+
+/**
+ * Engine executing several Turing machines with the same program in lockstep on a single thread.
+ * Machines are stored as struct of arrays (state, head position and tape buffer per machine),
+ * so the compiled program is shared and the dispatch loop is amortized over all machines of the batch.
+ * Machine leaves the batch as soon as it halts, or when it exceeds the step limit: then it's left unfinished
+ * and unlocked, with it's progress stored back, so that it can be computed on it's own.
+ */
+public class BatchTuringMachine {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(BatchTuringMachine.class);
+
+    /**
+     * Number of steps performed by each machine before switching to the next one.
+     */
+    public static final int QUANTUM = 64;
+
+    /**
+     * Default number of steps each machine may perform in the batch before it's left for computation on it's own.
+     */
+    public static final long STEP_LIMIT = 1L << 20;
+
+    private final CompiledProgram program;
+    private final List<DefaultTuringMachine> machines;
+    private final long stepLimit;
+
+    private final int[] states;
+    private final int[] positions;
+    private final int[] lefts;
+    private final int[] rights;
+    private final char[][] tapes;
+    private final long[] steps;
+    private final long[] limits;
+    private final boolean[] running;
+    private long batchSteps;
+
+    /**
+     * Constructor accepting machines to execute with the default step limit.
+     *
+     * @param machines Machines with the same program
+     */
+    public BatchTuringMachine(List<DefaultTuringMachine> machines) {
+        this(machines, STEP_LIMIT);
+    }
+
+    /**
+     * Constructor accepting machines to execute.
+     *
+     * @param machines  Machines with the same program
+     * @param stepLimit Number of steps each machine may perform in the batch
+     */
+    public BatchTuringMachine(List<DefaultTuringMachine> machines, long stepLimit) {
+        if (machines.isEmpty()) {
+            throw new IllegalArgumentException("Batch should contain at least one machine");
+        }
+        DefaultTuringMachine first = machines.get(0);
+        for (DefaultTuringMachine machine : machines) {
+            if (!first.hasSameProgram(machine)) {
+                throw new IllegalArgumentException("All machines of the batch should have the same program");
+            }
+        }
+        this.program = first.compile();
+        this.machines = machines;
+        this.stepLimit = stepLimit;
+
+        int size = machines.size();
+        this.states = new int[size];
+        this.positions = new int[size];
+        this.lefts = new int[size];
+        this.rights = new int[size];
+        this.tapes = new char[size][];
+        this.steps = new long[size];
+        this.limits = new long[size];
+        this.running = new boolean[size];
+    }
+
+    /**
+     * Performs computations over the tapes of all machines of the batch.
+     */
+    public void run() {
+        run(i -> {
+        });
+    }
+
+    /**
+     * Performs computations over the tapes of all machines of the batch, notifying the listener as soon as
+     * the machine leaves the batch: it's finished if it halted and unfinished if it exceeded the step limit.
+     *
+     * @param listener Listener receiving index of the machine which left the batch
+     */
+    public void run(IntConsumer listener) {
+        int active = 0;
+        for (int i = 0; i < machines.size(); i++) {
+            if (load(i)) {
+                active++;
+            } else {
+                listener.accept(i);
+            }
+        }
+
+        int acceptState = program.getAcceptState();
+        while (active > 0) {
+            for (int i = 0; i < running.length; i++) {
+                if (!running[i]) {
+                    continue;
+                }
+                char[] cells = tapes[i];
+                int state = states[i];
+                int position = positions[i];
+                int left = lefts[i];
+                int right = rights[i];
+                int step = 0;
+
+                for (; step < QUANTUM && state != acceptState; step++) {
+                    int transition = program.find(state, cells[position]);
+                    if (transition == CompiledProgram.NONE) {
+                        break;
+                    }
+                    int writeSymbol = program.getWriteSymbol(transition);
+                    if (writeSymbol != CompiledProgram.NONE) {
+                        cells[position] = (char) writeSymbol;
+                    }
+                    state = program.getWriteState(transition);
+                    position += program.getMove(transition);
+
+                    if (position < left) {
+                        if (position < 0) {
+                            int shift = TapeBuffers.growth(cells);
+                            cells = TapeBuffers.growLeft(cells, shift);
+                            position += shift;
+                            left += shift;
+                            right += shift;
+                        }
+                        left = position;
+                    } else if (position >= right) {
+                        if (position >= cells.length) {
+                            cells = TapeBuffers.growRight(cells);
+                        }
+                        right = position + 1;
+                    }
+                }
+
+                tapes[i] = cells;
+                states[i] = state;
+                positions[i] = position;
+                lefts[i] = left;
+                rights[i] = right;
+                steps[i] += step;
+                batchSteps += step;
+
+                if (state == acceptState) {
+                    store(i, true);
+                } else if (program.find(state, cells[position]) == CompiledProgram.NONE) {
+                    LOGGER.error("There is no valid transition for this phase! (state=" + program.getStateName(state) + ", symbol=" + cells[position] + ")");
+                    store(i, false);
+                } else if (steps[i] >= limits[i]) {
+                    release(i);
+                } else {
+                    continue;
+                }
+                active--;
+                listener.accept(i);
+            }
+        }
+    }
+
+    /**
+     * Gets number of steps performed by all machines of the batch so far.
+     *
+     * @return Number of steps
+     */
+    public long getBatchSteps() {
+        return batchSteps;
+    }
+
+    /**
+     * Loads machine to the batch arrays.
+     *
+     * @param i Index of the machine
+     * @return true if machine is ready for computations, false if it's already finished
+     */
+    private boolean load(int i) {
+        DefaultTuringMachine machine = machines.get(i);
+        machine.setLocked(true);
+        try {
+            machine.prepare();
+            char[] cells = machine.getTape().toCharArray();
+            int position = machine.getCurrentIndex();
+            int state = program.getStateIndex(machine.getCurrentState());
+            if (position >= cells.length) {
+                cells = TapeBuffers.growRight(cells);
+            }
+            tapes[i] = cells;
+            states[i] = state;
+            positions[i] = position;
+            lefts[i] = 0;
+            steps[i] = machine.getSteps();
+            limits[i] = steps[i] + stepLimit;
+            rights[i] = Math.max(machine.getTape().length(), position + 1);
+            if (state == program.getAcceptState()) {
+                store(i, true);
+                return false;
+            }
+            if (program.find(state, cells[position]) == CompiledProgram.NONE) {
+                LOGGER.error("There is no valid transition for this phase! (state=" + machine.getCurrentState() + ", symbol=" + cells[position] + ")");
+                store(i, false);
+                return false;
+            }
+            running[i] = true;
+            return true;
+        } catch (Exception e) {
+            LOGGER.error(e.getMessage(), e);
+            machine.complete();
+            return false;
+        }
+    }
+
+    /**
+     * Stores results of computations back to the machine and marks it as finished.
+     *
+     * @param i        Index of the machine
+     * @param accepted true if machine reached accept state
+     */
+    private void store(int i, boolean accepted) {
+        DefaultTuringMachine machine = machines.get(i);
+        running[i] = false;
+        String state = states[i] == CompiledProgram.NONE ? machine.getCurrentState() : program.getStateName(states[i]);
+        machine.restore(new String(tapes[i], lefts[i], rights[i] - lefts[i]), positions[i] - lefts[i], state);
+        machine.setSteps(steps[i]);
+        if (accepted) {
+            machine.cleanUpTape();
+        }
+        machine.complete();
+        tapes[i] = null;
+    }
+
+    /**
+     * Stores progress of computations back to the machine which exceeded the step limit and unlocks it unfinished.
+     *
+     * @param i Index of the machine
+     */
+    private void release(int i) {
+        DefaultTuringMachine machine = machines.get(i);
+        running[i] = false;
+        machine.restore(new String(tapes[i], lefts[i], rights[i] - lefts[i]), positions[i] - lefts[i], program.getStateName(states[i]));
+        machine.setSteps(steps[i]);
+        machine.setLocked(false);
+        tapes[i] = null;
+    }
+
+}
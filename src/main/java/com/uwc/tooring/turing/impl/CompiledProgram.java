@@ -0,0 +1,251 @@
+package com.uwc.tooring.turing.impl;
+
+import com.uwc.tooring.model.Transition;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Transition space of Turing machine compiled to the dense lookup table.
+ * States are numbered, symbols are indexed by their character code, so single step of the machine costs one array access.
+ */
+public class CompiledProgram {
+
+    /**
+     * Marker for missing transition / unknown state / unknown symbol.
+     */
+    public static final int NONE = -1;
+
+    private final String[] states;
+    private final Map<String, Integer> stateIndexes;
+
+    private final int startState;
+    private final int acceptState;
+
+    private final int[] symbolIndexes;
+    private final int symbolsCount;
+
+    private final int[] table;
+
+    private final int[] writeStates;
+    private final int[] writeSymbols;
+    private final int[] moves;
+    private final Transition[] transitions;
+
+    private CompiledProgram(String[] states, Map<String, Integer> stateIndexes, int startState, int acceptState,
+                            int[] symbolIndexes, int symbolsCount, int[] table,
+                            int[] writeStates, int[] writeSymbols, int[] moves, Transition[] transitions) {
+        this.states = states;
+        this.stateIndexes = stateIndexes;
+        this.startState = startState;
+        this.acceptState = acceptState;
+        this.symbolIndexes = symbolIndexes;
+        this.symbolsCount = symbolsCount;
+        this.table = table;
+        this.writeStates = writeStates;
+        this.writeSymbols = writeSymbols;
+        this.moves = moves;
+        this.transitions = transitions;
+    }
+
+    /**
+     * Compiles transition space to the lookup table.
+     * If transition space contains several transitions for the same state and symbol, the first one wins.
+     *
+     * @param transitionSpace Transition space
+     * @param startState      Start state
+     * @param acceptState     Accept state
+     * @return Compiled program
+     */
+    public static CompiledProgram compile(Set<Transition> transitionSpace, String startState, String acceptState) {
+        if (startState == null || acceptState == null) {
+            throw new IllegalStateException("Start state and accept state should be specified");
+        }
+        Map<String, Integer> stateIndexes = new HashMap<>();
+        indexOf(stateIndexes, startState);
+        indexOf(stateIndexes, acceptState);
+
+        int maxSymbol = 0;
+        for (Transition transition : transitionSpace) {
+            indexOf(stateIndexes, transition.getReadState());
+            indexOf(stateIndexes, transition.getWriteState());
+            maxSymbol = Math.max(maxSymbol, transition.getReadSymbol());
+        }
+
+        int[] symbolIndexes = new int[maxSymbol + 1];
+        Arrays.fill(symbolIndexes, NONE);
+        int symbolsCount = 0;
+        for (Transition transition : transitionSpace) {
+            char symbol = transition.getReadSymbol();
+            if (symbolIndexes[symbol] == NONE) {
+                symbolIndexes[symbol] = symbolsCount++;
+            }
+        }
+
+        int[] table = new int[stateIndexes.size() * Math.max(symbolsCount, 1)];
+        Arrays.fill(table, NONE);
+        int[] writeStates = new int[transitionSpace.size()];
+        int[] writeSymbols = new int[transitionSpace.size()];
+        int[] moves = new int[transitionSpace.size()];
+        Transition[] transitions = new Transition[transitionSpace.size()];
+        int transitionsCount = 0;
+        for (Transition transition : transitionSpace) {
+            int cell = stateIndexes.get(transition.getReadState()) * symbolsCount + symbolIndexes[transition.getReadSymbol()];
+            if (table[cell] != NONE) {
+                continue;
+            }
+            table[cell] = transitionsCount;
+            writeStates[transitionsCount] = stateIndexes.get(transition.getWriteState());
+            writeSymbols[transitionsCount] = transition.getWriteSymbol() == null ? NONE : transition.getWriteSymbol();
+            moves[transitionsCount] = transition.isMoveDirection() == null ? 0 : transition.isMoveDirection() ? 1 : -1;
+            transitions[transitionsCount] = transition;
+            transitionsCount++;
+        }
+
+        String[] states = new String[stateIndexes.size()];
+        for (Map.Entry<String, Integer> entry : stateIndexes.entrySet()) {
+            states[entry.getValue()] = entry.getKey();
+        }
+
+        return new CompiledProgram(states, stateIndexes, stateIndexes.get(startState), stateIndexes.get(acceptState),
+                symbolIndexes, symbolsCount, table,
+                Arrays.copyOf(writeStates, transitionsCount), Arrays.copyOf(writeSymbols, transitionsCount),
+                Arrays.copyOf(moves, transitionsCount), Arrays.copyOf(transitions, transitionsCount));
+    }
+
+    private static int indexOf(Map<String, Integer> stateIndexes, String state) {
+        Integer index = stateIndexes.get(state);
+        if (index == null) {
+            index = stateIndexes.size();
+            stateIndexes.put(state, index);
+        }
+        return index;
+    }
+
+    /**
+     * Finds transition for the state and the symbol.
+     *
+     * @param state  State index
+     * @param symbol Symbol under the head
+     * @return Transition index or {@link #NONE} if there's no such transition
+     */
+    public int find(int state, char symbol) {
+        if (state == NONE || symbol >= symbolIndexes.length) {
+            return NONE;
+        }
+        int symbolIndex = symbolIndexes[symbol];
+        if (symbolIndex == NONE) {
+            return NONE;
+        }
+        return table[state * symbolsCount + symbolIndex];
+    }
+
+    /**
+     * Gets index of the state.
+     *
+     * @param state State name
+     * @return State index or {@link #NONE} if state is unknown
+     */
+    public int getStateIndex(String state) {
+        Integer index = stateIndexes.get(state);
+        return index == null ? NONE : index;
+    }
+
+    /**
+     * Gets name of the state.
+     *
+     * @param state State index
+     * @return State name
+     */
+    public String getStateName(int state) {
+        return states[state];
+    }
+
+    /**
+     * Gets names of states by their indexes.
+     *
+     * @return State names
+     */
+    public String[] getStateNames() {
+        return states.clone();
+    }
+
+    /**
+     * Gets number of states.
+     *
+     * @return Number of states
+     */
+    public int getStatesCount() {
+        return states.length;
+    }
+
+    /**
+     * Gets number of transitions.
+     *
+     * @return Number of transitions
+     */
+    public int getTransitionsCount() {
+        return transitions.length;
+    }
+
+    /**
+     * Gets index of start state.
+     *
+     * @return Start state index
+     */
+    public int getStartState() {
+        return startState;
+    }
+
+    /**
+     * Gets index of accept state.
+     *
+     * @return Accept state index
+     */
+    public int getAcceptState() {
+        return acceptState;
+    }
+
+    /**
+     * Gets state the transition leads to.
+     *
+     * @param transition Transition index
+     * @return State index
+     */
+    public int getWriteState(int transition) {
+        return writeStates[transition];
+    }
+
+    /**
+     * Gets symbol the transition writes.
+     *
+     * @param transition Transition index
+     * @return Symbol or {@link #NONE} if transition keeps the symbol under the head
+     */
+    public int getWriteSymbol(int transition) {
+        return writeSymbols[transition];
+    }
+
+    /**
+     * Gets head movement of the transition.
+     *
+     * @param transition Transition index
+     * @return 1 for "right", -1 for "left", 0 for no movement
+     */
+    public int getMove(int transition) {
+        return moves[transition];
+    }
+
+    /**
+     * Gets source transition.
+     *
+     * @param transition Transition index
+     * @return Transition
+     */
+    public Transition getTransition(int transition) {
+        return transitions[transition];
+    }
+
+}
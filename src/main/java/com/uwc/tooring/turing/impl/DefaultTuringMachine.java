@@ -1,14 +1,26 @@
 package com.uwc.tooring.turing.impl;
 
+import com.uwc.tooring.model.ComputationResult;
+import com.uwc.tooring.model.TapeReference;
 import com.uwc.tooring.model.Transition;
+import com.uwc.tooring.turing.ExecutionListener;
 import com.uwc.tooring.turing.TuringMachine;
+import com.uwc.tooring.turing.metrics.ExecutionMetrics;
+import com.uwc.tooring.turing.trace.TraceRecorder;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.util.StringUtils;
 
 import java.io.Serializable;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.List;
+import java.util.Objects;
 import java.util.Set;
 
 /**
@@ -20,10 +32,17 @@ public class DefaultTuringMachine implements TuringMachine, Serializable {
 
     public static Character EMPTY = '_';
 
+    /**
+     * Number of steps between notifications of execution listener.
+     */
+    public static final int PROGRESS_INTERVAL = 1 << 14;
+
     private String id;
     private boolean scheduled;
     private boolean locked;
     private boolean done;
+    private long scheduledAt;
+    private boolean traced;
 
     private Set<String> stateSpace = new HashSet<>();
     private Set<Transition> transitionSpace = new HashSet<>();
@@ -32,82 +51,386 @@ public class DefaultTuringMachine implements TuringMachine, Serializable {
     private String acceptState;
 
     private String tape;
+    private TapeReference tapeReference;
+    private boolean restored;
+    private Integer coldTapeLength;
+
+    private List<String> nextKeys;
+    private boolean awaitingInput;
+    private String rawOutput;
 
     private String currentState;
     private Integer currentIndex;
+    private long steps;
+
+    private transient CompiledProgram program;
+    private transient TraceRecorder trace;
+    private transient ExecutionMetrics metrics;
+    private transient String programHash;
+    private transient int tapeOffset;
 
     /**
      * {@inheritDoc}
      */
     @Override
     public void run(boolean quite) {
+        run(quite, null);
+    }
+
+    /**
+     * Performs computations over the tape notifying the listener about progress.
+     * If listener cancels computations, machine stays scheduled and unfinished.
+     *
+     * @param quite    false for recording execution trace
+     * @param listener Listener of computations (nullable)
+     */
+    public void run(boolean quite, ExecutionListener<DefaultTuringMachine> listener) {
         this.locked = true;
+        boolean finished = true;
         try {
-            // Init current state and symbol in case of new computation or use last values otherwise
-            if (StringUtils.isEmpty(currentState) && currentIndex == null) {
-                currentState = startState;
-                currentIndex = 0;
+            prepare();
+            finished = execute(compile(), quite, listener);
+            if (finished) {
+                cleanUpTape();
+            }
+        } catch (Exception e) {
+            LOGGER.error(e.getMessage(), e);
+        } finally {
+            if (finished) {
+                complete();
+            } else {
+                locked = false;
             }
+        }
+    }
 
-            while (!currentState.equals(acceptState)) {
-                boolean foundTransition = false;
-                Transition currentTransition = null;
+    /**
+     * Executes compiled program over the tape until accept state is reached.
+     * Tape is kept in the buffer during computations and is written back to the machine afterwards.
+     *
+     * @param program  Compiled program
+     * @param quite    false for recording execution trace
+     * @param listener Listener of computations (nullable)
+     * @return true if accept state is reached, false if computations were cancelled by the listener
+     */
+    private boolean execute(CompiledProgram program, boolean quite, ExecutionListener<DefaultTuringMachine> listener) {
+        TapeCursor cursor = new TapeCursor(tape, currentIndex, program.getStateIndex(currentState), steps);
+        int initialLength = tape.length();
+        long startedAt = System.nanoTime();
+        long initialSteps = steps;
+        TraceRecorder trace = null;
+        if (!quite) {
+            if (this.trace == null) {
+                this.trace = new TraceRecorder(program.getStateNames(), TraceRecorder.DEFAULT_CAPACITY, 0);
+            }
+            trace = this.trace;
+        }
+        try {
+            if (cursor.state == CompiledProgram.NONE) {
+                throw new IllegalStateException("There is no valid transition for this phase! (state=" + currentState + ", symbol=" + cursor.cells[cursor.position] + ")");
+            }
+            return loop(program, cursor, listener, trace, metrics);
+        } finally {
+            tape = cursor.getTape();
+            currentIndex = cursor.getIndex();
+            if (cursor.state != CompiledProgram.NONE) {
+                currentState = program.getStateName(cursor.state);
+            }
+            this.steps = cursor.steps;
+            this.tapeOffset = cursor.origin - cursor.left;
+            if (metrics != null) {
+                metrics.finished(cursor.steps - initialSteps, System.nanoTime() - startedAt,
+                        cursor.origin - cursor.left, Math.max(0, cursor.right - cursor.origin - initialLength));
+            }
+        }
+    }
 
-                if (!quite) {
-                    if (currentIndex > 0) {
-                        LOGGER.info(tape.substring(0, currentIndex) + " " + currentState + " " + tape.substring(currentIndex));
-                    } else {
-                        LOGGER.info(" " + currentState + " " + tape.substring(currentIndex));
+    /**
+     * Computation loop. Recording of trace and collecting of metrics are guarded by a single flag,
+     * so computations without them pay only for one well-predicted branch per step.
+     * Growth of the tape is timed only when metrics are collected.
+     *
+     * @param program  Compiled program
+     * @param cursor   Position of computation
+     * @param listener Listener of computations (nullable)
+     * @param trace    Recorder of execution trace (nullable)
+     * @param metrics  Metrics of computations (nullable)
+     * @return true if accept state is reached, false if computations were cancelled by the listener
+     */
+    private boolean loop(CompiledProgram program, TapeCursor cursor, ExecutionListener<DefaultTuringMachine> listener,
+                         TraceRecorder trace, ExecutionMetrics metrics) {
+        char[] cells = cursor.cells;
+        int left = cursor.left;
+        int right = cursor.right;
+        int position = cursor.position;
+        int state = cursor.state;
+        int origin = cursor.origin;
+        long steps = cursor.steps;
+        int acceptState = program.getAcceptState();
+        boolean instrumented = trace != null || metrics != null;
+        long nextProgress = listener == null ? Long.MAX_VALUE : steps + PROGRESS_INTERVAL;
+        try {
+            while (state != acceptState) {
+                char symbol = cells[position];
+                int transition = program.find(state, symbol);
+                if (transition == CompiledProgram.NONE) {
+                    if (trace != null) {
+                        trace.recordFailure(steps, state, position - origin, symbol);
                     }
+                    throw new IllegalStateException("There is no valid transition for this phase! (state=" + program.getStateName(state) + ", symbol=" + symbol + ")");
                 }
 
-                Iterator<Transition> transitionsIterator = transitionSpace.iterator();
-                while (transitionsIterator.hasNext() && !foundTransition) {
-                    Transition nextTransition = transitionsIterator.next();
-                    if (nextTransition.getReadState().equals(currentState) && nextTransition.getReadSymbol() == tape.charAt(currentIndex)) {
-                        foundTransition = true;
-                        currentTransition = nextTransition;
+                int writeSymbol = program.getWriteSymbol(transition);
+                if (instrumented) {
+                    if (trace != null) {
+                        trace.record(steps, state, position - origin, symbol, writeSymbol == CompiledProgram.NONE ? symbol : (char) writeSymbol, program.getMove(transition));
+                    }
+                    if (metrics != null) {
+                        metrics.hit(transition);
                     }
                 }
-
-                if (!foundTransition) {
-                    throw new IllegalStateException("There is no valid transition for this phase! (state=" + currentState + ", symbol=" + tape.charAt(currentIndex) + ")");
-                }
-
-                currentState = currentTransition.getWriteState();
-                char[] tempTape = tape.toCharArray();
-                Character writeSymbol = currentTransition.getWriteSymbol();
-                if (writeSymbol != null) {
-                    tempTape[currentIndex] = writeSymbol;
+                if (writeSymbol != CompiledProgram.NONE) {
+                    cells[position] = (char) writeSymbol;
                 }
-                tape = new String(tempTape);
-                if (currentTransition.isMoveDirection() != null) {
-                    if (currentTransition.isMoveDirection()) {
-                        currentIndex++;
-                    } else {
-                        currentIndex--;
+                state = program.getWriteState(transition);
+                position += program.getMove(transition);
+
+                if (position < left) {
+                    if (position < 0) {
+                        long growStartedAt = metrics != null ? System.nanoTime() : 0;
+                        int shift = TapeBuffers.growth(cells);
+                        cells = TapeBuffers.growLeft(cells, shift);
+                        position += shift;
+                        origin += shift;
+                        left += shift;
+                        right += shift;
+                        if (metrics != null) {
+                            metrics.grown(System.nanoTime() - growStartedAt);
+                        }
                     }
+                    left = position;
+                } else if (position >= right) {
+                    if (position >= cells.length) {
+                        long growStartedAt = metrics != null ? System.nanoTime() : 0;
+                        cells = TapeBuffers.growRight(cells);
+                        if (metrics != null) {
+                            metrics.grown(System.nanoTime() - growStartedAt);
+                        }
+                    }
+                    right = position + 1;
                 }
 
-                if (currentIndex < 0) {
-                    tape = EMPTY + tape;
-                    currentIndex = 0;
-                }
-
-                while (tape.length() <= currentIndex) {
-                    tape = tape.concat("_");
+                if (++steps >= nextProgress) {
+                    nextProgress = steps + PROGRESS_INTERVAL;
+                    if (!notifyProgress(program, listener, cells, left, right, origin, position, state, steps)) {
+                        return false;
+                    }
                 }
             }
-            cleanUpTape();
-        } catch (Exception e) {
-            LOGGER.error(e.getMessage(), e);
+            return true;
         } finally {
-            scheduled = false;
-            locked = false;
-            done = true;
+            cursor.cells = cells;
+            cursor.left = left;
+            cursor.right = right;
+            cursor.position = position;
+            cursor.state = state;
+            cursor.origin = origin;
+            cursor.steps = steps;
+        }
+    }
+
+    /**
+     * Notifies the listener about progress of computations and saves snapshot (or passes position) if requested.
+     *
+     * @param program  Compiled program
+     * @param listener Listener of computations
+     * @param cells    Tape buffer
+     * @param left     Start of visited part of the buffer
+     * @param right    End of visited part of the buffer
+     * @param origin   Position of the initial first cell of the tape in the buffer
+     * @param position Position of the head in the buffer
+     * @param state    Index of current state
+     * @param steps    Number of performed steps
+     * @return true if computations should continue, false if they were cancelled
+     */
+    private boolean notifyProgress(CompiledProgram program, ExecutionListener<DefaultTuringMachine> listener,
+                                   char[] cells, int left, int right, int origin, int position, int state, long steps) {
+        ExecutionListener.Action action = listener.onProgress(steps);
+        if (action == ExecutionListener.Action.SNAPSHOT) {
+            restore(new String(cells, left, right - left), position - left, program.getStateName(state));
+            this.steps = steps;
+            this.tapeOffset = origin - left;
+            listener.onSnapshot(this);
+        } else if (action == ExecutionListener.Action.POSITION) {
+            listener.onPosition(program.getStateName(state), steps, right - left);
+        }
+        return action != ExecutionListener.Action.CANCEL;
+    }
+
+    /**
+     * Inits current state and symbol in case of new computation or keeps last values otherwise.
+     */
+    void prepare() {
+        if (StringUtils.isEmpty(currentState) && currentIndex == null) {
+            currentState = startState;
+            currentIndex = 0;
+        }
+    }
+
+    /**
+     * Restores position of computation.
+     *
+     * @param tape         Machine tape
+     * @param currentIndex Position of the head
+     * @param currentState Current state
+     */
+    void restore(String tape, Integer currentIndex, String currentState) {
+        this.tape = tape;
+        this.currentIndex = currentIndex;
+        this.currentState = currentState;
+    }
+
+    /**
+     * Finishes computation with previously obtained result.
+     *
+     * @param result Result of computation of the same input
+     */
+    public void complete(ComputationResult result) {
+        restore(result.getTape(), result.getCurrentIndex(), result.getCurrentState());
+        rawOutput = result.getRawOutput();
+        complete();
+    }
+
+    /**
+     * Checks if computation has finished in accept state. Machines which failed (e.g. had no valid transition)
+     * are done as well, but they are not accepted.
+     *
+     * @return true if machine is done and it's current state is accept state, false otherwise
+     */
+    public boolean isAccepted() {
+        return done && acceptState != null && acceptState.equals(currentState);
+    }
+
+    /**
+     * Gets result of finished computation.
+     *
+     * @return Result of computation
+     */
+    public ComputationResult getResult() {
+        return new ComputationResult(tape, currentIndex, currentState, rawOutput);
+    }
+
+    /**
+     * Sets number of performed steps.
+     *
+     * @param steps Number of steps
+     */
+    void setSteps(long steps) {
+        this.steps = steps;
+    }
+
+    /**
+     * Marks computation as finished.
+     */
+    void complete() {
+        scheduled = false;
+        locked = false;
+        done = true;
+    }
+
+    /**
+     * Compiles transition space of the machine to the lookup table.
+     * Result is cached until transition space is changed through the machine methods.
+     *
+     * @return Compiled program
+     */
+    public CompiledProgram compile() {
+        if (program == null) {
+            program = CompiledProgram.compile(transitionSpace, startState, acceptState);
+        }
+        return program;
+    }
+
+    /**
+     * Calculates canonical hash of the program (transition space, start and accept states).
+     * Hash doesn't depend on the order of transitions, so equal programs have equal hashes.
+     *
+     * @return Hex-encoded SHA-256 hash of the program
+     */
+    public String getProgramHash() {
+        if (programHash == null) {
+            List<String> transitions = new ArrayList<>();
+            for (Transition transition : transitionSpace) {
+                transitions.add(transition.getReadState() + '\u0000' + transition.getReadSymbol() + '\u0000' + transition.getWriteState() + '\u0000' + transition.getWriteSymbol() + '\u0000' + transition.isMoveDirection());
+            }
+            Collections.sort(transitions);
+            StringBuilder canonical = new StringBuilder();
+            canonical.append(startState).append('\n').append(acceptState).append('\n');
+            for (String transition : transitions) {
+                canonical.append(transition).append('\n');
+            }
+            programHash = sha256(canonical.toString());
+        }
+        return programHash;
+    }
+
+    /**
+     * Calculates canonical hash of the input: program and current tape.
+     * Pipeline stages followed by other stages hash differently, since their results keep the raw output as well.
+     *
+     * @return Hex-encoded SHA-256 hash of the program and the tape or null if the tape is paged or not loaded
+     */
+    public String getInputHash() {
+        if (tapeReference != null || restored || isCold()) {
+            return null;
+        }
+        return sha256(getProgramHash() + '\n' + tape + (hasNextStages() ? "\n>" : ""));
+    }
+
+    /**
+     * Drops compiled program and it's hash after changing the program.
+     */
+    private void invalidateProgram() {
+        program = null;
+        programHash = null;
+    }
+
+    static String sha256(String value) {
+        try {
+            MessageDigest messageDigest = MessageDigest.getInstance("SHA-256");
+            byte[] digest = messageDigest.digest(value.getBytes(StandardCharsets.UTF_8));
+            StringBuilder hex = new StringBuilder();
+            for (byte b : digest) {
+                hex.append(String.format("%02x", b));
+            }
+            return hex.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
         }
     }
 
+    /**
+     * Checks if machine is a standard (deterministic single-tape) one, computed by the compiled engine.
+     * Only standard machines can be paged and batched.
+     *
+     * @return true if machine is standard, false otherwise
+     */
+    public boolean isStandard() {
+        return true;
+    }
+
+    /**
+     * Checks if other machine has the same program (transition space, start and accept states).
+     *
+     * @param other Other machine
+     * @return true if programs are equal, false otherwise
+     */
+    public boolean hasSameProgram(DefaultTuringMachine other) {
+        return Objects.equals(transitionSpace, other.transitionSpace) &&
+                Objects.equals(startState, other.startState) &&
+                Objects.equals(acceptState, other.acceptState);
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -128,6 +451,7 @@ public class DefaultTuringMachine implements TuringMachine, Serializable {
     public boolean setStartState(String newStartState) {
         if (stateSpace.contains(newStartState)) {
             startState = newStartState;
+            invalidateProgram();
             return true;
         } else {
             return false;
@@ -141,6 +465,7 @@ public class DefaultTuringMachine implements TuringMachine, Serializable {
     public boolean setAcceptState(String newAcceptState) {
         if (stateSpace.contains(newAcceptState)) {
             acceptState = newAcceptState;
+            invalidateProgram();
             return true;
         } else {
             return false;
@@ -177,14 +502,19 @@ public class DefaultTuringMachine implements TuringMachine, Serializable {
         } else {
             Transition newTransition = new Transition(readState, readSymbol, writeState, writeSymbol, moveDirection);
             transitionSpace.add(newTransition);
+            invalidateProgram();
             return true;
         }
     }
 
     /**
      * Clean opening and ending whitespaces in tape (empty symbols).
+     * The tape of pipeline stage is kept as is for the following stages, so that they read empty symbols as written.
      */
-    private void cleanUpTape() {
+    void cleanUpTape() {
+        if (hasNextStages()) {
+            rawOutput = tape;
+        }
         tape = tape.replace('_', ' ').trim();
     }
 
@@ -231,6 +561,7 @@ public class DefaultTuringMachine implements TuringMachine, Serializable {
      */
     public void setTransitionSpace(Set<Transition> transitionSpace) {
         this.transitionSpace = transitionSpace;
+        invalidateProgram();
     }
 
     /**
@@ -269,12 +600,254 @@ public class DefaultTuringMachine implements TuringMachine, Serializable {
         this.tape = tape;
     }
 
+    /**
+     * Gets reference to the tape stored as segments in the cluster.
+     *
+     * @return Tape reference or null if the tape is stored in the machine
+     */
+    public TapeReference getTapeReference() {
+        return tapeReference;
+    }
+
+    /**
+     * Sets reference to the tape stored as segments in the cluster.
+     *
+     * @param tapeReference Tape reference (null if the tape is stored in the machine)
+     */
+    public void setTapeReference(TapeReference tapeReference) {
+        this.tapeReference = tapeReference;
+    }
+
+    /**
+     * Gets length of the tape, stored either in the machine, as segments or in the cold tier.
+     *
+     * @return Length of the tape
+     */
+    public long getTapeLength() {
+        if (tapeReference != null) {
+            return tapeReference.getLength();
+        }
+        if (isCold()) {
+            return coldTapeLength;
+        }
+        return tape == null ? 0 : tape.length();
+    }
+
+    /**
+     * Sets number of cells the tape has grown to the left during the latest computation.
+     *
+     * @param tapeOffset Offset of the tape
+     */
+    void setTapeOffset(int tapeOffset) {
+        this.tapeOffset = tapeOffset;
+    }
+
+    /**
+     * Gets number of cells the tape has grown to the left during the latest computation, so cell i of the snapshot
+     * is cell (i - offset) of the tape the computation has started with.
+     *
+     * @return Offset of the tape
+     */
+    public int getTapeOffset() {
+        return tapeOffset;
+    }
+
+    /**
+     * Gets current state of computation.
+     *
+     * @return Current state
+     */
+    public String getCurrentState() {
+        return currentState;
+    }
+
+    /**
+     * Gets current position of the head.
+     *
+     * @return Current position
+     */
+    public Integer getCurrentIndex() {
+        return currentIndex;
+    }
+
+    /**
+     * Gets number of performed steps.
+     *
+     * @return Number of steps
+     */
+    public long getSteps() {
+        return steps;
+    }
+
+    /**
+     * Checks if execution trace should be recorded for the machine.
+     *
+     * @return true if execution trace is requested, false otherwise
+     */
+    public boolean isTraced() {
+        return traced;
+    }
+
+    /**
+     * Sets flag requesting recording of execution trace.
+     *
+     * @param traced true if execution trace is requested
+     */
+    public void setTraced(boolean traced) {
+        this.traced = traced;
+    }
+
+    /**
+     * Checks if the machine was restored from the task store without it's tape (tape is loaded before computation).
+     *
+     * @return true if the tape is not loaded yet, false otherwise
+     */
+    public boolean isRestored() {
+        return restored;
+    }
+
+    /**
+     * Sets flag of the machine restored from the task store without it's tape.
+     *
+     * @param restored true if the tape is not loaded yet
+     */
+    public void setRestored(boolean restored) {
+        this.restored = restored;
+    }
+
+    /**
+     * Checks if the tape is moved to the cold tier.
+     *
+     * @return true if the tape is compressed in the cold tier, false otherwise
+     */
+    public boolean isCold() {
+        return coldTapeLength != null;
+    }
+
+    /**
+     * Gets length of the tape moved to the cold tier.
+     *
+     * @return Length of the tape or null if the tape is kept in the machine
+     */
+    public Integer getColdTapeLength() {
+        return coldTapeLength;
+    }
+
+    /**
+     * Sets length of the tape moved to the cold tier.
+     *
+     * @param coldTapeLength Length of the tape or null if the tape is kept in the machine
+     */
+    public void setColdTapeLength(Integer coldTapeLength) {
+        this.coldTapeLength = coldTapeLength;
+    }
+
+    /**
+     * Gets keys of the following pipeline stages, which take the output tape of the machine as their input.
+     *
+     * @return Keys of the following stages (nullable)
+     */
+    public List<String> getNextKeys() {
+        return nextKeys;
+    }
+
+    /**
+     * Sets keys of the following pipeline stages, which take the output tape of the machine as their input.
+     *
+     * @param nextKeys Keys of the following stages
+     */
+    public void setNextKeys(List<String> nextKeys) {
+        this.nextKeys = nextKeys;
+    }
+
+    /**
+     * Checks if machine is a pipeline stage followed by other stages.
+     *
+     * @return true if there are stages taking the output tape of the machine, false otherwise
+     */
+    public boolean hasNextStages() {
+        return nextKeys != null && !nextKeys.isEmpty();
+    }
+
+    /**
+     * Gets output tape of the pipeline stage as it was left by computation: with empty symbols, not cleaned up.
+     *
+     * @return Raw output tape or null if computation isn't finished or there are no following stages
+     */
+    public String getRawOutput() {
+        return rawOutput;
+    }
+
+    /**
+     * Checks if machine is a pipeline stage waiting for the output tape of the previous stage.
+     *
+     * @return true if machine is waiting for the input tape, false otherwise
+     */
+    public boolean isAwaitingInput() {
+        return awaitingInput;
+    }
+
+    /**
+     * Sets flag of the pipeline stage waiting for the output tape of the previous stage.
+     *
+     * @param awaitingInput true if machine is waiting for the input tape
+     */
+    public void setAwaitingInput(boolean awaitingInput) {
+        this.awaitingInput = awaitingInput;
+    }
+
+    /**
+     * Gets recorder of execution trace (created by computations with logs on, if it wasn't set before).
+     *
+     * @return Trace recorder or null if computations were performed quietly
+     */
+    public TraceRecorder getTrace() {
+        return trace;
+    }
+
+    /**
+     * Sets recorder of execution trace, e.g. with custom capacity or sampling.
+     *
+     * @param trace Trace recorder
+     */
+    public void setTrace(TraceRecorder trace) {
+        this.trace = trace;
+    }
+
+    /**
+     * Gets metrics of computations.
+     *
+     * @return Execution metrics or null if they are not collected
+     */
+    public ExecutionMetrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * Sets metrics to be collected during computations. Metrics should have a counter for every transition of the machine.
+     *
+     * @param metrics Execution metrics (null to stop collecting)
+     */
+    public void setMetrics(ExecutionMetrics metrics) {
+        this.metrics = metrics;
+    }
+
     /**
      * Schedules machine for execution.
      */
     public void schedule(String id) {
         this.id = id;
         this.scheduled = true;
+        this.scheduledAt = System.currentTimeMillis();
+    }
+
+    /**
+     * Gets time of scheduling.
+     *
+     * @return Time of scheduling in milliseconds (0 if machine was never scheduled)
+     */
+    public long getScheduledAt() {
+        return scheduledAt;
     }
 
     /**
@@ -0,0 +1,287 @@
+package com.uwc.tooring.turing.impl;
+
+import com.uwc.tooring.model.MultiTapeTransition;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Transition space of multi-tape Turing machine compiled to lookup tables: states are numbered,
+ * and tuple of symbols under the heads is packed to a single long (16 bits per tape).
+ * Pairs of state and packed symbols are the keys of the open-addressing hash table with linear probing, kept in
+ * primitive arrays, so the lookup on every step neither boxes the key nor follows references.
+ */
+public class MultiTapeProgram {
+
+    /**
+     * Marker for missing transition / unknown state / unknown symbol.
+     */
+    public static final int NONE = CompiledProgram.NONE;
+
+    /**
+     * Maximal number of tapes: symbols of all tapes should fit a single long.
+     */
+    public static final int MAX_TAPES = Long.SIZE / Character.SIZE;
+
+    /**
+     * The hash table is kept at most half full.
+     */
+    private static final int LOAD_FACTOR_INVERSE = 2;
+
+    private final String[] states;
+    private final Map<String, Integer> stateIndexes;
+
+    private final int startState;
+    private final int acceptState;
+    private final int tapesCount;
+
+    private final int[] keyStates;
+    private final long[] keySymbols;
+    private final int[] values;
+
+    private final int[] writeStates;
+    private final int[][] writeSymbols;
+    private final int[][] moves;
+
+    private MultiTapeProgram(String[] states, Map<String, Integer> stateIndexes, int startState, int acceptState, int tapesCount,
+                             int[] keyStates, long[] keySymbols, int[] values, int[] writeStates, int[][] writeSymbols, int[][] moves) {
+        this.states = states;
+        this.stateIndexes = stateIndexes;
+        this.startState = startState;
+        this.acceptState = acceptState;
+        this.tapesCount = tapesCount;
+        this.keyStates = keyStates;
+        this.keySymbols = keySymbols;
+        this.values = values;
+        this.writeStates = writeStates;
+        this.writeSymbols = writeSymbols;
+        this.moves = moves;
+    }
+
+    /**
+     * Compiles transition space to the lookup tables.
+     * If transition space contains several transitions for the same state and symbols, the first one wins.
+     *
+     * @param transitionSpace Transition space
+     * @param startState      Start state
+     * @param acceptState     Accept state
+     * @param tapesCount      Number of tapes
+     * @return Compiled program
+     */
+    public static MultiTapeProgram compile(Set<MultiTapeTransition> transitionSpace, String startState, String acceptState, int tapesCount) {
+        if (startState == null || acceptState == null) {
+            throw new IllegalStateException("Start state and accept state should be specified");
+        }
+        if (tapesCount < 1 || tapesCount > MAX_TAPES) {
+            throw new IllegalStateException("Number of tapes should be between 1 and " + MAX_TAPES + " (tapesCount=" + tapesCount + ")");
+        }
+        Map<String, Integer> stateIndexes = new HashMap<>();
+        indexOf(stateIndexes, startState);
+        indexOf(stateIndexes, acceptState);
+        for (MultiTapeTransition transition : transitionSpace) {
+            validate(transition, tapesCount);
+            indexOf(stateIndexes, transition.getReadState());
+            indexOf(stateIndexes, transition.getWriteState());
+        }
+
+        int capacity = Integer.highestOneBit(Math.max(1, transitionSpace.size() * LOAD_FACTOR_INVERSE) * 2 - 1);
+        int[] keyStates = new int[capacity];
+        long[] keySymbols = new long[capacity];
+        int[] values = new int[capacity];
+        Arrays.fill(values, NONE);
+        int[] writeStates = new int[transitionSpace.size()];
+        int[][] writeSymbols = new int[transitionSpace.size()][tapesCount];
+        int[][] moves = new int[transitionSpace.size()][tapesCount];
+        int transitionsCount = 0;
+        for (MultiTapeTransition transition : transitionSpace) {
+            long symbols = 0;
+            for (Character symbol : transition.getReadSymbols()) {
+                symbols = pack(symbols, symbol);
+            }
+            int slot = findSlot(keyStates, keySymbols, values, stateIndexes.get(transition.getReadState()), symbols);
+            if (values[slot] != NONE) {
+                continue;
+            }
+            keyStates[slot] = stateIndexes.get(transition.getReadState());
+            keySymbols[slot] = symbols;
+            values[slot] = transitionsCount;
+            writeStates[transitionsCount] = stateIndexes.get(transition.getWriteState());
+            for (int tape = 0; tape < tapesCount; tape++) {
+                Character writeSymbol = transition.getWriteSymbols() == null ? null : transition.getWriteSymbols()[tape];
+                Boolean moveDirection = transition.getMoveDirections() == null ? null : transition.getMoveDirections()[tape];
+                writeSymbols[transitionsCount][tape] = writeSymbol == null ? NONE : writeSymbol;
+                moves[transitionsCount][tape] = moveDirection == null ? 0 : moveDirection ? 1 : -1;
+            }
+            transitionsCount++;
+        }
+
+        String[] states = new String[stateIndexes.size()];
+        for (Map.Entry<String, Integer> entry : stateIndexes.entrySet()) {
+            states[entry.getValue()] = entry.getKey();
+        }
+
+        return new MultiTapeProgram(states, stateIndexes, stateIndexes.get(startState), stateIndexes.get(acceptState), tapesCount,
+                keyStates, keySymbols, values, writeStates, writeSymbols, moves);
+    }
+
+    /**
+     * Finds the slot of the hash table holding the key or the empty slot where it should be put.
+     *
+     * @param keyStates  States of the keys
+     * @param keySymbols Packed symbols of the keys
+     * @param values     Transition indexes ({@link #NONE} for empty slots)
+     * @param state      State index
+     * @param symbols    Packed symbols
+     * @return Slot index
+     */
+    private static int findSlot(int[] keyStates, long[] keySymbols, int[] values, int state, long symbols) {
+        int mask = values.length - 1;
+        int slot = hash(state, symbols) & mask;
+        while (values[slot] != NONE && (keyStates[slot] != state || keySymbols[slot] != symbols)) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    /**
+     * Mixes state and packed symbols, so that keys differing in any tape spread over the whole table.
+     *
+     * @param state   State index
+     * @param symbols Packed symbols
+     * @return Hash of the key
+     */
+    private static int hash(int state, long symbols) {
+        long hash = symbols * 0x9E3779B97F4A7C15L + state * 0xC2B2AE3D27D4EB4FL;
+        return (int) (hash ^ (hash >>> 32));
+    }
+
+    private static void validate(MultiTapeTransition transition, int tapesCount) {
+        if (transition.getReadSymbols() == null || transition.getReadSymbols().length != tapesCount
+                || (transition.getWriteSymbols() != null && transition.getWriteSymbols().length != tapesCount)
+                || (transition.getMoveDirections() != null && transition.getMoveDirections().length != tapesCount)) {
+            throw new IllegalStateException("Transition should define symbols and moves for every tape (tapesCount=" + tapesCount + "): " + transition);
+        }
+        for (Character symbol : transition.getReadSymbols()) {
+            if (symbol == null) {
+                throw new IllegalStateException("Transition should define read symbol for every tape: " + transition);
+            }
+        }
+    }
+
+    private static int indexOf(Map<String, Integer> stateIndexes, String state) {
+        Integer index = stateIndexes.get(state);
+        if (index == null) {
+            index = stateIndexes.size();
+            stateIndexes.put(state, index);
+        }
+        return index;
+    }
+
+    /**
+     * Appends symbol to the packed tuple of symbols.
+     *
+     * @param symbols Packed symbols of previous tapes
+     * @param symbol  Symbol of the next tape
+     * @return Packed symbols
+     */
+    public static long pack(long symbols, char symbol) {
+        return symbols << Character.SIZE | symbol;
+    }
+
+    /**
+     * Finds transition for the state and the symbols.
+     *
+     * @param state   State index
+     * @param symbols Packed symbols under the heads (see {@link #pack(long, char)})
+     * @return Transition index or {@link #NONE} if there's no such transition
+     */
+    public int find(int state, long symbols) {
+        if (state == NONE) {
+            return NONE;
+        }
+        return values[findSlot(keyStates, keySymbols, values, state, symbols)];
+    }
+
+    /**
+     * Gets index of the state.
+     *
+     * @param state State name
+     * @return State index or {@link #NONE} if state is unknown
+     */
+    public int getStateIndex(String state) {
+        Integer index = stateIndexes.get(state);
+        return index == null ? NONE : index;
+    }
+
+    /**
+     * Gets name of the state.
+     *
+     * @param state State index
+     * @return State name
+     */
+    public String getStateName(int state) {
+        return states[state];
+    }
+
+    /**
+     * Gets index of start state.
+     *
+     * @return Start state index
+     */
+    public int getStartState() {
+        return startState;
+    }
+
+    /**
+     * Gets index of accept state.
+     *
+     * @return Accept state index
+     */
+    public int getAcceptState() {
+        return acceptState;
+    }
+
+    /**
+     * Gets number of tapes.
+     *
+     * @return Number of tapes
+     */
+    public int getTapesCount() {
+        return tapesCount;
+    }
+
+    /**
+     * Gets state the transition leads to.
+     *
+     * @param transition Transition index
+     * @return State index
+     */
+    public int getWriteState(int transition) {
+        return writeStates[transition];
+    }
+
+    /**
+     * Gets symbol the transition writes to the tape.
+     *
+     * @param transition Transition index
+     * @param tape       Tape index
+     * @return Symbol or {@link #NONE} if transition keeps the symbol under the head
+     */
+    public int getWriteSymbol(int transition, int tape) {
+        return writeSymbols[transition][tape];
+    }
+
+    /**
+     * Gets head movement of the transition on the tape.
+     *
+     * @param transition Transition index
+     * @param tape       Tape index
+     * @return 1 for "right", -1 for "left", 0 for no movement
+     */
+    public int getMove(int transition, int tape) {
+        return moves[transition][tape];
+    }
+
+}
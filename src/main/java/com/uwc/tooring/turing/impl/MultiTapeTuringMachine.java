@@ -0,0 +1,338 @@
+package com.uwc.tooring.turing.impl;
+
+import com.uwc.tooring.model.MultiTapeTransition;
+import com.uwc.tooring.turing.ExecutionListener;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Multi-tape Turing machine: every tape has it's own head, transitions read, write and move on all tapes at once.
+ * Tape 0 is the input and output tape: it's stored in the tape field of the machine, so it's submitted, cached, tiered
+ * and downloaded as the tape of any other machine. Other (work) tapes are blank by default and travel with the machine.
+ * Computation can be cancelled and resumed from snapshots; execution trace and metrics are not collected.
+ */
+public class MultiTapeTuringMachine extends DefaultTuringMachine {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(MultiTapeTuringMachine.class);
+
+    /**
+     * Value of the type field in JSON description of the machine.
+     */
+    public static final String TYPE = "multitape";
+
+    public static final int DEFAULT_TAPES_COUNT = 2;
+
+    private String type = TYPE;
+    private int tapesCount = DEFAULT_TAPES_COUNT;
+    private Set<MultiTapeTransition> multiTapeTransitionSpace = new HashSet<>();
+    private List<String> workTapes;
+    private List<Integer> workIndexes;
+
+    /**
+     * Performs computations over the tapes notifying the listener about progress.
+     * If listener cancels computations, machine stays scheduled and unfinished.
+     *
+     * @param quite    ignored: execution trace is not recorded
+     * @param listener Listener of computations (nullable)
+     */
+    @Override
+    public void run(boolean quite, ExecutionListener<DefaultTuringMachine> listener) {
+        setLocked(true);
+        boolean finished = true;
+        try {
+            prepare();
+            finished = execute(MultiTapeProgram.compile(multiTapeTransitionSpace, getStartState(), getAcceptState(), tapesCount), listener);
+            if (finished) {
+                cleanUpTape();
+            }
+        } catch (Exception e) {
+            LOGGER.error(e.getMessage(), e);
+        } finally {
+            if (finished) {
+                complete();
+            } else {
+                setLocked(false);
+            }
+        }
+    }
+
+    /**
+     * Executes compiled program over the tapes until accept state is reached.
+     * Tapes are kept in buffers during computations and are written back to the machine afterwards.
+     *
+     * @param program  Compiled program
+     * @param listener Listener of computations (nullable)
+     * @return true if accept state is reached, false if computations were cancelled by the listener
+     */
+    private boolean execute(MultiTapeProgram program, ExecutionListener<DefaultTuringMachine> listener) {
+        int state = program.getStateIndex(getCurrentState());
+        TapeCursor[] tapes = new TapeCursor[tapesCount];
+        tapes[0] = new TapeCursor(getTape(), getCurrentIndex(), state, getSteps());
+        for (int tape = 1; tape < tapesCount; tape++) {
+            tapes[tape] = new TapeCursor(workTapes.get(tape - 1), workIndexes.get(tape - 1), state, getSteps());
+        }
+        long steps = getSteps();
+        int acceptState = program.getAcceptState();
+        long nextProgress = listener == null ? Long.MAX_VALUE : steps + PROGRESS_INTERVAL;
+        try {
+            if (state == MultiTapeProgram.NONE) {
+                throw new IllegalStateException("There is no valid transition for this phase! (state=" + getCurrentState() + ")");
+            }
+            while (state != acceptState) {
+                long symbols = 0;
+                for (TapeCursor tape : tapes) {
+                    symbols = MultiTapeProgram.pack(symbols, tape.cells[tape.position]);
+                }
+                int transition = program.find(state, symbols);
+                if (transition == MultiTapeProgram.NONE) {
+                    throw new IllegalStateException("There is no valid transition for this phase! (state=" + program.getStateName(state) + ", symbols=" + getSymbols(tapes) + ")");
+                }
+
+                for (int tape = 0; tape < tapesCount; tape++) {
+                    int writeSymbol = program.getWriteSymbol(transition, tape);
+                    if (writeSymbol != MultiTapeProgram.NONE) {
+                        tapes[tape].cells[tapes[tape].position] = (char) writeSymbol;
+                    }
+                    tapes[tape].move(program.getMove(transition, tape));
+                }
+                state = program.getWriteState(transition);
+
+                if (++steps >= nextProgress) {
+                    nextProgress = steps + PROGRESS_INTERVAL;
+                    ExecutionListener.Action action = listener.onProgress(steps);
+                    if (action == ExecutionListener.Action.SNAPSHOT) {
+                        writeBack(program, tapes, state, steps);
+                        listener.onSnapshot(this);
+                    } else if (action == ExecutionListener.Action.POSITION) {
+                        listener.onPosition(program.getStateName(state), steps, tapes[0].right - tapes[0].left);
+                    }
+                    if (action == ExecutionListener.Action.CANCEL) {
+                        return false;
+                    }
+                }
+            }
+            return true;
+        } finally {
+            writeBack(program, tapes, state, steps);
+        }
+    }
+
+    /**
+     * Writes position of computation back to the machine.
+     *
+     * @param program Compiled program
+     * @param tapes   Positions of computation over the tapes
+     * @param state   Index of current state
+     * @param steps   Number of performed steps
+     */
+    private void writeBack(MultiTapeProgram program, TapeCursor[] tapes, int state, long steps) {
+        restore(tapes[0].getTape(), tapes[0].getIndex(), state == MultiTapeProgram.NONE ? getCurrentState() : program.getStateName(state));
+        setSteps(steps);
+        setTapeOffset(tapes[0].origin - tapes[0].left);
+        for (int tape = 1; tape < tapesCount; tape++) {
+            workTapes.set(tape - 1, tapes[tape].getTape());
+            workIndexes.set(tape - 1, tapes[tape].getIndex());
+        }
+    }
+
+    private static String getSymbols(TapeCursor[] tapes) {
+        StringBuilder symbols = new StringBuilder();
+        for (TapeCursor tape : tapes) {
+            symbols.append(tape.cells[tape.position]);
+        }
+        return symbols.toString();
+    }
+
+    /**
+     * Inits current state and heads in case of new computation and makes sure every work tape is present.
+     */
+    @Override
+    void prepare() {
+        super.prepare();
+        if (workTapes == null) {
+            workTapes = new ArrayList<>();
+        }
+        while (workTapes.size() < tapesCount - 1) {
+            workTapes.add("");
+        }
+        if (workIndexes == null) {
+            workIndexes = new ArrayList<>();
+        }
+        while (workIndexes.size() < tapesCount - 1) {
+            workIndexes.add(0);
+        }
+    }
+
+    /**
+     * Clean opening and ending whitespaces (empty symbols) in all tapes.
+     */
+    @Override
+    void cleanUpTape() {
+        super.cleanUpTape();
+        workTapes.replaceAll(tape -> tape.replace('_', ' ').trim());
+    }
+
+    /**
+     * Calculates canonical hash of the program (number of tapes, transition space, start and accept states).
+     *
+     * @return Hex-encoded SHA-256 hash of the program
+     */
+    @Override
+    public String getProgramHash() {
+        List<String> transitions = new ArrayList<>();
+        for (MultiTapeTransition transition : multiTapeTransitionSpace) {
+            transitions.add(transition.getReadState() + '\u0000' + Arrays.toString(transition.getReadSymbols()) + '\u0000' + transition.getWriteState() + '\u0000'
+                    + Arrays.toString(transition.getWriteSymbols()) + '\u0000' + Arrays.toString(transition.getMoveDirections()));
+        }
+        Collections.sort(transitions);
+        StringBuilder canonical = new StringBuilder();
+        canonical.append(TYPE).append('\n').append(tapesCount).append('\n');
+        canonical.append(getStartState()).append('\n').append(getAcceptState()).append('\n');
+        for (String transition : transitions) {
+            canonical.append(transition).append('\n');
+        }
+        return sha256(canonical.toString());
+    }
+
+    /**
+     * Calculates canonical hash of the input: program, input tape and work tapes.
+     *
+     * @return Hex-encoded SHA-256 hash of the input or null if the tape is not loaded
+     */
+    @Override
+    public String getInputHash() {
+        String inputHash = super.getInputHash();
+        if (inputHash == null || workTapes == null) {
+            return inputHash;
+        }
+        return sha256(inputHash + '\n' + workTapes + '\n' + workIndexes);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean isStandard() {
+        return false;
+    }
+
+    /**
+     * Adds new transition to the machine with a single tape.
+     *
+     * @param readState     Triggering state
+     * @param readSymbol    Triggering symbol
+     * @param writeState    New state
+     * @param writeSymbol   New symbol
+     * @param moveDirection Direction to move pivot
+     * @return true if transition was added, false otherwise
+     */
+    @Override
+    public boolean addTransition(String readState, Character readSymbol, String writeState, Character writeSymbol, Boolean moveDirection) {
+        return addTransition(readState, new Character[]{readSymbol}, writeState, new Character[]{writeSymbol}, new Boolean[]{moveDirection});
+    }
+
+    /**
+     * Adds new transition to the machine.
+     *
+     * @param readState      Triggering state
+     * @param readSymbols    Triggering symbols
+     * @param writeState     New state
+     * @param writeSymbols   New symbols (null elements keep symbols under the heads)
+     * @param moveDirections Directions to move pivots (null elements keep the heads in place)
+     * @return true if transition was added, false otherwise
+     */
+    public boolean addTransition(String readState, Character[] readSymbols, String writeState, Character[] writeSymbols, Boolean[] moveDirections) {
+        if (readSymbols.length != tapesCount || writeSymbols.length != tapesCount || moveDirections.length != tapesCount) {
+            throw new IllegalArgumentException("Can't add transition, because it should define symbols and moves for every tape");
+        }
+        addState(readState);
+        addState(writeState);
+        for (MultiTapeTransition transition : multiTapeTransitionSpace) {
+            if (transition.isConflicting(readState, readSymbols)) {
+                return false;
+            }
+        }
+        multiTapeTransitionSpace.add(new MultiTapeTransition(readState, readSymbols, writeState, writeSymbols, moveDirections));
+        return true;
+    }
+
+    /**
+     * Gets type of the machine.
+     *
+     * @return Type of the machine
+     */
+    public String getType() {
+        return type;
+    }
+
+    /**
+     * Gets number of tapes.
+     *
+     * @return Number of tapes
+     */
+    public int getTapesCount() {
+        return tapesCount;
+    }
+
+    /**
+     * Sets number of tapes.
+     *
+     * @param tapesCount Number of tapes
+     */
+    public void setTapesCount(int tapesCount) {
+        this.tapesCount = tapesCount;
+    }
+
+    /**
+     * Gets transition space of the machine.
+     *
+     * @return Transition space
+     */
+    public Set<MultiTapeTransition> getMultiTapeTransitionSpace() {
+        return multiTapeTransitionSpace;
+    }
+
+    /**
+     * Sets transition space of the machine.
+     *
+     * @param multiTapeTransitionSpace Transition space
+     */
+    public void setMultiTapeTransitionSpace(Set<MultiTapeTransition> multiTapeTransitionSpace) {
+        this.multiTapeTransitionSpace = multiTapeTransitionSpace;
+    }
+
+    /**
+     * Gets work tapes (tapes 1 and further).
+     *
+     * @return Work tapes or null if they are blank and computation was never started
+     */
+    public List<String> getWorkTapes() {
+        return workTapes;
+    }
+
+    /**
+     * Sets work tapes (tapes 1 and further).
+     *
+     * @param workTapes Work tapes
+     */
+    public void setWorkTapes(List<String> workTapes) {
+        this.workTapes = workTapes;
+    }
+
+    /**
+     * Gets positions of the heads on work tapes.
+     *
+     * @return Positions of the heads or null if computation was never started
+     */
+    public List<Integer> getWorkIndexes() {
+        return workIndexes;
+    }
+
+}
@@ -0,0 +1,215 @@
+package com.uwc.tooring.turing.impl;
+
+import com.uwc.tooring.model.Transition;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Transition space of nondeterministic Turing machine compiled to the dense lookup table.
+ * Unlike {@link CompiledProgram}, every state and symbol are mapped to all matching transitions (choices).
+ */
+public class NondeterministicProgram {
+
+    /**
+     * Marker for unknown state / unknown symbol / missing write symbol.
+     */
+    public static final int NONE = CompiledProgram.NONE;
+
+    private static final int[] NO_CHOICES = new int[0];
+
+    private final String[] states;
+    private final Map<String, Integer> stateIndexes;
+
+    private final int startState;
+    private final int acceptState;
+
+    private final int[] symbolIndexes;
+    private final int symbolsCount;
+
+    private final int[][] table;
+
+    private final int[] writeStates;
+    private final int[] writeSymbols;
+    private final int[] moves;
+
+    private NondeterministicProgram(String[] states, Map<String, Integer> stateIndexes, int startState, int acceptState,
+                                    int[] symbolIndexes, int symbolsCount, int[][] table,
+                                    int[] writeStates, int[] writeSymbols, int[] moves) {
+        this.states = states;
+        this.stateIndexes = stateIndexes;
+        this.startState = startState;
+        this.acceptState = acceptState;
+        this.symbolIndexes = symbolIndexes;
+        this.symbolsCount = symbolsCount;
+        this.table = table;
+        this.writeStates = writeStates;
+        this.writeSymbols = writeSymbols;
+        this.moves = moves;
+    }
+
+    /**
+     * Compiles transition space to the lookup table.
+     *
+     * @param transitionSpace Transition space
+     * @param startState      Start state
+     * @param acceptState     Accept state
+     * @return Compiled program
+     */
+    public static NondeterministicProgram compile(Set<Transition> transitionSpace, String startState, String acceptState) {
+        if (startState == null || acceptState == null) {
+            throw new IllegalStateException("Start state and accept state should be specified");
+        }
+        Map<String, Integer> stateIndexes = new HashMap<>();
+        indexOf(stateIndexes, startState);
+        indexOf(stateIndexes, acceptState);
+
+        int maxSymbol = 0;
+        for (Transition transition : transitionSpace) {
+            indexOf(stateIndexes, transition.getReadState());
+            indexOf(stateIndexes, transition.getWriteState());
+            maxSymbol = Math.max(maxSymbol, transition.getReadSymbol());
+        }
+
+        int[] symbolIndexes = new int[maxSymbol + 1];
+        Arrays.fill(symbolIndexes, NONE);
+        int symbolsCount = 0;
+        for (Transition transition : transitionSpace) {
+            char symbol = transition.getReadSymbol();
+            if (symbolIndexes[symbol] == NONE) {
+                symbolIndexes[symbol] = symbolsCount++;
+            }
+        }
+
+        List<List<Integer>> choices = new ArrayList<>();
+        for (int i = 0; i < stateIndexes.size() * Math.max(symbolsCount, 1); i++) {
+            choices.add(new ArrayList<>());
+        }
+        int[] writeStates = new int[transitionSpace.size()];
+        int[] writeSymbols = new int[transitionSpace.size()];
+        int[] moves = new int[transitionSpace.size()];
+        int transitionsCount = 0;
+        for (Transition transition : transitionSpace) {
+            int cell = stateIndexes.get(transition.getReadState()) * symbolsCount + symbolIndexes[transition.getReadSymbol()];
+            choices.get(cell).add(transitionsCount);
+            writeStates[transitionsCount] = stateIndexes.get(transition.getWriteState());
+            writeSymbols[transitionsCount] = transition.getWriteSymbol() == null ? NONE : transition.getWriteSymbol();
+            moves[transitionsCount] = transition.isMoveDirection() == null ? 0 : transition.isMoveDirection() ? 1 : -1;
+            transitionsCount++;
+        }
+
+        int[][] table = new int[choices.size()][];
+        for (int i = 0; i < table.length; i++) {
+            table[i] = choices.get(i).isEmpty() ? NO_CHOICES : choices.get(i).stream().mapToInt(Integer::intValue).toArray();
+        }
+
+        String[] states = new String[stateIndexes.size()];
+        for (Map.Entry<String, Integer> entry : stateIndexes.entrySet()) {
+            states[entry.getValue()] = entry.getKey();
+        }
+
+        return new NondeterministicProgram(states, stateIndexes, stateIndexes.get(startState), stateIndexes.get(acceptState),
+                symbolIndexes, symbolsCount, table, writeStates, writeSymbols, moves);
+    }
+
+    private static int indexOf(Map<String, Integer> stateIndexes, String state) {
+        Integer index = stateIndexes.get(state);
+        if (index == null) {
+            index = stateIndexes.size();
+            stateIndexes.put(state, index);
+        }
+        return index;
+    }
+
+    /**
+     * Finds all transitions for the state and the symbol.
+     *
+     * @param state  State index
+     * @param symbol Symbol under the head
+     * @return Transition indexes (empty if there are no such transitions)
+     */
+    public int[] find(int state, char symbol) {
+        if (state == NONE || symbol >= symbolIndexes.length) {
+            return NO_CHOICES;
+        }
+        int symbolIndex = symbolIndexes[symbol];
+        if (symbolIndex == NONE) {
+            return NO_CHOICES;
+        }
+        return table[state * symbolsCount + symbolIndex];
+    }
+
+    /**
+     * Gets index of the state.
+     *
+     * @param state State name
+     * @return State index or {@link #NONE} if state is unknown
+     */
+    public int getStateIndex(String state) {
+        Integer index = stateIndexes.get(state);
+        return index == null ? NONE : index;
+    }
+
+    /**
+     * Gets name of the state.
+     *
+     * @param state State index
+     * @return State name
+     */
+    public String getStateName(int state) {
+        return states[state];
+    }
+
+    /**
+     * Gets index of start state.
+     *
+     * @return Start state index
+     */
+    public int getStartState() {
+        return startState;
+    }
+
+    /**
+     * Gets index of accept state.
+     *
+     * @return Accept state index
+     */
+    public int getAcceptState() {
+        return acceptState;
+    }
+
+    /**
+     * Gets state the transition leads to.
+     *
+     * @param transition Transition index
+     * @return State index
+     */
+    public int getWriteState(int transition) {
+        return writeStates[transition];
+    }
+
+    /**
+     * Gets symbol written by the transition.
+     *
+     * @param transition Transition index
+     * @return Symbol or {@link #NONE} if the cell is kept as is
+     */
+    public int getWriteSymbol(int transition) {
+        return writeSymbols[transition];
+    }
+
+    /**
+     * Gets movement of the head performed by the transition.
+     *
+     * @param transition Transition index
+     * @return 1 for "right", -1 for "left", 0 for staying in place
+     */
+    public int getMove(int transition) {
+        return moves[transition];
+    }
+
+}
@@ -0,0 +1,388 @@
+package com.uwc.tooring.turing.impl;
+
+import com.uwc.tooring.model.Transition;
+import com.uwc.tooring.turing.ExecutionListener;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Nondeterministic Turing machine: several transitions can be defined for the same state and symbol.
+ * Every choice starts a new branch of computation; branches are explored in parallel on the shared fork-join pool
+ * and share their tapes (see {@link SharedTape}). Computation is finished as soon as any branch reaches accept state,
+ * result of the machine is the tape, head and step count of that branch.
+ * Branches run in quanta of {@link #QUANTUM} steps and yield to each other, so a looping branch can't starve the others.
+ * Number of simultaneously explored branches is limited by {@link #getMaxBranches()}: computation fails when it's exceeded.
+ * Execution trace, metrics and snapshots are not supported: there is no single position of computation to record,
+ * and a checkpoint of one branch couldn't be resumed as the whole computation. Listeners get the position of the leading
+ * branch (the one which has performed most steps) instead: it's passed to {@link ExecutionListener#onPosition} on both
+ * {@link ExecutionListener.Action#POSITION} and {@link ExecutionListener.Action#SNAPSHOT}.
+ */
+public class NondeterministicTuringMachine extends DefaultTuringMachine {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(NondeterministicTuringMachine.class);
+
+    /**
+     * Value of the type field in JSON description of the machine.
+     */
+    public static final String TYPE = "nondeterministic";
+
+    public static final int DEFAULT_MAX_BRANCHES = 1 << 12;
+
+    /**
+     * Number of steps performed by the branch before yielding to other branches.
+     */
+    public static final int QUANTUM = 1 << 12;
+
+    /**
+     * Time between notifications of execution listener in milliseconds.
+     */
+    public static final long PROGRESS_RATE = 100L;
+
+    private static final ForkJoinPool BRANCHES_POOL = new ForkJoinPool(Runtime.getRuntime().availableProcessors(),
+            ForkJoinPool.defaultForkJoinWorkerThreadFactory, null, true);
+
+    private String type = TYPE;
+    private int maxBranches = DEFAULT_MAX_BRANCHES;
+
+    /**
+     * Performs computations over the tape notifying the listener about progress.
+     * If listener cancels computations, machine stays scheduled and unfinished; computation is restarted on the next run.
+     * Snapshots requested by the listener are not taken, position of the leading branch is passed instead.
+     *
+     * @param quite    ignored: execution trace is not recorded
+     * @param listener Listener of computations (nullable)
+     */
+    @Override
+    public void run(boolean quite, ExecutionListener<DefaultTuringMachine> listener) {
+        setLocked(true);
+        boolean finished = true;
+        try {
+            prepare();
+            finished = explore(NondeterministicProgram.compile(getTransitionSpace(), getStartState(), getAcceptState()), listener);
+            if (finished) {
+                cleanUpTape();
+            }
+        } catch (Exception e) {
+            LOGGER.error(e.getMessage(), e);
+        } finally {
+            if (finished) {
+                complete();
+            } else {
+                setLocked(false);
+            }
+        }
+    }
+
+    /**
+     * Explores branches of computation until one of them reaches accept state.
+     *
+     * @param program  Compiled program
+     * @param listener Listener of computations (nullable)
+     * @return true if accept state is reached, false if computations were cancelled by the listener
+     * @throws InterruptedException If waiting for branches is interrupted
+     */
+    private boolean explore(NondeterministicProgram program, ExecutionListener<DefaultTuringMachine> listener) throws InterruptedException {
+        int state = program.getStateIndex(getCurrentState());
+        if (state == NondeterministicProgram.NONE) {
+            throw new IllegalStateException("There is no valid transition for this phase! (state=" + getCurrentState() + ")");
+        }
+        Exploration exploration = new Exploration(program, maxBranches, new Position(state, getSteps(), getTapeLength()));
+        BRANCHES_POOL.execute(new Branch(exploration, SharedTape.of(getTape(), getCurrentIndex()), getCurrentIndex(), state, getSteps()));
+        try {
+            while (!exploration.finished.await(PROGRESS_RATE, TimeUnit.MILLISECONDS)) {
+                if (listener == null) {
+                    continue;
+                }
+                Position leader = exploration.leader.get();
+                ExecutionListener.Action action = listener.onProgress(leader.steps);
+                if (action == ExecutionListener.Action.CANCEL) {
+                    return false;
+                }
+                if (action != ExecutionListener.Action.CONTINUE) {
+                    listener.onPosition(program.getStateName(leader.state), leader.steps, leader.tapeLength);
+                }
+            }
+        } finally {
+            exploration.stopped = true;
+        }
+        if (exploration.error.get() != null) {
+            throw new IllegalStateException(exploration.error.get().getMessage(), exploration.error.get());
+        }
+        Branch accepted = exploration.accepted.get();
+        if (accepted == null) {
+            throw new IllegalStateException("No branch of computation has reached accept state");
+        }
+        restore(accepted.tape.getTape(), (int) (accepted.position - accepted.tape.getLeft()), program.getStateName(accepted.state));
+        setSteps(accepted.steps);
+        return true;
+    }
+
+    /**
+     * Calculates canonical hash of the program. Nondeterministic program differs from deterministic one
+     * with the same transitions (which takes only the first of conflicting transitions), so the type is hashed too.
+     *
+     * @return Hex-encoded SHA-256 hash of the program
+     */
+    @Override
+    public String getProgramHash() {
+        return sha256(TYPE + '\n' + super.getProgramHash());
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean isStandard() {
+        return false;
+    }
+
+    /**
+     * Adds new transition to the machine. Unlike deterministic machine, transitions for the same state and symbol
+     * are not conflicting: they are choices of nondeterministic computation.
+     *
+     * @param readState     Triggering state
+     * @param readSymbol    Triggering symbol
+     * @param writeState    New state
+     * @param writeSymbol   New symbol
+     * @param moveDirection Direction to move pivot
+     * @return true if transition was added, false if it's already defined
+     */
+    @Override
+    public boolean addTransition(String readState, Character readSymbol, String writeState, Character writeSymbol, Boolean moveDirection) {
+        addState(readState);
+        addState(writeState);
+        if (!getTransitionSpace().add(new Transition(readState, readSymbol, writeState, writeSymbol, moveDirection))) {
+            return false;
+        }
+        setTransitionSpace(getTransitionSpace());
+        return true;
+    }
+
+    /**
+     * Gets type of the machine.
+     *
+     * @return Type of the machine
+     */
+    public String getType() {
+        return type;
+    }
+
+    /**
+     * Gets maximal number of simultaneously explored branches.
+     *
+     * @return Maximal number of branches
+     */
+    public int getMaxBranches() {
+        return maxBranches;
+    }
+
+    /**
+     * Sets maximal number of simultaneously explored branches.
+     *
+     * @param maxBranches Maximal number of branches
+     */
+    public void setMaxBranches(int maxBranches) {
+        this.maxBranches = maxBranches;
+    }
+
+    /**
+     * Position of the branch of computation published at the end of it's quantum.
+     */
+    private static class Position {
+
+        private final int state;
+        private final long steps;
+        private final long tapeLength;
+
+        /**
+         * Constructor accepting all required parameters for building the position.
+         *
+         * @param state      Index of current state
+         * @param steps      Number of steps performed by the branch (since the start of computation)
+         * @param tapeLength Length of the visited part of the tape
+         */
+        Position(int state, long steps, long tapeLength) {
+            this.state = state;
+            this.steps = steps;
+            this.tapeLength = tapeLength;
+        }
+
+    }
+
+    /**
+     * Shared state of the exploration: live branches, the leading, the first accepted branch and the first error.
+     */
+    private static class Exploration {
+
+        private final NondeterministicProgram program;
+        private final int maxBranches;
+        private final CountDownLatch finished = new CountDownLatch(1);
+        private final AtomicInteger branches = new AtomicInteger(1);
+        private final AtomicReference<Branch> accepted = new AtomicReference<>();
+        private final AtomicReference<Throwable> error = new AtomicReference<>();
+        private final AtomicReference<Position> leader;
+        private volatile boolean stopped;
+
+        /**
+         * Constructor accepting all required parameters for building the exploration.
+         *
+         * @param program     Compiled program
+         * @param maxBranches Maximal number of simultaneously explored branches
+         * @param start       Initial position of computation
+         */
+        Exploration(NondeterministicProgram program, int maxBranches, Position start) {
+            this.program = program;
+            this.maxBranches = maxBranches;
+            this.leader = new AtomicReference<>(start);
+        }
+
+        /**
+         * Registers position of the branch: it becomes the leading one if it has performed more steps.
+         *
+         * @param position Position of the branch
+         */
+        void progress(Position position) {
+            Position current = leader.get();
+            while (position.steps > current.steps && !leader.compareAndSet(current, position)) {
+                current = leader.get();
+            }
+        }
+
+        /**
+         * Registers new branch.
+         *
+         * @param branch Branch
+         */
+        void spawn(Branch branch) {
+            if (branches.incrementAndGet() > maxBranches) {
+                throw new IllegalStateException("Number of branches of computation exceeds the limit (maxBranches=" + maxBranches + ")");
+            }
+            branch.fork();
+        }
+
+        /**
+         * Registers branch which has reached accept state: exploration is finished.
+         *
+         * @param branch Branch
+         */
+        void accept(Branch branch) {
+            if (accepted.compareAndSet(null, branch)) {
+                stopped = true;
+                finished.countDown();
+            }
+        }
+
+        /**
+         * Registers branch without valid transition: exploration is finished if it was the last one.
+         */
+        void reject() {
+            if (branches.decrementAndGet() == 0) {
+                finished.countDown();
+            }
+        }
+
+        /**
+         * Registers unexpected error: exploration is finished.
+         *
+         * @param throwable Error
+         */
+        void fail(Throwable throwable) {
+            if (error.compareAndSet(null, throwable)) {
+                stopped = true;
+                finished.countDown();
+            }
+        }
+
+    }
+
+    /**
+     * Branch of computation performing one quantum of steps per task.
+     */
+    private static class Branch extends RecursiveAction {
+
+        private final Exploration exploration;
+        private final SharedTape tape;
+        private long position;
+        private int state;
+        private long steps;
+
+        /**
+         * Constructor accepting all required parameters for building the branch.
+         *
+         * @param exploration Exploration the branch belongs to
+         * @param tape        Tape of the branch
+         * @param position    Position of the head
+         * @param state       Index of current state
+         * @param steps       Number of performed steps
+         */
+        Branch(Exploration exploration, SharedTape tape, long position, int state, long steps) {
+            this.exploration = exploration;
+            this.tape = tape;
+            this.position = position;
+            this.state = state;
+            this.steps = steps;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        protected void compute() {
+            if (exploration.stopped) {
+                return;
+            }
+            NondeterministicProgram program = exploration.program;
+            int acceptState = program.getAcceptState();
+            try {
+                for (int i = 0; i < QUANTUM; i++) {
+                    if (state == acceptState) {
+                        exploration.accept(this);
+                        return;
+                    }
+                    int[] choices = program.find(state, tape.read(position));
+                    if (choices.length == 0) {
+                        exploration.reject();
+                        return;
+                    }
+                    for (int choice = 1; choice < choices.length; choice++) {
+                        Branch branch = new Branch(exploration, tape.fork(), position, state, steps);
+                        branch.apply(choices[choice]);
+                        exploration.spawn(branch);
+                    }
+                    apply(choices[0]);
+                }
+                new Branch(exploration, tape, position, state, steps).fork();
+            } catch (RuntimeException e) {
+                exploration.fail(e);
+            } finally {
+                exploration.progress(new Position(state, steps, tape.getLength()));
+            }
+        }
+
+        /**
+         * Performs the transition.
+         *
+         * @param transition Transition index
+         */
+        private void apply(int transition) {
+            NondeterministicProgram program = exploration.program;
+            int writeSymbol = program.getWriteSymbol(transition);
+            if (writeSymbol != NondeterministicProgram.NONE) {
+                tape.write(position, (char) writeSymbol);
+            }
+            state = program.getWriteState(transition);
+            position += program.getMove(transition);
+            tape.visit(position);
+            steps++;
+        }
+
+    }
+
+}
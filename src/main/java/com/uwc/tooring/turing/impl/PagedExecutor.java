@@ -0,0 +1,151 @@
+package com.uwc.tooring.turing.impl;
+
+import com.uwc.tooring.model.TapeReference;
+import com.uwc.tooring.turing.ExecutionListener;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Engine executing Turing machine which tape is stored as segments (see {@link TapeReference}) over the {@link PagedTape}.
+ * Position of computation is written back to the machine's tape reference on snapshots and on finish.
+ */
+public class PagedExecutor {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(PagedExecutor.class);
+
+    private final DefaultTuringMachine machine;
+    private final SegmentStore store;
+    private final int workingSetSize;
+    private final long generation;
+
+    private PagedTape tape;
+
+    /**
+     * Constructor accepting all required parameters for building the executor.
+     *
+     * @param machine        Machine with paged tape
+     * @param store          Storage of segments
+     * @param workingSetSize Maximal number of segments held locally
+     * @param generation     Unique generation of this computation
+     */
+    public PagedExecutor(DefaultTuringMachine machine, SegmentStore store, int workingSetSize, long generation) {
+        if (machine.getTapeReference() == null) {
+            throw new IllegalArgumentException("Machine tape is not paged");
+        }
+        this.machine = machine;
+        this.store = store;
+        this.workingSetSize = workingSetSize;
+        this.generation = generation;
+    }
+
+    /**
+     * Performs computations over the paged tape notifying the listener about progress.
+     * If listener cancels computations, machine stays scheduled and unfinished.
+     *
+     * @param listener Listener of computations (nullable)
+     */
+    public void run(ExecutionListener<DefaultTuringMachine> listener) {
+        machine.setLocked(true);
+        boolean finished = true;
+        try {
+            machine.prepare();
+            finished = execute(machine.compile(), listener);
+        } catch (Exception e) {
+            LOGGER.error(e.getMessage(), e);
+        } finally {
+            if (finished) {
+                machine.complete();
+            } else {
+                machine.setLocked(false);
+            }
+        }
+    }
+
+    /**
+     * Gets paged tape of the latest computation.
+     *
+     * @return Paged tape
+     */
+    public PagedTape getTape() {
+        return tape;
+    }
+
+    /**
+     * Executes compiled program over the paged tape until accept state is reached.
+     *
+     * @param program  Compiled program
+     * @param listener Listener of computations (nullable)
+     * @return true if accept state is reached, false if computations were cancelled by the listener
+     */
+    private boolean execute(CompiledProgram program, ExecutionListener<DefaultTuringMachine> listener) {
+        TapeReference reference = machine.getTapeReference();
+        tape = new PagedTape(store, reference.getSegmentSize(), workingSetSize, generation, reference.getGenerations());
+        long start = reference.getStart();
+        long end = reference.getEnd();
+        long position = reference.getHead();
+        int state = program.getStateIndex(machine.getCurrentState());
+        int acceptState = program.getAcceptState();
+        long steps = machine.getSteps();
+        long nextProgress = listener == null ? Long.MAX_VALUE : steps + DefaultTuringMachine.PROGRESS_INTERVAL;
+        try {
+            if (state == CompiledProgram.NONE) {
+                throw new IllegalStateException("There is no valid transition for this phase! (state=" + machine.getCurrentState() + ")");
+            }
+            while (state != acceptState) {
+                char symbol = tape.read(position);
+                int transition = program.find(state, symbol);
+                if (transition == CompiledProgram.NONE) {
+                    throw new IllegalStateException("There is no valid transition for this phase! (state=" + program.getStateName(state) + ", symbol=" + symbol + ")");
+                }
+
+                int writeSymbol = program.getWriteSymbol(transition);
+                if (writeSymbol != CompiledProgram.NONE) {
+                    tape.write(position, (char) writeSymbol);
+                }
+                state = program.getWriteState(transition);
+                position += program.getMove(transition);
+
+                if (position < start) {
+                    start = position;
+                } else if (position >= end) {
+                    end = position + 1;
+                }
+
+                if (++steps >= nextProgress) {
+                    nextProgress = steps + DefaultTuringMachine.PROGRESS_INTERVAL;
+                    ExecutionListener.Action action = listener.onProgress(steps);
+                    if (action == ExecutionListener.Action.SNAPSHOT) {
+                        store(program, start, end, position, state, steps);
+                        listener.onSnapshot(machine);
+                    } else if (action == ExecutionListener.Action.POSITION) {
+                        listener.onPosition(program.getStateName(state), steps, end - start);
+                    } else if (action == ExecutionListener.Action.CANCEL) {
+                        return false;
+                    }
+                }
+            }
+            return true;
+        } finally {
+            store(program, start, end, position, state, steps);
+        }
+    }
+
+    /**
+     * Writes dirty segments back and stores position of computation to the machine.
+     *
+     * @param program  Compiled program
+     * @param start    Position of the first visited cell
+     * @param end      Position after the last visited cell
+     * @param position Position of the head
+     * @param state    Index of current state
+     * @param steps    Number of performed steps
+     */
+    private void store(CompiledProgram program, long start, long end, long position, int state, long steps) {
+        machine.setTapeReference(machine.getTapeReference().moveTo(start, end, position, tape.flush()));
+        if (state != CompiledProgram.NONE) {
+            machine.restore(null, null, program.getStateName(state));
+        }
+        machine.setSteps(steps);
+    }
+
+}
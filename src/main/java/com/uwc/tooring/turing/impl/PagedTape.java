@@ -0,0 +1,276 @@
+package com.uwc.tooring.turing.impl;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+
+/**
+ * Tape split into segments kept in the {@link SegmentStore}: only a small working set of segments is held locally.
+ * Working set is evicted in LRU order, dirty segments are written back asynchronously,
+ * and the next segment in the direction of head movement is fetched ahead of time.
+ */
+public class PagedTape {
+
+    private static final int NO_DIRECTION = 0;
+
+    private final SegmentStore store;
+    private final int segmentSize;
+    private final int workingSetSize;
+    private final long generation;
+    private final Map<Long, Long> generations;
+
+    private final LinkedHashMap<Long, Segment> workingSet = new LinkedHashMap<>(16, 0.75f, true);
+    private final LinkedHashMap<Long, Future<char[]>> prefetching = new LinkedHashMap<>();
+    private final LinkedHashMap<Long, PendingWrite> writing = new LinkedHashMap<>();
+
+    private long currentIndex = Long.MIN_VALUE;
+    private Segment current;
+
+    private long faults;
+    private long prefetchHits;
+
+    /**
+     * Constructor accepting all required parameters for building the tape.
+     *
+     * @param store          Storage of segments
+     * @param segmentSize    Number of cells in a segment
+     * @param workingSetSize Maximal number of segments held locally
+     * @param generation     Generation of current computation (used for writing segments)
+     * @param generations    Generations of stored segments by segment index
+     */
+    public PagedTape(SegmentStore store, int segmentSize, int workingSetSize, long generation, Map<Long, Long> generations) {
+        if (workingSetSize < 2) {
+            throw new IllegalArgumentException("Working set should contain at least two segments");
+        }
+        this.store = store;
+        this.segmentSize = segmentSize;
+        this.workingSetSize = workingSetSize;
+        this.generation = generation;
+        this.generations = new HashMap<>(generations);
+    }
+
+    /**
+     * Reads the cell.
+     *
+     * @param position Absolute position of the cell
+     * @return Symbol
+     */
+    public char read(long position) {
+        long index = Math.floorDiv(position, segmentSize);
+        if (index != currentIndex) {
+            switchTo(index);
+        }
+        return current.cells[(int) (position - index * segmentSize)];
+    }
+
+    /**
+     * Writes the cell.
+     *
+     * @param position Absolute position of the cell
+     * @param symbol   Symbol
+     */
+    public void write(long position, char symbol) {
+        long index = Math.floorDiv(position, segmentSize);
+        if (index != currentIndex) {
+            switchTo(index);
+        }
+        current.cells[(int) (position - index * segmentSize)] = symbol;
+        current.dirty = true;
+    }
+
+    /**
+     * Writes all dirty segments back to the store and waits for all pending writes.
+     *
+     * @return Generations of stored segments by segment index
+     */
+    public Map<Long, Long> flush() {
+        for (Map.Entry<Long, Segment> entry : workingSet.entrySet()) {
+            Segment segment = entry.getValue();
+            if (segment.dirty) {
+                writeBack(entry.getKey(), segment.cells.clone());
+                segment.dirty = false;
+            }
+        }
+        for (PendingWrite write : writing.values()) {
+            await(write.future);
+        }
+        writing.clear();
+        return new HashMap<>(generations);
+    }
+
+    /**
+     * Gets number of segments loaded from the store on demand.
+     *
+     * @return Number of faults
+     */
+    public long getFaults() {
+        return faults;
+    }
+
+    /**
+     * Gets number of segments which were fetched ahead of time before being accessed.
+     *
+     * @return Number of prefetch hits
+     */
+    public long getPrefetchHits() {
+        return prefetchHits;
+    }
+
+    /**
+     * Makes the segment current, fetching it if required, and starts fetching the next segment in the direction of movement.
+     *
+     * @param index Segment index
+     */
+    private void switchTo(long index) {
+        int direction = currentIndex == Long.MIN_VALUE ? NO_DIRECTION : Long.signum(index - currentIndex);
+        current = segment(index);
+        currentIndex = index;
+        if (direction != NO_DIRECTION) {
+            prefetch(index + direction);
+        }
+    }
+
+    /**
+     * Gets segment from the working set, loading it if required.
+     *
+     * @param index Segment index
+     * @return Segment
+     */
+    private Segment segment(long index) {
+        Segment segment = workingSet.get(index);
+        if (segment != null) {
+            return segment;
+        }
+        Future<char[]> prefetched = prefetching.remove(index);
+        char[] cells;
+        if (prefetched != null) {
+            cells = await(prefetched);
+            prefetchHits++;
+        } else if (writing.containsKey(index)) {
+            cells = writing.get(index).cells.clone();
+        } else if (generations.containsKey(index)) {
+            cells = await(store.loadAsync(index, generations.get(index)));
+            faults++;
+        } else {
+            cells = new char[segmentSize];
+            Arrays.fill(cells, DefaultTuringMachine.EMPTY);
+        }
+        if (cells == null) {
+            throw new IllegalStateException("Tape segment is lost (segment=" + index + ", generation=" + generations.get(index) + ")");
+        }
+        segment = new Segment(cells);
+        workingSet.put(index, segment);
+        evict();
+        return segment;
+    }
+
+    /**
+     * Starts fetching the segment unless it's local, already being fetched or blank.
+     *
+     * @param index Segment index
+     */
+    private void prefetch(long index) {
+        if (workingSet.containsKey(index) || prefetching.containsKey(index) || writing.containsKey(index) || !generations.containsKey(index)) {
+            return;
+        }
+        prefetching.put(index, store.loadAsync(index, generations.get(index)));
+        if (prefetching.size() > workingSetSize) {
+            Iterator<Future<char[]>> iterator = prefetching.values().iterator();
+            iterator.next();
+            iterator.remove();
+        }
+    }
+
+    /**
+     * Evicts least recently used segments exceeding the working set, writing dirty ones back asynchronously.
+     */
+    private void evict() {
+        Iterator<Map.Entry<Long, Segment>> iterator = workingSet.entrySet().iterator();
+        while (workingSet.size() > workingSetSize && iterator.hasNext()) {
+            Map.Entry<Long, Segment> eldest = iterator.next();
+            iterator.remove();
+            if (eldest.getValue().dirty) {
+                writeBack(eldest.getKey(), eldest.getValue().cells);
+            }
+        }
+    }
+
+    /**
+     * Starts writing the segment to the store. Previous write of the same segment is awaited, so it can't overwrite
+     * the newer one. Completed writes are forgotten, and if there are too many pending writes, the oldest one is awaited,
+     * so writes can't outrun the store.
+     *
+     * @param index Segment index
+     * @param cells Cells of the segment (not modified afterwards)
+     */
+    private void writeBack(long index, char[] cells) {
+        PendingWrite previous = writing.remove(index);
+        if (previous != null) {
+            await(previous.future);
+        }
+        writing.put(index, new PendingWrite(cells, store.storeAsync(index, generation, cells)));
+        generations.put(index, generation);
+        writing.values().removeIf(write -> write.future.isDone());
+        if (writing.size() > workingSetSize) {
+            Iterator<PendingWrite> iterator = writing.values().iterator();
+            await(iterator.next().future);
+            iterator.remove();
+        }
+    }
+
+    private static <T> T await(Future<T> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    /**
+     * Segment being written to the store.
+     */
+    private static class PendingWrite {
+
+        private final char[] cells;
+        private final Future<?> future;
+
+        /**
+         * Constructor accepting all required parameters for building the write.
+         *
+         * @param cells  Cells of the segment
+         * @param future Future completed when segment is stored
+         */
+        PendingWrite(char[] cells, Future<?> future) {
+            this.cells = cells;
+            this.future = future;
+        }
+
+    }
+
+    /**
+     * Segment held in the working set.
+     */
+    private static class Segment {
+
+        private final char[] cells;
+        private boolean dirty;
+
+        /**
+         * Constructor accepting cells of the segment.
+         *
+         * @param cells Cells of the segment
+         */
+        Segment(char[] cells) {
+            this.cells = cells;
+        }
+
+    }
+
+}
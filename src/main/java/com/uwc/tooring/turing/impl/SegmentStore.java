@@ -0,0 +1,29 @@
+package com.uwc.tooring.turing.impl;
+
+import java.util.concurrent.Future;
+
+/**
+ * Storage of tape segments used by {@link PagedTape}.
+ */
+public interface SegmentStore {
+
+    /**
+     * Loads segment asynchronously.
+     *
+     * @param segment    Segment index
+     * @param generation Generation which has written the segment
+     * @return Future cells of the segment (null if segment is lost)
+     */
+    Future<char[]> loadAsync(long segment, long generation);
+
+    /**
+     * Stores segment asynchronously.
+     *
+     * @param segment    Segment index
+     * @param generation Generation writing the segment
+     * @param cells      Cells of the segment
+     * @return Future completed when segment is stored
+     */
+    Future<?> storeAsync(long segment, long generation, char[] cells);
+
+}
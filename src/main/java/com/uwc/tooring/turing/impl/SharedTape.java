@@ -0,0 +1,175 @@
+package com.uwc.tooring.turing.impl;
+
+import java.util.Arrays;
+
+/**
+ * Tape of a branch of nondeterministic computation, split into chunks shared with other branches.
+ * Forking copies only the table of chunks; a shared chunk is copied by the branch which writes to it first
+ * (copy-on-write), so shared chunks are never modified and can be read by branches running in other threads.
+ * Blank chunks are not allocated until they are written.
+ */
+final class SharedTape {
+
+    /**
+     * Number of cells in a chunk is 2 to the power of this value.
+     */
+    static final int CHUNK_SHIFT = 10;
+
+    static final int CHUNK_SIZE = 1 << CHUNK_SHIFT;
+
+    private static final int CHUNK_MASK = CHUNK_SIZE - 1;
+
+    private char[][] chunks;
+    private boolean[] owned;
+    private long firstChunk;
+
+    private long left;
+    private long right;
+
+    private SharedTape(char[][] chunks, boolean[] owned, long firstChunk, long left, long right) {
+        this.chunks = chunks;
+        this.owned = owned;
+        this.firstChunk = firstChunk;
+        this.left = left;
+        this.right = right;
+    }
+
+    /**
+     * Creates tape with the initial content, cell 0 is the first symbol.
+     *
+     * @param tape     Initial content
+     * @param position Initial position of the head
+     * @return Tape
+     */
+    static SharedTape of(String tape, long position) {
+        int chunksCount = Math.max(1, (tape.length() + CHUNK_SIZE - 1) >> CHUNK_SHIFT);
+        char[][] chunks = new char[chunksCount][];
+        boolean[] owned = new boolean[chunksCount];
+        for (int i = 0; i < chunksCount; i++) {
+            int from = i << CHUNK_SHIFT;
+            if (from >= tape.length()) {
+                break;
+            }
+            chunks[i] = blankChunk();
+            tape.getChars(from, Math.min(tape.length(), from + CHUNK_SIZE), chunks[i], 0);
+            owned[i] = true;
+        }
+        SharedTape sharedTape = new SharedTape(chunks, owned, 0, 0, tape.length());
+        sharedTape.visit(position);
+        return sharedTape;
+    }
+
+    /**
+     * Creates the tape for a new branch. Both tapes continue to share all chunks until they are written.
+     *
+     * @return Tape of the new branch
+     */
+    SharedTape fork() {
+        Arrays.fill(owned, false);
+        return new SharedTape(chunks.clone(), new boolean[owned.length], firstChunk, left, right);
+    }
+
+    /**
+     * Reads the cell.
+     *
+     * @param position Position of the cell
+     * @return Symbol
+     */
+    char read(long position) {
+        long chunk = (position >> CHUNK_SHIFT) - firstChunk;
+        if (chunk < 0 || chunk >= chunks.length || chunks[(int) chunk] == null) {
+            return DefaultTuringMachine.EMPTY;
+        }
+        return chunks[(int) chunk][(int) (position & CHUNK_MASK)];
+    }
+
+    /**
+     * Writes the cell, copying it's chunk first if it's shared.
+     *
+     * @param position Position of the cell
+     * @param symbol   Symbol
+     */
+    void write(long position, char symbol) {
+        int chunk = ensureChunk(position >> CHUNK_SHIFT);
+        if (!owned[chunk]) {
+            chunks[chunk] = chunks[chunk] == null ? blankChunk() : chunks[chunk].clone();
+            owned[chunk] = true;
+        }
+        chunks[chunk][(int) (position & CHUNK_MASK)] = symbol;
+    }
+
+    /**
+     * Extends visited part of the tape to the position of the head.
+     *
+     * @param position Position of the head
+     */
+    void visit(long position) {
+        if (position < left) {
+            left = position;
+        } else if (position >= right) {
+            right = position + 1;
+        }
+    }
+
+    /**
+     * Gets start of the visited part of the tape.
+     *
+     * @return Position of the first visited cell
+     */
+    long getLeft() {
+        return left;
+    }
+
+    /**
+     * Gets length of the visited part of the tape.
+     *
+     * @return Number of visited cells
+     */
+    long getLength() {
+        return right - left;
+    }
+
+    /**
+     * Gets visited part of the tape.
+     *
+     * @return Machine tape
+     */
+    String getTape() {
+        StringBuilder tape = new StringBuilder((int) (right - left));
+        for (long position = left; position < right; position++) {
+            tape.append(read(position));
+        }
+        return tape.toString();
+    }
+
+    /**
+     * Makes sure that the chunk is covered by the table of chunks, growing the table if required.
+     *
+     * @param chunk Absolute chunk index
+     * @return Index of the chunk in the table
+     */
+    private int ensureChunk(long chunk) {
+        if (chunk < firstChunk) {
+            int shift = (int) Math.max(firstChunk - chunk, Math.max(1, chunks.length >> 1));
+            char[][] grownChunks = new char[chunks.length + shift][];
+            boolean[] grownOwned = new boolean[chunks.length + shift];
+            System.arraycopy(chunks, 0, grownChunks, shift, chunks.length);
+            System.arraycopy(owned, 0, grownOwned, shift, owned.length);
+            chunks = grownChunks;
+            owned = grownOwned;
+            firstChunk -= shift;
+        } else if (chunk - firstChunk >= chunks.length) {
+            int length = (int) Math.max(chunk - firstChunk + 1, chunks.length + Math.max(1, chunks.length >> 1));
+            chunks = Arrays.copyOf(chunks, length);
+            owned = Arrays.copyOf(owned, length);
+        }
+        return (int) (chunk - firstChunk);
+    }
+
+    private static char[] blankChunk() {
+        char[] chunk = new char[CHUNK_SIZE];
+        Arrays.fill(chunk, DefaultTuringMachine.EMPTY);
+        return chunk;
+    }
+
+}
@@ -0,0 +1,55 @@
+package com.uwc.tooring.turing.impl;
+
+import java.util.Arrays;
+
+/**
+ * Helpers for tape buffers: character arrays with spare blank cells on both sides.
+ */
+final class TapeBuffers {
+
+    /**
+     * Minimal number of cells added to the buffer on growth.
+     */
+    static final int MIN_GROWTH = 64;
+
+    private TapeBuffers() {
+    }
+
+    /**
+     * Calculates number of cells to add to the buffer (buffer grows geometrically).
+     *
+     * @param cells Tape buffer
+     * @return Number of cells to add
+     */
+    static int growth(char[] cells) {
+        return Math.max(MIN_GROWTH, cells.length >> 1);
+    }
+
+    /**
+     * Grows buffer to the left, existing cells get shifted to the right by the specified number of cells.
+     *
+     * @param cells Tape buffer
+     * @param shift Number of blank cells to add
+     * @return New buffer
+     */
+    static char[] growLeft(char[] cells, int shift) {
+        char[] grown = new char[cells.length + shift];
+        Arrays.fill(grown, 0, shift, DefaultTuringMachine.EMPTY);
+        System.arraycopy(cells, 0, grown, shift, cells.length);
+        return grown;
+    }
+
+    /**
+     * Grows buffer to the right.
+     *
+     * @param cells Tape buffer
+     * @return New buffer
+     */
+    static char[] growRight(char[] cells) {
+        int length = cells.length;
+        char[] grown = Arrays.copyOf(cells, length + growth(cells));
+        Arrays.fill(grown, length, grown.length, DefaultTuringMachine.EMPTY);
+        return grown;
+    }
+
+}
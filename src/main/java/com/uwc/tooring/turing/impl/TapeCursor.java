@@ -0,0 +1,81 @@
+package com.uwc.tooring.turing.impl;
+
+/**
+ * Position of computation over the tape buffer: buffer itself, visited part of it, head, state and number of steps.
+ * Computation loops keep these values in local variables and write them back to the cursor on exit.
+ */
+final class TapeCursor {
+
+    char[] cells;
+    int left;
+    int right;
+    int position;
+    int origin;
+    int state;
+    long steps;
+
+    /**
+     * Constructor accepting all required parameters for building the cursor.
+     *
+     * @param tape     Machine tape
+     * @param position Position of the head
+     * @param state    Index of current state
+     * @param steps    Number of performed steps
+     */
+    TapeCursor(String tape, int position, int state, long steps) {
+        this.cells = tape.toCharArray();
+        if (position >= cells.length) {
+            this.cells = TapeBuffers.growRight(cells);
+        }
+        this.left = 0;
+        this.right = Math.max(tape.length(), position + 1);
+        this.position = position;
+        this.origin = 0;
+        this.state = state;
+        this.steps = steps;
+    }
+
+    /**
+     * Moves the head, growing the buffer if required. Computation loops of single-tape machine inline the same logic.
+     *
+     * @param move 1 for "right", -1 for "left", 0 for no movement
+     */
+    void move(int move) {
+        position += move;
+        if (position < left) {
+            if (position < 0) {
+                int shift = TapeBuffers.growth(cells);
+                cells = TapeBuffers.growLeft(cells, shift);
+                position += shift;
+                origin += shift;
+                left += shift;
+                right += shift;
+            }
+            left = position;
+        } else if (position >= right) {
+            if (position >= cells.length) {
+                cells = TapeBuffers.growRight(cells);
+            }
+            right = position + 1;
+        }
+    }
+
+    /**
+     * Gets visited part of the tape.
+     *
+     * @return Machine tape
+     */
+    String getTape() {
+        return new String(cells, left, right - left);
+    }
+
+    /**
+     * Gets position of the head in the visited part of the tape.
+     *
+     * @return Position of the head
+     */
+    int getIndex() {
+        return position - left;
+    }
+
+}
@@ -0,0 +1,58 @@
+package com.uwc.tooring.turing.impl;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Reading of Turing machines from JSON descriptions. Machines of other types than the default one are marked
+ * with the {@link #TYPE_FIELD} field.
+ */
+public final class TuringMachines {
+
+    public static final String TYPE_FIELD = "type";
+
+    private static final Map<String, Class<? extends DefaultTuringMachine>> TYPES = new HashMap<>();
+
+    static {
+        TYPES.put(NondeterministicTuringMachine.TYPE, NondeterministicTuringMachine.class);
+        TYPES.put(MultiTapeTuringMachine.TYPE, MultiTapeTuringMachine.class);
+    }
+
+    private TuringMachines() {
+    }
+
+    /**
+     * Reads Turing machine of the type specified in the description.
+     *
+     * @param gson Gson instance
+     * @param json JSON description of Turing machine
+     * @return Turing machine
+     */
+    public static DefaultTuringMachine fromJson(Gson gson, String json) {
+        return fromJson(gson, gson.fromJson(json, JsonObject.class));
+    }
+
+    /**
+     * Reads Turing machine of the type specified in the description.
+     *
+     * @param gson Gson instance
+     * @param json JSON description of Turing machine
+     * @return Turing machine
+     */
+    public static DefaultTuringMachine fromJson(Gson gson, JsonObject json) {
+        JsonElement type = json.get(TYPE_FIELD);
+        if (type == null || type.isJsonNull()) {
+            return gson.fromJson(json, DefaultTuringMachine.class);
+        }
+        Class<? extends DefaultTuringMachine> machineClass = TYPES.get(type.getAsString());
+        if (machineClass == null) {
+            throw new IllegalArgumentException("Unknown type of Turing machine: " + type.getAsString());
+        }
+        return gson.fromJson(json, machineClass);
+    }
+
+}
@@ -0,0 +1,143 @@
+package com.uwc.tooring.turing.metrics;
+
+/**
+ * Counters of a single computation: hits per transition, time spent on growing the tape and tape extents.
+ * Counters are plain fields and arrays updated from the computation loop, so collecting them doesn't allocate.
+ */
+public class ExecutionMetrics {
+
+    private final long[] transitionHits;
+
+    private long steps;
+    private long nanos;
+    private long growNanos;
+    private long growths;
+    private int leftExtent;
+    private int rightExtent;
+
+    /**
+     * Constructor accepting all required parameters for building the metrics.
+     *
+     * @param transitionsCount Number of transitions of compiled program
+     */
+    public ExecutionMetrics(int transitionsCount) {
+        this.transitionHits = new long[transitionsCount];
+    }
+
+    /**
+     * Counts the step performed by the transition.
+     *
+     * @param transition Transition index
+     */
+    public void hit(int transition) {
+        transitionHits[transition]++;
+    }
+
+    /**
+     * Counts growth of the tape buffer.
+     *
+     * @param nanos Time spent on growth in nanoseconds
+     */
+    public void grown(long nanos) {
+        growNanos += nanos;
+        growths++;
+    }
+
+    /**
+     * Counts finished (or interrupted) run of computations.
+     *
+     * @param steps       Number of steps performed in the run
+     * @param nanos       Wall time of the run in nanoseconds
+     * @param leftExtent  Number of cells visited to the left of the tape
+     * @param rightExtent Number of cells visited to the right of the tape
+     */
+    public void finished(long steps, long nanos, int leftExtent, int rightExtent) {
+        this.steps += steps;
+        this.nanos += nanos;
+        this.leftExtent = Math.max(this.leftExtent, leftExtent);
+        this.rightExtent = Math.max(this.rightExtent, rightExtent);
+    }
+
+    /**
+     * Gets number of hits of the transition.
+     *
+     * @param transition Transition index
+     * @return Number of hits
+     */
+    public long getTransitionHits(int transition) {
+        return transitionHits[transition];
+    }
+
+    /**
+     * Gets number of transitions.
+     *
+     * @return Number of transitions
+     */
+    public int getTransitionsCount() {
+        return transitionHits.length;
+    }
+
+    /**
+     * Gets number of performed steps.
+     *
+     * @return Number of steps
+     */
+    public long getSteps() {
+        return steps;
+    }
+
+    /**
+     * Gets wall time of computations.
+     *
+     * @return Wall time in nanoseconds
+     */
+    public long getNanos() {
+        return nanos;
+    }
+
+    /**
+     * Gets speed of computations.
+     *
+     * @return Steps per second
+     */
+    public double getStepsPerSecond() {
+        return nanos == 0 ? 0 : steps * 1e9 / nanos;
+    }
+
+    /**
+     * Gets time spent on growing the tape.
+     *
+     * @return Time in nanoseconds
+     */
+    public long getGrowNanos() {
+        return growNanos;
+    }
+
+    /**
+     * Gets number of growths of the tape buffer.
+     *
+     * @return Number of growths
+     */
+    public long getGrowths() {
+        return growths;
+    }
+
+    /**
+     * Gets maximal number of cells visited to the left of the tape.
+     *
+     * @return Number of cells
+     */
+    public int getLeftExtent() {
+        return leftExtent;
+    }
+
+    /**
+     * Gets maximal number of cells visited to the right of the tape.
+     *
+     * @return Number of cells
+     */
+    public int getRightExtent() {
+        return rightExtent;
+    }
+
+}
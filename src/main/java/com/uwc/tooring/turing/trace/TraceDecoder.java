@@ -0,0 +1,76 @@
+package com.uwc.tooring.turing.trace;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PrintStream;
+
+/**
+ * Offline decoder of binary trace files written by {@link TraceRecorder}.
+ * Usage: {@code java -cp tooring-0.0.1-SNAPSHOT.jar com.uwc.tooring.turing.trace.TraceDecoder FILENAME}
+ */
+public class TraceDecoder {
+
+    public static void main(String[] args) throws IOException {
+        if (args.length != 1) {
+            System.out.println("Usage: TraceDecoder FILENAME");
+            return;
+        }
+        try (InputStream inputStream = new BufferedInputStream(new FileInputStream(args[0]))) {
+            decode(inputStream, System.out);
+        }
+    }
+
+    /**
+     * Decodes binary trace to human-readable text: one event per line.
+     *
+     * @param inputStream Stream with binary trace
+     * @param output      Stream to print events to
+     * @throws IOException If trace can't be read or has wrong format
+     */
+    public static void decode(InputStream inputStream, PrintStream output) throws IOException {
+        DataInputStream in = new DataInputStream(inputStream);
+        if (in.readInt() != TraceRecorder.MAGIC) {
+            throw new IOException("Not a trace file");
+        }
+        int version = in.readInt();
+        if (version != TraceRecorder.VERSION) {
+            throw new IOException("Unsupported trace version: " + version);
+        }
+        String[] stateNames = new String[in.readInt()];
+        for (int i = 0; i < stateNames.length; i++) {
+            stateNames[i] = in.readUTF();
+        }
+        boolean failed = in.readBoolean();
+        int size = in.readInt();
+        output.println("# step state head read write move");
+        for (int i = 0; i < size; i++) {
+            long step = in.readLong();
+            int state = in.readInt();
+            int head = in.readInt();
+            char read = in.readChar();
+            char write = in.readChar();
+            byte move = in.readByte();
+            output.println(step + " " + stateNames[state] + " " + head + " " + read + " " + write + " " + formatMove(move));
+        }
+        if (failed) {
+            output.println("# computation failed: there is no valid transition for the last event");
+        }
+    }
+
+    private static String formatMove(byte move) {
+        switch (move) {
+            case 1:
+                return "R";
+            case -1:
+                return "L";
+            case 0:
+                return "-";
+            default:
+                return "!";
+        }
+    }
+
+}
@@ -0,0 +1,175 @@
+package com.uwc.tooring.turing.trace;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Recorder of Turing machine execution trace.
+ * Events (step, state, head, read symbol, write symbol, move) are stored in preallocated ring buffer,
+ * so recording doesn't allocate and only the last {@link #getCapacity()} events are kept (window before failure or end).
+ * Events can be sampled: only every 2^k-th step is recorded.
+ */
+public class TraceRecorder {
+
+    /**
+     * Magic number of binary trace file.
+     */
+    public static final int MAGIC = 0x54545243;
+
+    public static final int VERSION = 1;
+
+    public static final int DEFAULT_CAPACITY = 1 << 16;
+
+    /**
+     * Move value of the event which had no valid transition (the last event of failed computation).
+     */
+    public static final byte NO_TRANSITION = 2;
+
+    private final String[] stateNames;
+    private final int capacity;
+    private final int mask;
+    private final long sampleMask;
+
+    private final long[] steps;
+    private final int[] states;
+    private final int[] heads;
+    private final char[] reads;
+    private final char[] writes;
+    private final byte[] moves;
+
+    private long recorded;
+    private boolean failed;
+
+    /**
+     * Constructor accepting all required parameters for building the recorder.
+     *
+     * @param stateNames    Names of states by their indexes
+     * @param capacity      Number of kept events (rounded up to the power of two)
+     * @param samplingShift Every 2^samplingShift-th step is recorded (0 for recording every step)
+     */
+    public TraceRecorder(String[] stateNames, int capacity, int samplingShift) {
+        if (capacity <= 0 || samplingShift < 0 || samplingShift > 62) {
+            throw new IllegalArgumentException("Capacity should be positive and sampling shift should be in range [0, 62]");
+        }
+        this.stateNames = stateNames;
+        this.capacity = Integer.bitCount(capacity) == 1 ? capacity : Integer.highestOneBit(capacity) << 1;
+        this.mask = this.capacity - 1;
+        this.sampleMask = (1L << samplingShift) - 1;
+        this.steps = new long[this.capacity];
+        this.states = new int[this.capacity];
+        this.heads = new int[this.capacity];
+        this.reads = new char[this.capacity];
+        this.writes = new char[this.capacity];
+        this.moves = new byte[this.capacity];
+    }
+
+    /**
+     * Records step of computation (if it's sampled).
+     *
+     * @param step  Number of the step
+     * @param state Index of the state before the step
+     * @param head  Position of the head relatively to the beginning of input tape
+     * @param read  Read symbol
+     * @param write Written symbol
+     * @param move  Movement of the head: 1, -1 or 0
+     */
+    public void record(long step, int state, int head, char read, char write, int move) {
+        if ((step & sampleMask) != 0) {
+            return;
+        }
+        int slot = (int) (recorded++ & mask);
+        steps[slot] = step;
+        states[slot] = state;
+        heads[slot] = head;
+        reads[slot] = read;
+        writes[slot] = write;
+        moves[slot] = (byte) move;
+    }
+
+    /**
+     * Records failure of computation: there's no valid transition for the state and the symbol.
+     * Failure event is always recorded regardless of sampling.
+     *
+     * @param step  Number of the step
+     * @param state Index of the state
+     * @param head  Position of the head relatively to the beginning of input tape
+     * @param read  Read symbol
+     */
+    public void recordFailure(long step, int state, int head, char read) {
+        int slot = (int) (recorded++ & mask);
+        steps[slot] = step;
+        states[slot] = state;
+        heads[slot] = head;
+        reads[slot] = read;
+        writes[slot] = read;
+        moves[slot] = NO_TRANSITION;
+        failed = true;
+    }
+
+    /**
+     * Writes kept events in binary format: header (magic, version, state names), number of events and events in chronological order.
+     *
+     * @param outputStream Stream to write to
+     * @throws IOException If stream can't be written
+     */
+    public void writeTo(OutputStream outputStream) throws IOException {
+        DataOutputStream out = new DataOutputStream(outputStream);
+        out.writeInt(MAGIC);
+        out.writeInt(VERSION);
+        out.writeInt(stateNames.length);
+        for (String stateName : stateNames) {
+            out.writeUTF(stateName);
+        }
+        out.writeBoolean(failed);
+        int size = getSize();
+        out.writeInt(size);
+        for (long i = recorded - size; i < recorded; i++) {
+            int slot = (int) (i & mask);
+            out.writeLong(steps[slot]);
+            out.writeInt(states[slot]);
+            out.writeInt(heads[slot]);
+            out.writeChar(reads[slot]);
+            out.writeChar(writes[slot]);
+            out.writeByte(moves[slot]);
+        }
+        out.flush();
+    }
+
+    /**
+     * Gets number of kept events.
+     *
+     * @return Number of events
+     */
+    public int getSize() {
+        return (int) Math.min(recorded, capacity);
+    }
+
+    /**
+     * Gets total number of recorded events (including overwritten ones).
+     *
+     * @return Number of events
+     */
+    public long getRecorded() {
+        return recorded;
+    }
+
+    /**
+     * Gets capacity of ring buffer.
+     *
+     * @return Capacity
+     */
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * Checks if computation failed.
+     *
+     * @return true if failure was recorded, false otherwise
+     */
+    public boolean isFailed() {
+        return failed;
+    }
+
+}
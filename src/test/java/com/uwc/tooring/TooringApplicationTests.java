@@ -1,10 +1,20 @@
 package com.uwc.tooring;
 
 import com.google.gson.Gson;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
 import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.core.IMap;
 import com.hazelcast.core.ReplicatedMap;
+import com.uwc.tooring.caching.ResultCache;
+import com.uwc.tooring.model.ComputationResult;
+import com.uwc.tooring.model.TaskStatus;
+import com.uwc.tooring.monitoring.TaskProgress;
+import com.uwc.tooring.scheduling.SchedulingPolicy;
+import com.uwc.tooring.scheduling.TaskScheduler;
 import com.uwc.tooring.turing.TuringMachineTests;
 import com.uwc.tooring.turing.impl.DefaultTuringMachine;
+import org.junit.After;
 import org.junit.Assert;
 import org.junit.Test;
 import org.junit.runner.RunWith;
@@ -14,11 +24,19 @@ import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
 import org.springframework.util.CollectionUtils;
 
 import java.math.BigInteger;
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
 
 /**
  * Integration tests for the application.
@@ -27,21 +45,65 @@ import java.util.concurrent.TimeUnit;
 @SpringApplicationConfiguration(classes = TooringApplication.class)
 public class TooringApplicationTests {
 
+    /**
+     * Time limit of working as a worker in milliseconds.
+     */
+    private static final long WORKER_TIMEOUT = 30000;
+
+    /**
+     * Period of checking if the work is done in milliseconds.
+     */
+    private static final long POLL_RATE = 10;
+
+    /**
+     * Submitters of the machines which are only selected by the scheduler, without being submitted.
+     */
+    private static final List<String> FAIR_SHARE_IDS = Arrays.asList("fairShareFirst", "fairShareSecond", "fairShareDrained");
+
     @Autowired
     private HazelcastInstance hazelcastInstance;
 
     @Autowired
     private TuringService turingService;
 
+    @Autowired
+    private ResultCache resultCache;
+
+    @Autowired
+    private TaskProgress taskProgress;
+
+    @Autowired
+    private TaskScheduler taskScheduler;
+
     private Gson gson = new Gson();
 
+    private final List<String> keys = new ArrayList<>();
+
+    /**
+     * Stops working as a worker and removes the machines submitted by the test, even if it failed.
+     *
+     * @throws Exception
+     */
+    @After
+    public void tearDown() throws Exception {
+        turingService.setWorker(false);
+        ReplicatedMap<String, DefaultTuringMachine> tasksMap = hazelcastInstance.getReplicatedMap(TuringService.TASKS_MAP);
+        for (String key : keys) {
+            hazelcastInstance.getLock(key).forceUnlock();
+            tasksMap.remove(key);
+        }
+        keys.clear();
+        IMap<String, Double> deficitsMap = hazelcastInstance.getMap(TaskScheduler.DEFICITS_MAP);
+        FAIR_SHARE_IDS.forEach(deficitsMap::delete);
+    }
+
     /**
      * Common scenario: submits task (JSON-formatted Turing machine), schedules it for execution, starts as worker for specified time, gets the result of computation.
      * Asserts control flags of the Turing machine after each step.
      */
     @Test
     public void testTuringService() {
-        String key = turingService.processInputJSON(TuringMachineTests.TEST_TURING_MACHINE_DESCRIPTION);
+        String key = submit(TuringMachineTests.TEST_TURING_MACHINE_DESCRIPTION);
         ReplicatedMap<String, DefaultTuringMachine> tasksMap = hazelcastInstance.getReplicatedMap(TuringService.TASKS_MAP);
         Assert.assertFalse(CollectionUtils.isEmpty(tasksMap.entrySet()));
         Map.Entry<String, DefaultTuringMachine> turingMachineEntry = tasksMap.entrySet().iterator().next();
@@ -74,6 +136,333 @@ public class TooringApplicationTests {
         Assert.assertNotNull(outputTuringMachine);
     }
 
+    /**
+     * Validates that result of accepted computation is taken from cache for the same input, and that every submission
+     * is counted as a single hit or miss.
+     *
+     * @throws Exception
+     */
+    @Test
+    public void testResultCache() throws Exception {
+        String id = TooringApplicationTests.class.getSimpleName();
+        ReplicatedMap<String, DefaultTuringMachine> tasksMap = hazelcastInstance.getReplicatedMap(TuringService.TASKS_MAP);
+        IMap<String, ComputationResult> resultsMap = hazelcastInstance.getMap(ResultCache.RESULTS_MAP);
+        String json = createDescription("0110#0110");
+        String inputHash = gson.fromJson(json, DefaultTuringMachine.class).getInputHash();
+        long hits = resultCache.getHits();
+        long misses = resultCache.getMisses();
+        try {
+            String computed = submit(json);
+            turingService.scheduleExecution(id, computed);
+            computeOnWorker(id, () -> tasksMap.get(computed).isDone());
+            Assert.assertTrue(tasksMap.get(computed).isDone());
+            Assert.assertTrue(resultsMap.containsKey(inputHash));
+            Assert.assertEquals(hits, resultCache.getHits());
+            Assert.assertEquals(misses + 1, resultCache.getMisses());
+
+            String cached = submit(json);
+            turingService.scheduleExecution(id, cached);
+            DefaultTuringMachine turingMachine = tasksMap.get(cached);
+            Assert.assertTrue(turingMachine.isDone());
+            Assert.assertEquals(tasksMap.get(computed).getTape(), turingMachine.getTape());
+            Assert.assertEquals(hits + 1, resultCache.getHits());
+            Assert.assertEquals(misses + 1, resultCache.getMisses());
+        } finally {
+            resultsMap.delete(inputHash);
+        }
+    }
+
+    /**
+     * Validates that computation which didn't reach accept state is not cached.
+     *
+     * @throws Exception
+     */
+    @Test
+    public void testFailedComputationIsNotCached() throws Exception {
+        String id = TooringApplicationTests.class.getSimpleName();
+        ReplicatedMap<String, DefaultTuringMachine> tasksMap = hazelcastInstance.getReplicatedMap(TuringService.TASKS_MAP);
+        String json = createDescription("012#01");
+
+        String failed = submit(json);
+        turingService.scheduleExecution(id, failed);
+        computeOnWorker(id, () -> tasksMap.get(failed).isDone());
+        DefaultTuringMachine turingMachine = tasksMap.get(failed);
+        Assert.assertTrue(turingMachine.isDone());
+        Assert.assertFalse(turingMachine.isAccepted());
+
+        String retried = submit(json);
+        turingService.scheduleExecution(id, retried);
+        Assert.assertFalse(tasksMap.get(retried).isDone());
+        computeOnWorker(id, () -> tasksMap.get(retried).isDone());
+        Assert.assertTrue(tasksMap.get(retried).isDone());
+    }
+
+    /**
+     * Validates that status of the task reflects submission and scheduling right away.
+     */
+    @Test
+    public void testStatusIsUpToDate() {
+        String id = TooringApplicationTests.class.getSimpleName();
+        ReplicatedMap<String, DefaultTuringMachine> tasksMap = hazelcastInstance.getReplicatedMap(TuringService.TASKS_MAP);
+        String key = submit(createDescription("0101#0101"));
+        Optional<TaskStatus> status = taskProgress.getStatus(key);
+        Assert.assertTrue(status.isPresent());
+        Assert.assertFalse(status.get().isScheduled());
+
+        turingService.scheduleExecution(id, key);
+        status = taskProgress.getStatus(key);
+        Assert.assertTrue(status.isPresent());
+        Assert.assertTrue(status.get().isScheduled() || status.get().isDone());
+    }
+
+    /**
+     * Validates that the next machine is prefetched without the lock and it's locked only when it's claimed.
+     *
+     * @throws Exception
+     */
+    @Test
+    public void testPrefetchWithoutLock() throws Exception {
+        String id = TooringApplicationTests.class.getSimpleName();
+        ReplicatedMap<String, DefaultTuringMachine> tasksMap = hazelcastInstance.getReplicatedMap(TuringService.TASKS_MAP);
+        String key = submit(createDescription("1001#1001"));
+        turingService.scheduleExecution(id, key);
+
+        Optional<TuringService.PrefetchedTask> prefetchedTask = turingService.prefetch(null);
+        Assert.assertTrue(prefetchedTask.isPresent());
+        Assert.assertEquals(key, prefetchedTask.get().getTask().getKey());
+        Assert.assertFalse(hazelcastInstance.getLock(key).isLocked());
+
+        Optional<TuringService.ClaimedTask> claimedTask = turingService.claim(prefetchedTask.get());
+        Assert.assertTrue(claimedTask.isPresent());
+        Assert.assertSame(prefetchedTask.get().getTask().getTuringMachine(), claimedTask.get().getTuringMachine());
+        Assert.assertTrue(hazelcastInstance.getLock(key).isLocked());
+        claimedTask.get().getLock().forceUnlock();
+    }
+
+    /**
+     * Validates that the prefetched machine isn't claimed while other worker holds it's lock, and that the lock is
+     * released if the machine was computed since prefetching.
+     *
+     * @throws Exception
+     */
+    @Test
+    public void testClaimAndRelease() throws Exception {
+        String id = TooringApplicationTests.class.getSimpleName();
+        ReplicatedMap<String, DefaultTuringMachine> tasksMap = hazelcastInstance.getReplicatedMap(TuringService.TASKS_MAP);
+        String key = submit(createDescription("1110#1110"));
+        turingService.scheduleExecution(id, key);
+        Optional<TuringService.PrefetchedTask> prefetchedTask = turingService.prefetch(null);
+        Assert.assertTrue(prefetchedTask.isPresent());
+
+        ExecutorService otherWorker = Executors.newSingleThreadExecutor();
+        try {
+            otherWorker.submit(() -> hazelcastInstance.getLock(key).lock()).get();
+            Assert.assertFalse(turingService.claim(prefetchedTask.get()).isPresent());
+            otherWorker.submit(() -> hazelcastInstance.getLock(key).unlock()).get();
+        } finally {
+            otherWorker.shutdown();
+        }
+
+        JsonObject computed = gson.toJsonTree(tasksMap.get(key)).getAsJsonObject();
+        computed.addProperty("done", true);
+        tasksMap.put(key, gson.fromJson(computed, DefaultTuringMachine.class));
+        Assert.assertFalse(turingService.claim(prefetchedTask.get()).isPresent());
+        Assert.assertFalse(hazelcastInstance.getLock(key).isLocked());
+    }
+
+    /**
+     * Validates that the prefetched machine isn't reused if it was replaced since prefetching,
+     * even if the number of steps is the same.
+     *
+     * @throws Exception
+     */
+    @Test
+    public void testClaimReplacedMachine() throws Exception {
+        String id = TooringApplicationTests.class.getSimpleName();
+        ReplicatedMap<String, DefaultTuringMachine> tasksMap = hazelcastInstance.getReplicatedMap(TuringService.TASKS_MAP);
+        String key = submit(createDescription("1100#1100"));
+        turingService.scheduleExecution(id, key);
+        Optional<TuringService.PrefetchedTask> prefetchedTask = turingService.prefetch(null);
+        Assert.assertTrue(prefetchedTask.isPresent());
+        Assert.assertEquals(key, prefetchedTask.get().getTask().getKey());
+
+        JsonObject replaced = gson.toJsonTree(tasksMap.get(key)).getAsJsonObject();
+        replaced.addProperty(TuringService.TAPE_FIELD, "0011#0011");
+        tasksMap.put(key, gson.fromJson(replaced, DefaultTuringMachine.class));
+        Optional<TuringService.ClaimedTask> claimedTask = turingService.claim(prefetchedTask.get());
+        Assert.assertTrue(claimedTask.isPresent());
+        Assert.assertNotSame(prefetchedTask.get().getTask().getTuringMachine(), claimedTask.get().getTuringMachine());
+        Assert.assertEquals("0011#0011", claimedTask.get().getTuringMachine().getTape());
+    }
+
+    /**
+     * Validates that choosing the next machine doesn't change deficits of submitters, that they are charged
+     * once the choice is dispatched so the next choice goes to the other submitter, and that deficit of
+     * the submitter whose queue is drained is forgotten.
+     *
+     * @throws Exception
+     */
+    @Test
+    public void testDeficitsChargedOnDispatch() throws Exception {
+        SchedulingPolicy schedulingPolicy = taskScheduler.getSchedulingPolicy();
+        taskScheduler.setSchedulingPolicy(SchedulingPolicy.FAIR_SHARE);
+        try {
+            IMap<String, Double> deficitsMap = hazelcastInstance.getMap(TaskScheduler.DEFICITS_MAP);
+            long scheduledAt = System.currentTimeMillis();
+            List<Map.Entry<String, DefaultTuringMachine>> candidates = new ArrayList<>();
+            for (int i = 0; i < 2; i++) {
+                candidates.add(createCandidate(FAIR_SHARE_IDS.get(0), i, scheduledAt));
+                candidates.add(createCandidate(FAIR_SHARE_IDS.get(1), i, scheduledAt));
+            }
+
+            Optional<TaskScheduler.Selection> selection = taskScheduler.select(candidates);
+            Assert.assertTrue(selection.isPresent());
+            Assert.assertEquals(selection.get().getEntry().getKey(), taskScheduler.select(candidates).get().getEntry().getKey());
+            Assert.assertTrue(deficitsMap.getAll(new HashSet<>(FAIR_SHARE_IDS)).isEmpty());
+
+            taskScheduler.dispatched(selection.get());
+            String first = selection.get().getEntry().getValue().getId();
+            String second = FAIR_SHARE_IDS.get(0).equals(first) ? FAIR_SHARE_IDS.get(1) : FAIR_SHARE_IDS.get(0);
+            Assert.assertTrue(deficitsMap.get(second) > deficitsMap.get(first));
+            candidates.remove(selection.get().getEntry());
+            Assert.assertEquals(second, taskScheduler.select(candidates).get().getEntry().getValue().getId());
+
+            String drained = FAIR_SHARE_IDS.get(2);
+            deficitsMap.set(drained, (double) TaskScheduler.QUANTUM);
+            taskScheduler.dispatched(taskScheduler.select(Collections.singletonList(createCandidate(drained, 0, scheduledAt))).get());
+            Assert.assertFalse(deficitsMap.containsKey(drained));
+        } finally {
+            taskScheduler.setSchedulingPolicy(schedulingPolicy);
+        }
+    }
+
+    /**
+     * Validates that the following stage of the pipeline gets the raw output (with empty symbols) of the accepted stage,
+     * and that it isn't fed by the stage which hasn't reached accept state.
+     *
+     * @throws Exception
+     */
+    @Test
+    public void testPipelineFeedsRawOutput() throws Exception {
+        String id = TooringApplicationTests.class.getSimpleName();
+        ReplicatedMap<String, DefaultTuringMachine> tasksMap = hazelcastInstance.getReplicatedMap(TuringService.TASKS_MAP);
+        List<String> accepted = submitPipeline(createPipelineDescription("11"));
+        List<String> rejected = submitPipeline(createPipelineDescription("10"));
+        Assert.assertEquals(2, accepted.size());
+        Assert.assertEquals(2, rejected.size());
+        turingService.scheduleExecution(id, accepted.get(0));
+        turingService.scheduleExecution(id, rejected.get(0));
+        computeOnWorker(id, () -> tasksMap.get(accepted.get(1)).isDone() && tasksMap.get(rejected.get(0)).isDone());
+
+        Assert.assertTrue(tasksMap.get(accepted.get(0)).isAccepted());
+        Assert.assertTrue(tasksMap.get(accepted.get(1)).isAccepted());
+        Assert.assertTrue(tasksMap.get(rejected.get(0)).isDone());
+        Assert.assertFalse(tasksMap.get(rejected.get(0)).isAccepted());
+        Assert.assertTrue(tasksMap.get(rejected.get(1)).isAwaitingInput());
+    }
+
+    /**
+     * Submits the task, which is removed after the test.
+     *
+     * @param json JSON description of Turing machine
+     * @return Key of Turing machine
+     */
+    private String submit(String json) {
+        String key = turingService.processInputJSON(json);
+        keys.add(key);
+        return key;
+    }
+
+    /**
+     * Submits the pipeline, which stages are removed after the test.
+     *
+     * @param json JSON description of the pipeline
+     * @return Keys of the stages
+     */
+    private List<String> submitPipeline(String json) {
+        List<String> stageKeys = turingService.getPipelineKeys(turingService.processInputJSON(json));
+        keys.addAll(stageKeys);
+        return stageKeys;
+    }
+
+    /**
+     * Creates scheduled sample Turing machine, which is only passed to the scheduler without being submitted.
+     *
+     * @param id          User ID
+     * @param index       Index of the machine in the queue of the submitter
+     * @param scheduledAt Time of scheduling
+     * @return Turing machine (with it's key)
+     */
+    private Map.Entry<String, DefaultTuringMachine> createCandidate(String id, int index, long scheduledAt) {
+        JsonObject json = gson.fromJson(TuringMachineTests.TEST_TURING_MACHINE_DESCRIPTION, JsonObject.class);
+        json.addProperty("id", id);
+        json.addProperty("scheduled", true);
+        json.addProperty("scheduledAt", scheduledAt);
+        return new AbstractMap.SimpleEntry<>(id + "." + index, gson.fromJson(json, DefaultTuringMachine.class));
+    }
+
+    /**
+     * Creates JSON description of two-stage pipeline: the first stage blanks the first cell of "11",
+     * the second one accepts only if it reads the empty symbol in the first cell.
+     *
+     * @param tape Input tape
+     * @return JSON description of the pipeline
+     */
+    private String createPipelineDescription(String tape) {
+        DefaultTuringMachine producer = new DefaultTuringMachine();
+        producer.addTransition("S", '1', "T", '_', true);
+        producer.addTransition("T", '1', "F", null, null);
+        producer.setStartState("S");
+        producer.setAcceptState("F");
+        DefaultTuringMachine consumer = new DefaultTuringMachine();
+        consumer.addTransition("S", '_', "F", null, null);
+        consumer.setStartState("S");
+        consumer.setAcceptState("F");
+        JsonArray stages = new JsonArray();
+        stages.add(gson.toJsonTree(producer));
+        stages.add(gson.toJsonTree(consumer));
+        JsonObject description = new JsonObject();
+        description.addProperty(TuringService.TAPE_FIELD, tape);
+        description.add(TuringService.STAGES_FIELD, stages);
+        return gson.toJson(description);
+    }
+
+    /**
+     * Creates JSON description of the sample Turing machine with the specified tape.
+     *
+     * @param tape Input tape
+     * @return JSON description of Turing machine
+     */
+    private String createDescription(String tape) {
+        DefaultTuringMachine turingMachine = gson.fromJson(TuringMachineTests.TEST_TURING_MACHINE_DESCRIPTION, DefaultTuringMachine.class);
+        turingMachine.setTape(tape);
+        return gson.toJson(turingMachine);
+    }
+
+    /**
+     * Works as a worker until the condition is met or the time limit is reached, whichever comes first.
+     * Worker is stopped even if it's started after the condition is met.
+     *
+     * @param id        User ID
+     * @param condition Condition of finishing the work
+     * @throws Exception
+     */
+    private void computeOnWorker(String id, BooleanSupplier condition) throws Exception {
+        ExecutorService worker = Executors.newSingleThreadExecutor();
+        worker.submit(() -> turingService.startAsWorker(id));
+        try {
+            long deadline = System.currentTimeMillis() + WORKER_TIMEOUT;
+            while (!condition.getAsBoolean() && System.currentTimeMillis() < deadline) {
+                Thread.sleep(POLL_RATE);
+            }
+        } finally {
+            worker.shutdown();
+            do {
+                turingService.setWorker(false);
+            } while (!worker.awaitTermination(TuringService.WORKER_RATE, TimeUnit.MILLISECONDS));
+        }
+    }
+
     /**
      * Turns of worker after specified delay for unlocking current thread.
      */
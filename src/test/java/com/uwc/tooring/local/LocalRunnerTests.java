@@ -0,0 +1,109 @@
+package com.uwc.tooring.local;
+
+import com.google.gson.Gson;
+import com.uwc.tooring.turing.TuringMachineTests;
+import com.uwc.tooring.turing.impl.DefaultTuringMachine;
+import com.uwc.tooring.turing.impl.TuringMachines;
+import org.apache.commons.io.FileUtils;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Unit tests for computing of Turing machines from local files.
+ */
+public class LocalRunnerTests {
+
+    private static final String NAME = "machine.json";
+
+    private final Gson gson = new Gson();
+
+    private File directory;
+
+    /**
+     * Creates a temporary directory.
+     *
+     * @throws Exception
+     */
+    @Before
+    public void setUp() throws Exception {
+        directory = Files.createTempDirectory(LocalRunnerTests.class.getSimpleName()).toFile();
+    }
+
+    /**
+     * Deletes the temporary directory.
+     *
+     * @throws Exception
+     */
+    @After
+    public void tearDown() throws Exception {
+        FileUtils.deleteQuietly(directory);
+    }
+
+    /**
+     * Validates that two files with the same name from different directories are computed to distinct outputs
+     * and that accepting is reported by the accept state.
+     *
+     * @throws Exception
+     */
+    @Test
+    public void testRunTwoFiles() throws Exception {
+        File accepted = writeTuringMachine("first", "01#01");
+        File rejected = writeTuringMachine("second", "01#10");
+        File outputDirectory = new File(directory, "output");
+
+        List<LocalRunner.JobReport> reports = new LocalRunner(outputDirectory, 2).run(Arrays.asList(accepted, rejected));
+
+        Assert.assertEquals(2, reports.size());
+        Assert.assertEquals(accepted.getPath(), reports.get(0).getName());
+        Assert.assertTrue(reports.get(0).isAccepted());
+        Assert.assertNull(reports.get(0).getError());
+        Assert.assertEquals(rejected.getPath(), reports.get(1).getName());
+        Assert.assertFalse(reports.get(1).isAccepted());
+        Assert.assertNull(reports.get(1).getError());
+
+        DefaultTuringMachine first = readTuringMachine(new File(outputDirectory, NAME));
+        DefaultTuringMachine second = readTuringMachine(new File(outputDirectory, "2-" + NAME));
+        Assert.assertEquals(first.getAcceptState(), first.getCurrentState());
+        Assert.assertNotEquals(second.getAcceptState(), second.getCurrentState());
+        Assert.assertEquals(2, outputDirectory.list().length);
+    }
+
+    /**
+     * Validates that output names are numbered only for repeated names of input files.
+     *
+     * @throws Exception
+     */
+    @Test
+    public void testOutputNames() throws Exception {
+        List<File> inputFiles = Arrays.asList(new File("a", NAME), new File("b", NAME), new File("2-" + NAME), new File("other.json"));
+        Assert.assertEquals(Arrays.asList(NAME, "2-" + NAME, "2-2-" + NAME, "other.json"), LocalRunner.getOutputNames(inputFiles));
+    }
+
+    /**
+     * Writes the sample Turing machine with the specified tape to the file with the same name in a separate directory.
+     *
+     * @param subdirectory Name of the directory
+     * @param tape         Input tape
+     * @return Written file
+     * @throws Exception
+     */
+    private File writeTuringMachine(String subdirectory, String tape) throws Exception {
+        DefaultTuringMachine turingMachine = TuringMachines.fromJson(gson, TuringMachineTests.TEST_TURING_MACHINE_DESCRIPTION);
+        turingMachine.setTape(tape);
+        File file = new File(new File(directory, subdirectory), NAME);
+        FileUtils.writeStringToFile(file, gson.toJson(turingMachine));
+        return file;
+    }
+
+    private DefaultTuringMachine readTuringMachine(File file) throws Exception {
+        return TuringMachines.fromJson(gson, FileUtils.readFileToString(file));
+    }
+
+}
@@ -0,0 +1,56 @@
+package com.uwc.tooring.model;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Unit tests for histograms.
+ */
+public class HistogramTests {
+
+    /**
+     * Validates that values fall into the first bucket which bound is greater than or equal to them
+     * and that values above the last bound are counted only in total.
+     *
+     * @throws Exception
+     */
+    @Test
+    public void testBuckets() throws Exception {
+        Histogram histogram = new Histogram(new double[]{1, 5, 10});
+        for (double value : new double[]{0, 1, 1.5, 5, 7, 10, 11, 100}) {
+            histogram.observe(value);
+        }
+        Assert.assertEquals(2, histogram.getCumulativeCount(0));
+        Assert.assertEquals(4, histogram.getCumulativeCount(1));
+        Assert.assertEquals(6, histogram.getCumulativeCount(2));
+        Assert.assertEquals(8, histogram.getCount());
+        Assert.assertEquals(135.5, histogram.getSum(), 1e-9);
+    }
+
+    /**
+     * Validates merging and copying of histograms.
+     *
+     * @throws Exception
+     */
+    @Test
+    public void testMergeAndCopy() throws Exception {
+        Histogram first = new Histogram(Histogram.OPERATION_BUCKETS);
+        Histogram second = new Histogram(Histogram.OPERATION_BUCKETS);
+        first.observe(0.002);
+        second.observe(0.002);
+        second.observe(20);
+        Histogram copy = first.copy();
+        first.merge(second);
+        Assert.assertEquals(3, first.getCount());
+        Assert.assertEquals(2, first.getCumulativeCount(1));
+        Assert.assertEquals(2, first.getCumulativeCount(Histogram.OPERATION_BUCKETS.length - 1));
+        Assert.assertEquals(1, copy.getCount());
+        try {
+            first.merge(new Histogram(Histogram.WAIT_BUCKETS));
+            Assert.fail("Histograms with different bounds should not be merged");
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+    }
+
+}
@@ -0,0 +1,48 @@
+package com.uwc.tooring.model;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Unit tests for execution statistics of programs.
+ */
+public class ProgramStatisticsTests {
+
+    /**
+     * Validates that power function of input length is fitted exactly for quadratic and linear programs.
+     *
+     * @throws Exception
+     */
+    @Test
+    public void testPowerFit() throws Exception {
+        ProgramStatistics quadratic = new ProgramStatistics();
+        ProgramStatistics linear = new ProgramStatistics();
+        for (long length = 15; length < 4096; length = length * 2 + 1) {
+            quadratic.add(length, (length + 1) * (length + 1) - 1, 0, length);
+            linear.add(length, 3 * (length + 1) - 1, 0, length);
+        }
+        long length = 100000;
+        Assert.assertEquals((length + 1) * (length + 1) - 1, quadratic.predictSteps(length), 1e-3 * length * length);
+        Assert.assertEquals(3 * (length + 1) - 1, linear.predictSteps(length), 1e-3 * length);
+    }
+
+    /**
+     * Validates predictions made before and after the first computation.
+     *
+     * @throws Exception
+     */
+    @Test
+    public void testFewComputations() throws Exception {
+        ProgramStatistics statistics = new ProgramStatistics();
+        Assert.assertEquals(0, statistics.predictSteps(100), 0);
+        Assert.assertEquals(100, statistics.predictOutputLength(100), 0);
+
+        statistics.add(100, 999, 2000, 201);
+        Assert.assertEquals(999, statistics.predictSteps(100), 1e-6);
+        Assert.assertEquals(999, statistics.predictSteps(1000), 1e-6);
+        Assert.assertEquals(2000.0 / 999, statistics.getNanosPerStep(), 1e-9);
+        Assert.assertEquals(2000, statistics.predictNanos(100), 1e-6);
+        Assert.assertEquals(401, statistics.predictOutputLength(200), 1e-6);
+    }
+
+}
@@ -0,0 +1,56 @@
+package com.uwc.tooring.monitoring;
+
+import com.uwc.tooring.turing.impl.DefaultTuringMachine;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Unit tests for engine metrics.
+ */
+public class EngineMetricsTests {
+
+    /**
+     * Validates that heat maps stay bounded when many different programs are computed, and the hottest entries survive eviction.
+     *
+     * @throws Exception
+     */
+    @Test
+    public void testHeatMapsAreBounded() throws Exception {
+        EngineMetrics engineMetrics = new EngineMetrics();
+        DefaultTuringMachine hot = createMachine("hot", 1000);
+        engineMetrics.attach(hot);
+        hot.run(true);
+        engineMetrics.record(hot);
+        for (int i = 0; i < EngineMetrics.MAX_TRACKED_ENTRIES; i++) {
+            DefaultTuringMachine cold = createMachine("cold" + i, 1);
+            engineMetrics.attach(cold);
+            cold.run(true);
+            engineMetrics.record(cold);
+            Assert.assertTrue(engineMetrics.getTrackedTransitions() <= EngineMetrics.MAX_TRACKED_ENTRIES);
+        }
+        Assert.assertEquals(EngineMetrics.MAX_TRACKED_ENTRIES + 1, engineMetrics.getRuns());
+        Assert.assertTrue(engineMetrics.getHottestTransitions().get(0).endsWith(" = 1000"));
+    }
+
+    /**
+     * Creates machine which moves over the tape of specified length in the state with specified name.
+     *
+     * @param state  Name of the state
+     * @param length Length of the tape
+     * @return Turing machine
+     */
+    private static DefaultTuringMachine createMachine(String state, int length) {
+        DefaultTuringMachine turingMachine = new DefaultTuringMachine();
+        turingMachine.addTransition(state, 'a', state, null, true);
+        turingMachine.addTransition(state, DefaultTuringMachine.EMPTY, "F", null, null);
+        turingMachine.setStartState(state);
+        turingMachine.setAcceptState("F");
+        StringBuilder tape = new StringBuilder();
+        for (int i = 0; i < length; i++) {
+            tape.append('a');
+        }
+        turingMachine.setTape(tape.toString());
+        return turingMachine;
+    }
+
+}
@@ -0,0 +1,53 @@
+package com.uwc.tooring.monitoring;
+
+import com.uwc.tooring.model.Histogram;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Unit tests for writer of metrics in Prometheus text format.
+ */
+public class PrometheusWriterTests {
+
+    /**
+     * Validates escaping of help texts and label values and formatting of sample values.
+     *
+     * @throws Exception
+     */
+    @Test
+    public void testEscapingAndFormatting() throws Exception {
+        PrometheusWriter writer = new PrometheusWriter();
+        writer.type("tooring_tasks", "gauge", "Tasks \\ \"by\" state\nin the cluster");
+        writer.sample("tooring_tasks", 3, "state", "a\"b\\c\nd", "member", "m1");
+        writer.sample("tooring_ratio", 0.5);
+        writer.sample("tooring_ratio", Double.NaN);
+        writer.sample("tooring_ratio", Double.POSITIVE_INFINITY);
+        Assert.assertEquals("# HELP tooring_tasks Tasks \\\\ \"by\" state\\nin the cluster\n"
+                + "# TYPE tooring_tasks gauge\n"
+                + "tooring_tasks{state=\"a\\\"b\\\\c\\nd\",member=\"m1\"} 3\n"
+                + "tooring_ratio 0.5\n"
+                + "tooring_ratio NaN\n"
+                + "tooring_ratio +Inf\n", writer.toString());
+    }
+
+    /**
+     * Validates exposition of histogram: cumulative buckets, "+Inf" bucket, sum and count.
+     *
+     * @throws Exception
+     */
+    @Test
+    public void testHistogram() throws Exception {
+        Histogram histogram = new Histogram(new double[]{1, 2.5});
+        histogram.observe(0.5);
+        histogram.observe(2);
+        histogram.observe(7);
+        PrometheusWriter writer = new PrometheusWriter();
+        writer.histogram("tooring_wait_seconds", histogram, "user", "u1");
+        Assert.assertEquals("tooring_wait_seconds_bucket{user=\"u1\",le=\"1\"} 1\n"
+                + "tooring_wait_seconds_bucket{user=\"u1\",le=\"2.5\"} 2\n"
+                + "tooring_wait_seconds_bucket{user=\"u1\",le=\"+Inf\"} 3\n"
+                + "tooring_wait_seconds_sum{user=\"u1\"} 9.5\n"
+                + "tooring_wait_seconds_count{user=\"u1\"} 3\n", writer.toString());
+    }
+
+}
@@ -0,0 +1,139 @@
+package com.uwc.tooring.scheduling;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonObject;
+import com.uwc.tooring.turing.TuringMachineTests;
+import com.uwc.tooring.turing.impl.DefaultTuringMachine;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Unit tests for scheduling policies.
+ */
+public class TaskSchedulerTests {
+
+    private final Gson gson = new Gson();
+
+    /**
+     * Validates that priority of shortest expected first policy prefers short tasks, high scores and long waiting.
+     *
+     * @throws Exception
+     */
+    @Test
+    public void testShortestExpectedFirstPriority() throws Exception {
+        double priority = TaskScheduler.getPriority(1000, 0, 0);
+        Assert.assertTrue(TaskScheduler.getPriority(100, 0, 0) < priority);
+        Assert.assertTrue(TaskScheduler.getPriority(1000, 0, 10) < priority);
+        Assert.assertTrue(TaskScheduler.getPriority(1000, 0, -10) > priority);
+        Assert.assertEquals(priority / 2, TaskScheduler.getPriority(1000, TaskScheduler.AGING_PERIOD, 0), 1e-9);
+        // long task which waits long enough overtakes short task which was just scheduled
+        Assert.assertTrue(TaskScheduler.getPriority(TaskScheduler.UNKNOWN_COST, 100 * TaskScheduler.AGING_PERIOD, 0) < TaskScheduler.getPriority(1000, 0, 0));
+    }
+
+    /**
+     * Validates conversion of scores to weights.
+     *
+     * @throws Exception
+     */
+    @Test
+    public void testWeight() throws Exception {
+        Assert.assertEquals(1, TaskScheduler.getWeight(0), 0);
+        Assert.assertEquals(4, TaskScheduler.getWeight(3), 0);
+        Assert.assertEquals(0.25, TaskScheduler.getWeight(-3), 0);
+    }
+
+    /**
+     * Validates that fair share dispatches machines of submitters with equal costs in proportion to their weights.
+     *
+     * @throws Exception
+     */
+    @Test
+    public void testFairShareProportionalShares() throws Exception {
+        TaskScheduler.FairShare fairShare = new TaskScheduler.FairShare();
+        int size = 30;
+        fairShare.add("heavy", createQueue("heavy", size, 0), createCosts(size, 1000), TaskScheduler.getRate(1, 0), 0);
+        fairShare.add("light", createQueue("light", size, 0), createCosts(size, 1000), TaskScheduler.getRate(0, 0), 0);
+        int heavy = 0;
+        for (int i = 0; i < size; i++) {
+            if ("heavy".equals(fairShare.next().getValue().getId())) {
+                heavy++;
+            }
+        }
+        Assert.assertEquals(size * 2 / 3, heavy, 1);
+    }
+
+    /**
+     * Validates that waiting increases the rate of the queue, so that long waiting expensive machine overtakes
+     * the cheaper one which was just scheduled.
+     *
+     * @throws Exception
+     */
+    @Test
+    public void testFairShareAging() throws Exception {
+        Assert.assertEquals(2 * TaskScheduler.getRate(0, 0), TaskScheduler.getRate(0, TaskScheduler.AGING_PERIOD), 1e-9);
+
+        TaskScheduler.FairShare fresh = new TaskScheduler.FairShare();
+        fresh.add("cheap", createQueue("cheap", 1, 2), new double[]{1500}, TaskScheduler.getRate(0, 0), 0);
+        fresh.add("expensive", createQueue("expensive", 1, 1), new double[]{3000}, TaskScheduler.getRate(0, 0), 0);
+        Assert.assertEquals("cheap", fresh.next().getValue().getId());
+
+        TaskScheduler.FairShare aged = new TaskScheduler.FairShare();
+        aged.add("cheap", createQueue("cheap", 1, 2), new double[]{1500}, TaskScheduler.getRate(0, 0), 0);
+        aged.add("expensive", createQueue("expensive", 1, 1), new double[]{3000}, TaskScheduler.getRate(0, 3 * TaskScheduler.AGING_PERIOD), 0);
+        Assert.assertEquals("expensive", aged.next().getValue().getId());
+        Assert.assertTrue(aged.isIdle("expensive"));
+        Assert.assertTrue(aged.getCredits().get("cheap") > 0);
+    }
+
+    /**
+     * Validates that the oldest head wins when queues need the same number of rounds, and that the only queue
+     * is dispatched even if it can't be covered in any number of rounds.
+     *
+     * @throws Exception
+     */
+    @Test
+    public void testFairShareTieBreak() throws Exception {
+        TaskScheduler.FairShare fairShare = new TaskScheduler.FairShare();
+        fairShare.add("newer", createQueue("newer", 1, 2), new double[]{1000}, TaskScheduler.getRate(0, 0), 0);
+        fairShare.add("older", createQueue("older", 1, 1), new double[]{1000}, TaskScheduler.getRate(0, 0), 0);
+        Assert.assertEquals("older", fairShare.next().getValue().getId());
+        Assert.assertEquals("newer", fairShare.next().getValue().getId());
+
+        TaskScheduler.FairShare endless = new TaskScheduler.FairShare();
+        endless.add("endless", createQueue("endless", 1, 1), new double[]{Double.MAX_VALUE}, Double.MIN_VALUE, 0);
+        Assert.assertEquals("endless", endless.next().getValue().getId());
+    }
+
+    /**
+     * Creates queue of the sample Turing machines of the submitter scheduled at the same time.
+     *
+     * @param id          User ID
+     * @param size        Number of machines
+     * @param scheduledAt Time of scheduling
+     * @return Turing machines (with their keys) in the order of scheduling
+     */
+    private List<Map.Entry<String, DefaultTuringMachine>> createQueue(String id, int size, long scheduledAt) {
+        List<Map.Entry<String, DefaultTuringMachine>> queue = new ArrayList<>();
+        for (int i = 0; i < size; i++) {
+            JsonObject json = gson.fromJson(TuringMachineTests.TEST_TURING_MACHINE_DESCRIPTION, JsonObject.class);
+            json.addProperty("id", id);
+            json.addProperty("scheduled", true);
+            json.addProperty("scheduledAt", scheduledAt);
+            queue.add(new AbstractMap.SimpleEntry<>(id + "." + i, gson.fromJson(json, DefaultTuringMachine.class)));
+        }
+        return queue;
+    }
+
+    private double[] createCosts(int size, double cost) {
+        double[] costs = new double[size];
+        Arrays.fill(costs, cost);
+        return costs;
+    }
+
+}
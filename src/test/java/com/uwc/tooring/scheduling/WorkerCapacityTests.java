@@ -0,0 +1,97 @@
+package com.uwc.tooring.scheduling;
+
+import com.google.gson.Gson;
+import com.uwc.tooring.model.TapeReference;
+import com.uwc.tooring.storage.PagedTapes;
+import com.uwc.tooring.turing.TuringMachineTests;
+import com.uwc.tooring.turing.impl.DefaultTuringMachine;
+import com.uwc.tooring.turing.impl.TuringMachines;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Unit tests for capacity-aware placement of tasks.
+ */
+public class WorkerCapacityTests {
+
+    private static final long FREE_HEAP = 1000000;
+
+    private static final long NOW = 1000000;
+
+    private final Gson gson = new Gson();
+
+    /**
+     * Validates that footprint grows with tape and program, while paged tape takes only it's working set.
+     *
+     * @throws Exception
+     */
+    @Test
+    public void testEstimateFootprint() throws Exception {
+        DefaultTuringMachine turingMachine = TuringMachines.fromJson(gson, TuringMachineTests.TEST_TURING_MACHINE_DESCRIPTION);
+        long transitionsFootprint = (long) turingMachine.getTransitionSpace().size() * WorkerCapacity.BYTES_PER_TRANSITION;
+        turingMachine.setTape("01#01");
+        Assert.assertEquals(5 * WorkerCapacity.BYTES_PER_TAPE_CELL + transitionsFootprint, WorkerCapacity.estimateFootprint(turingMachine));
+        turingMachine.setTape("0101#0101");
+        Assert.assertEquals(9 * WorkerCapacity.BYTES_PER_TAPE_CELL + transitionsFootprint, WorkerCapacity.estimateFootprint(turingMachine));
+
+        turingMachine.setTapeReference(new TapeReference("paged", PagedTapes.SEGMENT_SIZE, 0, 1L << 40, 0, Collections.emptyMap()));
+        Assert.assertEquals(PagedTapes.getWorkingSetBytes() + transitionsFootprint, WorkerCapacity.estimateFootprint(turingMachine));
+    }
+
+    /**
+     * Validates that small tasks are accepted, tasks not fitting into free heap are rejected
+     * and large tasks are deferred only to idle members having more free heap.
+     *
+     * @throws Exception
+     */
+    @Test
+    public void testDeferAndAccept() throws Exception {
+        long small = (long) (FREE_HEAP * WorkerCapacity.LARGE_TASK_SHARE);
+        long large = (long) (FREE_HEAP * WorkerCapacity.HEAP_USAGE_LIMIT);
+        Map<String, Object> idle = createAttributes(4 * FREE_HEAP, 0, NOW);
+
+        Assert.assertTrue(WorkerCapacity.canTake(small, FREE_HEAP, Collections.singletonList(idle), NOW));
+        Assert.assertFalse(WorkerCapacity.canTake(large + 1, FREE_HEAP, Collections.emptyList(), NOW));
+        Assert.assertTrue(WorkerCapacity.canTake(large, FREE_HEAP, Collections.emptyList(), NOW));
+
+        Assert.assertFalse(WorkerCapacity.canTake(large, FREE_HEAP, Collections.singletonList(idle), NOW));
+        Assert.assertTrue(WorkerCapacity.canTake(large, FREE_HEAP, Collections.singletonList(createAttributes(4 * FREE_HEAP, 1, NOW)), NOW));
+        Assert.assertTrue(WorkerCapacity.canTake(large, FREE_HEAP, Collections.singletonList(createAttributes(FREE_HEAP, 0, NOW)), NOW));
+        Assert.assertFalse(WorkerCapacity.canTake(large, FREE_HEAP, Arrays.asList(createAttributes(FREE_HEAP, 0, NOW), idle), NOW));
+    }
+
+    /**
+     * Validates that large tasks are not deferred to members which stopped advertising their capacity
+     * or never advertised it as a worker.
+     *
+     * @throws Exception
+     */
+    @Test
+    public void testStaleCapacityIsIgnored() throws Exception {
+        long large = (long) (FREE_HEAP * WorkerCapacity.HEAP_USAGE_LIMIT);
+        long recently = NOW - WorkerCapacity.STALENESS_LIMIT;
+        long stale = recently - 1;
+
+        Assert.assertFalse(WorkerCapacity.canTake(large, FREE_HEAP, Collections.singletonList(createAttributes(4 * FREE_HEAP, 0, recently)), NOW));
+        Assert.assertTrue(WorkerCapacity.canTake(large, FREE_HEAP, Collections.singletonList(createAttributes(4 * FREE_HEAP, 0, stale)), NOW));
+
+        Map<String, Object> notAdvertised = createAttributes(4 * FREE_HEAP, 0, NOW);
+        notAdvertised.remove(WorkerCapacity.ADVERTISED_AT_ATTRIBUTE);
+        Assert.assertTrue(WorkerCapacity.canTake(large, FREE_HEAP, Collections.singletonList(notAdvertised), NOW));
+        Assert.assertTrue(WorkerCapacity.canTake(large, FREE_HEAP, Collections.singletonList(new HashMap<>()), NOW));
+    }
+
+    private Map<String, Object> createAttributes(long freeHeap, int activeSlots, long advertisedAt) {
+        Map<String, Object> attributes = new HashMap<>();
+        attributes.put(WorkerCapacity.FREE_HEAP_ATTRIBUTE, freeHeap);
+        attributes.put(WorkerCapacity.ACTIVE_SLOTS_ATTRIBUTE, activeSlots);
+        attributes.put(WorkerCapacity.ADVERTISED_AT_ATTRIBUTE, advertisedAt);
+        return attributes;
+    }
+
+}
@@ -0,0 +1,153 @@
+package com.uwc.tooring.storage;
+
+import com.google.gson.Gson;
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.core.IMap;
+import com.hazelcast.core.ReplicatedMap;
+import com.uwc.tooring.TooringApplication;
+import com.uwc.tooring.TuringService;
+import com.uwc.tooring.turing.TuringMachineTests;
+import com.uwc.tooring.turing.impl.DefaultTuringMachine;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.SpringApplicationConfiguration;
+import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+
+/**
+ * Integration tests for moving tapes between the hot and the cold tier.
+ */
+@RunWith(SpringJUnit4ClassRunner.class)
+@SpringApplicationConfiguration(classes = TooringApplication.class)
+public class ColdTierTests {
+
+    @Autowired
+    private HazelcastInstance hazelcastInstance;
+
+    @Autowired
+    private TuringService turingService;
+
+    @Autowired
+    private ColdTier coldTier;
+
+    private Gson gson = new Gson();
+
+    /**
+     * Validates that the tape of queued machine is moved to the cold tier and back without changes.
+     *
+     * @throws Exception
+     */
+    @Test
+    public void testDemoteAndPromote() throws Exception {
+        ReplicatedMap<String, DefaultTuringMachine> tasksMap = hazelcastInstance.getReplicatedMap(TuringService.TASKS_MAP);
+        IMap<String, byte[]> coldTapesMap = hazelcastInstance.getMap(ColdTier.COLD_TAPES_MAP);
+        String tape = createTape(ColdTier.MIN_COLD_TAPE_LENGTH);
+        String key = submit(tape);
+
+        Assert.assertTrue(coldTier.demote(key));
+        DefaultTuringMachine turingMachine = tasksMap.get(key);
+        Assert.assertTrue(turingMachine.isCold());
+        Assert.assertNull(turingMachine.getTape());
+        Assert.assertEquals(tape.length(), turingMachine.getTapeLength());
+        Assert.assertTrue(coldTapesMap.containsKey(key));
+        Assert.assertFalse(coldTier.demote(key));
+
+        DefaultTuringMachine warmed = copy(turingMachine);
+        Assert.assertTrue(coldTier.warm(key, warmed));
+        Assert.assertEquals(tape, warmed.getTape());
+        Assert.assertFalse(warmed.isCold());
+
+        Assert.assertTrue(coldTier.promote(key));
+        turingMachine = tasksMap.get(key);
+        Assert.assertFalse(turingMachine.isCold());
+        Assert.assertEquals(tape, turingMachine.getTape());
+        Assert.assertFalse(coldTapesMap.containsKey(key));
+        Assert.assertFalse(coldTier.promote(key));
+
+        tasksMap.remove(key);
+    }
+
+    /**
+     * Validates that the lost cold tape is reported and the machine stays cold.
+     *
+     * @throws Exception
+     */
+    @Test
+    public void testLostTape() throws Exception {
+        ReplicatedMap<String, DefaultTuringMachine> tasksMap = hazelcastInstance.getReplicatedMap(TuringService.TASKS_MAP);
+        IMap<String, byte[]> coldTapesMap = hazelcastInstance.getMap(ColdTier.COLD_TAPES_MAP);
+        String key = submit(createTape(ColdTier.MIN_COLD_TAPE_LENGTH));
+
+        Assert.assertTrue(coldTier.demote(key));
+        coldTapesMap.delete(key);
+        Assert.assertFalse(coldTier.warm(key, copy(tasksMap.get(key))));
+        Assert.assertFalse(coldTier.promote(key));
+        Assert.assertTrue(tasksMap.get(key).isCold());
+
+        tasksMap.remove(key);
+    }
+
+    /**
+     * Validates that cold tapes of removed machines are dropped, while tapes of queued machines are kept.
+     *
+     * @throws Exception
+     */
+    @Test
+    public void testDropOrphans() throws Exception {
+        ReplicatedMap<String, DefaultTuringMachine> tasksMap = hazelcastInstance.getReplicatedMap(TuringService.TASKS_MAP);
+        IMap<String, byte[]> coldTapesMap = hazelcastInstance.getMap(ColdTier.COLD_TAPES_MAP);
+        String queued = submit(createTape(ColdTier.MIN_COLD_TAPE_LENGTH));
+        String removed = submit(createTape(ColdTier.MIN_COLD_TAPE_LENGTH));
+        Assert.assertTrue(coldTier.demote(queued));
+        Assert.assertTrue(coldTier.demote(removed));
+
+        tasksMap.remove(removed);
+        coldTier.dropOrphans(tasksMap);
+        Assert.assertTrue(coldTapesMap.containsKey(queued));
+        Assert.assertFalse(coldTapesMap.containsKey(removed));
+
+        tasksMap.remove(queued);
+        coldTier.dropOrphans(tasksMap);
+        Assert.assertFalse(coldTapesMap.containsKey(queued));
+    }
+
+    /**
+     * Submits the sample Turing machine with the specified tape and schedules it for execution.
+     *
+     * @param tape Input tape
+     * @return Key of Turing machine
+     */
+    private String submit(String tape) {
+        DefaultTuringMachine turingMachine = gson.fromJson(TuringMachineTests.TEST_TURING_MACHINE_DESCRIPTION, DefaultTuringMachine.class);
+        turingMachine.setTape(tape);
+        String key = turingService.processInputJSON(gson.toJson(turingMachine));
+        turingService.scheduleExecution(ColdTierTests.class.getSimpleName(), key);
+        return key;
+    }
+
+    /**
+     * Copies Turing machine, so that the value in the tasks map is not changed in place.
+     *
+     * @param turingMachine Turing machine
+     * @return Copy of Turing machine
+     */
+    private DefaultTuringMachine copy(DefaultTuringMachine turingMachine) {
+        return gson.fromJson(gson.toJson(turingMachine), DefaultTuringMachine.class);
+    }
+
+    /**
+     * Creates the tape of the sample Turing machine (two equal binary strings) of at least the specified length.
+     *
+     * @param length Minimal length of the tape
+     * @return Tape
+     */
+    private String createTape(int length) {
+        StringBuilder half = new StringBuilder();
+        while (half.length() * 2 + 1 < length) {
+            half.append(half.length() % 3 == 0 ? '1' : '0');
+        }
+        return half + "#" + half;
+    }
+
+}
@@ -0,0 +1,51 @@
+package com.uwc.tooring.storage;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Random;
+
+/**
+ * Unit tests for compression of tapes.
+ */
+public class TapeCodecTests {
+
+    /**
+     * Validates that tapes with blank runs of any length, marker symbols and other symbols are restored exactly.
+     *
+     * @throws Exception
+     */
+    @Test
+    public void testEncodeAndDecode() throws Exception {
+        Random random = new Random();
+        String symbols = "abc\u044f" + TapeCodec.RUN_MARKER;
+        StringBuilder tape = new StringBuilder();
+        for (int i = 0; i < 1000; i++) {
+            int run = random.nextInt(TapeCodec.MIN_RUN_LENGTH * 4);
+            for (int j = 0; j < run; j++) {
+                tape.append('_');
+            }
+            tape.append(symbols.charAt(random.nextInt(symbols.length())));
+        }
+        Assert.assertEquals("", TapeCodec.decode(TapeCodec.encode("")));
+        Assert.assertEquals(tape.toString(), TapeCodec.decode(TapeCodec.encode(tape.toString())));
+    }
+
+    /**
+     * Validates that long blank runs are compressed.
+     *
+     * @throws Exception
+     */
+    @Test
+    public void testBlankRuns() throws Exception {
+        StringBuilder tape = new StringBuilder("abc");
+        for (int i = 0; i < 1 << 20; i++) {
+            tape.append('_');
+        }
+        tape.append("cba");
+        byte[] encoded = TapeCodec.encode(tape.toString());
+        Assert.assertTrue(encoded.length < 64);
+        Assert.assertEquals(tape.toString(), TapeCodec.decode(encoded));
+    }
+
+}
@@ -0,0 +1,158 @@
+package com.uwc.tooring.storage;
+
+import com.google.gson.Gson;
+import com.uwc.tooring.turing.TuringMachineTests;
+import com.uwc.tooring.turing.impl.DefaultTuringMachine;
+import com.uwc.tooring.turing.impl.TuringMachines;
+import org.apache.commons.io.FileUtils;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Unit tests for persisting of tasks and checkpoints.
+ */
+public class TaskStoreTests {
+
+    private static final String KEY = "task";
+
+    private final Gson gson = new Gson();
+
+    private File directory;
+
+    private TaskStore taskStore;
+
+    private TaskStore.PendingChangesListener tasksListener;
+
+    /**
+     * Creates the store in a temporary directory.
+     *
+     * @throws Exception
+     */
+    @Before
+    public void setUp() throws Exception {
+        directory = Files.createTempDirectory(TaskStoreTests.class.getSimpleName()).toFile();
+        taskStore = new TaskStore(directory.getPath());
+        tasksListener = new TaskStore.PendingChangesListener(taskStore.pendingTasks);
+    }
+
+    /**
+     * Deletes the temporary directory.
+     *
+     * @throws Exception
+     */
+    @After
+    public void tearDown() throws Exception {
+        FileUtils.deleteQuietly(directory);
+    }
+
+    /**
+     * Validates that repeated changes between flushes are coalesced to the latest one and files are replaced
+     * without leftovers.
+     *
+     * @throws Exception
+     */
+    @Test
+    public void testCoalescing() throws Exception {
+        DefaultTuringMachine first = createTuringMachine("0#0");
+        DefaultTuringMachine second = createTuringMachine("01#01");
+        second.setLocked(true);
+        tasksListener.changed(KEY, first);
+        tasksListener.changed(KEY, second);
+        Assert.assertEquals(1, taskStore.pendingTasks.size());
+        taskStore.flush();
+        Assert.assertTrue(taskStore.pendingTasks.isEmpty());
+
+        Assert.assertEquals("01#01", FileUtils.readFileToString(new File(directory, KEY + TaskStore.TAPE_EXTENSION)));
+        DefaultTuringMachine restored = taskStore.readTasks().get(KEY);
+        Assert.assertTrue(restored.isLocked());
+        String[] temporaryFiles = directory.list((dir, name) -> name.endsWith(TaskStore.TEMPORARY_EXTENSION));
+        Assert.assertEquals(0, temporaryFiles.length);
+    }
+
+    /**
+     * Validates that the tape file is rewritten only when the tape changes, while the description is always rewritten.
+     *
+     * @throws Exception
+     */
+    @Test
+    public void testTapeIsWrittenOnlyWhenChanged() throws Exception {
+        DefaultTuringMachine turingMachine = createTuringMachine("0#0");
+        tasksListener.changed(KEY, turingMachine);
+        taskStore.flush();
+        File tapeFile = new File(directory, KEY + TaskStore.TAPE_EXTENSION);
+        File taskFile = new File(directory, KEY + TaskStore.TASK_EXTENSION);
+        Assert.assertTrue(tapeFile.setLastModified(0));
+        Assert.assertTrue(taskFile.setLastModified(0));
+
+        turingMachine.setLocked(true);
+        tasksListener.changed(KEY, turingMachine);
+        taskStore.flush();
+        Assert.assertEquals(0, tapeFile.lastModified());
+        Assert.assertNotEquals(0, taskFile.lastModified());
+
+        turingMachine.setTape("1#1");
+        tasksListener.changed(KEY, turingMachine);
+        taskStore.flush();
+        Assert.assertEquals("1#1", FileUtils.readFileToString(tapeFile));
+    }
+
+    /**
+     * Validates that tasks are restored without their tapes and the tape is loaded separately.
+     *
+     * @throws Exception
+     */
+    @Test
+    public void testRestoreWithoutTapes() throws Exception {
+        tasksListener.changed(KEY, createTuringMachine("01#01"));
+        taskStore.flush();
+
+        Map<String, DefaultTuringMachine> tasks = new TaskStore(directory.getPath()).readTasks();
+        Assert.assertEquals(1, tasks.size());
+        DefaultTuringMachine restored = tasks.get(KEY);
+        Assert.assertTrue(restored.isRestored());
+        Assert.assertNull(restored.getTape());
+
+        Optional<DefaultTuringMachine> loaded = new TaskStore(directory.getPath()).load(KEY);
+        Assert.assertTrue(loaded.isPresent());
+        Assert.assertEquals("01#01", loaded.get().getTape());
+
+        tasksListener.changed(KEY, restored);
+        Assert.assertTrue(taskStore.pendingTasks.isEmpty());
+    }
+
+    /**
+     * Validates that the latest checkpoint is loaded instead of the task and removed tasks are deleted.
+     *
+     * @throws Exception
+     */
+    @Test
+    public void testLoadFromCheckpoint() throws Exception {
+        tasksListener.changed(KEY, createTuringMachine("01#01"));
+        new TaskStore.PendingChangesListener(taskStore.pendingCheckpoints).changed(KEY, createTuringMachine("x1#x1"));
+        taskStore.flush();
+
+        Optional<DefaultTuringMachine> loaded = taskStore.load(KEY);
+        Assert.assertTrue(loaded.isPresent());
+        Assert.assertEquals("x1#x1", loaded.get().getTape());
+
+        taskStore.pendingCheckpoints.put(KEY, Optional.empty());
+        taskStore.pendingTasks.put(KEY, Optional.empty());
+        taskStore.flush();
+        Assert.assertFalse(taskStore.load(KEY).isPresent());
+        Assert.assertEquals(0, directory.list().length);
+    }
+
+    private DefaultTuringMachine createTuringMachine(String tape) {
+        DefaultTuringMachine turingMachine = TuringMachines.fromJson(gson, TuringMachineTests.TEST_TURING_MACHINE_DESCRIPTION);
+        turingMachine.setTape(tape);
+        return turingMachine;
+    }
+
+}
@@ -0,0 +1,161 @@
+package com.uwc.tooring.streaming;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonObject;
+import com.uwc.tooring.model.TapeDiff;
+import com.uwc.tooring.turing.ExecutionListener;
+import com.uwc.tooring.turing.TuringMachineTests;
+import com.uwc.tooring.turing.impl.DefaultTuringMachine;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Unit tests for publishing of tape diffs.
+ */
+public class TapePublisherTests {
+
+    private static final String KEY = "task";
+
+    private final Gson gson = new Gson();
+
+    /**
+     * Validates that nothing is snapshotted or published while computation is not followed,
+     * and that the topic is destroyed at the end.
+     *
+     * @throws Exception
+     */
+    @Test
+    public void testNotFollowed() throws Exception {
+        RecordingStreams tapeStreams = new RecordingStreams();
+        TapePublisher publisher = new TapePublisher(tapeStreams, KEY, 0);
+        Assert.assertEquals(ExecutionListener.Action.CONTINUE, publisher.onProgress(1));
+        publisher.finished(createTuringMachine(createTape(), 0, true));
+        Assert.assertTrue(tapeStreams.diffs.isEmpty());
+        Assert.assertTrue(tapeStreams.destroyed);
+    }
+
+    /**
+     * Validates that diffs contain the window around the head and changed chunks only, and that the view
+     * assembled from them matches the tape.
+     *
+     * @throws Exception
+     */
+    @Test
+    public void testWindowedDiffs() throws Exception {
+        RecordingStreams tapeStreams = new RecordingStreams();
+        tapeStreams.followed = true;
+        TapePublisher publisher = new TapePublisher(tapeStreams, KEY, 0);
+        String tape = createTape();
+        int head = tape.length() / 2;
+        Assert.assertEquals(ExecutionListener.Action.SNAPSHOT, publisher.onProgress(1));
+        publisher.onSnapshot(createTuringMachine(tape, head, false));
+
+        TapeDiff keyframe = tapeStreams.diffs.get(0);
+        Assert.assertTrue(keyframe.isKeyframe());
+        assertWindowed(keyframe, head);
+        TapeView tapeView = new TapeView();
+        Assert.assertTrue(tapeView.apply(keyframe));
+        for (int i = head - TapePublisher.HEAD_WINDOW; i <= head + TapePublisher.HEAD_WINDOW; i++) {
+            Assert.assertEquals(tape.charAt(i), tapeView.get(i));
+        }
+
+        String changed = 'x' + tape.substring(1);
+        publisher.onSnapshot(createTuringMachine(changed, head, false));
+        TapeDiff diff = tapeStreams.diffs.get(1);
+        Assert.assertFalse(diff.isKeyframe());
+        Assert.assertTrue(diff.getChunks().containsKey(0L));
+        Assert.assertEquals(keyframe.getChunks().size() + 1, diff.getChunks().size());
+        Assert.assertTrue(tapeView.apply(diff));
+        Assert.assertEquals('x', tapeView.get(0));
+
+        publisher.finished(createTuringMachine(changed, head, true));
+        TapeDiff last = tapeStreams.diffs.get(2);
+        Assert.assertTrue(last.isKeyframe());
+        Assert.assertTrue(last.isDone());
+        assertWindowed(last, head);
+        Assert.assertFalse(tapeStreams.destroyed);
+    }
+
+    /**
+     * Asserts that diff contains only chunks overlapping the window around the head.
+     *
+     * @param diff Diff of the tape
+     * @param head Position of the head
+     */
+    private void assertWindowed(TapeDiff diff, long head) {
+        Assert.assertFalse(diff.getChunks().isEmpty());
+        for (Long position : diff.getChunks().keySet()) {
+            Assert.assertTrue(position + TapePublisher.CHUNK_SIZE > head - TapePublisher.HEAD_WINDOW);
+            Assert.assertTrue(position <= head + TapePublisher.HEAD_WINDOW);
+        }
+    }
+
+    /**
+     * Creates the tape much longer than the window around the head.
+     *
+     * @return Tape
+     */
+    private String createTape() {
+        StringBuilder tape = new StringBuilder();
+        for (int i = 0; i < TapePublisher.HEAD_WINDOW * 8; i++) {
+            tape.append(i % 3 == 0 ? '1' : '0');
+        }
+        return tape.toString();
+    }
+
+    /**
+     * Creates the sample Turing machine with the specified tape and position of the head.
+     *
+     * @param tape         Tape
+     * @param currentIndex Position of the head
+     * @param done         true if computation is finished
+     * @return Turing machine
+     */
+    private DefaultTuringMachine createTuringMachine(String tape, int currentIndex, boolean done) {
+        JsonObject json = gson.fromJson(TuringMachineTests.TEST_TURING_MACHINE_DESCRIPTION, JsonObject.class);
+        json.addProperty("tape", tape);
+        json.addProperty("currentIndex", currentIndex);
+        json.addProperty("currentState", "q1");
+        json.addProperty("done", done);
+        return gson.fromJson(json, DefaultTuringMachine.class);
+    }
+
+    /**
+     * Streams recording published diffs instead of sending them to the cluster.
+     */
+    private static class RecordingStreams extends TapeStreams {
+
+        private final List<TapeDiff> diffs = new ArrayList<>();
+        private boolean followed;
+        private boolean destroyed;
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        boolean isFollowed(String key) {
+            return followed;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        void publish(String key, TapeDiff diff) {
+            diffs.add(diff);
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        void destroy(String key) {
+            destroyed = true;
+        }
+
+    }
+
+}
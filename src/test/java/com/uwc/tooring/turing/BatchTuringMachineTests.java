@@ -0,0 +1,116 @@
+package com.uwc.tooring.turing;
+
+import com.uwc.tooring.turing.impl.BatchTuringMachine;
+import com.uwc.tooring.turing.impl.DefaultTuringMachine;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Unit tests for batch execution of Turing machines.
+ */
+public class BatchTuringMachineTests {
+
+    private static final int BATCH_SIZE = 16;
+
+    private static final long SEED = 42L;
+
+    /**
+     * Validates that batch execution gives the same results as execution of machines one by one.
+     *
+     * @throws Exception
+     */
+    @Test
+    public void testBatchMatchesSingleExecution() throws Exception {
+        Random random = new Random(SEED);
+        List<DefaultTuringMachine> batch = new ArrayList<>();
+        List<DefaultTuringMachine> singles = new ArrayList<>();
+        for (int i = 0; i < BATCH_SIZE; i++) {
+            StringBuilder tape = new StringBuilder();
+            int length = 1 + random.nextInt(Byte.MAX_VALUE);
+            for (int j = 0; j < length; j++) {
+                tape.append(random.nextBoolean() ? 'a' : random.nextBoolean() ? 'b' : 'c');
+            }
+            DefaultTuringMachine batchMachine = TuringMachineTests.createBubbleSort();
+            batchMachine.setTape(tape.toString());
+            batch.add(batchMachine);
+            DefaultTuringMachine singleMachine = TuringMachineTests.createBubbleSort();
+            singleMachine.setTape(tape.toString());
+            singles.add(singleMachine);
+        }
+
+        new BatchTuringMachine(batch).run();
+
+        for (int i = 0; i < BATCH_SIZE; i++) {
+            DefaultTuringMachine singleMachine = singles.get(i);
+            singleMachine.run(true);
+            DefaultTuringMachine batchMachine = batch.get(i);
+            Assert.assertTrue(batchMachine.isDone());
+            Assert.assertFalse(batchMachine.isLocked());
+            Assert.assertEquals(singleMachine.getTape(), batchMachine.getTape());
+            char[] sorted = batchMachine.getTape().toCharArray();
+            Arrays.sort(sorted);
+            Assert.assertEquals(new String(sorted), batchMachine.getTape());
+        }
+    }
+
+    /**
+     * Validates that halted machine leaves the batch right away, while the machine which doesn't halt leaves it
+     * unfinished and unlocked after exceeding the step limit.
+     *
+     * @throws Exception
+     */
+    @Test
+    public void testStepLimit() throws Exception {
+        DefaultTuringMachine halting = createPingPong("aaa");
+        DefaultTuringMachine looping = createPingPong("b");
+        List<Integer> left = new ArrayList<>();
+        long stepLimit = 1000;
+
+        new BatchTuringMachine(Arrays.asList(looping, halting), stepLimit).run(left::add);
+
+        Assert.assertEquals(Arrays.asList(1, 0), left);
+        Assert.assertTrue(halting.isAccepted());
+        Assert.assertFalse(looping.isDone());
+        Assert.assertFalse(looping.isLocked());
+        Assert.assertTrue(looping.getSteps() >= stepLimit);
+        Assert.assertEquals("b", looping.getTape().substring(0, 1));
+    }
+
+    /**
+     * Creates the machine which halts on the tape of 'a' and moves back and forth forever on the tape starting with 'b'.
+     *
+     * @param tape Input tape
+     * @return Turing machine
+     */
+    private DefaultTuringMachine createPingPong(String tape) {
+        DefaultTuringMachine turingMachine = new DefaultTuringMachine();
+        turingMachine.addTransition("S", 'a', "S", null, true);
+        turingMachine.addTransition("S", '_', "F", null, null);
+        turingMachine.addTransition("S", 'b', "T", null, true);
+        turingMachine.addTransition("T", '_', "U", null, false);
+        turingMachine.addTransition("U", 'b', "T", null, true);
+        turingMachine.setStartState("S");
+        turingMachine.setAcceptState("F");
+        turingMachine.setTape(tape);
+        return turingMachine;
+    }
+
+    /**
+     * Validates that machines of the batch must share the same program.
+     *
+     * @throws Exception
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void testBatchRejectsDifferentPrograms() throws Exception {
+        DefaultTuringMachine bubbleSort = TuringMachineTests.createBubbleSort();
+        DefaultTuringMachine other = TuringMachineTests.createBubbleSort();
+        other.addTransition("F", 'a', "F", null, true);
+        new BatchTuringMachine(Arrays.asList(bubbleSort, other));
+    }
+
+}
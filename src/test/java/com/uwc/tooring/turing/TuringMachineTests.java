@@ -1,12 +1,31 @@
 package com.uwc.tooring.turing;
 
 import com.google.gson.Gson;
+import com.uwc.tooring.model.MultiTapeTransition;
+import com.uwc.tooring.storage.PagedTapes;
+import com.uwc.tooring.model.TapeReference;
 import com.uwc.tooring.turing.impl.DefaultTuringMachine;
+import com.uwc.tooring.turing.impl.MultiTapeProgram;
+import com.uwc.tooring.turing.impl.MultiTapeTuringMachine;
+import com.uwc.tooring.turing.impl.NondeterministicTuringMachine;
+import com.uwc.tooring.turing.impl.PagedExecutor;
+import com.uwc.tooring.turing.impl.SegmentStore;
+import com.uwc.tooring.turing.metrics.ExecutionMetrics;
 import org.junit.Assert;
 import org.junit.Test;
 import org.springframework.util.StringUtils;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Future;
 
 /**
  * Unit tests for Turing machine.
@@ -89,8 +108,101 @@ public class TuringMachineTests {
         Assert.assertFalse(StringUtils.isEmpty(defaultTuringMachine.getTape()));
     }
 
+    /**
+     * Validates that program hash doesn't depend on the order of transitions and that input hash depends on the tape.
+     *
+     * @throws Exception
+     */
     @Test
-    public void testBubbleSort() throws Exception {
+    public void testProgramAndInputHashes() throws Exception {
+        DefaultTuringMachine first = new DefaultTuringMachine();
+        first.addTransition("S", 'a', "S", 'b', true);
+        first.addTransition("S", '_', "F", null, null);
+        first.setStartState("S");
+        first.setAcceptState("F");
+        first.setTape("aaa");
+
+        DefaultTuringMachine second = new DefaultTuringMachine();
+        second.addTransition("S", '_', "F", null, null);
+        second.addTransition("S", 'a', "S", 'b', true);
+        second.setStartState("S");
+        second.setAcceptState("F");
+        second.setTape("aaa");
+
+        Assert.assertEquals(first.getProgramHash(), second.getProgramHash());
+        Assert.assertEquals(first.getInputHash(), second.getInputHash());
+        Assert.assertTrue(first.hasSameProgram(second));
+
+        second.setTape("aab");
+        Assert.assertEquals(first.getProgramHash(), second.getProgramHash());
+        Assert.assertNotEquals(first.getInputHash(), second.getInputHash());
+
+        second.setAcceptState("S");
+        Assert.assertNotEquals(first.getProgramHash(), second.getProgramHash());
+    }
+
+    /**
+     * Validates that pipeline stage keeps the raw output tape with empty symbols, which the following stage reads
+     * as written, while the tape itself is cleaned up. Results of such stages are cached separately.
+     *
+     * @throws Exception
+     */
+    @Test
+    public void testPipelineStageKeepsRawOutput() throws Exception {
+        DefaultTuringMachine producer = new DefaultTuringMachine();
+        producer.addTransition("S", '1', "T", '_', true);
+        producer.addTransition("T", '1', "F", null, null);
+        producer.setStartState("S");
+        producer.setAcceptState("F");
+        producer.setTape("11");
+        String inputHash = producer.getInputHash();
+        producer.setNextKeys(Collections.singletonList("next"));
+        Assert.assertNotEquals(inputHash, producer.getInputHash());
+
+        producer.run(true);
+        Assert.assertTrue(producer.isAccepted());
+        Assert.assertEquals("1", producer.getTape());
+        Assert.assertEquals("_1", producer.getRawOutput());
+
+        DefaultTuringMachine cached = new DefaultTuringMachine();
+        cached.complete(producer.getResult());
+        Assert.assertEquals("_1", cached.getRawOutput());
+
+        DefaultTuringMachine consumer = new DefaultTuringMachine();
+        consumer.addTransition("S", '_', "F", null, null);
+        consumer.setStartState("S");
+        consumer.setAcceptState("F");
+        consumer.setTape(producer.getRawOutput());
+        consumer.run(true);
+        Assert.assertTrue(consumer.isAccepted());
+    }
+
+    /**
+     * Validates that machine which has no valid transition finishes, but is not accepted.
+     *
+     * @throws Exception
+     */
+    @Test
+    public void testFailedMachineIsNotAccepted() throws Exception {
+        DefaultTuringMachine accepted = createBubbleSort();
+        accepted.setTape("cba");
+        accepted.run(true);
+        Assert.assertTrue(accepted.isDone());
+        Assert.assertTrue(accepted.isAccepted());
+
+        DefaultTuringMachine failed = createBubbleSort();
+        failed.setTape("cxa");
+        failed.run(true);
+        Assert.assertTrue(failed.isDone());
+        Assert.assertFalse(failed.isAccepted());
+    }
+
+    /**
+     * Creates Turing machine with Bubble Sort algorithm description (tape is not set).
+     *
+     * @return Bubble Sort Turing machine
+     */
+    public static DefaultTuringMachine createBubbleSort() {
         DefaultTuringMachine bubbleSort = new DefaultTuringMachine();
 
         // R: "Run" (normal)
@@ -163,6 +275,13 @@ public class TuringMachineTests {
         bubbleSort.setStartState("R");
         bubbleSort.setAcceptState("F");
 
+        return bubbleSort;
+    }
+
+    @Test
+    public void testBubbleSort() throws Exception {
+        DefaultTuringMachine bubbleSort = createBubbleSort();
+
         Random random = new Random();
         String tape = "";
         for (int i = 0; i < Byte.MAX_VALUE * MULTIPLIER; i++) {
@@ -174,4 +293,346 @@ public class TuringMachineTests {
         Assert.assertFalse(StringUtils.isEmpty(bubbleSort.getTape()));
     }
 
+    /**
+     * Validates that computation cancelled by the listener can be resumed and gives the same result.
+     *
+     * @throws Exception
+     */
+    @Test
+    public void testCancelAndResume() throws Exception {
+        Random random = new Random();
+        StringBuilder tape = new StringBuilder();
+        for (int i = 0; i < Byte.MAX_VALUE * 2; i++) {
+            tape.append(random.nextBoolean() ? 'a' : 'b');
+        }
+        DefaultTuringMachine uninterrupted = createBubbleSort();
+        uninterrupted.setTape(tape.toString());
+        uninterrupted.run(true);
+
+        DefaultTuringMachine interrupted = createBubbleSort();
+        interrupted.setTape(tape.toString());
+        interrupted.run(true, new ExecutionListener<DefaultTuringMachine>() {
+            @Override
+            public Action onProgress(long steps) {
+                return Action.CANCEL;
+            }
+
+            @Override
+            public void onSnapshot(DefaultTuringMachine turingMachine) {
+            }
+        });
+        Assert.assertFalse(interrupted.isDone());
+        Assert.assertFalse(interrupted.isLocked());
+        Assert.assertEquals(DefaultTuringMachine.PROGRESS_INTERVAL, interrupted.getSteps());
+
+        interrupted.run(true);
+        Assert.assertTrue(interrupted.isDone());
+        Assert.assertEquals(uninterrupted.getSteps(), interrupted.getSteps());
+        Assert.assertEquals(uninterrupted.getTape(), interrupted.getTape());
+    }
+
+    /**
+     * Validates that position is passed without snapshots of the tape, and that listener which requested the position
+     * gets the snapshot instead if another listener requested it.
+     *
+     * @throws Exception
+     */
+    @Test
+    public void testPositionWithoutSnapshot() throws Exception {
+        StringBuilder tape = new StringBuilder();
+        for (int i = 0; i < Byte.MAX_VALUE * 2; i++) {
+            tape.append(i % 3 == 0 ? 'c' : 'a');
+        }
+        List<Long> positions = new ArrayList<>();
+        List<Long> snapshots = new ArrayList<>();
+        ExecutionListener<DefaultTuringMachine> positionListener = new ExecutionListener<DefaultTuringMachine>() {
+            @Override
+            public Action onProgress(long steps) {
+                return Action.POSITION;
+            }
+
+            @Override
+            public void onSnapshot(DefaultTuringMachine turingMachine) {
+                snapshots.add(turingMachine.getSteps());
+            }
+
+            @Override
+            public void onPosition(String currentState, long steps, long tapeLength) {
+                Assert.assertNotNull(currentState);
+                Assert.assertTrue(tapeLength >= tape.length());
+                positions.add(steps);
+            }
+        };
+        DefaultTuringMachine bubbleSort = createBubbleSort();
+        bubbleSort.setTape(tape.toString());
+        bubbleSort.run(true, new CompositeListener<>(Collections.singletonList(positionListener)));
+        Assert.assertTrue(bubbleSort.isDone());
+        Assert.assertFalse(positions.isEmpty());
+        Assert.assertEquals(DefaultTuringMachine.PROGRESS_INTERVAL, (long) positions.get(0));
+        Assert.assertTrue(snapshots.isEmpty());
+
+        positions.clear();
+        bubbleSort = createBubbleSort();
+        bubbleSort.setTape(tape.toString());
+        bubbleSort.run(true, new CompositeListener<>(Arrays.asList(positionListener, new ExecutionListener<DefaultTuringMachine>() {
+            @Override
+            public Action onProgress(long steps) {
+                return Action.SNAPSHOT;
+            }
+
+            @Override
+            public void onSnapshot(DefaultTuringMachine turingMachine) {
+            }
+        })));
+        Assert.assertTrue(bubbleSort.isDone());
+        Assert.assertTrue(positions.isEmpty());
+        Assert.assertFalse(snapshots.isEmpty());
+        Assert.assertEquals(DefaultTuringMachine.PROGRESS_INTERVAL, (long) snapshots.get(0));
+    }
+
+    /**
+     * Validates that collected metrics account for every performed step.
+     *
+     * @throws Exception
+     */
+    @Test
+    public void testExecutionMetrics() throws Exception {
+        DefaultTuringMachine bubbleSort = createBubbleSort();
+        bubbleSort.setTape("cbacbacba");
+        ExecutionMetrics metrics = new ExecutionMetrics(bubbleSort.getTransitionSpace().size());
+        bubbleSort.setMetrics(metrics);
+        bubbleSort.run(true);
+        Assert.assertTrue(bubbleSort.isDone());
+        Assert.assertEquals("aaabbbccc", bubbleSort.getTape());
+        Assert.assertEquals(bubbleSort.getSteps(), metrics.getSteps());
+        long hits = 0;
+        for (int i = 0; i < metrics.getTransitionsCount(); i++) {
+            hits += metrics.getTransitionHits(i);
+        }
+        Assert.assertEquals(metrics.getSteps(), hits);
+    }
+
+    /**
+     * Validates that computation over the paged tape (with cancelling and resuming under the new generation)
+     * gives the same result as computation over the in-memory tape.
+     *
+     * @throws Exception
+     */
+    @Test
+    public void testPagedTape() throws Exception {
+        Random random = new Random();
+        StringBuilder tape = new StringBuilder();
+        for (int i = 0; i < Byte.MAX_VALUE * 2; i++) {
+            tape.append(random.nextBoolean() ? 'a' : 'b');
+        }
+        DefaultTuringMachine inMemory = createBubbleSort();
+        inMemory.setTape(tape.toString());
+        inMemory.run(true);
+
+        int segmentSize = 16;
+        Map<String, char[]> segments = new HashMap<>();
+        Map<Long, Long> generations = new HashMap<>();
+        for (long segment = 0; segment * segmentSize < tape.length(); segment++) {
+            char[] cells = new char[segmentSize];
+            Arrays.fill(cells, DefaultTuringMachine.EMPTY);
+            tape.getChars((int) segment * segmentSize, (int) Math.min(tape.length(), (segment + 1) * segmentSize), cells, 0);
+            segments.put(segment + ":" + 0, cells);
+            generations.put(segment, 0L);
+        }
+        SegmentStore store = new SegmentStore() {
+            @Override
+            public Future<char[]> loadAsync(long segment, long generation) {
+                return CompletableFuture.completedFuture(segments.get(segment + ":" + generation));
+            }
+
+            @Override
+            public Future<?> storeAsync(long segment, long generation, char[] cells) {
+                segments.put(segment + ":" + generation, cells);
+                return CompletableFuture.completedFuture(null);
+            }
+        };
+        DefaultTuringMachine paged = createBubbleSort();
+        paged.setTapeReference(new TapeReference("paged", segmentSize, 0, tape.length(), 0, generations));
+        new PagedExecutor(paged, store, 2, 1).run(new ExecutionListener<DefaultTuringMachine>() {
+            @Override
+            public Action onProgress(long steps) {
+                return Action.CANCEL;
+            }
+
+            @Override
+            public void onSnapshot(DefaultTuringMachine turingMachine) {
+            }
+        });
+        Assert.assertFalse(paged.isDone());
+        new PagedExecutor(paged, store, 2, 2).run(null);
+        Assert.assertTrue(paged.isDone());
+        Assert.assertEquals(inMemory.getSteps(), paged.getSteps());
+
+        TapeReference reference = paged.getTapeReference();
+        Assert.assertEquals(inMemory.getTape(), PagedTapes.read(reference, store));
+
+        long lastSegment = Math.floorDiv(reference.getEnd() - 1, (long) segmentSize);
+        segments.remove(lastSegment + ":" + reference.getGenerations().get(lastSegment));
+        try {
+            PagedTapes.read(reference, store);
+            Assert.fail("Lost segment should not be read as blank");
+        } catch (IllegalStateException e) {
+            Assert.assertTrue(e.getMessage().startsWith("Tape segment is lost"));
+        }
+    }
+
+    /**
+     * Validates that nondeterministic machine finds the only accepting branch and that writes of other branches
+     * don't leak to it's tape.
+     *
+     * @throws Exception
+     */
+    @Test
+    public void testNondeterministicMachine() throws Exception {
+        NondeterministicTuringMachine guess = new NondeterministicTuringMachine();
+        guess.addTransition("S", 'a', "S", null, true);
+        guess.addTransition("S", 'a', "G", 'x', true);
+        guess.addTransition("G", 'b', "F", 'y', null);
+        guess.setStartState("S");
+        guess.setAcceptState("F");
+
+        String prefix = String.join("", Collections.nCopies(3000, "a"));
+        String suffix = String.join("", Collections.nCopies(1000, "a"));
+        guess.setTape(prefix + "b" + suffix);
+        guess.run(true);
+        Assert.assertTrue(guess.isDone());
+        Assert.assertEquals(prefix.length() + 1, guess.getSteps());
+        Assert.assertEquals(prefix.substring(1) + "xy" + suffix, guess.getTape());
+    }
+
+    /**
+     * Validates that listeners of nondeterministic machine get position of the leading branch instead of snapshots.
+     *
+     * @throws Exception
+     */
+    @Test
+    public void testNondeterministicPosition() throws Exception {
+        NondeterministicTuringMachine sweep = new NondeterministicTuringMachine();
+        // R: go "Right" to the first 'a' and mark it, L: go "Left" back to the start
+        sweep.addTransition("R", '#', "R", null, true);
+        sweep.addTransition("R", 'b', "R", null, true);
+        sweep.addTransition("R", 'a', "L", 'b', false);
+        sweep.addTransition("L", 'b', "L", null, false);
+        sweep.addTransition("L", '#', "R", null, true);
+        sweep.addTransition("R", '$', "F", null, null);
+        sweep.addTransition("R", '$', "X", null, null);
+        sweep.setStartState("R");
+        sweep.setAcceptState("F");
+        sweep.setTape("#" + String.join("", Collections.nCopies(10000, "a")) + "$");
+
+        List<Long> positions = new ArrayList<>();
+        List<Long> snapshots = new ArrayList<>();
+        sweep.run(true, new ExecutionListener<DefaultTuringMachine>() {
+            @Override
+            public Action onProgress(long steps) {
+                return Action.SNAPSHOT;
+            }
+
+            @Override
+            public void onSnapshot(DefaultTuringMachine turingMachine) {
+                snapshots.add(turingMachine.getSteps());
+            }
+
+            @Override
+            public void onPosition(String currentState, long steps, long tapeLength) {
+                Assert.assertTrue("R".equals(currentState) || "L".equals(currentState));
+                Assert.assertEquals(10002, tapeLength);
+                positions.add(steps);
+            }
+        });
+        Assert.assertTrue(sweep.isDone());
+        Assert.assertTrue(snapshots.isEmpty());
+        Assert.assertFalse(positions.isEmpty());
+        for (int i = 0; i < positions.size(); i++) {
+            Assert.assertTrue(positions.get(i) <= sweep.getSteps());
+            Assert.assertTrue(i == 0 || positions.get(i) >= positions.get(i - 1));
+        }
+    }
+
+    /**
+     * Validates that every transition of multi-tape program is found by it's state and symbols, the first of
+     * conflicting transitions wins, and missing ones are not found.
+     *
+     * @throws Exception
+     */
+    @Test
+    public void testMultiTapeProgramLookup() throws Exception {
+        Random random = new Random();
+        Set<MultiTapeTransition> transitionSpace = new LinkedHashSet<>();
+        Map<String, String> expected = new HashMap<>();
+        for (int i = 0; i < 1000; i++) {
+            String readState = "q" + random.nextInt(20);
+            Character[] readSymbols = {(char) ('a' + random.nextInt(10)), (char) ('a' + random.nextInt(10)), (char) random.nextInt(Character.MAX_VALUE)};
+            String writeState = "q" + i;
+            transitionSpace.add(new MultiTapeTransition(readState, readSymbols, writeState, null, null));
+            expected.putIfAbsent(readState + Arrays.toString(readSymbols), writeState);
+        }
+        MultiTapeProgram program = MultiTapeProgram.compile(transitionSpace, "q0", "q1", 3);
+        for (MultiTapeTransition transition : transitionSpace) {
+            long symbols = 0;
+            for (Character symbol : transition.getReadSymbols()) {
+                symbols = MultiTapeProgram.pack(symbols, symbol);
+            }
+            int found = program.find(program.getStateIndex(transition.getReadState()), symbols);
+            Assert.assertNotEquals(MultiTapeProgram.NONE, found);
+            Assert.assertEquals(expected.get(transition.getReadState() + Arrays.toString(transition.getReadSymbols())),
+                    program.getStateName(program.getWriteState(found)));
+        }
+        long missing = MultiTapeProgram.pack(MultiTapeProgram.pack(MultiTapeProgram.pack(0, 'z'), 'z'), 'z');
+        Assert.assertEquals(MultiTapeProgram.NONE, program.find(program.getStateIndex("q0"), missing));
+        Assert.assertEquals(MultiTapeProgram.NONE, program.find(MultiTapeProgram.NONE, missing));
+    }
+
+    /**
+     * Validates that two-tape machine reverses the word in linear number of steps and that it can be cancelled
+     * and resumed with all tapes and heads restored.
+     *
+     * @throws Exception
+     */
+    @Test
+    public void testMultiTapeMachine() throws Exception {
+        Random random = new Random();
+        StringBuilder word = new StringBuilder();
+        for (int i = 0; i < DefaultTuringMachine.PROGRESS_INTERVAL; i++) {
+            word.append(random.nextBoolean() ? 'a' : 'b');
+        }
+        Character blank = DefaultTuringMachine.EMPTY;
+        MultiTapeTuringMachine reverse = new MultiTapeTuringMachine();
+        for (Character symbol : new Character[]{'a', 'b'}) {
+            // C: "Copy" the word to tape 1, erasing it on tape 0
+            reverse.addTransition("C", new Character[]{symbol, blank}, "C", new Character[]{blank, symbol}, new Boolean[]{true, true});
+            // W: "Write" tape 1 backwards to tape 0
+            reverse.addTransition("W", new Character[]{blank, symbol}, "W", new Character[]{symbol, null}, new Boolean[]{true, false});
+        }
+        reverse.addTransition("C", new Character[]{blank, blank}, "W", new Character[]{null, null}, new Boolean[]{null, false});
+        reverse.addTransition("W", new Character[]{blank, blank}, "F", new Character[]{null, null}, new Boolean[]{null, null});
+        reverse.setStartState("C");
+        reverse.setAcceptState("F");
+        reverse.setTape(word.toString());
+
+        reverse.run(true, new ExecutionListener<DefaultTuringMachine>() {
+            @Override
+            public Action onProgress(long steps) {
+                return Action.CANCEL;
+            }
+
+            @Override
+            public void onSnapshot(DefaultTuringMachine turingMachine) {
+            }
+        });
+        Assert.assertFalse(reverse.isDone());
+        Assert.assertEquals(DefaultTuringMachine.PROGRESS_INTERVAL, reverse.getSteps());
+
+        reverse.run(true);
+        Assert.assertTrue(reverse.isDone());
+        Assert.assertEquals(2 * word.length() + 2, reverse.getSteps());
+        Assert.assertEquals(word.toString(), reverse.getWorkTapes().get(0));
+        Assert.assertEquals(word.reverse().toString(), reverse.getTape());
+    }
+
 }
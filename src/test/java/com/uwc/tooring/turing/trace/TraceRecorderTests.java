@@ -0,0 +1,72 @@
+package com.uwc.tooring.turing.trace;
+
+import com.uwc.tooring.turing.TuringMachineTests;
+import com.uwc.tooring.turing.impl.DefaultTuringMachine;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+
+/**
+ * Unit tests for execution trace recording.
+ */
+public class TraceRecorderTests {
+
+    private static final int CAPACITY = 128;
+
+    /**
+     * Validates that ring buffer keeps the last events and trace can be decoded.
+     *
+     * @throws Exception
+     */
+    @Test
+    public void testRecordAndDecode() throws Exception {
+        DefaultTuringMachine bubbleSort = TuringMachineTests.createBubbleSort();
+        bubbleSort.setTape("bacbacbac");
+        bubbleSort.setTrace(new TraceRecorder(bubbleSort.compile().getStateNames(), CAPACITY, 0));
+        bubbleSort.run(false);
+        Assert.assertTrue(bubbleSort.isDone());
+
+        TraceRecorder trace = bubbleSort.getTrace();
+        Assert.assertEquals(bubbleSort.getSteps(), trace.getRecorded());
+        Assert.assertEquals(CAPACITY, trace.getSize());
+        Assert.assertFalse(trace.isFailed());
+
+        String decoded = decode(trace);
+        Assert.assertEquals(CAPACITY + 1, decoded.split("\n").length);
+        Assert.assertTrue(decoded.contains((bubbleSort.getSteps() - 1) + " CL "));
+    }
+
+    /**
+     * Validates sampling of events and recording of failure.
+     *
+     * @throws Exception
+     */
+    @Test
+    public void testSamplingAndFailure() throws Exception {
+        DefaultTuringMachine bubbleSort = TuringMachineTests.createBubbleSort();
+        bubbleSort.setTape("bacbaxbac");
+        bubbleSort.setTrace(new TraceRecorder(bubbleSort.compile().getStateNames(), CAPACITY, 2));
+        bubbleSort.run(false);
+        Assert.assertTrue(bubbleSort.isDone());
+
+        TraceRecorder trace = bubbleSort.getTrace();
+        Assert.assertTrue(trace.isFailed());
+        Assert.assertEquals((bubbleSort.getSteps() + 3) / 4 + 1, trace.getRecorded());
+
+        String decoded = decode(trace);
+        Assert.assertTrue(decoded.contains(" x x !"));
+        Assert.assertTrue(decoded.contains("computation failed"));
+    }
+
+    private static String decode(TraceRecorder trace) throws Exception {
+        ByteArrayOutputStream binary = new ByteArrayOutputStream();
+        trace.writeTo(binary);
+        ByteArrayOutputStream text = new ByteArrayOutputStream();
+        TraceDecoder.decode(new ByteArrayInputStream(binary.toByteArray()), new PrintStream(text, true, "UTF-8"));
+        return text.toString("UTF-8");
+    }
+
+}